@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.benchmarks;
+
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.service.domain.verification.ArtifactIndex;
+import com.rabobank.argos.service.domain.verification.ArtifactMatcher;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures matching the uris of a link against a glob pattern, directly and through the
+ * artifact index the rules use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtifactMatcherBenchmark {
+
+    @Param({
+            "target/classes/com/example/package1/Artifact1.class",
+            "**.class",
+            "target/**",
+            "*.jar",
+            "target/classes/com/example/package1/*",
+            "target/**/Artifact1*.class",
+            "target/classes/[co]*/**"})
+    String pattern;
+
+    @Param({"100", "1000"})
+    int artifacts;
+
+    private List<String> uris;
+
+    private ArtifactIndex artifactIndex;
+
+    @Setup
+    public void setup() {
+        uris = new ArrayList<>(artifacts);
+        List<Artifact> artifactList = new ArrayList<>(artifacts);
+        for (int artifact = 0; artifact < artifacts; artifact++) {
+            String uri = artifact % 10 == 0
+                    ? "artifact" + artifact + ".jar"
+                    : "target/classes/com/example/package" + (artifact % 10) + "/Artifact" + artifact + ".class";
+            uris.add(uri);
+            artifactList.add(new Artifact(uri, DigestUtils.sha256Hex(uri)));
+        }
+        artifactIndex = ArtifactIndex.of(artifactList);
+    }
+
+    @Benchmark
+    public int matches() {
+        int matches = 0;
+        for (String uri : uris) {
+            if (ArtifactMatcher.matches(uri, pattern)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public BitSet filterArtifactIndex() {
+        return artifactIndex.filter(artifactIndex.all(), pattern, null);
+    }
+}
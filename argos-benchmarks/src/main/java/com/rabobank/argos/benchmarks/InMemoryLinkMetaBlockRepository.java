@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.benchmarks;
+
+import com.rabobank.argos.domain.layout.ArtifactType;
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockHeader;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Keeps the link meta blocks in a list so the verification is measured without a database,
+ * the queries scan all link meta blocks.
+ */
+public class InMemoryLinkMetaBlockRepository implements LinkMetaBlockRepository {
+
+    private final List<LinkMetaBlock> linkMetaBlocks = new ArrayList<>();
+
+    @Override
+    public List<LinkMetaBlock> findBySupplyChainId(String supplyChainId) {
+        return find(supplyChainId, linkMetaBlock -> true);
+    }
+
+    @Override
+    public List<LinkMetaBlock> findBySupplyChainAndSha(String supplyChainId, String hash) {
+        return find(supplyChainId, linkMetaBlock -> containsHash(linkMetaBlock.getLink().getMaterials(), hash)
+                || containsHash(linkMetaBlock.getLink().getProducts(), hash));
+    }
+
+    @Override
+    public void save(LinkMetaBlock link) {
+        linkMetaBlocks.add(link);
+    }
+
+    @Override
+    public void saveAll(List<LinkMetaBlock> links) {
+        linkMetaBlocks.addAll(links);
+    }
+
+    @Override
+    public List<LinkMetaBlock> findBySupplyChainAndSegmentNameAndStepNameAndProductHashes(String supplyChainId, String segmentName, String stepName, List<String> hashes) {
+        return find(supplyChainId, inStep(segmentName, stepName)
+                .and(linkMetaBlock -> hashes.stream().allMatch(hash -> containsHash(linkMetaBlock.getLink().getProducts(), hash))));
+    }
+
+    @Override
+    public List<LinkMetaBlock> findBySupplyChainAndSegmentNameAndStepNameAndMaterialHash(String supplyChainId, String segmentName, String stepName, List<String> hashes) {
+        return find(supplyChainId, inStep(segmentName, stepName)
+                .and(linkMetaBlock -> hashes.stream().allMatch(hash -> containsHash(linkMetaBlock.getLink().getMaterials(), hash))));
+    }
+
+    @Override
+    public List<LinkMetaBlock> findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(String supplyChainId, String segmentName, String stepName, EnumMap<ArtifactType, Set<Artifact>> artifactTypeHashes) {
+        return find(supplyChainId, inStep(segmentName, stepName)
+                .and(linkMetaBlock -> containsArtifacts(linkMetaBlock.getLink(), artifactTypeHashes)));
+    }
+
+    @Override
+    public List<LinkMetaBlockHeader> findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(String supplyChainId, String segmentName, Map<String, EnumMap<ArtifactType, Set<Artifact>>> stepArtifactTypeArtifacts, boolean includeArchived) {
+        List<LinkMetaBlock> stepLinkMetaBlocks = find(supplyChainId, linkMetaBlock -> segmentName.equals(linkMetaBlock.getLink().getLayoutSegmentName())
+                && stepArtifactTypeArtifacts.containsKey(linkMetaBlock.getLink().getStepName())
+                && containsArtifacts(linkMetaBlock.getLink(), stepArtifactTypeArtifacts.get(linkMetaBlock.getLink().getStepName())));
+        Set<String> runIds = stepLinkMetaBlocks.stream().map(linkMetaBlock -> linkMetaBlock.getLink().getRunId()).collect(toSet());
+        List<LinkMetaBlock> result = new ArrayList<>(stepLinkMetaBlocks);
+        result.addAll(find(supplyChainId, linkMetaBlock -> segmentName.equals(linkMetaBlock.getLink().getLayoutSegmentName())
+                && !stepArtifactTypeArtifacts.containsKey(linkMetaBlock.getLink().getStepName())
+                && runIds.contains(linkMetaBlock.getLink().getRunId())));
+        return result.stream().map(LinkMetaBlockHeader::of).collect(toList());
+    }
+
+    @Override
+    public List<LinkMetaBlock> findByRunId(String supplyChainId, String runId) {
+        return find(supplyChainId, linkMetaBlock -> runId.equals(linkMetaBlock.getLink().getRunId()));
+    }
+
+    @Override
+    public List<LinkMetaBlock> findBySupplyChainAndSignatures(String supplyChainId, List<String> signatures) {
+        Set<String> signatureSet = new HashSet<>(signatures);
+        return find(supplyChainId, linkMetaBlock -> signatureSet.contains(linkMetaBlock.getSignature().getSignature()));
+    }
+
+    @Override
+    public List<LinkMetaBlock> findBySupplyChainAndSignatures(String supplyChainId, List<String> signatures, boolean includeArchived) {
+        return findBySupplyChainAndSignatures(supplyChainId, signatures);
+    }
+
+    /*
+     * the links are kept in the order they are saved, the signature identifies the link saved last
+     */
+    @Override
+    public Optional<String> findLastLinkIdBySupplyChainAndSteps(String supplyChainId, Map<String, Set<String>> stepNamesBySegmentName) {
+        List<LinkMetaBlock> stepLinkMetaBlocks = find(supplyChainId, linkMetaBlock -> stepNamesBySegmentName
+                .getOrDefault(linkMetaBlock.getLink().getLayoutSegmentName(), Set.of())
+                .contains(linkMetaBlock.getLink().getStepName()));
+        return stepLinkMetaBlocks.isEmpty()
+                ? Optional.empty()
+                : Optional.of(stepLinkMetaBlocks.get(stepLinkMetaBlocks.size() - 1).getSignature().getSignature());
+    }
+
+    @Override
+    public List<LinkMetaBlock> findByRunId(String supplyChainId, String segmentName, String runId, Set<String> resolvedSteps) {
+        return find(supplyChainId, linkMetaBlock -> runId.equals(linkMetaBlock.getLink().getRunId())
+                && segmentName.equals(linkMetaBlock.getLink().getLayoutSegmentName())
+                && !resolvedSteps.contains(linkMetaBlock.getLink().getStepName()));
+    }
+
+    private List<LinkMetaBlock> find(String supplyChainId, Predicate<LinkMetaBlock> predicate) {
+        return linkMetaBlocks.stream()
+                .filter(linkMetaBlock -> supplyChainId.equals(linkMetaBlock.getSupplyChainId()))
+                .filter(predicate)
+                .collect(toList());
+    }
+
+    private static Predicate<LinkMetaBlock> inStep(String segmentName, String stepName) {
+        return linkMetaBlock -> segmentName.equals(linkMetaBlock.getLink().getLayoutSegmentName())
+                && stepName.equals(linkMetaBlock.getLink().getStepName());
+    }
+
+    private static boolean containsArtifacts(Link link, EnumMap<ArtifactType, Set<Artifact>> artifactTypeArtifacts) {
+        return containsAll(link.getMaterials(), artifactTypeArtifacts.get(ArtifactType.MATERIALS))
+                && containsAll(link.getProducts(), artifactTypeArtifacts.get(ArtifactType.PRODUCTS));
+    }
+
+    private static boolean containsAll(Collection<Artifact> linkArtifacts, Set<Artifact> artifacts) {
+        return artifacts == null || new HashSet<>(linkArtifacts).containsAll(artifacts);
+    }
+
+    private static boolean containsHash(Collection<Artifact> artifacts, String hash) {
+        return artifacts.stream().anyMatch(artifact -> hash.equals(artifact.getHash()));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.benchmarks;
+
+import com.rabobank.argos.service.domain.verification.VerificationRun;
+import com.rabobank.argos.service.domain.verification.VerificationRunRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps only the last valid run per supply chain, layout and products, so the repository
+ * does not grow during a benchmark.
+ */
+public class InMemoryVerificationRunRepository implements VerificationRunRepository {
+
+    private final Map<List<String>, VerificationRun> lastValidRuns = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(VerificationRun verificationRun) {
+        if (verificationRun.isRunIsValid()) {
+            lastValidRuns.put(key(verificationRun.getSupplyChainId(), verificationRun.getLayoutDigest(), verificationRun.getProductsDigest()), verificationRun);
+        }
+    }
+
+    @Override
+    public Optional<VerificationRun> findLastValidRun(String supplyChainId, String layoutDigest, String productsDigest) {
+        return Optional.ofNullable(lastValidRuns.get(key(supplyChainId, layoutDigest, productsDigest)));
+    }
+
+    private static List<String> key(String supplyChainId, String layoutDigest, String productsDigest) {
+        return List.of(supplyChainId, layoutDigest, productsDigest);
+    }
+}
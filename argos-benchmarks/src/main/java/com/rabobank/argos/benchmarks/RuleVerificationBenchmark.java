@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.benchmarks;
+
+import com.rabobank.argos.domain.layout.ArtifactType;
+import com.rabobank.argos.domain.layout.rule.MatchRule;
+import com.rabobank.argos.domain.layout.rule.Rule;
+import com.rabobank.argos.domain.layout.rule.RuleType;
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.service.domain.verification.ArtifactsVerificationContext;
+import com.rabobank.argos.service.domain.verification.LinkArtifacts;
+import com.rabobank.argos.service.domain.verification.rules.RuleVerification;
+import com.rabobank.argos.service.domain.verification.rules.RuleVerificationContext;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one rule verifier on the materials or products of a build link.
+ *
+ * The build link modifies its sources, deletes its temporary files and creates its classes,
+ * the classes are the materials of the package link. The artifacts of the links are indexed
+ * once, as they are once per verification context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleVerificationBenchmark {
+
+    static final String SEGMENT_NAME = "segment";
+    static final String BUILD_STEP_NAME = "build";
+    static final String PACKAGE_STEP_NAME = "package";
+
+    @Param({"ALLOW", "CREATE", "DELETE", "DISALLOW", "MATCH", "MODIFY", "REQUIRE"})
+    RuleType ruleType;
+
+    @Param({"100", "1000"})
+    int artifacts;
+
+    private Rule rule;
+
+    private ArtifactType artifactType;
+
+    private RuleVerification ruleVerification;
+
+    private Link buildLink;
+
+    private Map<String, Map<String, Link>> linksMap;
+
+    private Map<Link, LinkArtifacts> linkArtifacts;
+
+    @Setup
+    public void setup() {
+        List<Artifact> sources = createArtifacts("src/main/java/com/example/Artifact", ".java", "source");
+        List<Artifact> temporaryFiles = createArtifacts("tmp/Artifact", ".tmp", "temporary");
+        List<Artifact> modifiedSources = createArtifacts("src/main/java/com/example/Artifact", ".java", "modified");
+        List<Artifact> classes = createArtifacts("target/classes/com/example/Artifact", ".class", "class");
+        List<Artifact> buildMaterials = new ArrayList<>(sources);
+        buildMaterials.addAll(temporaryFiles);
+        List<Artifact> buildProducts = new ArrayList<>(modifiedSources);
+        buildProducts.addAll(classes);
+        buildLink = Link.builder().layoutSegmentName(SEGMENT_NAME).stepName(BUILD_STEP_NAME)
+                .materials(buildMaterials).products(buildProducts).build();
+        Link packageLink = Link.builder().layoutSegmentName(SEGMENT_NAME).stepName(PACKAGE_STEP_NAME)
+                .materials(classes).build();
+        linksMap = Map.of(SEGMENT_NAME, Map.of(BUILD_STEP_NAME, buildLink, PACKAGE_STEP_NAME, packageLink));
+        linkArtifacts = new IdentityHashMap<>();
+        linkArtifacts.put(buildLink, LinkArtifacts.of(buildLink));
+        linkArtifacts.put(packageLink, LinkArtifacts.of(packageLink));
+
+        rule = createRule(ruleType);
+        artifactType = ruleType == RuleType.ALLOW || ruleType == RuleType.REQUIRE || ruleType == RuleType.DELETE
+                ? ArtifactType.MATERIALS : ArtifactType.PRODUCTS;
+        ruleVerification = new VerificationEngine(new InMemoryLinkMetaBlockRepository(), 1).getRuleVerifications().stream()
+                .filter(verification -> verification.getRuleType() == ruleType)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("no rule verification for " + ruleType));
+        if (!verify()) {
+            throw new IllegalStateException("the " + ruleType + " rule should be valid");
+        }
+    }
+
+    @Benchmark
+    public boolean verify() {
+        ArtifactsVerificationContext artifactsContext = ArtifactsVerificationContext.builder()
+                .segmentName(SEGMENT_NAME)
+                .link(buildLink)
+                .artifacts(linkArtifacts.get(buildLink).get(artifactType))
+                .linkArtifacts(linkArtifacts::get)
+                .linksMap(linksMap)
+                .build();
+        RuleVerificationContext<Rule> context = RuleVerificationContext.builder()
+                .rule(rule)
+                .artifactsContext(artifactsContext)
+                .build();
+        return ruleVerification.verify(context);
+    }
+
+    private static Rule createRule(RuleType ruleType) {
+        switch (ruleType) {
+            case ALLOW:
+            case REQUIRE:
+                return new Rule(ruleType, "src/**");
+            case DELETE:
+                return new Rule(ruleType, "tmp/**");
+            case DISALLOW:
+                return new Rule(ruleType, "lib/**");
+            case CREATE:
+                return new Rule(ruleType, "target/**");
+            case MODIFY:
+                return new Rule(ruleType, "src/**");
+            case MATCH:
+                return MatchRule.builder()
+                        .pattern("target/**")
+                        .destinationType(ArtifactType.MATERIALS)
+                        .destinationSegmentName(SEGMENT_NAME)
+                        .destinationStepName(PACKAGE_STEP_NAME)
+                        .build();
+            default:
+                throw new IllegalArgumentException("unknown rule type " + ruleType);
+        }
+    }
+
+    private List<Artifact> createArtifacts(String uriPrefix, String uriSuffix, String content) {
+        List<Artifact> result = new ArrayList<>(artifacts);
+        for (int artifact = 0; artifact < artifacts; artifact++) {
+            result.add(new Artifact(uriPrefix + artifact + uriSuffix, DigestUtils.sha256Hex(content + artifact)));
+        }
+        return result;
+    }
+}
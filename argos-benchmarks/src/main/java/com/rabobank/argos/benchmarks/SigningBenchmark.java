@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.benchmarks;
+
+import com.rabobank.argos.domain.layout.Layout;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.domain.signing.JsonSigningSerializer;
+import com.rabobank.argos.domain.signing.SignatureValidator;
+import com.rabobank.argos.domain.signing.SigningSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the canonical json serialization of a link and a layout and the verification of
+ * their RSA signatures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SigningBenchmark {
+
+    @Param({"10", "1000"})
+    int artifacts;
+
+    private final SigningSerializer signingSerializer = new JsonSigningSerializer();
+
+    private final SignatureValidator signatureValidator = new SignatureValidator();
+
+    private LinkMetaBlock linkMetaBlock;
+
+    private Layout layout;
+
+    private String layoutSignature;
+
+    private PublicKey publicKey;
+
+    @Setup
+    public void setup() {
+        SyntheticSupplyChain supplyChain = new SyntheticSupplyChain(4, 3, artifacts, 1);
+        linkMetaBlock = supplyChain.getLinkMetaBlocks().get(0);
+        layout = supplyChain.getLayoutMetaBlock().getLayout();
+        layoutSignature = supplyChain.getLayoutMetaBlock().getSignatures().get(0).getSignature();
+        publicKey = supplyChain.getKeyPair().getPublic();
+        if (!verifyLinkSignature() || !verifyLayoutSignature()) {
+            throw new IllegalStateException("the synthetic signatures should be valid");
+        }
+    }
+
+    @Benchmark
+    public String serializeLink() {
+        return signingSerializer.serialize(linkMetaBlock.getLink());
+    }
+
+    @Benchmark
+    public String serializeLayout() {
+        return signingSerializer.serialize(layout);
+    }
+
+    @Benchmark
+    public boolean verifyLinkSignature() {
+        return signatureValidator.isValid(linkMetaBlock.getLink(), linkMetaBlock.getSignature().getSignature(), publicKey);
+    }
+
+    @Benchmark
+    public boolean verifyLayoutSignature() {
+        return signatureValidator.isValid(layout, layoutSignature, publicKey);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.benchmarks;
+
+import com.rabobank.argos.domain.ArgosError;
+import com.rabobank.argos.domain.Signature;
+import com.rabobank.argos.domain.key.KeyIdProvider;
+import com.rabobank.argos.domain.layout.ArtifactType;
+import com.rabobank.argos.domain.layout.Layout;
+import com.rabobank.argos.domain.layout.LayoutMetaBlock;
+import com.rabobank.argos.domain.layout.LayoutSegment;
+import com.rabobank.argos.domain.layout.PublicKey;
+import com.rabobank.argos.domain.layout.Step;
+import com.rabobank.argos.domain.layout.rule.MatchRule;
+import com.rabobank.argos.domain.layout.rule.Rule;
+import com.rabobank.argos.domain.layout.rule.RuleType;
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.domain.signing.JsonSigningSerializer;
+import com.rabobank.argos.domain.signing.SignatureOutputStream;
+import com.rabobank.argos.domain.signing.SigningSerializer;
+import lombok.Getter;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A generated supply chain with a signed layout of a number of segments with a number of steps
+ * and the signed links of a number of runs.
+ *
+ * The steps form one chain: the materials of a step are the products of the previous step, the
+ * first step of a segment matches the products of the last step of the previous segment and the
+ * expected end products are the products of the last step of the last segment. Every run produces
+ * the same artifacts, so every run is a candidate for every step.
+ */
+@Getter
+public class SyntheticSupplyChain {
+
+    public static final String SUPPLY_CHAIN_ID = "benchmark";
+
+    private static final SigningSerializer SIGNING_SERIALIZER = new JsonSigningSerializer();
+
+    private final int segments;
+    private final int steps;
+    private final int artifacts;
+    private final int runs;
+
+    private final KeyPair keyPair;
+    private final String keyId;
+    private final LayoutMetaBlock layoutMetaBlock;
+    private final List<LinkMetaBlock> linkMetaBlocks = new ArrayList<>();
+    private final List<Artifact> productsToVerify;
+
+    public SyntheticSupplyChain(int segments, int steps, int artifacts, int runs) {
+        if (segments < 1 || steps < 1 || artifacts < 1 || runs < 1) {
+            throw new IllegalArgumentException("segments, steps, artifacts and runs should be at least 1");
+        }
+        this.segments = segments;
+        this.steps = steps;
+        this.artifacts = artifacts;
+        this.runs = runs;
+        this.keyPair = generateKeyPair();
+        this.keyId = KeyIdProvider.computeKeyId(keyPair.getPublic());
+        this.layoutMetaBlock = createLayoutMetaBlock();
+        for (int run = 0; run < runs; run++) {
+            for (int segment = 0; segment < segments; segment++) {
+                for (int step = 0; step < steps; step++) {
+                    linkMetaBlocks.add(sign(createLink("run-" + run, segment, step)));
+                }
+            }
+        }
+        this.productsToVerify = createProducts(segments - 1, steps - 1);
+    }
+
+    public static String segmentName(int segment) {
+        return "segment" + segment;
+    }
+
+    public static String stepName(int step) {
+        return "step" + step;
+    }
+
+    public LinkMetaBlock sign(Link link) {
+        return LinkMetaBlock.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .link(link)
+                .signature(Signature.builder().keyId(keyId).signature(sign(keyPair.getPrivate(), link)).build())
+                .build();
+    }
+
+    public Link createLink(String runId, int segment, int step) {
+        return Link.builder()
+                .runId(runId)
+                .layoutSegmentName(segmentName(segment))
+                .stepName(stepName(step))
+                .materials(segment == 0 && step == 0 ? createSources() : createProducts(segment, step - 1))
+                .products(createProducts(segment, step))
+                .build();
+    }
+
+    /*
+     * the products of step -1 of a segment are the products of the last step of the previous segment
+     */
+    private List<Artifact> createProducts(int segment, int step) {
+        if (step < 0) {
+            return createProducts(segment - 1, steps - 1);
+        }
+        List<Artifact> products = new ArrayList<>(artifacts);
+        for (int artifact = 0; artifact < artifacts; artifact++) {
+            String uri = productPath(segment, step) + "/com/example/Artifact" + artifact + ".class";
+            products.add(new Artifact(uri, DigestUtils.sha256Hex(uri)));
+        }
+        return products;
+    }
+
+    private List<Artifact> createSources() {
+        List<Artifact> sources = new ArrayList<>(artifacts);
+        for (int artifact = 0; artifact < artifacts; artifact++) {
+            String uri = "src/main/java/com/example/Artifact" + artifact + ".java";
+            sources.add(new Artifact(uri, DigestUtils.sha256Hex(uri)));
+        }
+        return sources;
+    }
+
+    private static String productPath(int segment, int step) {
+        return "target/" + segmentName(segment) + "/" + stepName(step);
+    }
+
+    private LayoutMetaBlock createLayoutMetaBlock() {
+        List<LayoutSegment> layoutSegments = new ArrayList<>(segments);
+        for (int segment = 0; segment < segments; segment++) {
+            List<Step> layoutSteps = new ArrayList<>(steps);
+            for (int step = 0; step < steps; step++) {
+                layoutSteps.add(createStep(segment, step));
+            }
+            layoutSegments.add(LayoutSegment.builder().name(segmentName(segment)).steps(layoutSteps).build());
+        }
+        Layout layout = Layout.builder()
+                .keys(List.of(PublicKey.builder().id(keyId).key(keyPair.getPublic()).build()))
+                .authorizedKeyIds(List.of(keyId))
+                .expectedEndProducts(List.of(matchRule(segments - 1, steps - 1)))
+                .layoutSegments(layoutSegments)
+                .build();
+        Signature signature = Signature.builder().keyId(keyId).signature(sign(keyPair.getPrivate(), layout)).build();
+        return LayoutMetaBlock.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .layout(layout)
+                .signatures(List.of(signature))
+                .build();
+    }
+
+    private Step createStep(int segment, int step) {
+        List<Rule> expectedMaterials = new ArrayList<>();
+        if (segment == 0 && step == 0) {
+            expectedMaterials.add(new Rule(RuleType.REQUIRE, "src/**"));
+            expectedMaterials.add(new Rule(RuleType.ALLOW, "src/**"));
+        } else {
+            expectedMaterials.add(step == 0 ? matchRule(segment - 1, steps - 1) : matchRule(segment, step - 1));
+        }
+        expectedMaterials.add(new Rule(RuleType.DISALLOW, "**"));
+        return Step.builder()
+                .name(stepName(step))
+                .authorizedKeyIds(List.of(keyId))
+                .requiredNumberOfLinks(1)
+                .expectedMaterials(expectedMaterials)
+                .expectedProducts(List.of(
+                        new Rule(RuleType.CREATE, productPath(segment, step) + "/**"),
+                        new Rule(RuleType.DISALLOW, "**")))
+                .build();
+    }
+
+    private static MatchRule matchRule(int destinationSegment, int destinationStep) {
+        return MatchRule.builder()
+                .pattern(productPath(destinationSegment, destinationStep) + "/**")
+                .destinationType(ArtifactType.PRODUCTS)
+                .destinationSegmentName(segmentName(destinationSegment))
+                .destinationStepName(stepName(destinationStep))
+                .build();
+    }
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+            keyPairGenerator.initialize(2048);
+            return keyPairGenerator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new ArgosError(e.getMessage(), e);
+        }
+    }
+
+    private static String sign(PrivateKey privateKey, Link link) {
+        java.security.Signature signature = initSign(privateKey);
+        SIGNING_SERIALIZER.serialize(link, new SignatureOutputStream(signature));
+        return sign(signature);
+    }
+
+    private static String sign(PrivateKey privateKey, Layout layout) {
+        java.security.Signature signature = initSign(privateKey);
+        SIGNING_SERIALIZER.serialize(layout, new SignatureOutputStream(signature));
+        return sign(signature);
+    }
+
+    private static java.security.Signature initSign(PrivateKey privateKey) {
+        try {
+            java.security.Signature signature = java.security.Signature.getInstance("SHA256withRSA");
+            signature.initSign(privateKey);
+            return signature;
+        } catch (GeneralSecurityException e) {
+            throw new ArgosError(e.getMessage(), e);
+        }
+    }
+
+    private static String sign(java.security.Signature signature) {
+        try {
+            return Hex.encodeHexString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new ArgosError(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.benchmarks;
+
+import com.rabobank.argos.service.domain.verification.VerificationContext;
+import com.rabobank.argos.service.domain.verification.VerificationRunResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the verification of the end products of a synthetic supply chain against
+ * the links in an in-memory repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerificationBenchmark {
+
+    @Param({"1", "4"})
+    int segments;
+
+    @Param({"3"})
+    int steps;
+
+    @Param({"100", "1000"})
+    int artifacts;
+
+    @Param({"1", "10"})
+    int runs;
+
+    @Param({"1"})
+    int parallelism;
+
+    private SyntheticSupplyChain supplyChain;
+
+    private VerificationEngine engine;
+
+    @Setup
+    public void setup() {
+        supplyChain = new SyntheticSupplyChain(segments, steps, artifacts, runs);
+        InMemoryLinkMetaBlockRepository linkMetaBlockRepository = new InMemoryLinkMetaBlockRepository();
+        linkMetaBlockRepository.saveAll(supplyChain.getLinkMetaBlocks());
+        engine = new VerificationEngine(linkMetaBlockRepository, parallelism);
+        if (!verifyRun().isRunIsValid()) {
+            throw new IllegalStateException("the synthetic supply chain should be valid");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public VerificationRunResult verifyRun() {
+        return engine.getVerificationRunService().verifyRun(supplyChain.getLayoutMetaBlock(), supplyChain.getProductsToVerify(), false, false);
+    }
+
+    @Benchmark
+    public VerificationRunResult reverifyRun() {
+        return engine.getVerificationRunService().verifyRun(supplyChain.getLayoutMetaBlock(), supplyChain.getProductsToVerify(), true, false);
+    }
+
+    @Benchmark
+    public Optional<VerificationContext> createFirstVerificationContext() {
+        return engine.getVerificationContextsProvider()
+                .createPossibleVerificationContexts(supplyChain.getLayoutMetaBlock(), supplyChain.getProductsToVerify(), false)
+                .findFirst();
+    }
+}
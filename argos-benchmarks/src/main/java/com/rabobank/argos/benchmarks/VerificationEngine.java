@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.benchmarks;
+
+import com.rabobank.argos.domain.signing.SignatureValidator;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockRepository;
+import com.rabobank.argos.service.domain.verification.CompiledLayoutCache;
+import com.rabobank.argos.service.domain.verification.ExpectedCommandVerification;
+import com.rabobank.argos.service.domain.verification.LayoutAuthorizedKeyIdVerification;
+import com.rabobank.argos.service.domain.verification.LayoutMetaBlockSignatureVerification;
+import com.rabobank.argos.service.domain.verification.LinkMetaBlockSignatureVerification;
+import com.rabobank.argos.service.domain.verification.LinkSignatureValidationCache;
+import com.rabobank.argos.service.domain.verification.RequiredNumberOfLinksVerification;
+import com.rabobank.argos.service.domain.verification.RulesVerification;
+import com.rabobank.argos.service.domain.verification.StepAuthorizedKeyIdVerification;
+import com.rabobank.argos.service.domain.verification.Verification;
+import com.rabobank.argos.service.domain.verification.VerificationContextsProvider;
+import com.rabobank.argos.service.domain.verification.VerificationProvider;
+import com.rabobank.argos.service.domain.verification.VerificationRunService;
+import com.rabobank.argos.service.domain.verification.rules.AllowRuleVerification;
+import com.rabobank.argos.service.domain.verification.rules.CreateRuleVerification;
+import com.rabobank.argos.service.domain.verification.rules.DeleteRuleVerification;
+import com.rabobank.argos.service.domain.verification.rules.DisallowRuleVerification;
+import com.rabobank.argos.service.domain.verification.rules.MatchRuleVerification;
+import com.rabobank.argos.service.domain.verification.rules.ModifyRuleVerification;
+import com.rabobank.argos.service.domain.verification.rules.RequireRuleVerification;
+import com.rabobank.argos.service.domain.verification.rules.RuleVerification;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The verification components wired the way the argos service wires them, with the default
+ * cache sizes and timeout, without a Spring context.
+ */
+@Getter
+public class VerificationEngine {
+
+    private final List<RuleVerification> ruleVerifications = List.of(
+            new AllowRuleVerification(),
+            new CreateRuleVerification(),
+            new DeleteRuleVerification(),
+            new DisallowRuleVerification(),
+            new MatchRuleVerification(),
+            new ModifyRuleVerification(),
+            new RequireRuleVerification());
+
+    private final CompiledLayoutCache compiledLayoutCache = new CompiledLayoutCache(1000, Duration.ofHours(24));
+
+    private final VerificationContextsProvider verificationContextsProvider;
+
+    private final VerificationProvider verificationProvider;
+
+    private final VerificationRunService verificationRunService;
+
+    public VerificationEngine(LinkMetaBlockRepository linkMetaBlockRepository, int parallelism) {
+        SignatureValidator signatureValidator = new SignatureValidator();
+        RulesVerification rulesVerification = new RulesVerification(ruleVerifications);
+        rulesVerification.init();
+        List<Verification> verifications = new ArrayList<>(List.of(
+                new LayoutAuthorizedKeyIdVerification(),
+                new LayoutMetaBlockSignatureVerification(signatureValidator),
+                new StepAuthorizedKeyIdVerification(),
+                new LinkMetaBlockSignatureVerification(new LinkSignatureValidationCache(signatureValidator, 100_000)),
+                new ExpectedCommandVerification(),
+                new RequiredNumberOfLinksVerification(),
+                rulesVerification));
+        verificationContextsProvider = new VerificationContextsProvider(linkMetaBlockRepository, ruleVerifications, compiledLayoutCache);
+        verificationContextsProvider.init();
+        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, parallelism, 1, Duration.ofMinutes(1));
+        verificationProvider.init();
+        verificationRunService = new VerificationRunService(verificationProvider, new InMemoryVerificationRunRepository(),
+                linkMetaBlockRepository, compiledLayoutCache);
+    }
+
+    public void shutdown() {
+        verificationProvider.shutdown();
+    }
+}
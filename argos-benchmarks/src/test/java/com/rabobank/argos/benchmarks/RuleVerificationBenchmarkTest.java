@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.benchmarks;
+
+import com.rabobank.argos.domain.layout.rule.RuleType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class RuleVerificationBenchmarkTest {
+
+    @ParameterizedTest
+    @EnumSource(RuleType.class)
+    void verify(RuleType ruleType) {
+        RuleVerificationBenchmark benchmark = new RuleVerificationBenchmark();
+        benchmark.ruleType = ruleType;
+        benchmark.artifacts = 10;
+        benchmark.setup();
+        assertThat(benchmark.verify(), is(true));
+    }
+}
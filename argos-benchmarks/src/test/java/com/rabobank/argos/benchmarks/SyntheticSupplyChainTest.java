@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.benchmarks;
+
+import com.rabobank.argos.domain.link.Artifact;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SyntheticSupplyChainTest {
+
+    private SyntheticSupplyChain supplyChain;
+
+    private VerificationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        supplyChain = new SyntheticSupplyChain(3, 2, 5, 2);
+        InMemoryLinkMetaBlockRepository linkMetaBlockRepository = new InMemoryLinkMetaBlockRepository();
+        linkMetaBlockRepository.saveAll(supplyChain.getLinkMetaBlocks());
+        engine = new VerificationEngine(linkMetaBlockRepository, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void generate() {
+        assertThat(supplyChain.getLayoutMetaBlock().getLayout().getLayoutSegments(), hasSize(3));
+        assertThat(supplyChain.getLinkMetaBlocks(), hasSize(12));
+        assertThat(supplyChain.getProductsToVerify(), hasSize(5));
+    }
+
+    @Test
+    void verifyRunIsValid() {
+        assertThat(engine.getVerificationRunService().verifyRun(supplyChain.getLayoutMetaBlock(), supplyChain.getProductsToVerify(), false, false).isRunIsValid(), is(true));
+        assertThat(engine.getVerificationRunService().verifyRun(supplyChain.getLayoutMetaBlock(), supplyChain.getProductsToVerify(), true, false).isRunIsValid(), is(true));
+    }
+
+    @Test
+    void verifyRunWithOtherProductIsNotValid() {
+        List<Artifact> products = new ArrayList<>(supplyChain.getProductsToVerify());
+        products.set(0, new Artifact(products.get(0).getUri(), products.get(1).getHash()));
+        assertThat(engine.getVerificationRunService().verifyRun(supplyChain.getLayoutMetaBlock(), products, false, false).isRunIsValid(), is(false));
+    }
+
+    @Test
+    void invalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticSupplyChain(0, 1, 1, 1));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.domain.link;
+
+import java.util.Arrays;
+
+/**
+ * The raw 32 bytes of a sha256 artifact hash.
+ *
+ * Artifacts carry their hash as lowercase hex, which is what is signed and exchanged over
+ * rest, this type is used where hashes are stored or held in bulk.
+ */
+public final class ArtifactHash implements Comparable<ArtifactHash> {
+
+    public static final int LENGTH = 32;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final byte[] bytes;
+
+    private ArtifactHash(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the hash is not a lowercase hex encoded sha256 hash
+     */
+    public static ArtifactHash fromHex(String hex) {
+        return new ArtifactHash(toBytes(hex));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the hash is not 32 bytes
+     */
+    public static ArtifactHash of(byte[] bytes) {
+        if (bytes == null || bytes.length != LENGTH) {
+            throw new IllegalArgumentException("hash should be a sha256 hash of " + LENGTH + " bytes");
+        }
+        return new ArtifactHash(bytes.clone());
+    }
+
+    public byte[] getBytes() {
+        return bytes.clone();
+    }
+
+    public String toHex() {
+        return toHex(bytes, 0);
+    }
+
+    /**
+     * @throws IllegalArgumentException when the hash is not a lowercase hex encoded sha256 hash
+     */
+    public static byte[] toBytes(String hex) {
+        if (hex == null || hex.length() != LENGTH * 2) {
+            throw invalidHex(hex);
+        }
+        byte[] bytes = new byte[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            bytes[i] = (byte) ((hexValue(hex, i * 2) << 4) | hexValue(hex, i * 2 + 1));
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the lowercase hex of the {@link #LENGTH} bytes from offset
+     */
+    public static String toHex(byte[] bytes, int offset) {
+        char[] hex = new char[LENGTH * 2];
+        for (int i = 0; i < LENGTH; i++) {
+            int value = bytes[offset + i] & 0xff;
+            hex[i * 2] = HEX_DIGITS[value >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[value & 0x0f];
+        }
+        return new String(hex);
+    }
+
+    private static int hexValue(String hex, int index) {
+        char c = hex.charAt(index);
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        throw invalidHex(hex);
+    }
+
+    private static IllegalArgumentException invalidHex(String hex) {
+        return new IllegalArgumentException("hash should be a lowercase hex encoded sha256 hash but is " + hex);
+    }
+
+    @Override
+    public int compareTo(ArtifactHash other) {
+        return Arrays.compareUnsigned(bytes, other.bytes);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof ArtifactHash && Arrays.equals(bytes, ((ArtifactHash) other).bytes));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
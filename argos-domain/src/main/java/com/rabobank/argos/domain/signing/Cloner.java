@@ -1,65 +0,0 @@
-/*
- * Copyright (C) 2019 - 2020 Rabobank Nederland
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *         http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-package com.rabobank.argos.domain.signing;
-
-import com.rabobank.argos.domain.layout.Layout;
-import com.rabobank.argos.domain.layout.LayoutSegment;
-import com.rabobank.argos.domain.layout.Step;
-import com.rabobank.argos.domain.layout.rule.MatchRule;
-import com.rabobank.argos.domain.layout.rule.Rule;
-import com.rabobank.argos.domain.link.Artifact;
-import com.rabobank.argos.domain.link.Link;
-import org.mapstruct.Mapper;
-
-import java.util.List;
-
-/**
- * By defining all methods, we force MapStruct to generate new objects for each mapper in stead of
- * taking shortcuts by mapping an object directly.
- */
-@Mapper
-public interface Cloner {
-
-    Link clone(Link link);
-
-    List<Artifact> cloneArtifacts(List<Artifact> artifacts);
-
-    Artifact clone(Artifact artifact);
-
-    Layout clone(Layout layout);
-
-    List<LayoutSegment> cloneLayoutSegments(List<LayoutSegment> layoutSegments);
-
-    LayoutSegment clone(LayoutSegment layoutSegment);
-
-    List<Step> cloneSteps(List<Step> steps);
-
-    Step clone(Step step);
-
-    List<Rule> clone(List<Rule> rules);
-
-    default Rule clone(Rule rule) {
-        if (rule instanceof MatchRule) {
-            return clone((MatchRule) rule);
-        } else {
-            return new Rule(rule.getRuleType(), rule.getPattern());
-        }
-
-    }
-
-    MatchRule clone(MatchRule matchRule);
-
-}
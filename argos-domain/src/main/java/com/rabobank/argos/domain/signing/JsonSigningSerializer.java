@@ -20,6 +20,7 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
@@ -29,46 +30,112 @@ import com.rabobank.argos.domain.layout.LayoutSegment;
 import com.rabobank.argos.domain.layout.Step;
 import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.Link;
-import org.mapstruct.factory.Mappers;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
 
+/**
+ * Writes the canonical json of a link or layout that is signed and verified.
+ * The streaming variants write the utf-8 bytes straight into a signature or digest sink,
+ * the output is the same as the utf-8 encoding of the string variants.
+ */
 public class JsonSigningSerializer implements SigningSerializer {
 
+    private static final ObjectWriter SIGNING_WRITER = createSigningWriter();
+
     @Override
     public String serialize(Link link) {
-        Link linkClone = Mappers.getMapper(Cloner.class).clone(link);
-        linkClone.getMaterials().sort(comparing(Artifact::getUri));
-        linkClone.getProducts().sort(comparing(Artifact::getUri));
-        return serializeSignable(linkClone);
+        return serializeSignable(sorted(link));
     }
 
     @Override
     public String serialize(Layout layout) {
-        Layout layoutClone = Mappers.getMapper(Cloner.class).clone(layout);
-        layoutClone.getLayoutSegments().sort(comparing(LayoutSegment::getName));
-        layoutClone.getLayoutSegments().forEach(layoutSegment -> layoutSegment.getSteps().sort(comparing(Step::getName)));
-        return serializeSignable(layoutClone);
+        return serializeSignable(sorted(layout));
+    }
+
+    @Override
+    public void serialize(Link link, OutputStream outputStream) {
+        serializeSignable(sorted(link), outputStream);
+    }
+
+    @Override
+    public void serialize(Layout layout, OutputStream outputStream) {
+        serializeSignable(sorted(layout), outputStream);
+    }
+
+    /**
+     * only the lists that are sorted are copied, the artifacts themselves are shared with the original link
+     */
+    private static Link sorted(Link link) {
+        return Link.builder()
+                .runId(link.getRunId())
+                .layoutSegmentName(link.getLayoutSegmentName())
+                .stepName(link.getStepName())
+                .command(link.getCommand())
+                .materials(sortedCopy(link.getMaterials(), comparing(Artifact::getUri)))
+                .products(sortedCopy(link.getProducts(), comparing(Artifact::getUri)))
+                .build();
+    }
+
+    private static Layout sorted(Layout layout) {
+        List<LayoutSegment> layoutSegments = layout.getLayoutSegments().stream()
+                .map(layoutSegment -> LayoutSegment.builder()
+                        .name(layoutSegment.getName())
+                        .steps(sortedCopy(layoutSegment.getSteps(), comparing(Step::getName)))
+                        .build())
+                .sorted(comparing(LayoutSegment::getName))
+                .collect(toList());
+        return Layout.builder()
+                .keys(layout.getKeys())
+                .authorizedKeyIds(layout.getAuthorizedKeyIds())
+                .expectedEndProducts(layout.getExpectedEndProducts())
+                .layoutSegments(layoutSegments)
+                .build();
+    }
+
+    private static <T> List<T> sortedCopy(List<T> list, Comparator<T> comparator) {
+        if (list == null) {
+            return null;
+        }
+        List<T> copy = new ArrayList<>(list);
+        copy.sort(comparator);
+        return copy;
     }
 
-    private String serializeSignable(Object signable) {
+    private static String serializeSignable(Object signable) {
+        try {
+            return SIGNING_WRITER.writeValueAsString(signable);
+        } catch (JsonProcessingException e) {
+            throw new ArgosError(e.getMessage(), e);
+        }
+    }
+
+    private static void serializeSignable(Object signable, OutputStream outputStream) {
+        try {
+            SIGNING_WRITER.writeValue(outputStream, signable);
+        } catch (IOException e) {
+            throw new ArgosError(e.getMessage(), e);
+        }
+    }
+
+    private static ObjectWriter createSigningWriter() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
         objectMapper.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
         SimpleModule module = new SimpleModule();
         module.addSerializer(PublicKey.class, new PublicKeySerializer());
         objectMapper.registerModule(module);
-        try {
-            return objectMapper.writeValueAsString(signable);
-        } catch (JsonProcessingException e) {
-            throw new ArgosError(e.getMessage(), e);
-        }
+        return objectMapper.writer();
     }
 
-    private class PublicKeySerializer extends StdSerializer<PublicKey> {
+    private static class PublicKeySerializer extends StdSerializer<PublicKey> {
 
         public PublicKeySerializer() {
             this(null);
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.domain.signing;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.Signature;
+import java.security.SignatureException;
+
+/**
+ * Feeds everything written to it into a {@link Signature} that is initialized for signing or verification.
+ */
+@RequiredArgsConstructor
+public class SignatureOutputStream extends OutputStream {
+
+    private final Signature signature;
+
+    @Override
+    public void write(int b) throws IOException {
+        try {
+            signature.update((byte) b);
+        } catch (SignatureException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        try {
+            signature.update(bytes, offset, length);
+        } catch (SignatureException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -22,26 +22,39 @@ import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 
 import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.Signature;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-
 public class SignatureValidator {
 
+    private final SigningSerializer signingSerializer = new JsonSigningSerializer();
+
     public boolean isValid(Link link, String signature, PublicKey publicKey) {
-        return isValid(new JsonSigningSerializer().serialize(link), signature, publicKey);
+        Signature publicSignature = initVerify(publicKey);
+        signingSerializer.serialize(link, new SignatureOutputStream(publicSignature));
+        return verify(publicSignature, signature);
     }
 
     public boolean isValid(Layout layout, String signature, PublicKey publicKey) {
-        return isValid(new JsonSigningSerializer().serialize(layout), signature, publicKey);
+        Signature publicSignature = initVerify(publicKey);
+        signingSerializer.serialize(layout, new SignatureOutputStream(publicSignature));
+        return verify(publicSignature, signature);
     }
 
-    private boolean isValid(String signableJson, String signature, PublicKey publicKey) {
+    private static Signature initVerify(PublicKey publicKey) {
         try {
             Signature publicSignature = Signature.getInstance("SHA256withRSA");
             publicSignature.initVerify(publicKey);
-            publicSignature.update(signableJson.getBytes(UTF_8));
+            return publicSignature;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new ArgosError(e.getMessage(), e);
+        }
+    }
+
+    private static boolean verify(Signature publicSignature, String signature) {
+        try {
             byte[] signatureBytes = Hex.decodeHex(signature);
             return publicSignature.verify(signatureBytes);
         } catch (GeneralSecurityException | DecoderException e) {
@@ -18,9 +18,15 @@ package com.rabobank.argos.domain.signing;
 import com.rabobank.argos.domain.layout.Layout;
 import com.rabobank.argos.domain.link.Link;
 
+import java.io.OutputStream;
+
 public interface SigningSerializer {
 
     String serialize(Link link);
 
     String serialize(Layout layout);
+
+    void serialize(Link link, OutputStream outputStream);
+
+    void serialize(Layout layout, OutputStream outputStream);
 }
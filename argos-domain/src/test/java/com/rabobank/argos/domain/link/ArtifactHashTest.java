@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.domain.link;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArtifactHashTest {
+
+    private static final String HASH = "cb6bdad36690e8024e7df13e6796ae6603f2cb9cf9f989c9ff939b2ecebdcb91";
+    private static final String OTHER_HASH = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    @Test
+    void fromHex() {
+        ArtifactHash hash = ArtifactHash.fromHex(HASH);
+        assertThat(hash.toHex(), is(HASH));
+        assertThat(hash.toString(), is(HASH));
+        assertThat(hash.getBytes().length, is(32));
+        assertThat(hash.getBytes()[0], is((byte) 0xcb));
+    }
+
+    @Test
+    void of() {
+        byte[] bytes = ArtifactHash.toBytes(HASH);
+        ArtifactHash hash = ArtifactHash.of(bytes);
+        bytes[0] = 0;
+        assertThat(hash, is(ArtifactHash.fromHex(HASH)));
+        assertThat(hash.hashCode(), is(ArtifactHash.fromHex(HASH).hashCode()));
+        assertThat(hash, not(ArtifactHash.fromHex(OTHER_HASH)));
+    }
+
+    @Test
+    void toHexWithOffset() {
+        byte[] bytes = new byte[64];
+        System.arraycopy(ArtifactHash.toBytes(HASH), 0, bytes, 32, 32);
+        assertThat(ArtifactHash.toHex(bytes, 32), is(HASH));
+    }
+
+    @Test
+    void compareTo() {
+        assertThat(ArtifactHash.fromHex(HASH).compareTo(ArtifactHash.fromHex(OTHER_HASH)), greaterThan(0));
+        assertThat(ArtifactHash.fromHex(OTHER_HASH).compareTo(ArtifactHash.fromHex(HASH)), lessThan(0));
+        assertThat(ArtifactHash.fromHex(HASH).compareTo(ArtifactHash.fromHex(HASH)), is(0));
+    }
+
+    @Test
+    void invalidHash() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> ArtifactHash.fromHex(HASH.toUpperCase()));
+        assertThat(exception.getMessage(), is("hash should be a lowercase hex encoded sha256 hash but is " + HASH.toUpperCase()));
+        assertThrows(IllegalArgumentException.class, () -> ArtifactHash.fromHex("ab"));
+        assertThrows(IllegalArgumentException.class, () -> ArtifactHash.fromHex(null));
+        assertThrows(IllegalArgumentException.class, () -> ArtifactHash.of(new byte[31]));
+    }
+}
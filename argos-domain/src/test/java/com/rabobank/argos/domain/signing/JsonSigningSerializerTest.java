@@ -30,11 +30,13 @@ import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.Link;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.util.Arrays;
 import java.util.Base64;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
@@ -60,6 +62,21 @@ class JsonSigningSerializerTest {
         assertThat(serialized, is(getExpectedJson("/expectedLinkSigning.json")));
     }
 
+    @Test
+    void serializeLinkToOutputStream() {
+        Link link = Link.builder()
+                .stepName("stepName")
+                .runId("runId")
+                .materials(Arrays.asList(
+                        Artifact.builder().uri("zbc.jar").hash("hash1").build(),
+                        Artifact.builder().uri("\u00e9bc.jar").hash("hash2").build()))
+                .build();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new JsonSigningSerializer().serialize(link, outputStream);
+        assertThat(outputStream.toByteArray(), is(new JsonSigningSerializer().serialize(link).getBytes(UTF_8)));
+        assertThat(link.getMaterials().get(0).getUri(), is("zbc.jar"));
+    }
+
     @Test
     void serializeLayout() throws IOException, GeneralSecurityException {
 
@@ -15,17 +15,29 @@
  */
 package com.rabobank.argos.service.adapter.in.rest;
 
+import com.rabobank.argos.domain.ArgosError;
 import com.rabobank.argos.domain.Signature;
 import com.rabobank.argos.domain.key.KeyPair;
 import com.rabobank.argos.domain.layout.Layout;
 import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
 import com.rabobank.argos.domain.signing.SignatureValidator;
 import com.rabobank.argos.service.domain.account.AccountService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class SignatureValidatorService {
@@ -46,6 +58,35 @@ public class SignatureValidatorService {
         }
     }
 
+    /**
+     * Looks up each distinct key id once and validates the signatures in parallel.
+     * The result holds the rejection reason of each link in the order of the given list.
+     */
+    public List<Optional<String>> findSignatureErrors(List<LinkMetaBlock> linkMetaBlocks) {
+        Map<String, Optional<KeyPair>> keyPairs = linkMetaBlocks.stream()
+                .map(linkMetaBlock -> linkMetaBlock.getSignature().getKeyId())
+                .distinct()
+                .collect(toMap(identity(), accountService::findKeyPairByKeyId));
+        return linkMetaBlocks.parallelStream()
+                .map(linkMetaBlock -> findSignatureError(linkMetaBlock, keyPairs.get(linkMetaBlock.getSignature().getKeyId())))
+                .collect(toList());
+    }
+
+    private Optional<String> findSignatureError(LinkMetaBlock linkMetaBlock, Optional<KeyPair> keyPair) {
+        Signature signature = linkMetaBlock.getSignature();
+        if (keyPair.isEmpty()) {
+            return Optional.of("signature with keyId " + signature.getKeyId() + " not found");
+        }
+        try {
+            if (signatureValidator.isValid(linkMetaBlock.getLink(), signature.getSignature(), keyPair.get().getPublicKey())) {
+                return Optional.empty();
+            }
+        } catch (ArgosError e) {
+            log.warn("signature validation of link failed: {}", e.getMessage());
+        }
+        return Optional.of("invalid signature");
+    }
+
     private void throwInValidSignatureException() {
         throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid signature");
     }
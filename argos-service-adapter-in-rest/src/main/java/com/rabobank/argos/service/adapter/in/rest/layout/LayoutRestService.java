@@ -34,6 +34,7 @@ import com.rabobank.argos.service.domain.layout.LayoutMetaBlockRepository;
 import com.rabobank.argos.service.domain.security.AccountSecurityContext;
 import com.rabobank.argos.service.domain.security.LabelIdCheckParam;
 import com.rabobank.argos.service.domain.security.PermissionCheck;
+import com.rabobank.argos.service.domain.verification.CompiledLayoutCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -70,6 +71,7 @@ public class LayoutRestService implements LayoutApi {
     private final ApprovalConfigurationRepository approvalConfigurationRepository;
     private final ApprovalConfigurationMapper approvalConfigurationConverter;
     private final AccountSecurityContext accountSecurityContext;
+    private final CompiledLayoutCache compiledLayoutCache;
 
 
     @Override
@@ -88,6 +90,7 @@ public class LayoutRestService implements LayoutApi {
         layoutMetaBlock.setSupplyChainId(supplyChainId);
         validator.validate(layoutMetaBlock);
         layoutMetaBlockRepository.createOrUpdate(layoutMetaBlock);
+        compiledLayoutCache.compile(layoutMetaBlock);
         URI location = ServletUriComponentsBuilder.fromCurrentRequest().build().toUri();
         return ResponseEntity.created(location).body(layoutMetaBlockConverter.convertToRestLayoutMetaBlock(layoutMetaBlock));
     }
@@ -20,6 +20,7 @@ import com.rabobank.argos.domain.link.LinkMetaBlock;
 import com.rabobank.argos.domain.permission.Permission;
 import com.rabobank.argos.service.adapter.in.rest.SignatureValidatorService;
 import com.rabobank.argos.service.adapter.in.rest.api.handler.LinkApi;
+import com.rabobank.argos.service.adapter.in.rest.api.model.RestLinkBatchItemResult;
 import com.rabobank.argos.service.adapter.in.rest.api.model.RestLinkMetaBlock;
 import com.rabobank.argos.service.domain.link.LinkMetaBlockRepository;
 import com.rabobank.argos.service.domain.security.LabelIdCheckParam;
@@ -33,10 +34,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.rabobank.argos.service.adapter.in.rest.supplychain.SupplyChainLabelIdExtractor.SUPPLY_CHAIN_LABEL_ID_EXTRACTOR;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
 @RestController
@@ -45,6 +51,8 @@ import static java.util.stream.Collectors.toList;
 @RequestMapping("/api")
 public class LinkRestService implements LinkApi {
 
+    static final int MAX_BATCH_SIZE = 1000;
+
     private final LinkMetaBlockRepository linkMetaBlockRepository;
 
     private final SupplyChainRepository supplyChainRepository;
@@ -53,6 +61,8 @@ public class LinkRestService implements LinkApi {
 
     private final SignatureValidatorService signatureValidatorService;
 
+    private final Validator validator;
+
     @Override
     @PermissionCheck(permissions = Permission.LINK_ADD)
     public ResponseEntity<Void> createLink(@LabelIdCheckParam(dataExtractor = SUPPLY_CHAIN_LABEL_ID_EXTRACTOR) String supplyChainId, RestLinkMetaBlock restLinkMetaBlock) {
@@ -68,6 +78,69 @@ public class LinkRestService implements LinkApi {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    @Override
+    @PermissionCheck(permissions = Permission.LINK_ADD)
+    public ResponseEntity<List<RestLinkBatchItemResult>> createLinks(@LabelIdCheckParam(dataExtractor = SUPPLY_CHAIN_LABEL_ID_EXTRACTOR) String supplyChainId, List<RestLinkMetaBlock> restLinkMetaBlocks) {
+        log.info("createLinks supplyChainId : {} number of links : {}", supplyChainId, restLinkMetaBlocks.size());
+        if (restLinkMetaBlocks.isEmpty() || restLinkMetaBlocks.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "number of links should be between 1 and " + MAX_BATCH_SIZE + " but is " + restLinkMetaBlocks.size());
+        }
+        if (supplyChainRepository.findBySupplyChainId(supplyChainId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "supply chain not found : " + supplyChainId);
+        }
+
+        // the elements of the request body list are not validated by spring
+        List<Optional<String>> validationErrors = restLinkMetaBlocks.stream().map(this::findValidationError).collect(toList());
+        List<LinkMetaBlock> linkMetaBlocks = new ArrayList<>();
+        for (int index = 0; index < restLinkMetaBlocks.size(); index++) {
+            if (validationErrors.get(index).isEmpty()) {
+                linkMetaBlocks.add(converter.convertFromRestLinkMetaBlock(restLinkMetaBlocks.get(index)));
+            }
+        }
+        List<Optional<String>> signatureErrors = signatureValidatorService.findSignatureErrors(linkMetaBlocks);
+
+        List<LinkMetaBlock> validLinkMetaBlocks = new ArrayList<>();
+        List<RestLinkBatchItemResult> results = new ArrayList<>();
+        int validIndex = 0;
+        for (int index = 0; index < restLinkMetaBlocks.size(); index++) {
+            RestLinkBatchItemResult result = new RestLinkBatchItemResult().index(index);
+            Optional<String> error = validationErrors.get(index);
+            LinkMetaBlock linkMetaBlock = null;
+            if (error.isEmpty()) {
+                linkMetaBlock = linkMetaBlocks.get(validIndex);
+                error = signatureErrors.get(validIndex);
+                validIndex++;
+            }
+            if (error.isPresent()) {
+                result.status(RestLinkBatchItemResult.StatusEnum.REJECTED).message(error.get());
+            } else {
+                linkMetaBlock.setSupplyChainId(supplyChainId);
+                validLinkMetaBlocks.add(linkMetaBlock);
+                result.status(RestLinkBatchItemResult.StatusEnum.CREATED);
+            }
+            results.add(result);
+        }
+
+        if (!validLinkMetaBlocks.isEmpty()) {
+            linkMetaBlockRepository.saveAll(validLinkMetaBlocks);
+        }
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    private Optional<String> findValidationError(RestLinkMetaBlock restLinkMetaBlock) {
+        if (restLinkMetaBlock == null) {
+            return Optional.of("link meta block is required");
+        }
+        Set<ConstraintViolation<RestLinkMetaBlock>> violations = validator.validate(restLinkMetaBlock);
+        if (violations.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(joining(", ")));
+    }
+
     @Override
     @PermissionCheck(permissions = Permission.READ)
     public ResponseEntity<List<RestLinkMetaBlock>> findLink(@LabelIdCheckParam(dataExtractor = SUPPLY_CHAIN_LABEL_ID_EXTRACTOR) String supplyChainId, String optionalHash) {
@@ -15,6 +15,7 @@
  */
 package com.rabobank.argos.service.adapter.in.rest.supplychain;
 
+import com.rabobank.argos.service.domain.hierarchy.HierarchyPathCache;
 import com.rabobank.argos.service.domain.security.LabelIdCheckParam;
 import com.rabobank.argos.service.domain.security.LabelIdExtractor;
 import com.rabobank.argos.service.domain.supplychain.SupplyChainRepository;
@@ -30,8 +31,10 @@ public class SupplyChainLabelIdExtractor implements LabelIdExtractor {
 
     private final SupplyChainRepository supplyChainRepository;
 
+    private final HierarchyPathCache hierarchyPathCache;
+
     @Override
     public Optional<String> extractLabelId(LabelIdCheckParam checkParam, Object supplyChainId) {
-        return supplyChainRepository.findParentLabelIdBySupplyChainId((String) supplyChainId);
+        return hierarchyPathCache.getParentLabelIdOfSupplyChain((String) supplyChainId, supplyChainRepository::findParentLabelIdBySupplyChainId);
     }
 }
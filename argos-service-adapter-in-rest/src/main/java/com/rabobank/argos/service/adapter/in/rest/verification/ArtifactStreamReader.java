@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.in.rest.verification;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.rabobank.argos.domain.link.ArtifactHash;
+import com.rabobank.argos.service.domain.verification.CompactArtifactList;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads streamed expected products one artifact at a time into a {@link CompactArtifactList}.
+ *
+ * The uri's are validated like the uri of the Artifact schema of the api.
+ */
+@Component
+public class ArtifactStreamReader {
+
+    static final int MAX_URI_LENGTH = 1024;
+    private static final String URI_FIELD = "uri";
+    private static final String HASH_FIELD = "hash";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * @param inputStream one artifact json object per line
+     */
+    public CompactArtifactList readNdjson(InputStream inputStream) {
+        CompactArtifactList artifacts = new CompactArtifactList();
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw invalid("expected an artifact object");
+                }
+                readNdjsonArtifact(parser, artifacts);
+            }
+        } catch (JsonProcessingException e) {
+            throw invalid("invalid json");
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return checkNotEmpty(artifacts);
+    }
+
+    private void readNdjsonArtifact(JsonParser parser, CompactArtifactList artifacts) throws IOException {
+        String uri = null;
+        String hash = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (URI_FIELD.equals(fieldName) && value == JsonToken.VALUE_STRING) {
+                uri = parser.getText();
+            } else if (HASH_FIELD.equals(fieldName) && value == JsonToken.VALUE_STRING) {
+                hash = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        add(artifacts, uri, hash);
+    }
+
+    /**
+     * @param inputStream per artifact the uri as 2 byte big endian length and UTF-8 bytes followed by the 32 byte sha256 hash
+     */
+    public CompactArtifactList readBinary(InputStream inputStream) {
+        CompactArtifactList artifacts = new CompactArtifactList();
+        DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(inputStream));
+        try {
+            int firstLengthByte;
+            while ((firstLengthByte = dataInputStream.read()) != -1) {
+                int uriLength = (firstLengthByte << 8) | dataInputStream.readUnsignedByte();
+                if (uriLength > MAX_URI_LENGTH * 4) {
+                    throw invalid("uri too long");
+                }
+                byte[] uri = new byte[uriLength];
+                dataInputStream.readFully(uri);
+                byte[] hash = new byte[ArtifactHash.LENGTH];
+                dataInputStream.readFully(hash);
+                add(artifacts, new String(uri, StandardCharsets.UTF_8), hash);
+            }
+        } catch (EOFException e) {
+            throw invalid("incomplete artifact");
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return checkNotEmpty(artifacts);
+    }
+
+    private static void add(CompactArtifactList artifacts, String uri, String hash) {
+        validateUri(uri);
+        if (hash == null) {
+            throw invalid("artifact should have a hash");
+        }
+        try {
+            artifacts.add(uri, hash);
+        } catch (IllegalArgumentException e) {
+            throw invalid(e.getMessage());
+        }
+    }
+
+    private static void add(CompactArtifactList artifacts, String uri, byte[] hash) {
+        validateUri(uri);
+        artifacts.add(uri, hash);
+    }
+
+    private static void validateUri(String uri) {
+        if (uri == null) {
+            throw invalid("artifact should have an uri");
+        }
+        if (uri.length() > MAX_URI_LENGTH || uri.indexOf('\\') != -1) {
+            throw invalid("invalid uri " + uri);
+        }
+    }
+
+    private static CompactArtifactList checkNotEmpty(CompactArtifactList artifacts) {
+        if (artifacts.isEmpty()) {
+            throw invalid("expected products should not be empty");
+        }
+        return artifacts;
+    }
+
+    private static ResponseStatusException invalid(String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+    }
+}
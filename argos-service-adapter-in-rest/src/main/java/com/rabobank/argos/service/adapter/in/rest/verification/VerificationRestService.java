@@ -24,17 +24,24 @@ import com.rabobank.argos.service.adapter.in.rest.api.model.RestVerifyCommand;
 import com.rabobank.argos.service.domain.layout.LayoutMetaBlockRepository;
 import com.rabobank.argos.service.domain.security.LabelIdCheckParam;
 import com.rabobank.argos.service.domain.security.PermissionCheck;
-import com.rabobank.argos.service.domain.verification.VerificationProvider;
+import com.rabobank.argos.service.domain.verification.CompactArtifactList;
+import com.rabobank.argos.service.domain.verification.VerificationResultCache;
 import com.rabobank.argos.service.domain.verification.VerificationRunResult;
+import com.rabobank.argos.service.domain.verification.VerificationRunService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import static com.rabobank.argos.service.adapter.in.rest.supplychain.SupplyChainLabelIdExtractor.SUPPLY_CHAIN_LABEL_ID_EXTRACTOR;
@@ -45,7 +52,7 @@ import static com.rabobank.argos.service.adapter.in.rest.supplychain.SupplyChain
 @RequestMapping("/api")
 public class VerificationRestService implements VerificationApi {
 
-    private final VerificationProvider verificationProvider;
+    private final VerificationRunService verificationRunService;
 
     private final LayoutMetaBlockRepository repository;
 
@@ -53,15 +60,58 @@ public class VerificationRestService implements VerificationApi {
 
     private final VerificationResultMapper verificationResultMapper;
 
+    private final VerificationResultCache verificationResultCache;
+
+    private final ArtifactStreamReader artifactStreamReader;
+
+    private final HttpServletRequest request;
+
     @Override
     @PermissionCheck(permissions = Permission.VERIFY)
     public ResponseEntity<RestVerificationResult> performVerification(@LabelIdCheckParam(dataExtractor = SUPPLY_CHAIN_LABEL_ID_EXTRACTOR) String supplyChainId, @Valid RestVerifyCommand restVerifyCommand) {
+        LayoutMetaBlock layoutMetaBlock = findLayoutMetaBlock(supplyChainId);
+        List<Artifact> expectedProducts = artifactMapper.mapToArtifacts(restVerifyCommand.getExpectedProducts());
+        return verify(layoutMetaBlock, expectedProducts, Boolean.TRUE.equals(restVerifyCommand.getReverify()),
+                Boolean.TRUE.equals(restVerifyCommand.getIncludeArchived()));
+    }
 
-        LayoutMetaBlock layoutMetaBlock = repository.findBySupplyChainId(supplyChainId)
+    @Override
+    @PermissionCheck(permissions = Permission.VERIFY)
+    public ResponseEntity<RestVerificationResult> performStreamingVerification(@LabelIdCheckParam(dataExtractor = SUPPLY_CHAIN_LABEL_ID_EXTRACTOR) String supplyChainId, Resource body,
+                                                                               Boolean reverify, Boolean includeArchived) {
+        LayoutMetaBlock layoutMetaBlock = findLayoutMetaBlock(supplyChainId);
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        return verify(layoutMetaBlock, readExpectedProducts(contentType, body), Boolean.TRUE.equals(reverify), Boolean.TRUE.equals(includeArchived));
+    }
+
+    private LayoutMetaBlock findLayoutMetaBlock(String supplyChainId) {
+        return repository.findBySupplyChainId(supplyChainId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "no active layout could be found for supplychain:" + supplyChainId));
+    }
 
-        List<Artifact> expectedProducts = artifactMapper.mapToArtifacts(restVerifyCommand.getExpectedProducts());
-        VerificationRunResult verificationRunResult = verificationProvider.verifyRun(layoutMetaBlock, expectedProducts);
+    /*
+     * the cached results are of the active links only, a cached result is not recorded as a verification run
+     */
+    private ResponseEntity<RestVerificationResult> verify(LayoutMetaBlock layoutMetaBlock, List<Artifact> expectedProducts, boolean reverify, boolean includeArchived) {
+        VerificationRunResult verificationRunResult = includeArchived
+                ? verificationRunService.verifyRun(layoutMetaBlock, expectedProducts, reverify, true)
+                : verificationResultCache.getOrVerify(layoutMetaBlock, expectedProducts,
+                () -> verificationRunService.verifyRun(layoutMetaBlock, expectedProducts, reverify, false));
         return ResponseEntity.ok(verificationResultMapper.mapToRestVerificationResult(verificationRunResult));
     }
+
+    /*
+     * the body is the request input stream, see StreamingResourceHttpMessageConverter
+     */
+    private CompactArtifactList readExpectedProducts(MediaType contentType, Resource body) {
+        try (InputStream inputStream = body.getInputStream()) {
+            if (MediaType.APPLICATION_OCTET_STREAM.isCompatibleWith(contentType)) {
+                return artifactStreamReader.readBinary(inputStream);
+            } else {
+                return artifactStreamReader.readNdjson(inputStream);
+            }
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
 }
@@ -18,6 +18,7 @@ package com.rabobank.argos.service.adapter.in.rest;
 import com.rabobank.argos.domain.Signature;
 import com.rabobank.argos.domain.key.KeyPair;
 import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
 import com.rabobank.argos.domain.signing.SignatureValidator;
 import com.rabobank.argos.service.domain.account.AccountService;
 import org.junit.jupiter.api.BeforeEach;
@@ -28,11 +29,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.security.PublicKey;
+import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -101,4 +105,35 @@ class SignatureValidatorServiceTest {
         assertThat(exception.getReason(), is("signature with keyId keyId not found"));
     }
 
+    @Test
+    void findSignatureErrors() {
+        Signature otherSignature = Signature.builder().keyId("otherKeyId").signature(SIGNATURE).build();
+        when(keyPair.getPublicKey()).thenReturn(publicKey);
+        when(accountService.findKeyPairByKeyId(KEY_ID)).thenReturn(Optional.of(keyPair));
+        when(accountService.findKeyPairByKeyId("otherKeyId")).thenReturn(Optional.empty());
+        when(signature.getKeyId()).thenReturn(KEY_ID);
+        when(signature.getSignature()).thenReturn(SIGNATURE);
+        when(signatureValidator.isValid(signable, SIGNATURE, publicKey)).thenReturn(true);
+
+        List<Optional<String>> errors = service.findSignatureErrors(List.of(
+                LinkMetaBlock.builder().link(signable).signature(signature).build(),
+                LinkMetaBlock.builder().link(signable).signature(signature).build(),
+                LinkMetaBlock.builder().link(signable).signature(otherSignature).build()));
+
+        assertThat(errors, is(List.of(Optional.empty(), Optional.empty(), Optional.of("signature with keyId otherKeyId not found"))));
+        verify(accountService, times(1)).findKeyPairByKeyId(KEY_ID);
+    }
+
+    @Test
+    void findSignatureErrorsInvalidSignature() {
+        when(keyPair.getPublicKey()).thenReturn(publicKey);
+        when(accountService.findKeyPairByKeyId(KEY_ID)).thenReturn(Optional.of(keyPair));
+        when(signature.getKeyId()).thenReturn(KEY_ID);
+        when(signature.getSignature()).thenReturn(SIGNATURE);
+        when(signatureValidator.isValid(signable, SIGNATURE, publicKey)).thenReturn(false);
+
+        List<Optional<String>> errors = service.findSignatureErrors(List.of(LinkMetaBlock.builder().link(signable).signature(signature).build()));
+        assertThat(errors, is(List.of(Optional.of("invalid signature"))));
+    }
+
 }
@@ -30,6 +30,7 @@ import com.rabobank.argos.service.adapter.in.rest.api.model.RestLayoutMetaBlock;
 import com.rabobank.argos.service.domain.layout.ApprovalConfigurationRepository;
 import com.rabobank.argos.service.domain.layout.LayoutMetaBlockRepository;
 import com.rabobank.argos.service.domain.security.AccountSecurityContext;
+import com.rabobank.argos.service.domain.verification.CompiledLayoutCache;
 import org.hamcrest.core.Is;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -110,6 +111,9 @@ class LayoutRestServiceTest {
     @Mock
     private AccountSecurityContext accountSecurityContext;
 
+    @Mock
+    private CompiledLayoutCache compiledLayoutCache;
+
     @Mock
     private Account account;
 
@@ -124,7 +128,7 @@ class LayoutRestServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new LayoutRestService(converter, layoutMetaBlockRepository, validator, approvalConfigurationRepository, approvalConfigurationMapper, accountSecurityContext);
+        service = new LayoutRestService(converter, layoutMetaBlockRepository, validator, approvalConfigurationRepository, approvalConfigurationMapper, accountSecurityContext, compiledLayoutCache);
     }
 
     @Test
@@ -139,6 +143,7 @@ class LayoutRestServiceTest {
         assertThat(Objects.requireNonNull(responseEntity.getHeaders().getLocation()).getPath(), is(""));
         verify(layoutMetaBlockRepository).createOrUpdate(layoutMetaBlock);
         verify(validator).validate(layoutMetaBlock);
+        verify(compiledLayoutCache).compile(layoutMetaBlock);
 
     }
 
@@ -20,7 +20,11 @@ import com.rabobank.argos.domain.link.Link;
 import com.rabobank.argos.domain.link.LinkMetaBlock;
 import com.rabobank.argos.domain.supplychain.SupplyChain;
 import com.rabobank.argos.service.adapter.in.rest.SignatureValidatorService;
+import com.rabobank.argos.service.adapter.in.rest.api.model.RestArtifact;
+import com.rabobank.argos.service.adapter.in.rest.api.model.RestLink;
+import com.rabobank.argos.service.adapter.in.rest.api.model.RestLinkBatchItemResult;
 import com.rabobank.argos.service.adapter.in.rest.api.model.RestLinkMetaBlock;
+import com.rabobank.argos.service.adapter.in.rest.api.model.RestSignature;
 import com.rabobank.argos.service.domain.link.LinkMetaBlockRepository;
 import com.rabobank.argos.service.domain.supplychain.SupplyChainRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,15 +35,22 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -79,9 +90,12 @@ class LinkRestServiceTest {
     @Mock
     private Link link;
 
+    @Mock
+    private Validator validator;
+
     @BeforeEach
     void setUp() {
-        restService = new LinkRestService(linkMetaBlockRepository, supplyChainRepository, converter, signatureValidatorService);
+        restService = new LinkRestService(linkMetaBlockRepository, supplyChainRepository, converter, signatureValidatorService, validator);
 
     }
 
@@ -99,6 +113,76 @@ class LinkRestServiceTest {
         verify(signatureValidatorService).validateSignature(link, signature);
     }
 
+    @Test
+    void createLinks() {
+        LinkMetaBlock rejectedLinkMetaBlock = LinkMetaBlock.builder().build();
+        RestLinkMetaBlock rejectedRestLinkMetaBlock = new RestLinkMetaBlock();
+        when(converter.convertFromRestLinkMetaBlock(restLinkMetaBlock)).thenReturn(linkMetaBlock);
+        when(converter.convertFromRestLinkMetaBlock(rejectedRestLinkMetaBlock)).thenReturn(rejectedLinkMetaBlock);
+        when(supplyChainRepository.findBySupplyChainId(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(supplyChain));
+        when(signatureValidatorService.findSignatureErrors(List.of(linkMetaBlock, rejectedLinkMetaBlock)))
+                .thenReturn(Arrays.asList(Optional.empty(), Optional.of("invalid signature")));
+
+        ResponseEntity<List<RestLinkBatchItemResult>> response = restService.createLinks(SUPPLY_CHAIN_ID, List.of(restLinkMetaBlock, rejectedRestLinkMetaBlock));
+        assertThat(response.getStatusCodeValue(), is(200));
+        assertThat(response.getBody(), hasSize(2));
+        assertThat(response.getBody().get(0).getIndex(), is(0));
+        assertThat(response.getBody().get(0).getStatus(), is(RestLinkBatchItemResult.StatusEnum.CREATED));
+        assertThat(response.getBody().get(1).getIndex(), is(1));
+        assertThat(response.getBody().get(1).getStatus(), is(RestLinkBatchItemResult.StatusEnum.REJECTED));
+        assertThat(response.getBody().get(1).getMessage(), is("invalid signature"));
+        verify(linkMetaBlock).setSupplyChainId(SUPPLY_CHAIN_ID);
+        verify(linkMetaBlockRepository).saveAll(List.of(linkMetaBlock));
+    }
+
+    @Test
+    void createLinksAllRejected() {
+        when(converter.convertFromRestLinkMetaBlock(restLinkMetaBlock)).thenReturn(linkMetaBlock);
+        when(supplyChainRepository.findBySupplyChainId(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(supplyChain));
+        when(signatureValidatorService.findSignatureErrors(List.of(linkMetaBlock))).thenReturn(List.of(Optional.of("invalid signature")));
+
+        ResponseEntity<List<RestLinkBatchItemResult>> response = restService.createLinks(SUPPLY_CHAIN_ID, List.of(restLinkMetaBlock));
+        assertThat(response.getBody().get(0).getStatus(), is(RestLinkBatchItemResult.StatusEnum.REJECTED));
+        verify(linkMetaBlockRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void createLinksWithInvalidLinkShouldRejectThatLink() {
+        restService = new LinkRestService(linkMetaBlockRepository, supplyChainRepository, converter, signatureValidatorService,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        RestLinkMetaBlock validRestLinkMetaBlock = new RestLinkMetaBlock()
+                .signature(new RestSignature().keyId("a".repeat(64)).signature("b".repeat(512)))
+                .link(restLink("c".repeat(64)));
+        RestLinkMetaBlock invalidRestLinkMetaBlock = new RestLinkMetaBlock().link(restLink("invalid"));
+        when(converter.convertFromRestLinkMetaBlock(validRestLinkMetaBlock)).thenReturn(linkMetaBlock);
+        when(supplyChainRepository.findBySupplyChainId(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(supplyChain));
+        when(signatureValidatorService.findSignatureErrors(List.of(linkMetaBlock))).thenReturn(List.of(Optional.empty()));
+
+        ResponseEntity<List<RestLinkBatchItemResult>> response = restService.createLinks(SUPPLY_CHAIN_ID,
+                List.of(invalidRestLinkMetaBlock, validRestLinkMetaBlock));
+        assertThat(response.getBody(), hasSize(2));
+        assertThat(response.getBody().get(0).getStatus(), is(RestLinkBatchItemResult.StatusEnum.REJECTED));
+        assertThat(response.getBody().get(0).getMessage(), containsString("link.materials[0].hash "));
+        assertThat(response.getBody().get(0).getMessage(), containsString("signature "));
+        assertThat(response.getBody().get(1).getStatus(), is(RestLinkBatchItemResult.StatusEnum.CREATED));
+        verify(linkMetaBlockRepository).saveAll(List.of(linkMetaBlock));
+    }
+
+    @Test
+    void createLinksAboveMaximum() {
+        List<RestLinkMetaBlock> restLinkMetaBlocks = Collections.nCopies(LinkRestService.MAX_BATCH_SIZE + 1, restLinkMetaBlock);
+        ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> restService.createLinks(SUPPLY_CHAIN_ID, restLinkMetaBlocks));
+        assertThat(error.getStatus().value(), is(400));
+        verifyNoInteractions(supplyChainRepository, linkMetaBlockRepository);
+    }
+
+    @Test
+    void createLinksUnknownSupplyChain() {
+        when(supplyChainRepository.findBySupplyChainId(SUPPLY_CHAIN_ID)).thenReturn(Optional.empty());
+        ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> restService.createLinks(SUPPLY_CHAIN_ID, List.of(restLinkMetaBlock)));
+        assertThat(error.getStatus().value(), is(404));
+    }
+
     @Test
     void findLink() {
         when(supplyChainRepository.findBySupplyChainId(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(supplyChain));
@@ -116,4 +200,9 @@ class LinkRestServiceTest {
         ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> restService.findLink(SUPPLY_CHAIN_ID, HASH).getStatusCodeValue());
         assertThat(error.getStatus().value(), is(404));
     }
+
+    private static RestLink restLink(String hash) {
+        return new RestLink().runId("runId").layoutSegmentName("segment").stepName("step")
+                .command(List.of()).materials(List.of(new RestArtifact().uri("file").hash(hash))).products(List.of());
+    }
 }
@@ -15,6 +15,7 @@
  */
 package com.rabobank.argos.service.adapter.in.rest.supplychain;
 
+import com.rabobank.argos.service.domain.hierarchy.HierarchyPathCache;
 import com.rabobank.argos.service.domain.security.LabelIdCheckParam;
 import com.rabobank.argos.service.domain.supplychain.SupplyChainRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,10 +24,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,7 +49,7 @@ class SupplyChainLabelIdExtractorTest {
 
     @BeforeEach
     void setUp() {
-        extractor = new SupplyChainLabelIdExtractor(supplyChainRepository);
+        extractor = new SupplyChainLabelIdExtractor(supplyChainRepository, new HierarchyPathCache(100, Duration.ofSeconds(30)));
     }
 
     @Test
@@ -53,4 +57,12 @@ class SupplyChainLabelIdExtractorTest {
         when(supplyChainRepository.findParentLabelIdBySupplyChainId(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(LABEL_ID));
         assertThat(extractor.extractLabelId(checkParam, SUPPLY_CHAIN_ID), is(Optional.of(LABEL_ID)));
     }
+
+    @Test
+    void extractLabelIdIsCached() {
+        when(supplyChainRepository.findParentLabelIdBySupplyChainId(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(LABEL_ID));
+        extractor.extractLabelId(checkParam, SUPPLY_CHAIN_ID);
+        assertThat(extractor.extractLabelId(checkParam, SUPPLY_CHAIN_ID), is(Optional.of(LABEL_ID)));
+        verify(supplyChainRepository, times(1)).findParentLabelIdBySupplyChainId(SUPPLY_CHAIN_ID);
+    }
 }
\ No newline at end of file
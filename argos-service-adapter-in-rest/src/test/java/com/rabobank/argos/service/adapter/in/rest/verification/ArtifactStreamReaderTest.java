@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.in.rest.verification;
+
+import com.rabobank.argos.domain.link.Artifact;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArtifactStreamReaderTest {
+
+    private static final String HASH = "cb6bdad36690e8024e7df13e6796ae6603f2cb9cf9f989c9ff939b2ecebdcb91";
+
+    private final ArtifactStreamReader reader = new ArtifactStreamReader();
+
+    @Test
+    void readNdjson() {
+        List<Artifact> artifacts = reader.readNdjson(stream("{\"uri\":\"a\",\"hash\":\"" + HASH + "\"}\n" +
+                "{\"hash\":\"" + HASH + "\",\"uri\":\"b\",\"other\":{\"x\":1}}\n" +
+                "{\"uri\":\"a\",\"hash\":\"" + HASH + "\"}\n"));
+        assertThat(artifacts, contains(new Artifact("a", HASH), new Artifact("b", HASH)));
+    }
+
+    @Test
+    void readNdjsonWithoutHash() {
+        assertBadRequest(() -> reader.readNdjson(stream("{\"uri\":\"a\"}")), "artifact should have a hash");
+    }
+
+    @Test
+    void readNdjsonWithInvalidHash() {
+        assertBadRequest(() -> reader.readNdjson(stream("{\"uri\":\"a\",\"hash\":\"" + HASH.toUpperCase() + "\"}")),
+                "hash should be a lowercase hex encoded sha256 hash but is " + HASH.toUpperCase());
+    }
+
+    @Test
+    void readNdjsonWithInvalidUri() {
+        assertBadRequest(() -> reader.readNdjson(stream("{\"uri\":\"a\\\\b\",\"hash\":\"" + HASH + "\"}")), "invalid uri a\\b");
+    }
+
+    @Test
+    void readNdjsonWithArray() {
+        assertBadRequest(() -> reader.readNdjson(stream("[]")), "expected an artifact object");
+    }
+
+    @Test
+    void readNdjsonWithInvalidJson() {
+        assertBadRequest(() -> reader.readNdjson(stream("{\"uri\":")), "invalid json");
+    }
+
+    @Test
+    void readNdjsonEmpty() {
+        assertBadRequest(() -> reader.readNdjson(stream("\n")), "expected products should not be empty");
+    }
+
+    @Test
+    void readBinary() throws IOException {
+        byte[] hash = new byte[32];
+        Arrays.fill(hash, (byte) 0xab);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeBinaryArtifact(out, "dir/é.txt", hash);
+        writeBinaryArtifact(out, "b", hash);
+        List<Artifact> artifacts = reader.readBinary(new ByteArrayInputStream(bytes.toByteArray()));
+        String hexHash = "ab".repeat(32);
+        assertThat(artifacts, contains(new Artifact("dir/é.txt", hexHash), new Artifact("b", hexHash)));
+    }
+
+    @Test
+    void readBinaryIncomplete() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeBinaryArtifact(out, "a", new byte[32]);
+        out.write(new byte[]{0, 1, 'b', 0});
+        assertBadRequest(() -> reader.readBinary(new ByteArrayInputStream(bytes.toByteArray())), "incomplete artifact");
+    }
+
+    @Test
+    void readBinaryEmpty() {
+        assertBadRequest(() -> reader.readBinary(new ByteArrayInputStream(new byte[0])), "expected products should not be empty");
+    }
+
+    private static void writeBinaryArtifact(DataOutputStream out, String uri, byte[] hash) throws IOException {
+        byte[] uriBytes = uri.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(uriBytes.length);
+        out.write(uriBytes);
+        out.write(hash);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertBadRequest(Runnable read, String reason) {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, read::run);
+        assertThat(exception.getStatus().value(), is(400));
+        assertThat(exception.getReason(), is(reason));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.in.rest.verification;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.InputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StreamingResourceHttpMessageConverterTest {
+
+    private final StreamingResourceHttpMessageConverter converter = new StreamingResourceHttpMessageConverter();
+
+    @Mock
+    private HttpInputMessage inputMessage;
+
+    @Mock
+    private InputStream inputStream;
+
+    @Test
+    void readShouldReturnRequestInputStream() throws Exception {
+        when(inputMessage.getBody()).thenReturn(inputStream);
+        Resource resource = converter.read(Resource.class, inputMessage);
+        assertThat(resource, instanceOf(InputStreamResource.class));
+        assertThat(resource.getInputStream(), sameInstance(inputStream));
+    }
+
+    @Test
+    void canReadStreamingMediaTypes() {
+        assertThat(converter.canRead(Resource.class, StreamingResourceHttpMessageConverter.APPLICATION_NDJSON), is(true));
+        assertThat(converter.canRead(Resource.class, MediaType.APPLICATION_OCTET_STREAM), is(true));
+        assertThat(converter.canRead(Resource.class, MediaType.APPLICATION_JSON), is(false));
+        assertThat(converter.canRead(ByteArrayResource.class, MediaType.APPLICATION_OCTET_STREAM), is(false));
+    }
+
+    @Test
+    void cannotWrite() {
+        assertThat(converter.canWrite(Resource.class, MediaType.APPLICATION_OCTET_STREAM), is(false));
+    }
+}
@@ -21,18 +21,24 @@ import com.rabobank.argos.service.adapter.in.rest.api.model.RestArtifact;
 import com.rabobank.argos.service.adapter.in.rest.api.model.RestVerificationResult;
 import com.rabobank.argos.service.adapter.in.rest.api.model.RestVerifyCommand;
 import com.rabobank.argos.service.domain.layout.LayoutMetaBlockRepository;
-import com.rabobank.argos.service.domain.verification.VerificationProvider;
+import com.rabobank.argos.service.domain.verification.CompactArtifactList;
+import com.rabobank.argos.service.domain.verification.VerificationResultCache;
 import com.rabobank.argos.service.domain.verification.VerificationRunResult;
+import com.rabobank.argos.service.domain.verification.VerificationRunService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.InputStream;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -40,13 +46,16 @@ import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class VerificationRestServiceTest {
 
     @Mock
-    private VerificationProvider verificationProvider;
+    private VerificationRunService verificationRunService;
 
     @Mock
     private LayoutMetaBlockRepository repository;
@@ -69,16 +78,37 @@ class VerificationRestServiceTest {
     @Mock
     private LayoutMetaBlock layoutMetaBlockMetaBlock;
 
+    @Mock
+    private VerificationResultCache verificationResultCache;
+
+    @Mock
+    private ArtifactStreamReader artifactStreamReader;
+
+    @Mock
+    private Resource body;
+
+    @Mock
+    private InputStream inputStream;
+
+    @Mock
+    private HttpServletRequest httpServletRequest;
+
+    @Mock
+    private CompactArtifactList compactArtifactList;
+
     private VerificationRestService verificationRestService;
 
 
     @BeforeEach
     void setup() {
         verificationRestService = new VerificationRestService(
-                verificationProvider,
+                verificationRunService,
                 repository,
                 artifactMapper,
-                verificationResultMapper);
+                verificationResultMapper,
+                verificationResultCache,
+                artifactStreamReader,
+                httpServletRequest);
 
     }
 
@@ -91,13 +121,50 @@ class VerificationRestServiceTest {
                 .thenReturn(Optional.of(layoutMetaBlockMetaBlock));
         when(restVerifyCommand.getExpectedProducts()).thenReturn(singletonList(restArtifact));
         when(artifactMapper.mapToArtifacts(any())).thenReturn(singletonList(artifact));
-        when(verificationProvider.verifyRun(any(), any())).thenReturn(runResult);
+        when(verificationRunService.verifyRun(layoutMetaBlockMetaBlock, singletonList(artifact), false, false)).thenReturn(runResult);
+        when(verificationResultCache.getOrVerify(eq(layoutMetaBlockMetaBlock), eq(singletonList(artifact)), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
         when(verificationResultMapper.mapToRestVerificationResult(eq(runResult))).thenReturn(restVerificationResult);
         ResponseEntity<RestVerificationResult> result = verificationRestService.performVerification("supplyChainId", restVerifyCommand);
         assertThat(result.getStatusCode(), is(HttpStatus.OK));
         assertThat(result.getBody().getRunIsValid(), is(true));
     }
 
+    @Test
+    void performVerificationWithReverifyShouldReverify() {
+        VerificationRunResult runResult = VerificationRunResult.okay();
+        RestVerificationResult restVerificationResult = new RestVerificationResult();
+        restVerificationResult.setRunIsValid(true);
+        when(repository.findBySupplyChainId(eq("supplyChainId")))
+                .thenReturn(Optional.of(layoutMetaBlockMetaBlock));
+        when(restVerifyCommand.getExpectedProducts()).thenReturn(singletonList(restArtifact));
+        when(restVerifyCommand.getReverify()).thenReturn(true);
+        when(artifactMapper.mapToArtifacts(any())).thenReturn(singletonList(artifact));
+        when(verificationRunService.verifyRun(layoutMetaBlockMetaBlock, singletonList(artifact), true, false)).thenReturn(runResult);
+        when(verificationResultCache.getOrVerify(eq(layoutMetaBlockMetaBlock), eq(singletonList(artifact)), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+        when(verificationResultMapper.mapToRestVerificationResult(eq(runResult))).thenReturn(restVerificationResult);
+        ResponseEntity<RestVerificationResult> result = verificationRestService.performVerification("supplyChainId", restVerifyCommand);
+        assertThat(result.getBody().getRunIsValid(), is(true));
+    }
+
+    @Test
+    void performVerificationWithIncludeArchivedShouldNotUseCache() {
+        VerificationRunResult runResult = VerificationRunResult.okay();
+        RestVerificationResult restVerificationResult = new RestVerificationResult();
+        restVerificationResult.setRunIsValid(true);
+        when(repository.findBySupplyChainId(eq("supplyChainId")))
+                .thenReturn(Optional.of(layoutMetaBlockMetaBlock));
+        when(restVerifyCommand.getExpectedProducts()).thenReturn(singletonList(restArtifact));
+        when(restVerifyCommand.getIncludeArchived()).thenReturn(true);
+        when(artifactMapper.mapToArtifacts(any())).thenReturn(singletonList(artifact));
+        when(verificationRunService.verifyRun(layoutMetaBlockMetaBlock, singletonList(artifact), false, true)).thenReturn(runResult);
+        when(verificationResultMapper.mapToRestVerificationResult(eq(runResult))).thenReturn(restVerificationResult);
+        ResponseEntity<RestVerificationResult> result = verificationRestService.performVerification("supplyChainId", restVerifyCommand);
+        assertThat(result.getBody().getRunIsValid(), is(true));
+        verifyNoInteractions(verificationResultCache);
+    }
+
     @Test
     void performVerificationWithNoLayoutShouldReturnError() {
         when(repository.findBySupplyChainId(eq("supplyChainId")))
@@ -105,4 +172,81 @@ class VerificationRestServiceTest {
         ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> verificationRestService.performVerification("supplyChainId", restVerifyCommand));
         assertThat(error.getStatus().value(), is(400));
     }
-}
\ No newline at end of file
+
+    @Test
+    void performVerificationWithCachedResultShouldNotVerify() {
+        VerificationRunResult runResult = VerificationRunResult.okay();
+        RestVerificationResult restVerificationResult = new RestVerificationResult();
+        restVerificationResult.setRunIsValid(true);
+        when(repository.findBySupplyChainId(eq("supplyChainId")))
+                .thenReturn(Optional.of(layoutMetaBlockMetaBlock));
+        when(restVerifyCommand.getExpectedProducts()).thenReturn(singletonList(restArtifact));
+        when(artifactMapper.mapToArtifacts(any())).thenReturn(singletonList(artifact));
+        when(verificationResultCache.getOrVerify(eq(layoutMetaBlockMetaBlock), eq(singletonList(artifact)), any())).thenReturn(runResult);
+        when(verificationResultMapper.mapToRestVerificationResult(eq(runResult))).thenReturn(restVerificationResult);
+        ResponseEntity<RestVerificationResult> result = verificationRestService.performVerification("supplyChainId", restVerifyCommand);
+        assertThat(result.getBody().getRunIsValid(), is(true));
+        verify(verificationRunService, never()).verifyRun(any(), any(), eq(false), eq(false));
+    }
+
+    @Test
+    void performStreamingVerificationWithNdjsonShouldReturnOk() throws Exception {
+        setContentType("application/x-ndjson");
+        when(artifactStreamReader.readNdjson(inputStream)).thenReturn(compactArtifactList);
+        assertStreamingVerificationIsValid();
+    }
+
+    @Test
+    void performStreamingVerificationWithBinaryShouldReturnOk() throws Exception {
+        setContentType("application/octet-stream");
+        when(artifactStreamReader.readBinary(inputStream)).thenReturn(compactArtifactList);
+        assertStreamingVerificationIsValid();
+    }
+
+    @Test
+    void performStreamingVerificationWithNoLayoutShouldReturnError() {
+        when(repository.findBySupplyChainId(eq("supplyChainId")))
+                .thenReturn(Optional.empty());
+        ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> verificationRestService.performStreamingVerification("supplyChainId", body, null, null));
+        assertThat(error.getStatus().value(), is(400));
+        verifyNoInteractions(artifactStreamReader);
+    }
+
+    @Test
+    void performStreamingVerificationWithReverifyAndIncludeArchivedShouldNotUseCache() throws Exception {
+        setContentType("application/octet-stream");
+        when(artifactStreamReader.readBinary(inputStream)).thenReturn(compactArtifactList);
+        VerificationRunResult runResult = VerificationRunResult.okay();
+        RestVerificationResult restVerificationResult = new RestVerificationResult();
+        restVerificationResult.setRunIsValid(true);
+        when(repository.findBySupplyChainId(eq("supplyChainId")))
+                .thenReturn(Optional.of(layoutMetaBlockMetaBlock));
+        when(body.getInputStream()).thenReturn(inputStream);
+        when(verificationRunService.verifyRun(layoutMetaBlockMetaBlock, compactArtifactList, true, true)).thenReturn(runResult);
+        when(verificationResultMapper.mapToRestVerificationResult(eq(runResult))).thenReturn(restVerificationResult);
+        ResponseEntity<RestVerificationResult> result = verificationRestService.performStreamingVerification("supplyChainId", body, true, true);
+        assertThat(result.getBody().getRunIsValid(), is(true));
+        verifyNoInteractions(verificationResultCache);
+    }
+
+    private void assertStreamingVerificationIsValid() throws Exception {
+        VerificationRunResult runResult = VerificationRunResult.okay();
+        RestVerificationResult restVerificationResult = new RestVerificationResult();
+        restVerificationResult.setRunIsValid(true);
+        when(repository.findBySupplyChainId(eq("supplyChainId")))
+                .thenReturn(Optional.of(layoutMetaBlockMetaBlock));
+        when(body.getInputStream()).thenReturn(inputStream);
+        when(verificationRunService.verifyRun(layoutMetaBlockMetaBlock, compactArtifactList, false, false)).thenReturn(runResult);
+        when(verificationResultCache.getOrVerify(eq(layoutMetaBlockMetaBlock), eq(compactArtifactList), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+        when(verificationResultMapper.mapToRestVerificationResult(eq(runResult))).thenReturn(restVerificationResult);
+        ResponseEntity<RestVerificationResult> result = verificationRestService.performStreamingVerification("supplyChainId", body, false, false);
+        assertThat(result.getStatusCode(), is(HttpStatus.OK));
+        assertThat(result.getBody().getRunIsValid(), is(true));
+        verify(inputStream).close();
+    }
+
+    private void setContentType(String contentType) {
+        when(httpServletRequest.getContentType()).thenReturn(contentType);
+    }
+}
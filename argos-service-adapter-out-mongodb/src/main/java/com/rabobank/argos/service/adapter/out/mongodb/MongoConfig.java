@@ -18,6 +18,8 @@ package com.rabobank.argos.service.adapter.out.mongodb;
 import com.github.mongobee.Mongobee;
 import com.rabobank.argos.service.adapter.out.mongodb.account.converter.ByteArrayToPublicKeyToReadConverter;
 import com.rabobank.argos.service.adapter.out.mongodb.account.converter.PublicKeyToByteArrayWriteConverter;
+import com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter;
+import com.rabobank.argos.service.adapter.out.mongodb.link.converter.DocumentToArtifactReadConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,11 +32,14 @@ import java.util.List;
 
 @Configuration
 public class MongoConfig {
+
     @Bean
     public MongoCustomConversions customConversions() {
         List<Converter<?, ?>> converterList = new ArrayList<>();
         converterList.add(new ByteArrayToPublicKeyToReadConverter());
         converterList.add(new PublicKeyToByteArrayWriteConverter());
+        converterList.add(new ArtifactToDocumentWriteConverter());
+        converterList.add(new DocumentToArtifactReadConverter());
         return new MongoCustomConversions(converterList);
     }
 
@@ -17,6 +17,7 @@ package com.rabobank.argos.service.adapter.out.mongodb.account;
 
 import com.rabobank.argos.domain.ArgosError;
 import com.rabobank.argos.domain.account.ServiceAccount;
+import com.rabobank.argos.service.adapter.out.mongodb.hierarchy.HierarchyWriter;
 import com.rabobank.argos.service.domain.account.ServiceAccountRepository;
 import lombok.RequiredArgsConstructor;
 import org.bson.Document;
@@ -39,11 +40,13 @@ public class ServiceAccountRepositoryImpl implements ServiceAccountRepository {
     static final String ACTIVE_KEY_ID_FIELD = "activeKeyPair.keyId";
     static final String PARENT_LABEL_ID_FIELD = "parentLabelId";
     private final MongoTemplate template;
+    private final HierarchyWriter hierarchyWriter;
 
     @Override
     public void save(ServiceAccount account) {
         try {
             template.save(account, COLLECTION);
+            hierarchyWriter.save(account);
         } catch (DuplicateKeyException e) {
             throw duplicateKeyException(account, e);
         }
@@ -66,6 +69,7 @@ public class ServiceAccountRepositoryImpl implements ServiceAccountRepository {
         template.getConverter().write(account, document);
         try {
             template.updateFirst(query, Update.fromDocument(document), ServiceAccount.class, COLLECTION);
+            hierarchyWriter.save(account);
         } catch (DuplicateKeyException e) {
             throw duplicateKeyException(account, e);
         }
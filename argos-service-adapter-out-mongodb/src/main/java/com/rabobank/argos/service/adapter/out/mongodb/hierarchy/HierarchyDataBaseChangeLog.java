@@ -18,11 +18,22 @@ package com.rabobank.argos.service.adapter.out.mongodb.hierarchy;
 import com.github.mongobee.changeset.ChangeLog;
 import com.github.mongobee.changeset.ChangeSet;
 import org.apache.commons.io.IOUtils;
+import org.bson.Document;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.Index;
 
 import java.io.IOException;
 
+import static com.rabobank.argos.service.adapter.out.mongodb.hierarchy.HierarchyWriter.COLLECTION;
+import static com.rabobank.argos.service.adapter.out.mongodb.hierarchy.HierarchyWriter.ID_PATH_TO_ROOT_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.hierarchy.HierarchyWriter.NAME_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.hierarchy.HierarchyWriter.PARENT_LABEL_ID_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.hierarchy.HierarchyWriter.PATH_TO_ROOT_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.hierarchy.HierarchyWriter.REFERENCE_ID_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.hierarchy.HierarchyWriter.TYPE_FIELD;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.data.domain.Sort.Direction.ASC;
 
 @ChangeLog
 public class HierarchyDataBaseChangeLog {
@@ -38,4 +49,18 @@ public class HierarchyDataBaseChangeLog {
         template.executeCommand(createViewCommand);
 
     }
+
+    @ChangeSet(order = "002", id = "HierarchyChangelog-2", author = "argos")
+    public void materializeHierarchy(MongoTemplate template) {
+        template.dropCollection(COLLECTION);
+        template.dropCollection("hierarchy_tmp");
+        template.createCollection(COLLECTION);
+        template.indexOps(COLLECTION).ensureIndex(new Index(REFERENCE_ID_FIELD, ASC).unique());
+        template.indexOps(COLLECTION).ensureIndex(new Index(PARENT_LABEL_ID_FIELD, ASC));
+        template.indexOps(COLLECTION).ensureIndex(new Index(ID_PATH_TO_ROOT_FIELD, ASC));
+        template.indexOps(COLLECTION)
+                .ensureIndex(new CompoundIndexDefinition(new Document(NAME_FIELD, 1).append(PATH_TO_ROOT_FIELD, 1).append(TYPE_FIELD, 1))
+                        .named(NAME_FIELD + "_" + PATH_TO_ROOT_FIELD + "_" + TYPE_FIELD));
+        new HierarchyWriter(template).rebuild();
+    }
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.hierarchy;
+
+import com.rabobank.argos.domain.account.ServiceAccount;
+import com.rabobank.argos.domain.hierarchy.Label;
+import com.rabobank.argos.domain.hierarchy.TreeNode;
+import com.rabobank.argos.domain.supplychain.SupplyChain;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Maintains the materialized hierarchy collection which holds a document for each label,
+ * supply chain and service account with its path to the root, the ids of its descendant
+ * labels and whether it has children.
+ */
+@Component
+@RequiredArgsConstructor
+public class HierarchyWriter {
+
+    static final String COLLECTION = "hierarchy";
+    static final String REFERENCE_ID_FIELD = "referenceId";
+    static final String NAME_FIELD = "name";
+    static final String PARENT_LABEL_ID_FIELD = "parentLabelId";
+    static final String TYPE_FIELD = "type";
+    static final String PATH_TO_ROOT_FIELD = "pathToRoot";
+    static final String ID_PATH_TO_ROOT_FIELD = "idPathToRoot";
+    static final String IDS_OF_DESCENDANT_LABELS_FIELD = "idsOfDescendantLabels";
+    static final String HAS_CHILDREN_FIELD = "hasChildren";
+
+    private static final String LABELS_COLLECTION = "labels";
+    private static final String SUPPLY_CHAINS_COLLECTION = "supplyChains";
+    private static final String SERVICE_ACCOUNTS_COLLECTION = "serviceAccounts";
+
+    private final MongoTemplate template;
+
+    public void save(Label label) {
+        save(new HierarchyNode(label.getLabelId(), label.getName(), label.getParentLabelId(), TreeNode.Type.LABEL));
+    }
+
+    public void save(SupplyChain supplyChain) {
+        save(new HierarchyNode(supplyChain.getSupplyChainId(), supplyChain.getName(), supplyChain.getParentLabelId(), TreeNode.Type.SUPPLY_CHAIN));
+    }
+
+    public void save(ServiceAccount serviceAccount) {
+        save(new HierarchyNode(serviceAccount.getAccountId(), serviceAccount.getName(), serviceAccount.getParentLabelId(), TreeNode.Type.SERVICE_ACCOUNT));
+    }
+
+    /**
+     * Replaces the content of the hierarchy collection with the current labels, supply chains and service accounts.
+     */
+    public void rebuild() {
+        Map<String, HierarchyNode> nodes = new LinkedHashMap<>();
+        findNodes(LABELS_COLLECTION, "labelId", TreeNode.Type.LABEL).forEach(node -> nodes.put(node.getReferenceId(), node));
+        findNodes(SUPPLY_CHAINS_COLLECTION, "supplyChainId", TreeNode.Type.SUPPLY_CHAIN).forEach(node -> nodes.put(node.getReferenceId(), node));
+        findNodes(SERVICE_ACCOUNTS_COLLECTION, "accountId", TreeNode.Type.SERVICE_ACCOUNT).forEach(node -> nodes.put(node.getReferenceId(), node));
+
+        Set<String> parentLabelIds = nodes.values().stream().map(HierarchyNode::getParentLabelId).filter(Objects::nonNull).collect(toSet());
+        Map<String, Document> documents = new LinkedHashMap<>();
+        nodes.values().forEach(node -> {
+            List<String> pathToRoot = new ArrayList<>();
+            List<String> idPathToRoot = new ArrayList<>();
+            HierarchyNode parent = nodes.get(node.getParentLabelId());
+            while (parent != null && !idPathToRoot.contains(parent.getReferenceId())) {
+                idPathToRoot.add(parent.getReferenceId());
+                pathToRoot.add(parent.getName());
+                parent = nodes.get(parent.getParentLabelId());
+            }
+            documents.put(node.getReferenceId(), new Document(REFERENCE_ID_FIELD, node.getReferenceId())
+                    .append(NAME_FIELD, node.getName())
+                    .append(PARENT_LABEL_ID_FIELD, node.getParentLabelId())
+                    .append(TYPE_FIELD, node.getType().name())
+                    .append(PATH_TO_ROOT_FIELD, pathToRoot)
+                    .append(ID_PATH_TO_ROOT_FIELD, idPathToRoot)
+                    .append(IDS_OF_DESCENDANT_LABELS_FIELD, new ArrayList<String>())
+                    .append(HAS_CHILDREN_FIELD, parentLabelIds.contains(node.getReferenceId())));
+        });
+        documents.values().stream()
+                .filter(document -> TreeNode.Type.LABEL.name().equals(document.getString(TYPE_FIELD)))
+                .forEach(label -> getList(label, ID_PATH_TO_ROOT_FIELD)
+                        .forEach(ancestorId -> getList(documents.get(ancestorId), IDS_OF_DESCENDANT_LABELS_FIELD)
+                                .add(label.getString(REFERENCE_ID_FIELD))));
+
+        template.remove(new Query(), COLLECTION);
+        if (!documents.isEmpty()) {
+            template.insert(documents.values(), COLLECTION);
+        }
+    }
+
+    private void save(HierarchyNode node) {
+        String referenceId = node.getReferenceId();
+        Optional<Document> current = findByReferenceId(referenceId);
+
+        List<String> pathToRoot = new ArrayList<>();
+        List<String> idPathToRoot = new ArrayList<>();
+        Optional.ofNullable(node.getParentLabelId()).flatMap(this::findByReferenceId).ifPresent(parent -> {
+            idPathToRoot.add(node.getParentLabelId());
+            pathToRoot.add(parent.getString(NAME_FIELD));
+            idPathToRoot.addAll(getList(parent, ID_PATH_TO_ROOT_FIELD));
+            pathToRoot.addAll(getList(parent, PATH_TO_ROOT_FIELD));
+        });
+
+        template.upsert(referenceIdQuery(referenceId), new Update()
+                .set(NAME_FIELD, node.getName())
+                .set(PARENT_LABEL_ID_FIELD, node.getParentLabelId())
+                .set(TYPE_FIELD, node.getType().name())
+                .set(PATH_TO_ROOT_FIELD, pathToRoot)
+                .set(ID_PATH_TO_ROOT_FIELD, idPathToRoot)
+                .set(HAS_CHILDREN_FIELD, template.exists(parentLabelIdQuery(referenceId), COLLECTION))
+                .setOnInsert(IDS_OF_DESCENDANT_LABELS_FIELD, emptyList()), COLLECTION);
+
+        String currentParentLabelId = current.map(document -> document.getString(PARENT_LABEL_ID_FIELD)).orElse(null);
+        boolean parentChanged = current.isEmpty() || !Objects.equals(currentParentLabelId, node.getParentLabelId());
+        if (parentChanged) {
+            Optional.ofNullable(node.getParentLabelId()).ifPresent(this::updateHasChildren);
+            Optional.ofNullable(currentParentLabelId).ifPresent(this::updateHasChildren);
+            if (node.getType() == TreeNode.Type.LABEL) {
+                moveDescendantLabelIds(referenceId, current, idPathToRoot);
+            }
+        }
+        boolean nameChanged = current.map(document -> !node.getName().equals(document.getString(NAME_FIELD))).orElse(false);
+        if (current.isPresent() && node.getType() == TreeNode.Type.LABEL && (parentChanged || nameChanged)) {
+            updateDescendantPaths(referenceId, node.getName(), pathToRoot, idPathToRoot);
+        }
+    }
+
+    private void updateHasChildren(String labelId) {
+        template.updateFirst(referenceIdQuery(labelId),
+                new Update().set(HAS_CHILDREN_FIELD, template.exists(parentLabelIdQuery(labelId), COLLECTION)), COLLECTION);
+    }
+
+    /*
+     * the label and its descendant labels leave the descendants of the old ancestors and join those of the new ancestors
+     */
+    private void moveDescendantLabelIds(String labelId, Optional<Document> current, List<String> idPathToRoot) {
+        List<Object> movedLabelIds = new ArrayList<>();
+        movedLabelIds.add(labelId);
+        current.ifPresent(document -> movedLabelIds.addAll(getList(document, IDS_OF_DESCENDANT_LABELS_FIELD)));
+        current.map(document -> getList(document, ID_PATH_TO_ROOT_FIELD))
+                .filter(oldIdPathToRoot -> !oldIdPathToRoot.isEmpty())
+                .ifPresent(oldIdPathToRoot -> template.updateMulti(new Query(Criteria.where(REFERENCE_ID_FIELD).in(oldIdPathToRoot)),
+                        new Update().pullAll(IDS_OF_DESCENDANT_LABELS_FIELD, movedLabelIds.toArray()), COLLECTION));
+        if (!idPathToRoot.isEmpty()) {
+            template.updateMulti(new Query(Criteria.where(REFERENCE_ID_FIELD).in(idPathToRoot)),
+                    new Update().addToSet(IDS_OF_DESCENDANT_LABELS_FIELD).each(movedLabelIds.toArray()), COLLECTION);
+        }
+    }
+
+    /*
+     * the paths of the descendants end with the path of the label, so only that part is replaced
+     */
+    private void updateDescendantPaths(String labelId, String name, List<String> pathToRoot, List<String> idPathToRoot) {
+        List<Document> descendants = template.find(new Query(Criteria.where(ID_PATH_TO_ROOT_FIELD).is(labelId)), Document.class, COLLECTION);
+        if (descendants.isEmpty()) {
+            return;
+        }
+        BulkOperations bulkOperations = template.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        descendants.forEach(descendant -> {
+            List<String> descendantIdPathToRoot = getList(descendant, ID_PATH_TO_ROOT_FIELD);
+            int labelIndex = descendantIdPathToRoot.indexOf(labelId);
+            List<String> newIdPathToRoot = new ArrayList<>(descendantIdPathToRoot.subList(0, labelIndex + 1));
+            newIdPathToRoot.addAll(idPathToRoot);
+            List<String> newPathToRoot = new ArrayList<>(getList(descendant, PATH_TO_ROOT_FIELD).subList(0, labelIndex));
+            newPathToRoot.add(name);
+            newPathToRoot.addAll(pathToRoot);
+            bulkOperations.updateOne(referenceIdQuery(descendant.getString(REFERENCE_ID_FIELD)), new Update()
+                    .set(PATH_TO_ROOT_FIELD, newPathToRoot)
+                    .set(ID_PATH_TO_ROOT_FIELD, newIdPathToRoot));
+        });
+        bulkOperations.execute();
+    }
+
+    private List<HierarchyNode> findNodes(String collection, String idField, TreeNode.Type type) {
+        Query query = new Query();
+        query.fields().include(idField).include(NAME_FIELD).include(PARENT_LABEL_ID_FIELD);
+        return template.find(query, Document.class, collection).stream()
+                .map(document -> new HierarchyNode(document.getString(idField), document.getString(NAME_FIELD),
+                        document.getString(PARENT_LABEL_ID_FIELD), type))
+                .collect(toList());
+    }
+
+    private Optional<Document> findByReferenceId(String referenceId) {
+        return Optional.ofNullable(template.findOne(referenceIdQuery(referenceId), Document.class, COLLECTION));
+    }
+
+    private static Query referenceIdQuery(String referenceId) {
+        return new Query(Criteria.where(REFERENCE_ID_FIELD).is(referenceId));
+    }
+
+    private static Query parentLabelIdQuery(String labelId) {
+        return new Query(Criteria.where(PARENT_LABEL_ID_FIELD).is(labelId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> getList(Document document, String field) {
+        return Optional.ofNullable((List<String>) document.get(field)).orElseGet(ArrayList::new);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class HierarchyNode {
+        private final String referenceId;
+        private final String name;
+        private final String parentLabelId;
+        private final TreeNode.Type type;
+    }
+}
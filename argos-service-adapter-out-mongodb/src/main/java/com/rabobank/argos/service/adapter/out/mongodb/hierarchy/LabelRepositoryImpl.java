@@ -18,6 +18,7 @@ package com.rabobank.argos.service.adapter.out.mongodb.hierarchy;
 import com.mongodb.client.result.UpdateResult;
 import com.rabobank.argos.domain.ArgosError;
 import com.rabobank.argos.domain.hierarchy.Label;
+import com.rabobank.argos.service.domain.hierarchy.HierarchyPathCache;
 import com.rabobank.argos.service.domain.hierarchy.LabelRepository;
 import lombok.RequiredArgsConstructor;
 import org.bson.Document;
@@ -39,11 +40,14 @@ public class LabelRepositoryImpl implements LabelRepository {
     static final String LABEL_NAME_FIELD = "name";
     static final String PARENT_LABEL_ID_FIELD = "parentLabelId";
     private final MongoTemplate template;
+    private final HierarchyWriter hierarchyWriter;
+    private final HierarchyPathCache hierarchyPathCache;
 
     @Override
     public void save(Label label) {
         try {
             template.save(label, COLLECTION);
+            hierarchyWriter.save(label);
         } catch (DuplicateKeyException e) {
             throw duplicateKeyException(label, e);
         }
@@ -74,6 +78,8 @@ public class LabelRepositoryImpl implements LabelRepository {
             UpdateResult updateResult = template.updateFirst(query, Update.fromDocument(document), Label.class, COLLECTION);
             if (updateResult.getMatchedCount() > 0) {
                 label.setLabelId(id);
+                hierarchyWriter.save(label);
+                hierarchyPathCache.invalidateIdPathsToRoot();
                 return Optional.of(label);
             } else {
                 return Optional.empty();
@@ -18,6 +18,7 @@ package com.rabobank.argos.service.adapter.out.mongodb.layout;
 import com.mongodb.client.result.UpdateResult;
 import com.rabobank.argos.domain.layout.LayoutMetaBlock;
 import com.rabobank.argos.service.domain.layout.LayoutMetaBlockRepository;
+import com.rabobank.argos.service.domain.verification.VerificationResultCache;
 import lombok.RequiredArgsConstructor;
 import org.bson.Document;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -35,6 +36,7 @@ public class LayoutMetaBlockRepositoryImpl implements LayoutMetaBlockRepository
     static final String COLLECTION = "layoutMetaBlocks";
     static final String SUPPLY_CHAIN_ID_FIELD = "supplyChainId";
     private final MongoTemplate template;
+    private final VerificationResultCache verificationResultCache;
 
     @Override
     public Optional<LayoutMetaBlock> findBySupplyChainId(String supplyChainId) {
@@ -49,6 +51,7 @@ public class LayoutMetaBlockRepositoryImpl implements LayoutMetaBlockRepository
         } else {
             template.save(layoutMetaBlock, COLLECTION);
         }
+        verificationResultCache.invalidate(layoutMetaBlock.getSupplyChainId());
     }
 
     private boolean update(LayoutMetaBlock layoutMetaBlock) {
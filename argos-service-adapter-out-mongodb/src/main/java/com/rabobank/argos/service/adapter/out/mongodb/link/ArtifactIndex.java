@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.rabobank.argos.domain.layout.ArtifactType;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkPathTable.LINK_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter.HASH_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter.URI_FIELD;
+
+/**
+ * Reverse index of the link artifacts in the artifactIndex collection.
+ *
+ * Every artifact of a link is stored as a small document
+ * { supplyChainId, hash, uri, artifactType, segmentName, stepName, linkId, runId }, so artifact lookups
+ * can find the ids of the links in an index instead of scanning the artifact arrays of the link documents.
+ */
+public final class ArtifactIndex {
+
+    public static final String COLLECTION = "artifactIndex";
+    static final String SUPPLY_CHAIN_ID_FIELD = "supplyChainId";
+    static final String ARTIFACT_TYPE_FIELD = "artifactType";
+    static final String SEGMENT_NAME_FIELD = "segmentName";
+    static final String STEP_NAME_FIELD = "stepName";
+    public static final String LINK_ID_FIELD = "linkId";
+    static final String RUN_ID_FIELD = "runId";
+    private static final String ID_FIELD = "_id";
+
+    private ArtifactIndex() {
+    }
+
+    /**
+     * @param linkMetaBlock the link meta block document as stored, with its _id
+     * @return the index entries of all materials and products of the link
+     */
+    public static List<Document> entries(Document linkMetaBlock) {
+        Document link = linkMetaBlock.get(LINK_FIELD, Document.class);
+        if (link == null) {
+            return List.of();
+        }
+        Document decodedLinkMetaBlock = new Document(LINK_FIELD, new Document(link));
+        LinkPathTable.decode(decodedLinkMetaBlock);
+        Document decodedLink = decodedLinkMetaBlock.get(LINK_FIELD, Document.class);
+        Document linkEntry = new Document(SUPPLY_CHAIN_ID_FIELD, linkMetaBlock.get(SUPPLY_CHAIN_ID_FIELD))
+                .append(SEGMENT_NAME_FIELD, link.get("layoutSegmentName"))
+                .append(STEP_NAME_FIELD, link.get("stepName"))
+                .append(LINK_ID_FIELD, linkMetaBlock.get(ID_FIELD))
+                .append(RUN_ID_FIELD, link.get("runId"));
+        List<Document> entries = new ArrayList<>();
+        addEntries(entries, linkEntry, ArtifactType.MATERIALS, decodedLink.getList("materials", Document.class));
+        addEntries(entries, linkEntry, ArtifactType.PRODUCTS, decodedLink.getList("products", Document.class));
+        return entries;
+    }
+
+    private static void addEntries(List<Document> entries, Document linkEntry, ArtifactType artifactType, List<Document> artifacts) {
+        if (artifacts == null) {
+            return;
+        }
+        artifacts.forEach(artifact -> entries.add(new Document(linkEntry)
+                .append(HASH_FIELD, artifact.get(HASH_FIELD))
+                .append(URI_FIELD, artifact.get(URI_FIELD))
+                .append(ARTIFACT_TYPE_FIELD, artifactType.name())));
+    }
+}
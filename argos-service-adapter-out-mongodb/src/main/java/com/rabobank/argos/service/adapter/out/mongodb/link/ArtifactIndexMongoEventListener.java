@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes the {@link ArtifactIndex} entries of a link meta block right after the link is saved,
+ * the saved document then has the _id the entries refer to.
+ */
+@Component
+public class ArtifactIndexMongoEventListener extends AbstractMongoEventListener<LinkMetaBlock> {
+
+    private final MongoTemplate template;
+
+    public ArtifactIndexMongoEventListener(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<LinkMetaBlock> event) {
+        if (event.getDocument() == null) {
+            return;
+        }
+        List<Document> entries = ArtifactIndex.entries(event.getDocument());
+        if (!entries.isEmpty()) {
+            template.bulkOps(BulkOperations.BulkMode.UNORDERED, ArtifactIndex.COLLECTION).insert(entries).execute();
+        }
+    }
+}
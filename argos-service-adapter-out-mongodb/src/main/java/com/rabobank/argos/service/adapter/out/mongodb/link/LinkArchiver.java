@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.rabobank.argos.service.domain.verification.VerificationResultCache;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.ARCHIVE_COLLECTION;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.COLLECTION;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.CREATED_AT_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.ID_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.RUN_ID_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.SUPPLY_CHAIN_ID_FIELD;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Moves the links older than the retention period of their supply chain to the compressed archive collection.
+ *
+ * The retention period is link.retention.supply-chains by supply chain id, for example {'supplyChainId': 'P90D'},
+ * or else link.retention.default, links are kept when no retention period applies. A run is archived as a whole,
+ * so the other links of the run of an expired link are archived with it even when they are younger.
+ */
+@Component
+@Slf4j
+public class LinkArchiver {
+
+    private final MongoTemplate template;
+
+    private final VerificationResultCache verificationResultCache;
+
+    private final Duration defaultRetention;
+
+    private final Map<String, Duration> supplyChainRetentions = new HashMap<>();
+
+    private final int batchSize;
+
+    public LinkArchiver(MongoTemplate template, VerificationResultCache verificationResultCache,
+                        @Value("${link.retention.default:}") String defaultRetention,
+                        @Value("#{${link.retention.supply-chains:{:}}}") Map<String, String> supplyChainRetentions,
+                        @Value("${link.retention.batch-size:1000}") int batchSize) {
+        this.template = template;
+        this.verificationResultCache = verificationResultCache;
+        this.defaultRetention = defaultRetention.isEmpty() ? null : Duration.parse(defaultRetention);
+        supplyChainRetentions.forEach((supplyChainId, retention) -> this.supplyChainRetentions.put(supplyChainId, Duration.parse(retention)));
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${link.retention.archive-cron:0 0 3 * * *}")
+    public void archive() {
+        Date now = new Date();
+        supplyChainRetentions.forEach((supplyChainId, retention) ->
+                archive(where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId), expiredBefore(now, retention)));
+        if (defaultRetention != null) {
+            archive(where(SUPPLY_CHAIN_ID_FIELD).nin(supplyChainRetentions.keySet()), expiredBefore(now, defaultRetention));
+        }
+    }
+
+    private void archive(Criteria supplyChainCriteria, Date expiredBefore) {
+        Query query = new Query(supplyChainCriteria.and(CREATED_AT_FIELD).lt(expiredBefore)).limit(batchSize);
+        query.fields().include(SUPPLY_CHAIN_ID_FIELD).include(RUN_ID_FIELD);
+        List<Document> expiredLinks = template.find(query, Document.class, COLLECTION);
+        while (!expiredLinks.isEmpty()) {
+            archiveRuns(expiredLinks);
+            expiredLinks = template.find(query, Document.class, COLLECTION);
+        }
+    }
+
+    private void archiveRuns(List<Document> expiredLinks) {
+        List<Criteria> runCriteria = new ArrayList<>();
+        runCriteria.add(where(ID_FIELD).in(expiredLinks.stream().map(link -> link.get(ID_FIELD)).collect(toList())));
+        Map<String, Set<String>> runIdsBySupplyChainId = new HashMap<>();
+        expiredLinks.forEach(link -> {
+            Document linkRunId = link.get(LinkPathTable.LINK_FIELD, Document.class);
+            String runId = linkRunId == null ? null : linkRunId.getString("runId");
+            if (runId != null) {
+                runIdsBySupplyChainId.computeIfAbsent(link.getString(SUPPLY_CHAIN_ID_FIELD), supplyChainId -> new HashSet<>()).add(runId);
+            }
+        });
+        runIdsBySupplyChainId.forEach((supplyChainId, runIds) -> runCriteria.add(where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId).and(RUN_ID_FIELD).in(runIds)));
+        Query runQuery = new Query(new Criteria().orOperator(runCriteria.toArray(new Criteria[0])));
+
+        List<Document> links = template.find(runQuery, Document.class, COLLECTION);
+        template.getCollection(ARCHIVE_COLLECTION).bulkWrite(links.stream()
+                .map(link -> new ReplaceOneModel<>(new Document(ID_FIELD, link.get(ID_FIELD)), link, new ReplaceOptions().upsert(true)))
+                .collect(toList()), new BulkWriteOptions().ordered(false));
+        List<Object> linkIds = links.stream().map(link -> link.get(ID_FIELD)).collect(toList());
+        template.remove(new Query(where(ID_FIELD).in(linkIds)), COLLECTION);
+        template.remove(new Query(where(ArtifactIndex.LINK_ID_FIELD).in(linkIds)), ArtifactIndex.COLLECTION);
+
+        Set<String> supplyChainIds = links.stream().map(link -> link.getString(SUPPLY_CHAIN_ID_FIELD)).filter(Objects::nonNull).collect(toSet());
+        supplyChainIds.forEach(verificationResultCache::invalidate);
+        log.info("archived {} links of supply chains {}", links.size(), supplyChainIds);
+    }
+
+    private static Date expiredBefore(Date now, Duration retention) {
+        return new Date(now.getTime() - retention.toMillis());
+    }
+}
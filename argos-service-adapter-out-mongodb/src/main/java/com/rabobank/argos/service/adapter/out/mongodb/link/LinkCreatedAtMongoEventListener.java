@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.CREATED_AT_FIELD;
+
+/**
+ * Stores the creation time of a link meta block, the {@link LinkArchiver} archives the links by this time.
+ */
+@Component
+public class LinkCreatedAtMongoEventListener extends AbstractMongoEventListener<LinkMetaBlock> {
+
+    @Override
+    public void onBeforeSave(BeforeSaveEvent<LinkMetaBlock> event) {
+        if (event.getDocument() != null) {
+            event.getDocument().putIfAbsent(CREATED_AT_FIELD, new Date());
+        }
+    }
+}
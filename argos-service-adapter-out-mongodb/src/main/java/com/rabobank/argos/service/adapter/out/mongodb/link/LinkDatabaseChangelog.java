@@ -17,18 +17,37 @@ package com.rabobank.argos.service.adapter.out.mongodb.link;
 
 import com.github.mongobee.changeset.ChangeLog;
 import com.github.mongobee.changeset.ChangeSet;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkDigest;
 import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
 import org.springframework.data.mongodb.core.index.HashedIndex;
 import org.springframework.data.mongodb.core.index.IndexDefinition;
 
+import java.util.List;
 import java.util.Map;
 
+import static com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter.HASH_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter.toBsonHash;
+import static java.util.stream.Collectors.toList;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.ARCHIVE_COLLECTION;
 import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.COLLECTION;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.CREATED_AT_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.ID_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.LINK_DIGEST_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.LINK_MATERIALS_FIELD;
 import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.LINK_MATERIALS_HASH_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.LINK_PRODUCTS_FIELD;
 import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.LINK_PRODUCTS_HASH_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.RUN_ID_FIELD;
 import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.SEGMENT_NAME_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.SIGNATURE_FIELD;
 import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.STEP_NAME_FIELD;
 import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.SUPPLY_CHAIN_ID_FIELD;
 
@@ -44,11 +63,192 @@ public class LinkDatabaseChangelog {
         createCompoundIndexOnSupplyChainAndStepName(template);
     }
 
+    @ChangeSet(order = "002", id = "LinkDatabaseChangelog-2", author = "bart")
+    public void addSignatureIndex(MongoTemplate template) {
+        createIndex(template, new CompoundIndexDefinition(new Document(Map.of(SUPPLY_CHAIN_ID_FIELD, 1, SIGNATURE_FIELD, 1)))
+                .named(SUPPLY_CHAIN_ID_FIELD + "_" + SIGNATURE_FIELD));
+    }
+
+    /*
+     * the artifact hashes are stored as binary by the ArtifactToDocumentWriteConverter
+     */
+    @ChangeSet(order = "003", id = "LinkDatabaseChangelog-3", author = "bart")
+    public void migrateArtifactHashesToBinary(MongoTemplate template) {
+        MongoCollection<Document> collection = template.getCollection(COLLECTION);
+        Document hexHashes = new Document("$or", List.of(
+                new Document(LINK_MATERIALS_HASH_FIELD, new Document("$type", "string")),
+                new Document(LINK_PRODUCTS_HASH_FIELD, new Document("$type", "string"))));
+        try (MongoCursor<Document> cursor = collection.find(hexHashes).iterator()) {
+            while (cursor.hasNext()) {
+                Document linkMetaBlock = cursor.next();
+                Document link = linkMetaBlock.get("link", Document.class);
+                collection.updateOne(new Document("_id", linkMetaBlock.get("_id")), new Document("$set",
+                        new Document(LINK_MATERIALS_FIELD, toBinaryHashes(link.getList("materials", Document.class)))
+                                .append(LINK_PRODUCTS_FIELD, toBinaryHashes(link.getList("products", Document.class)))));
+            }
+        }
+    }
+
+    /*
+     * the step artifact queries match on supply chain, segment and step before the artifact hashes,
+     * a compound index can only hold one array field so materials and products get an index each
+     */
+    @ChangeSet(order = "004", id = "LinkDatabaseChangelog-4", author = "bart")
+    public void addStepArtifactHashIndexes(MongoTemplate template) {
+        createCompoundIndexOnStepAndArtifactHash(template, LINK_MATERIALS_HASH_FIELD);
+        createCompoundIndexOnStepAndArtifactHash(template, LINK_PRODUCTS_HASH_FIELD);
+    }
+
+    /*
+     * new links are indexed by the ArtifactIndexMongoEventListener, the links already stored are indexed here
+     */
+    @ChangeSet(order = "005", id = "LinkDatabaseChangelog-5", author = "bart")
+    public void addArtifactIndex(MongoTemplate template) {
+        template.indexOps(ArtifactIndex.COLLECTION).ensureIndex(new CompoundIndexDefinition(new Document(ArtifactIndex.SUPPLY_CHAIN_ID_FIELD, 1)
+                .append(HASH_FIELD, 1)
+                .append(ArtifactIndex.LINK_ID_FIELD, 1))
+                .named(ArtifactIndex.SUPPLY_CHAIN_ID_FIELD + "_" + HASH_FIELD + "_" + ArtifactIndex.LINK_ID_FIELD));
+        MongoCollection<Document> artifactIndex = template.getCollection(ArtifactIndex.COLLECTION);
+        try (MongoCursor<Document> cursor = template.getCollection(COLLECTION).find().iterator()) {
+            while (cursor.hasNext()) {
+                List<Document> entries = ArtifactIndex.entries(cursor.next());
+                if (!entries.isEmpty()) {
+                    artifactIndex.insertMany(entries);
+                }
+            }
+        }
+    }
+
+    /*
+     * the links stored before get the creation time of their object id, the artifact index entries of
+     * archived links are removed by link id, the archive collection is compressed with zlib and has the
+     * indexes the step artifact queries need
+     */
+    @ChangeSet(order = "006", id = "LinkDatabaseChangelog-6", author = "bart")
+    public void addLinkArchive(MongoTemplate template) {
+        MongoCollection<Document> collection = template.getCollection(COLLECTION);
+        try (MongoCursor<Document> cursor = collection.find(new Document(CREATED_AT_FIELD, new Document("$exists", false)))
+                .projection(new Document(ID_FIELD, 1)).iterator()) {
+            while (cursor.hasNext()) {
+                Object id = cursor.next().get(ID_FIELD);
+                if (id instanceof ObjectId) {
+                    collection.updateOne(new Document(ID_FIELD, id), new Document("$set", new Document(CREATED_AT_FIELD, ((ObjectId) id).getDate())));
+                }
+            }
+        }
+        createIndex(template, new CompoundIndexDefinition(new Document(CREATED_AT_FIELD, 1)).named(CREATED_AT_FIELD));
+        template.indexOps(ArtifactIndex.COLLECTION).ensureIndex(new CompoundIndexDefinition(new Document(ArtifactIndex.LINK_ID_FIELD, 1))
+                .named(ArtifactIndex.LINK_ID_FIELD));
+
+        template.getDb().createCollection(ARCHIVE_COLLECTION, new CreateCollectionOptions()
+                .storageEngineOptions(new Document("wiredTiger", new Document("configString", "block_compressor=zlib"))));
+        template.indexOps(ARCHIVE_COLLECTION).ensureIndex(HashedIndex.hashed(SUPPLY_CHAIN_ID_FIELD));
+        template.indexOps(ARCHIVE_COLLECTION).ensureIndex(supplyChainAndStepNameIndex());
+        template.indexOps(ARCHIVE_COLLECTION).ensureIndex(stepAndArtifactHashIndex(LINK_MATERIALS_HASH_FIELD));
+        template.indexOps(ARCHIVE_COLLECTION).ensureIndex(stepAndArtifactHashIndex(LINK_PRODUCTS_HASH_FIELD));
+    }
+
+    /*
+     * new links get their digest from the LinkDigestMongoEventListener, the digest of the links
+     * already stored is computed here from the decoded link
+     */
+    @ChangeSet(order = "007", id = "LinkDatabaseChangelog-7", author = "bart")
+    public void addLinkDigest(MongoTemplate template) {
+        addLinkDigest(template, COLLECTION);
+        addLinkDigest(template, ARCHIVE_COLLECTION);
+    }
+
+    private static void addLinkDigest(MongoTemplate template, String collectionName) {
+        MongoCollection<Document> collection = template.getCollection(collectionName);
+        try (MongoCursor<Document> cursor = collection.find(new Document(LINK_DIGEST_FIELD, new Document("$exists", false))).iterator()) {
+            while (cursor.hasNext()) {
+                Document document = cursor.next();
+                LinkPathTable.decode(document);
+                LinkMetaBlock linkMetaBlock = template.getConverter().read(LinkMetaBlock.class, document);
+                if (linkMetaBlock.getLink() != null) {
+                    collection.updateOne(new Document(ID_FIELD, document.get(ID_FIELD)),
+                            new Document("$set", new Document(LINK_DIGEST_FIELD, LinkDigest.of(linkMetaBlock.getLink()))));
+                }
+            }
+        }
+    }
+
+    /*
+     * the keys of the supply chain/step and signature indexes were built from Map.of, which has no defined
+     * order, both indexes are created again with an ordered key, the archive gets the signature index as well
+     */
+    @ChangeSet(order = "008", id = "LinkDatabaseChangelog-8", author = "bart")
+    public void recreateOrderedIndexes(MongoTemplate template) {
+        template.indexOps(COLLECTION).dropIndex(SUPPLY_CHAIN_ID_FIELD + "_" + SEGMENT_NAME_FIELD + "_" + STEP_NAME_FIELD);
+        createIndex(template, supplyChainAndStepNameIndex());
+        template.indexOps(COLLECTION).dropIndex(SUPPLY_CHAIN_ID_FIELD + "_" + SIGNATURE_FIELD);
+        createIndex(template, signatureIndex());
+        template.indexOps(ARCHIVE_COLLECTION).ensureIndex(signatureIndex());
+    }
+
+    /*
+     * the runId siblings of the step links are queried with the runIds of these links
+     */
+    @ChangeSet(order = "009", id = "LinkDatabaseChangelog-9", author = "bart")
+    public void addRunIdIndex(MongoTemplate template) {
+        createIndex(template, runIdIndex());
+        template.indexOps(ARCHIVE_COLLECTION).ensureIndex(runIdIndex());
+    }
+
+    /*
+     * the links with a hash are found with the artifact index of changeset 005, the hash indexes of
+     * changeset 001 are no longer used
+     */
+    @ChangeSet(order = "010", id = "LinkDatabaseChangelog-10", author = "bart")
+    public void dropArtifactHashIndexes(MongoTemplate template) {
+        template.indexOps(COLLECTION).dropIndex(LINK_MATERIALS_HASH_FIELD);
+        template.indexOps(COLLECTION).dropIndex(LINK_PRODUCTS_HASH_FIELD);
+    }
+
+    private static IndexDefinition runIdIndex() {
+        return new CompoundIndexDefinition(new Document(SUPPLY_CHAIN_ID_FIELD, 1).append(SEGMENT_NAME_FIELD, 1).append(RUN_ID_FIELD, 1))
+                .named(SUPPLY_CHAIN_ID_FIELD + "_" + SEGMENT_NAME_FIELD + "_" + RUN_ID_FIELD);
+    }
+
+    private static IndexDefinition signatureIndex() {
+        return new CompoundIndexDefinition(new Document(SUPPLY_CHAIN_ID_FIELD, 1).append(SIGNATURE_FIELD, 1))
+                .named(SUPPLY_CHAIN_ID_FIELD + "_" + SIGNATURE_FIELD);
+    }
+
+    private void createCompoundIndexOnStepAndArtifactHash(MongoTemplate template, String hashField) {
+        createIndex(template, stepAndArtifactHashIndex(hashField));
+    }
+
+    private static IndexDefinition stepAndArtifactHashIndex(String hashField) {
+        return new CompoundIndexDefinition(new Document(SUPPLY_CHAIN_ID_FIELD, 1)
+                .append(SEGMENT_NAME_FIELD, 1)
+                .append(STEP_NAME_FIELD, 1)
+                .append(hashField, 1))
+                .named(SUPPLY_CHAIN_ID_FIELD + "_" + SEGMENT_NAME_FIELD + "_" + STEP_NAME_FIELD + "_" + hashField));
+    }
+
+    private static List<Document> toBinaryHashes(List<Document> artifacts) {
+        if (artifacts == null) {
+            return null;
+        }
+        return artifacts.stream()
+                .map(artifact -> {
+                    Object hash = artifact.get(HASH_FIELD);
+                    return hash instanceof String ? new Document(artifact).append(HASH_FIELD, toBsonHash((String) hash)) : artifact;
+                })
+                .collect(toList());
+    }
+
     private void createCompoundIndexOnSupplyChainAndStepName(MongoTemplate template) {
         createIndex(template, new CompoundIndexDefinition(new Document(Map.of(SUPPLY_CHAIN_ID_FIELD, 1, SEGMENT_NAME_FIELD, 1, STEP_NAME_FIELD, 1)))
                 .named(SUPPLY_CHAIN_ID_FIELD + "_" + SEGMENT_NAME_FIELD + "_" + STEP_NAME_FIELD));
     }
 
+    private static IndexDefinition supplyChainAndStepNameIndex() {
+        return new CompoundIndexDefinition(new Document(SUPPLY_CHAIN_ID_FIELD, 1).append(SEGMENT_NAME_FIELD, 1).append(STEP_NAME_FIELD, 1))
+                .named(SUPPLY_CHAIN_ID_FIELD + "_" + SEGMENT_NAME_FIELD + "_" + STEP_NAME_FIELD);
+    }
+
     private void createIndex(MongoTemplate template, IndexDefinition indexDefinition) {
         template.indexOps(COLLECTION).ensureIndex(indexDefinition);
     }
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkDigest;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.stereotype.Component;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.LINK_DIGEST_FIELD;
+
+/**
+ * Stores the {@link LinkDigest} of a link meta block, the candidate link sets of a verification
+ * are built from link headers that are grouped by this digest.
+ */
+@Component
+public class LinkDigestMongoEventListener extends AbstractMongoEventListener<LinkMetaBlock> {
+
+    @Override
+    public void onBeforeSave(BeforeSaveEvent<LinkMetaBlock> event) {
+        if (event.getDocument() != null && event.getSource().getLink() != null) {
+            event.getDocument().put(LINK_DIGEST_FIELD, LinkDigest.of(event.getSource().getLink()));
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.rabobank.argos.domain.layout.ArtifactType;
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockHeader;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.ID_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.KEY_ID_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.LINK_DIGEST_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.LINK_MATERIALS_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.LINK_MATERIALS_HASH_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.LINK_PRODUCTS_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.LINK_PRODUCTS_HASH_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.RUN_ID_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.SEGMENT_NAME_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.SIGNATURE_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.STEP_NAME_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.SUPPLY_CHAIN_ID_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter.HASH_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter.URI_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter.toBsonHash;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * The link meta block queries of the verification.
+ */
+public class LinkMetaBlockQueries {
+
+    /*
+     * with a path table the uri's are not stored as such, artifacts are then matched on hash
+     * and the uri's are checked on the loaded links
+     */
+    private final boolean pathTable;
+
+    public LinkMetaBlockQueries(boolean pathTable) {
+        this.pathTable = pathTable;
+    }
+
+    public boolean isPathTable() {
+        return pathTable;
+    }
+
+    public static Query supplyChainQuery(String supplyChainId) {
+        return new Query(where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId));
+    }
+
+    /*
+     * the ids of the links with the hash, a covered distinct scan on the artifact index
+     */
+    public static Query artifactIndexQuery(String supplyChainId, String hash) {
+        return new Query(where(ArtifactIndex.SUPPLY_CHAIN_ID_FIELD).is(supplyChainId).and(HASH_FIELD).is(toBsonHash(hash)));
+    }
+
+    public static Query linkIdsQuery(List<ObjectId> linkIds) {
+        return new Query(where(ID_FIELD).in(linkIds));
+    }
+
+    public static Query signaturesQuery(String supplyChainId, List<String> signatures) {
+        return new Query(where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId).and(SIGNATURE_FIELD).in(signatures));
+    }
+
+    public static Query stepsQuery(String supplyChainId, Map<String, Set<String>> stepNamesBySegmentName) {
+        Criteria[] segmentCriteria = stepNamesBySegmentName.entrySet().stream()
+                .map(segmentSteps -> where(SEGMENT_NAME_FIELD).is(segmentSteps.getKey()).and(STEP_NAME_FIELD).in(segmentSteps.getValue()))
+                .toArray(Criteria[]::new);
+        return new Query(where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId).orOperator(segmentCriteria));
+    }
+
+    public static Query lastLinkQuery(String supplyChainId, Map<String, Set<String>> stepNamesBySegmentName) {
+        Query query = stepsQuery(supplyChainId, stepNamesBySegmentName)
+                .with(Sort.by(Sort.Direction.DESC, ID_FIELD))
+                .limit(1);
+        query.fields().include(ID_FIELD);
+        return query;
+    }
+
+    public static Query runIdQuery(String supplyChainId, String runId) {
+        return new Query(new Criteria(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId)
+                .andOperator(new Criteria(RUN_ID_FIELD).is(runId)));
+    }
+
+    public static Query runIdQuery(String supplyChainId, String segmentName, String runId, Set<String> resolvedSteps) {
+        return new Query(new Criteria(SUPPLY_CHAIN_ID_FIELD)
+                .is(supplyChainId)
+                .and(RUN_ID_FIELD).is(runId)
+                .and(SEGMENT_NAME_FIELD).is(segmentName)
+                .and(STEP_NAME_FIELD).nin(resolvedSteps)
+        );
+    }
+
+    public static Query productHashesQuery(String supplyChainId, String segmentName, String stepName, List<String> hashes) {
+        return stepHashesQuery(supplyChainId, segmentName, stepName, LINK_PRODUCTS_HASH_FIELD, hashes);
+    }
+
+    public static Query materialHashesQuery(String supplyChainId, String segmentName, String stepName, List<String> hashes) {
+        return stepHashesQuery(supplyChainId, segmentName, stepName, LINK_MATERIALS_HASH_FIELD, hashes);
+    }
+
+    private static Query stepHashesQuery(String supplyChainId, String segmentName, String stepName, String hashField, List<String> hashes) {
+        Criteria criteria = where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId)
+                .and(SEGMENT_NAME_FIELD).is(segmentName)
+                .and(STEP_NAME_FIELD).is(stepName);
+        if (!hashes.isEmpty()) {
+            criteria.and(hashField).all(hashes.stream().map(ArtifactToDocumentWriteConverter::toBsonHash).distinct().toArray());
+        }
+        return new Query(criteria);
+    }
+
+    public Query stepArtifactsQuery(String supplyChainId, String segmentName, String stepName, EnumMap<ArtifactType, Set<Artifact>> artifactTypeArtifacts) {
+        Criteria criteria = where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId).and(SEGMENT_NAME_FIELD).is(segmentName);
+        addArtifactsCriteria(criteria.and(STEP_NAME_FIELD).is(stepName), artifactTypeArtifacts);
+        return new Query(criteria);
+    }
+
+    /*
+     * The links matching the step artifacts are queried first, their runIds are then used as literal
+     * values in the query for their runId siblings in the other steps of the segment, so both queries
+     * are bounded by an index. The LinkArchiver archives whole runs, so the archive is searched with
+     * the same queries.
+     */
+    public Query stepLinksQuery(String supplyChainId, String segmentName,
+                                Map<String, EnumMap<ArtifactType, Set<Artifact>>> stepArtifactTypeArtifacts, Document projection) {
+        return withProjection(new Query(stepLinksCriteria(supplyChainId, segmentName, stepArtifactTypeArtifacts)), projection);
+    }
+
+    public static Query runIdSiblingsQuery(String supplyChainId, String segmentName, Set<String> stepNames,
+                                           Collection<String> runIds, Document projection) {
+        return withProjection(new Query(where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId)
+                .and(SEGMENT_NAME_FIELD).is(segmentName)
+                .and(RUN_ID_FIELD).in(runIds)
+                .and(STEP_NAME_FIELD).nin(stepNames)), projection);
+    }
+
+    private static Query withProjection(Query query, Document projection) {
+        if (projection != null) {
+            projection.keySet().forEach(query.fields()::include);
+        }
+        return query;
+    }
+
+    public static Document headerProjection() {
+        return new Document(SUPPLY_CHAIN_ID_FIELD, 1)
+                .append(KEY_ID_FIELD, 1)
+                .append(SIGNATURE_FIELD, 1)
+                .append(RUN_ID_FIELD, 1)
+                .append(SEGMENT_NAME_FIELD, 1)
+                .append(STEP_NAME_FIELD, 1)
+                .append(LINK_DIGEST_FIELD, 1);
+    }
+
+    public static LinkMetaBlockHeader toLinkMetaBlockHeader(Document document) {
+        return LinkMetaBlockHeader.builder()
+                .supplyChainId(getString(document, SUPPLY_CHAIN_ID_FIELD))
+                .keyId(getString(document, KEY_ID_FIELD))
+                .signature(getString(document, SIGNATURE_FIELD))
+                .runId(getString(document, RUN_ID_FIELD))
+                .segmentName(getString(document, SEGMENT_NAME_FIELD))
+                .stepName(getString(document, STEP_NAME_FIELD))
+                .linkDigest(getString(document, LINK_DIGEST_FIELD))
+                .build();
+    }
+
+    static String getString(Document document, String field) {
+        return document.getEmbedded(List.of(field.split("\\.")), String.class);
+    }
+
+    /*
+     * keeps the step links with all step artifacts and the links of the other steps with the runId of such a step link
+     */
+    public static List<LinkMetaBlock> filterOnStepArtifacts(List<LinkMetaBlock> linkMetaBlocks, Map<String, EnumMap<ArtifactType, Set<Artifact>>> stepArtifactTypeArtifacts) {
+        Set<LinkMetaBlock> stepLinkMetaBlocks = Collections.newSetFromMap(new IdentityHashMap<>());
+        linkMetaBlocks.stream()
+                .filter(linkMetaBlock -> stepArtifactTypeArtifacts.containsKey(linkMetaBlock.getLink().getStepName()))
+                .filter(linkMetaBlock -> containsArtifacts(linkMetaBlock.getLink(), stepArtifactTypeArtifacts.get(linkMetaBlock.getLink().getStepName())))
+                .forEach(stepLinkMetaBlocks::add);
+        Set<String> runIds = stepLinkMetaBlocks.stream().map(linkMetaBlock -> linkMetaBlock.getLink().getRunId()).collect(toSet());
+        return linkMetaBlocks.stream()
+                .filter(linkMetaBlock -> stepLinkMetaBlocks.contains(linkMetaBlock)
+                        || (!stepArtifactTypeArtifacts.containsKey(linkMetaBlock.getLink().getStepName()) && runIds.contains(linkMetaBlock.getLink().getRunId())))
+                .collect(toList());
+    }
+
+    public static boolean containsArtifacts(Link link, EnumMap<ArtifactType, Set<Artifact>> artifactTypeArtifacts) {
+        return containsAll(link.getMaterials(), artifactTypeArtifacts.get(ArtifactType.MATERIALS))
+                && containsAll(link.getProducts(), artifactTypeArtifacts.get(ArtifactType.PRODUCTS));
+    }
+
+    private static boolean containsAll(List<Artifact> linkArtifacts, Set<Artifact> artifacts) {
+        if (artifacts == null || artifacts.isEmpty()) {
+            return true;
+        }
+        return linkArtifacts != null && new HashSet<>(linkArtifacts).containsAll(artifacts);
+    }
+
+    /*
+     * with one step the step criteria are part of the root criteria, so the supply chain, segment, step
+     * and artifact hash are all bounds on the compound multikey index of the artifact type
+     */
+    Criteria stepLinksCriteria(String supplyChainId, String segmentName, Map<String, EnumMap<ArtifactType, Set<Artifact>>> stepArtifactTypeArtifacts) {
+        Criteria criteria = where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId).and(SEGMENT_NAME_FIELD).is(segmentName);
+        if (stepArtifactTypeArtifacts.size() == 1) {
+            Map.Entry<String, EnumMap<ArtifactType, Set<Artifact>>> stepArtifacts = stepArtifactTypeArtifacts.entrySet().iterator().next();
+            addArtifactsCriteria(criteria.and(STEP_NAME_FIELD).is(stepArtifacts.getKey()), stepArtifacts.getValue());
+            return criteria;
+        }
+        return criteria.orOperator(stepArtifactTypeArtifacts.entrySet().stream()
+                .map(stepArtifacts -> addArtifactsCriteria(where(STEP_NAME_FIELD).is(stepArtifacts.getKey()), stepArtifacts.getValue()))
+                .toArray(Criteria[]::new));
+    }
+
+    private Criteria addArtifactsCriteria(Criteria criteria, EnumMap<ArtifactType, Set<Artifact>> artifactTypeArtifacts) {
+        addArtifactsCriteria(criteria, LINK_MATERIALS_FIELD, LINK_MATERIALS_HASH_FIELD, artifactTypeArtifacts.get(ArtifactType.MATERIALS));
+        addArtifactsCriteria(criteria, LINK_PRODUCTS_FIELD, LINK_PRODUCTS_HASH_FIELD, artifactTypeArtifacts.get(ArtifactType.PRODUCTS));
+        return criteria;
+    }
+
+    /*
+     * Every artifact is one $elemMatch in an $all, so its hash and uri have to match the same array
+     * element. With a path table the uri's are not stored as such and only the hashes are matched.
+     */
+    private void addArtifactsCriteria(Criteria criteria, String artifactsField, String hashField, Set<Artifact> artifacts) {
+        if (artifacts == null || artifacts.isEmpty()) {
+            return;
+        }
+        if (pathTable) {
+            criteria.and(hashField).all(artifacts.stream().map(artifact -> toBsonHash(artifact.getHash())).distinct().toArray());
+        } else {
+            criteria.and(artifactsField).all(artifacts.stream()
+                    .map(artifact -> new Document("$elemMatch", new Document(HASH_FIELD, toBsonHash(artifact.getHash())).append(URI_FIELD, artifact.getUri())))
+                    .toArray());
+        }
+    }
+}
@@ -18,84 +18,130 @@ package com.rabobank.argos.service.adapter.out.mongodb.link;
 import com.rabobank.argos.domain.layout.ArtifactType;
 import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockHeader;
 import com.rabobank.argos.service.domain.link.LinkMetaBlockRepository;
-import lombok.RequiredArgsConstructor;
+import com.rabobank.argos.service.domain.verification.VerificationResultCache;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 
-import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 @Component
-@RequiredArgsConstructor
 public class LinkMetaBlockRepositoryImpl implements LinkMetaBlockRepository {
 
-    static final String COLLECTION = "linkMetaBlocks";
+    public static final String COLLECTION = "linkMetaBlocks";
+    public static final String ARCHIVE_COLLECTION = "linkMetaBlocksArchive";
+    static final String ID_FIELD = "_id";
     static final String SUPPLY_CHAIN_ID_FIELD = "supplyChainId";
     static final String SEGMENT_NAME_FIELD = "link.layoutSegmentName";
     static final String STEP_NAME_FIELD = "link.stepName";
     static final String RUN_ID_FIELD = "link.runId";
+    static final String LINK_MATERIALS_FIELD = "link.materials";
+    static final String LINK_PRODUCTS_FIELD = "link.products";
     static final String LINK_MATERIALS_HASH_FIELD = "link.materials.hash";
     static final String LINK_PRODUCTS_HASH_FIELD = "link.products.hash";
-    static final String LINK_MATERIALS_URI_FIELD = "link.materials.uri";
-    static final String LINK_PRODUCTS_URI_FIELD = "link.products.uri";
+    static final String SIGNATURE_FIELD = "signature.signature";
+    static final String KEY_ID_FIELD = "signature.keyId";
+    static final String LINK_DIGEST_FIELD = "linkDigest";
+    static final String CREATED_AT_FIELD = "createdAt";
 
     private final MongoTemplate template;
 
+    private final VerificationResultCache verificationResultCache;
+
+    private final LinkMetaBlockQueries queries;
+
+    public LinkMetaBlockRepositoryImpl(MongoTemplate template, VerificationResultCache verificationResultCache,
+                                       @Value("${link.storage.path-table:false}") boolean pathTable) {
+        this.template = template;
+        this.verificationResultCache = verificationResultCache;
+        this.queries = new LinkMetaBlockQueries(pathTable);
+    }
+
     @Override
     public List<LinkMetaBlock> findBySupplyChainId(String supplyChainId) {
-        Query query = new Query(where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId));
-        return template.find(query, LinkMetaBlock.class, COLLECTION);
+        return template.find(LinkMetaBlockQueries.supplyChainQuery(supplyChainId), LinkMetaBlock.class, COLLECTION);
     }
 
+    /*
+     * the link ids are a covered distinct scan on the artifact index, only the matching links are loaded
+     */
     @Override
     public List<LinkMetaBlock> findBySupplyChainAndSha(String supplyChainId, String hash) {
-        Query query = new Query(new Criteria(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId)
-                .andOperator(
-                        new Criteria()
-                                .orOperator(
-                                        new Criteria(LINK_MATERIALS_HASH_FIELD).is(hash),
-                                        new Criteria(LINK_PRODUCTS_HASH_FIELD).is(hash)
-                                )
-                )
-        );
-
-        return template.find(query,LinkMetaBlock.class,COLLECTION);
+        List<ObjectId> linkIds = template.findDistinct(LinkMetaBlockQueries.artifactIndexQuery(supplyChainId, hash),
+                ArtifactIndex.LINK_ID_FIELD, ArtifactIndex.COLLECTION, ObjectId.class);
+        if (linkIds.isEmpty()) {
+            return List.of();
+        }
+        return template.find(LinkMetaBlockQueries.linkIdsQuery(linkIds), LinkMetaBlock.class, COLLECTION);
+    }
+
+    @Override
+    public List<LinkMetaBlock> findBySupplyChainAndSignatures(String supplyChainId, List<String> signatures) {
+        return findBySupplyChainAndSignatures(supplyChainId, signatures, false);
+    }
+
+    @Override
+    public List<LinkMetaBlock> findBySupplyChainAndSignatures(String supplyChainId, List<String> signatures, boolean includeArchived) {
+        if (signatures.isEmpty()) {
+            return List.of();
+        }
+        Query query = LinkMetaBlockQueries.signaturesQuery(supplyChainId, signatures);
+        List<LinkMetaBlock> linkMetaBlocks = template.find(query, LinkMetaBlock.class, COLLECTION);
+        if (!includeArchived) {
+            return linkMetaBlocks;
+        }
+        linkMetaBlocks = new ArrayList<>(linkMetaBlocks);
+        linkMetaBlocks.addAll(template.find(query, LinkMetaBlock.class, ARCHIVE_COLLECTION));
+        return linkMetaBlocks;
+    }
+
+    /*
+     * object ids start with their creation time, so the highest id is the link saved last
+     */
+    @Override
+    public Optional<String> findLastLinkIdBySupplyChainAndSteps(String supplyChainId, Map<String, Set<String>> stepNamesBySegmentName) {
+        if (stepNamesBySegmentName.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(template.findOne(LinkMetaBlockQueries.lastLinkQuery(supplyChainId, stepNamesBySegmentName), Document.class, COLLECTION))
+                .map(document -> document.get(ID_FIELD).toString());
     }
 
     @Override
     public void save(LinkMetaBlock link) {
         template.save(link, COLLECTION);
+        verificationResultCache.invalidate(link.getSupplyChainId());
+    }
+
+    @Override
+    public void saveAll(List<LinkMetaBlock> links) {
+        template.insert(links, COLLECTION);
+        links.stream().map(LinkMetaBlock::getSupplyChainId).distinct().forEach(verificationResultCache::invalidate);
     }
 
     @Override
     public List<LinkMetaBlock> findBySupplyChainAndSegmentNameAndStepNameAndProductHashes(String supplyChainId, String segmentName, String stepName, List<String> hashes) {
-        Criteria rootCriteria = Criteria.where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId);
-        List<Criteria> andCriteria = new ArrayList<>();
-        andCriteria.add(Criteria.where(SEGMENT_NAME_FIELD).is(segmentName));
-        andCriteria.add(Criteria.where(STEP_NAME_FIELD).is(stepName));
-        hashes.forEach(hash -> andCriteria.add(Criteria.where(LINK_PRODUCTS_HASH_FIELD).is(hash)));
-        rootCriteria.andOperator(andCriteria.toArray(new Criteria[andCriteria.size()]));
-        Query query = new Query(rootCriteria);
-        return template.find(query, LinkMetaBlock.class, COLLECTION);
+        return template.find(LinkMetaBlockQueries.productHashesQuery(supplyChainId, segmentName, stepName, hashes), LinkMetaBlock.class, COLLECTION);
     }
 
     @Override
     public List<LinkMetaBlock> findBySupplyChainAndSegmentNameAndStepNameAndMaterialHash(String supplyChainId, String segmentName, String stepName, List<String> hashes) {
-        Criteria rootCriteria = Criteria.where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId);
-        List<Criteria> andCriteria = new ArrayList<>();
-        andCriteria.add(Criteria.where(SEGMENT_NAME_FIELD).is(segmentName));
-        andCriteria.add(Criteria.where(STEP_NAME_FIELD).is(stepName));
-        hashes.forEach(hash -> andCriteria.add(Criteria.where(LINK_MATERIALS_HASH_FIELD).is(hash)));
-        rootCriteria.andOperator(andCriteria.toArray(new Criteria[andCriteria.size()]));
-        Query query = new Query(rootCriteria);
-        return template.find(query, LinkMetaBlock.class, COLLECTION);
+        return template.find(LinkMetaBlockQueries.materialHashesQuery(supplyChainId, segmentName, stepName, hashes), LinkMetaBlock.class, COLLECTION);
     }
 
     @Override
@@ -106,41 +152,70 @@ public class LinkMetaBlockRepositoryImpl implements LinkMetaBlockRepository {
                 && artifactTypeArtifacts.containsKey(ArtifactType.PRODUCTS) && artifactTypeArtifacts.get(ArtifactType.PRODUCTS).isEmpty())) {
             List.of();
         }
-        Criteria rootCriteria = Criteria.where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId);
-        List<Criteria> andCriteria = new ArrayList<>();
-        andCriteria.add(Criteria.where(SEGMENT_NAME_FIELD).is(segmentName));
-        andCriteria.add(Criteria.where(STEP_NAME_FIELD).is(stepName));
-        if (artifactTypeArtifacts.containsKey(ArtifactType.MATERIALS)) {
-            artifactTypeArtifacts.get(ArtifactType.MATERIALS).forEach(artifact -> andCriteria.add(
-                    Criteria.where(LINK_MATERIALS_HASH_FIELD).is(artifact.getHash())
-                    .and(LINK_MATERIALS_URI_FIELD).is(artifact.getUri())));
+        List<LinkMetaBlock> linkMetaBlocks = template.find(queries.stepArtifactsQuery(supplyChainId, segmentName, stepName, artifactTypeArtifacts), LinkMetaBlock.class, COLLECTION);
+        if (!queries.isPathTable()) {
+            return linkMetaBlocks;
+        }
+        return linkMetaBlocks.stream()
+                .filter(linkMetaBlock -> LinkMetaBlockQueries.containsArtifacts(linkMetaBlock.getLink(), artifactTypeArtifacts))
+                .collect(toList());
+    }
+
+    /*
+     * The links matching the step artifacts are queried first, their runIds are then used to query
+     * their runId siblings in the other steps of the segment. The LinkArchiver archives whole runs,
+     * so the archive is searched with the same queries.
+     *
+     * With a path table the uri's of the artifacts are checked on the complete links, the headers are
+     * then made from these links.
+     */
+    @Override
+    public List<LinkMetaBlockHeader> findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(
+            String supplyChainId, String segmentName, Map<String, EnumMap<ArtifactType, Set<Artifact>>> stepArtifactTypeArtifacts, boolean includeArchived) {
+        if (stepArtifactTypeArtifacts.isEmpty()) {
+            return List.of();
+        }
+        if (queries.isPathTable()) {
+            Function<LinkMetaBlock, String> runId = linkMetaBlock -> linkMetaBlock.getLink().getRunId();
+            List<LinkMetaBlock> linkMetaBlocks = new ArrayList<>(findStepLinks(COLLECTION, supplyChainId, segmentName, stepArtifactTypeArtifacts, null, LinkMetaBlock.class, runId));
+            if (includeArchived) {
+                linkMetaBlocks.addAll(findStepLinks(ARCHIVE_COLLECTION, supplyChainId, segmentName, stepArtifactTypeArtifacts, null, LinkMetaBlock.class, runId));
+            }
+            return LinkMetaBlockQueries.filterOnStepArtifacts(linkMetaBlocks, stepArtifactTypeArtifacts).stream()
+                    .map(LinkMetaBlockHeader::of)
+                    .collect(toList());
         }
-        if (artifactTypeArtifacts.containsKey(ArtifactType.PRODUCTS)) {
-            artifactTypeArtifacts.get(ArtifactType.PRODUCTS)
-            .forEach(artifact -> andCriteria.add(
-                    Criteria.where(LINK_PRODUCTS_HASH_FIELD).is(artifact.getHash())
-                    .and(LINK_PRODUCTS_URI_FIELD).is(artifact.getUri())));
+        Document headerProjection = LinkMetaBlockQueries.headerProjection();
+        Function<Document, String> runId = document -> LinkMetaBlockQueries.getString(document, RUN_ID_FIELD);
+        List<Document> headers = new ArrayList<>(findStepLinks(COLLECTION, supplyChainId, segmentName, stepArtifactTypeArtifacts, headerProjection, Document.class, runId));
+        if (includeArchived) {
+            headers.addAll(findStepLinks(ARCHIVE_COLLECTION, supplyChainId, segmentName, stepArtifactTypeArtifacts, headerProjection, Document.class, runId));
+        }
+        return headers.stream()
+                .map(LinkMetaBlockQueries::toLinkMetaBlockHeader)
+                .collect(toList());
+    }
+
+    private <T> List<T> findStepLinks(String collection, String supplyChainId, String segmentName,
+                                      Map<String, EnumMap<ArtifactType, Set<Artifact>>> stepArtifactTypeArtifacts, Document projection,
+                                      Class<T> outputType, Function<T, String> runId) {
+        List<T> linkMetaBlocks = new ArrayList<>(template.find(queries.stepLinksQuery(supplyChainId, segmentName, stepArtifactTypeArtifacts, projection),
+                outputType, collection));
+        Set<String> runIds = linkMetaBlocks.stream().map(runId).filter(Objects::nonNull).collect(toSet());
+        if (!runIds.isEmpty()) {
+            linkMetaBlocks.addAll(template.find(LinkMetaBlockQueries.runIdSiblingsQuery(supplyChainId, segmentName, stepArtifactTypeArtifacts.keySet(), runIds, projection),
+                    outputType, collection));
         }
-        rootCriteria.andOperator(andCriteria.toArray(new Criteria[andCriteria.size()]));
-        Query query = new Query(rootCriteria);
-        return template.find(query, LinkMetaBlock.class, COLLECTION);
+        return linkMetaBlocks;
     }
 
     @Override
     public List<LinkMetaBlock> findByRunId(String supplyChainId, String runId) {
-        Query query = new Query(new Criteria(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId)
-                .andOperator(new Criteria(RUN_ID_FIELD).is(runId)));
-        return template.find(query, LinkMetaBlock.class, COLLECTION);
+        return template.find(LinkMetaBlockQueries.runIdQuery(supplyChainId, runId), LinkMetaBlock.class, COLLECTION);
     }
 
     @Override
     public List<LinkMetaBlock> findByRunId(String supplyChainId, String segmentName, String runId, Set<String> resolvedSteps) {
-        Query query = new Query(new Criteria(SUPPLY_CHAIN_ID_FIELD)
-                .is(supplyChainId)
-                .and(RUN_ID_FIELD).is(runId)
-                .and(SEGMENT_NAME_FIELD).is(segmentName)
-                .and(STEP_NAME_FIELD).nin(resolvedSteps)
-        );
-        return template.find(query, LinkMetaBlock.class, COLLECTION);
+        return template.find(LinkMetaBlockQueries.runIdQuery(supplyChainId, segmentName, runId, resolvedSteps), LinkMetaBlock.class, COLLECTION);
     }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter.HASH_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter.URI_FIELD;
+
+/**
+ * Storage format of a link meta block document with a path table.
+ *
+ * The directories of the artifact uri's are stored once in link.dirs and every artifact
+ * refers to its directory by index, { uri: "a/b/c.txt", hash } is stored as { p: 0, n: "c.txt", hash }
+ * with "a/b/" in the path table. A directory keeps its trailing separator, so a uri in the root
+ * directory like "/c.txt" ("/") and a uri without a directory like "c.txt" ("") are both restored as is.
+ *
+ * Links stored earlier have their directories without the trailing separator in link.paths, these
+ * are still decoded.
+ */
+final class LinkPathTable {
+
+    static final String LINK_FIELD = "link";
+    static final String DIRECTORIES_FIELD = "dirs";
+    static final String PATHS_FIELD = "paths";
+    static final String PATH_INDEX_FIELD = "p";
+    static final String NAME_FIELD = "n";
+    private static final String MATERIALS_FIELD = "materials";
+    private static final String PRODUCTS_FIELD = "products";
+    private static final char SEPARATOR = '/';
+
+    private LinkPathTable() {
+    }
+
+    static void encode(Document linkMetaBlock) {
+        Document link = linkMetaBlock.get(LINK_FIELD, Document.class);
+        if (link == null || link.containsKey(DIRECTORIES_FIELD) || link.containsKey(PATHS_FIELD)) {
+            return;
+        }
+        List<String> directories = new ArrayList<>();
+        Map<String, Integer> directoryIndexes = new HashMap<>();
+        encodeArtifacts(link, MATERIALS_FIELD, directories, directoryIndexes);
+        encodeArtifacts(link, PRODUCTS_FIELD, directories, directoryIndexes);
+        link.put(DIRECTORIES_FIELD, directories);
+    }
+
+    private static void encodeArtifacts(Document link, String field, List<String> directories, Map<String, Integer> directoryIndexes) {
+        List<Document> artifacts = link.getList(field, Document.class);
+        if (artifacts == null) {
+            return;
+        }
+        List<Document> encodedArtifacts = new ArrayList<>(artifacts.size());
+        for (Document artifact : artifacts) {
+            String uri = artifact.getString(URI_FIELD);
+            int nameIndex = uri.lastIndexOf(SEPARATOR) + 1;
+            Integer directoryIndex = directoryIndexes.computeIfAbsent(uri.substring(0, nameIndex), directory -> {
+                directories.add(directory);
+                return directories.size() - 1;
+            });
+            encodedArtifacts.add(new Document(PATH_INDEX_FIELD, directoryIndex)
+                    .append(NAME_FIELD, uri.substring(nameIndex))
+                    .append(HASH_FIELD, artifact.get(HASH_FIELD)));
+        }
+        link.put(field, encodedArtifacts);
+    }
+
+    static void decode(Document linkMetaBlock) {
+        Document link = linkMetaBlock.get(LINK_FIELD, Document.class);
+        if (link == null) {
+            return;
+        }
+        if (link.containsKey(DIRECTORIES_FIELD)) {
+            List<String> directories = link.getList(DIRECTORIES_FIELD, String.class);
+            decodeArtifacts(link, MATERIALS_FIELD, directories, false);
+            decodeArtifacts(link, PRODUCTS_FIELD, directories, false);
+            link.remove(DIRECTORIES_FIELD);
+        } else if (link.containsKey(PATHS_FIELD)) {
+            List<String> paths = link.getList(PATHS_FIELD, String.class);
+            decodeArtifacts(link, MATERIALS_FIELD, paths, true);
+            decodeArtifacts(link, PRODUCTS_FIELD, paths, true);
+            link.remove(PATHS_FIELD);
+        }
+    }
+
+    private static void decodeArtifacts(Document link, String field, List<String> paths, boolean legacyPaths) {
+        List<Document> artifacts = link.getList(field, Document.class);
+        if (artifacts == null) {
+            return;
+        }
+        List<Document> decodedArtifacts = new ArrayList<>(artifacts.size());
+        for (Document artifact : artifacts) {
+            String path = paths.get(artifact.getInteger(PATH_INDEX_FIELD));
+            String name = artifact.getString(NAME_FIELD);
+            String uri = legacyPaths && !path.isEmpty() ? path + SEPARATOR + name : path + name;
+            decodedArtifacts.add(new Document(URI_FIELD, uri)
+                    .append(HASH_FIELD, artifact.get(HASH_FIELD)));
+        }
+        link.put(field, decodedArtifacts);
+    }
+}
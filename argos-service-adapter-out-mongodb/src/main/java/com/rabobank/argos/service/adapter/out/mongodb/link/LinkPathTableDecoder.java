@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.ARCHIVE_COLLECTION;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.COLLECTION;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.ID_FIELD;
+
+/**
+ * Decodes the links stored with a {@link LinkPathTable} when link.storage.path-table is disabled.
+ *
+ * Without a path table the step artifacts are matched on hash and uri in the query, the links
+ * written while the path table was enabled have no uri's and would not be found anymore. They
+ * are decoded at startup, before the links are queried.
+ */
+@Component
+@Slf4j
+public class LinkPathTableDecoder {
+
+    private static final Document PATH_TABLE_FILTER = new Document("$or", List.of(
+            new Document(LinkPathTable.LINK_FIELD + "." + LinkPathTable.DIRECTORIES_FIELD, new Document("$exists", true)),
+            new Document(LinkPathTable.LINK_FIELD + "." + LinkPathTable.PATHS_FIELD, new Document("$exists", true))));
+
+    private final MongoTemplate template;
+
+    private final boolean pathTable;
+
+    public LinkPathTableDecoder(MongoTemplate template, @Value("${link.storage.path-table:false}") boolean pathTable) {
+        this.template = template;
+        this.pathTable = pathTable;
+    }
+
+    @PostConstruct
+    public void decode() {
+        if (!pathTable) {
+            decode(COLLECTION);
+            decode(ARCHIVE_COLLECTION);
+        }
+    }
+
+    private void decode(String collectionName) {
+        MongoCollection<Document> collection = template.getCollection(collectionName);
+        long decoded = 0;
+        try (MongoCursor<Document> cursor = collection.find(PATH_TABLE_FILTER).iterator()) {
+            while (cursor.hasNext()) {
+                Document linkMetaBlock = cursor.next();
+                LinkPathTable.decode(linkMetaBlock);
+                collection.replaceOne(new Document(ID_FIELD, linkMetaBlock.get(ID_FIELD)), linkMetaBlock);
+                decoded++;
+            }
+        }
+        if (decoded > 0) {
+            log.info("decoded the path table of {} links in {}", decoded, collectionName);
+        }
+    }
+}
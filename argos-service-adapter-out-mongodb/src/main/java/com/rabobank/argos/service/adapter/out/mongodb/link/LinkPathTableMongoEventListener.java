@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterLoadEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes link meta blocks with a {@link LinkPathTable} when link.storage.path-table is enabled,
+ * documents with a path table are always read.
+ */
+@Component
+public class LinkPathTableMongoEventListener extends AbstractMongoEventListener<LinkMetaBlock> {
+
+    private final boolean pathTable;
+
+    public LinkPathTableMongoEventListener(@Value("${link.storage.path-table:false}") boolean pathTable) {
+        this.pathTable = pathTable;
+    }
+
+    @Override
+    public void onBeforeSave(BeforeSaveEvent<LinkMetaBlock> event) {
+        if (pathTable && event.getDocument() != null) {
+            LinkPathTable.encode(event.getDocument());
+        }
+    }
+
+    @Override
+    public void onAfterLoad(AfterLoadEvent<LinkMetaBlock> event) {
+        LinkPathTable.decode(event.getDocument());
+    }
+}
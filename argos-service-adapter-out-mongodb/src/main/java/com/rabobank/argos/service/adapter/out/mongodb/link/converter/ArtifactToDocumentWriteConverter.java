@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link.converter;
+
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.ArtifactHash;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.core.convert.converter.Converter;
+
+/**
+ * Stores the artifact hash as the raw 32 bytes instead of 64 hex characters.
+ */
+public class ArtifactToDocumentWriteConverter implements Converter<Artifact, Document> {
+
+    public static final String URI_FIELD = "uri";
+    public static final String HASH_FIELD = "hash";
+
+    @Override
+    public Document convert(Artifact artifact) {
+        return new Document(URI_FIELD, artifact.getUri()).append(HASH_FIELD, toBsonHash(artifact.getHash()));
+    }
+
+    /**
+     * @return the hash as binary, or as is when it is not a lowercase hex encoded sha256 hash
+     */
+    public static Object toBsonHash(String hash) {
+        try {
+            return new Binary(ArtifactHash.toBytes(hash));
+        } catch (IllegalArgumentException e) {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link.converter;
+
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.ArtifactHash;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.core.convert.converter.Converter;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter.HASH_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.link.converter.ArtifactToDocumentWriteConverter.URI_FIELD;
+
+/**
+ * Reads binary artifact hashes and hex hashes that are not yet migrated.
+ */
+public class DocumentToArtifactReadConverter implements Converter<Document, Artifact> {
+
+    @Override
+    public Artifact convert(Document document) {
+        return new Artifact(document.getString(URI_FIELD), toHexHash(document.get(HASH_FIELD)));
+    }
+
+    private static String toHexHash(Object hash) {
+        if (hash instanceof Binary) {
+            return ArtifactHash.of(((Binary) hash).getData()).toHex();
+        }
+        return (String) hash;
+    }
+}
@@ -18,6 +18,8 @@ package com.rabobank.argos.service.adapter.out.mongodb.supplychain;
 import com.mongodb.client.result.UpdateResult;
 import com.rabobank.argos.domain.ArgosError;
 import com.rabobank.argos.domain.supplychain.SupplyChain;
+import com.rabobank.argos.service.adapter.out.mongodb.hierarchy.HierarchyWriter;
+import com.rabobank.argos.service.domain.hierarchy.HierarchyPathCache;
 import com.rabobank.argos.service.domain.supplychain.SupplyChainRepository;
 import lombok.RequiredArgsConstructor;
 import org.bson.Document;
@@ -39,11 +41,14 @@ public class SupplyChainRepositoryImpl implements SupplyChainRepository {
     static final String SUPPLY_CHAIN_NAME_FIELD = "name";
     static final String PARENT_LABEL_ID_FIELD = "parentLabelId";
     private final MongoTemplate template;
+    private final HierarchyWriter hierarchyWriter;
+    private final HierarchyPathCache hierarchyPathCache;
 
     @Override
     public void save(SupplyChain supplyChain) {
         try {
             template.save(supplyChain, COLLECTION);
+            hierarchyWriter.save(supplyChain);
         } catch (DuplicateKeyException e) {
             throw duplicateKeyException(supplyChain, e);
         }
@@ -63,6 +68,8 @@ public class SupplyChainRepositoryImpl implements SupplyChainRepository {
             UpdateResult updateResult = template.updateFirst(query, Update.fromDocument(document), SupplyChain.class, COLLECTION);
             if (updateResult.getMatchedCount() > 0) {
                 supplyChain.setSupplyChainId(supplyChainId);
+                hierarchyWriter.save(supplyChain);
+                hierarchyPathCache.invalidateSupplyChain(supplyChainId);
                 return Optional.of(supplyChain);
             } else {
                 return Optional.empty();
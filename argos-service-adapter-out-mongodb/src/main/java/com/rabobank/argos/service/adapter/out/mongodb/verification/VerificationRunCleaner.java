@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.verification;
+
+import com.mongodb.client.result.DeleteResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.verification.VerificationRunRepositoryImpl.COLLECTION;
+import static com.rabobank.argos.service.adapter.out.mongodb.verification.VerificationRunRepositoryImpl.CREATED_AT_FIELD;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Removes the verification runs older than verification.run.retention, one run is recorded for every verification.
+ */
+@Component
+@Slf4j
+public class VerificationRunCleaner {
+
+    private final MongoTemplate template;
+
+    private final Duration retention;
+
+    public VerificationRunCleaner(MongoTemplate template,
+                                  @Value("#{T(java.time.Duration).parse('${verification.run.retention:P30D}')}") Duration retention) {
+        this.template = template;
+        this.retention = retention;
+    }
+
+    @Scheduled(cron = "${verification.run.retention-cron:0 30 3 * * *}")
+    public void removeExpiredRuns() {
+        Date expiredBefore = new Date(System.currentTimeMillis() - retention.toMillis());
+        DeleteResult result = template.remove(new Query(where(CREATED_AT_FIELD).lt(expiredBefore)), COLLECTION);
+        log.info("removed {} verification runs created before {}", result.getDeletedCount(), expiredBefore);
+    }
+}
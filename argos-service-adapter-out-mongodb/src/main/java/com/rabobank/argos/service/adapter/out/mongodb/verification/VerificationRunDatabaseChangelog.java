@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.verification;
+
+import com.github.mongobee.changeset.ChangeLog;
+import com.github.mongobee.changeset.ChangeSet;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.Index;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.verification.VerificationRunRepositoryImpl.COLLECTION;
+import static com.rabobank.argos.service.adapter.out.mongodb.verification.VerificationRunRepositoryImpl.CREATED_AT_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.verification.VerificationRunRepositoryImpl.LAYOUT_DIGEST_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.verification.VerificationRunRepositoryImpl.PRODUCTS_DIGEST_FIELD;
+import static com.rabobank.argos.service.adapter.out.mongodb.verification.VerificationRunRepositoryImpl.SUPPLY_CHAIN_ID_FIELD;
+
+@ChangeLog
+public class VerificationRunDatabaseChangelog {
+
+    @ChangeSet(order = "001", id = "VerificationRunDatabaseChangelog-1", author = "bart")
+    public void addIndex(MongoTemplate template) {
+        template.indexOps(COLLECTION).ensureIndex(new CompoundIndexDefinition(new Document(SUPPLY_CHAIN_ID_FIELD, 1)
+                .append(LAYOUT_DIGEST_FIELD, 1)
+                .append(PRODUCTS_DIGEST_FIELD, 1)
+                .append(CREATED_AT_FIELD, -1))
+                .named(SUPPLY_CHAIN_ID_FIELD + "_" + LAYOUT_DIGEST_FIELD + "_" + PRODUCTS_DIGEST_FIELD + "_" + CREATED_AT_FIELD));
+    }
+
+    /*
+     * supports the removal of the expired runs by the VerificationRunCleaner
+     */
+    @ChangeSet(order = "002", id = "VerificationRunDatabaseChangelog-2", author = "bart")
+    public void addCreatedAtIndex(MongoTemplate template) {
+        template.indexOps(COLLECTION).ensureIndex(new Index(CREATED_AT_FIELD, Sort.Direction.ASC).named(CREATED_AT_FIELD));
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.verification;
+
+import com.rabobank.argos.service.domain.verification.VerificationRun;
+import com.rabobank.argos.service.domain.verification.VerificationRunRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Component
+@RequiredArgsConstructor
+public class VerificationRunRepositoryImpl implements VerificationRunRepository {
+
+    static final String COLLECTION = "verificationRuns";
+    static final String SUPPLY_CHAIN_ID_FIELD = "supplyChainId";
+    static final String LAYOUT_DIGEST_FIELD = "layoutDigest";
+    static final String PRODUCTS_DIGEST_FIELD = "productsDigest";
+    static final String RUN_IS_VALID_FIELD = "runIsValid";
+    static final String CREATED_AT_FIELD = "createdAt";
+
+    private final MongoTemplate template;
+
+    @Override
+    public void save(VerificationRun verificationRun) {
+        template.insert(verificationRun, COLLECTION);
+    }
+
+    @Override
+    public Optional<VerificationRun> findLastValidRun(String supplyChainId, String layoutDigest, String productsDigest) {
+        Query query = new Query(where(SUPPLY_CHAIN_ID_FIELD).is(supplyChainId)
+                .and(LAYOUT_DIGEST_FIELD).is(layoutDigest)
+                .and(PRODUCTS_DIGEST_FIELD).is(productsDigest)
+                .and(RUN_IS_VALID_FIELD).is(true))
+                .with(Sort.by(Sort.Direction.DESC, CREATED_AT_FIELD))
+                .limit(1);
+        return Optional.ofNullable(template.findOne(query, VerificationRun.class, COLLECTION));
+    }
+}
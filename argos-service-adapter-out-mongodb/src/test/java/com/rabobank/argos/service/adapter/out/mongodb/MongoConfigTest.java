@@ -16,6 +16,8 @@
 package com.rabobank.argos.service.adapter.out.mongodb;
 
 import com.github.mongobee.Mongobee;
+import com.rabobank.argos.domain.link.Artifact;
+import org.bson.Document;
 import org.bson.types.Binary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -51,6 +53,8 @@ class MongoConfigTest {
         MongoCustomConversions conversions = config.customConversions();
         assertThat(conversions.hasCustomReadTarget(Binary.class, PublicKey.class), is(true));
         assertThat(conversions.hasCustomWriteTarget(PublicKey.class, byte[].class), is(true));
+        assertThat(conversions.hasCustomReadTarget(Document.class, Artifact.class), is(true));
+        assertThat(conversions.hasCustomWriteTarget(Artifact.class, Document.class), is(true));
     }
 
     @Test
@@ -18,6 +18,7 @@ package com.rabobank.argos.service.adapter.out.mongodb.account;
 import com.mongodb.client.result.UpdateResult;
 import com.rabobank.argos.domain.ArgosError;
 import com.rabobank.argos.domain.account.ServiceAccount;
+import com.rabobank.argos.service.adapter.out.mongodb.hierarchy.HierarchyWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -55,6 +56,9 @@ class ServiceAccountRepositoryImplTest {
 
     @Mock
     private MongoTemplate template;
+
+    @Mock
+    private HierarchyWriter hierarchyWriter;
     private ServiceAccountRepositoryImpl repository;
 
     @Mock
@@ -77,13 +81,14 @@ class ServiceAccountRepositoryImplTest {
 
     @BeforeEach
     void setUp() {
-        repository = new ServiceAccountRepositoryImpl(template);
+        repository = new ServiceAccountRepositoryImpl(template, hierarchyWriter);
     }
 
     @Test
     void save() {
         repository.save(serviceAccount);
         verify(template).save(serviceAccount, COLLECTION);
+        verify(hierarchyWriter).save(serviceAccount);
     }
 
     @Test
@@ -115,6 +120,7 @@ class ServiceAccountRepositoryImplTest {
         assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"accountId\" : \"accountId\"}, Fields: {}, Sort: {}"));
         verify(converter).write(eq(serviceAccount), any());
         assertThat(updateArgumentCaptor.getValue().toString(), is("{}"));
+        verify(hierarchyWriter).save(serviceAccount);
     }
 
     @Test
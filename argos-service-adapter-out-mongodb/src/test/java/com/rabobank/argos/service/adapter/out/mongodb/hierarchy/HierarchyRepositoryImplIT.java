@@ -26,6 +26,7 @@ import com.rabobank.argos.domain.supplychain.SupplyChain;
 import com.rabobank.argos.service.adapter.out.mongodb.account.ServiceAccountRepositoryImpl;
 import com.rabobank.argos.service.adapter.out.mongodb.supplychain.SupplyChainRepositoryImpl;
 import com.rabobank.argos.service.domain.account.ServiceAccountRepository;
+import com.rabobank.argos.service.domain.hierarchy.HierarchyPathCache;
 import com.rabobank.argos.service.domain.hierarchy.HierarchyRepository;
 import com.rabobank.argos.service.domain.hierarchy.LabelRepository;
 import com.rabobank.argos.service.domain.supplychain.SupplyChainRepository;
@@ -46,12 +47,14 @@ import org.junit.jupiter.api.TestInstance;
 import org.springframework.data.mongodb.core.MongoTemplate;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
 import static de.flapdoodle.embed.process.config.io.ProcessOutput.getDefaultInstanceSilent;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.core.Is.is;
 
@@ -84,9 +87,11 @@ class HierarchyRepositoryImplIT {
         String connectionString = MONGODB_LOCALHOST + port;
         mongoTemplate = new MongoTemplate(MongoClients.create(connectionString), MONGO_DB);
         hierarchyRepository = new HierarchyRepositoryImpl(mongoTemplate);
-        labelRepository = new LabelRepositoryImpl(mongoTemplate);
-        supplyChainRepository = new SupplyChainRepositoryImpl(mongoTemplate);
-        serviceAccountRepository = new ServiceAccountRepositoryImpl(mongoTemplate);
+        HierarchyWriter hierarchyWriter = new HierarchyWriter(mongoTemplate);
+        HierarchyPathCache hierarchyPathCache = new HierarchyPathCache(100, Duration.ofSeconds(30));
+        labelRepository = new LabelRepositoryImpl(mongoTemplate, hierarchyWriter, hierarchyPathCache);
+        supplyChainRepository = new SupplyChainRepositoryImpl(mongoTemplate, hierarchyWriter, hierarchyPathCache);
+        serviceAccountRepository = new ServiceAccountRepositoryImpl(mongoTemplate, hierarchyWriter);
         Mongobee runner = new Mongobee(connectionString);
         runner.setChangeLogsScanPackage(SCAN_PACKAGE);
         runner.setMongoTemplate(mongoTemplate);
@@ -146,6 +151,22 @@ class HierarchyRepositoryImplIT {
         assertThat(sa.getType(), is(TreeNode.Type.SERVICE_ACCOUNT));
     }
 
+    @Test
+    void testRenameLabelUpdatesPathOfDescendants() {
+        TreeNode team2 = hierarchyRepository.findByNamePathToRootAndType("team 2", List.of("department 1", "company 1", "nl"), TreeNode.Type.LABEL).orElseThrow();
+        Label project = createLabel("project a", team2.getReferenceId());
+        createSupplyChain("project supply chain", project.getLabelId());
+
+        project.setName("project b");
+        labelRepository.update(project.getLabelId(), project);
+
+        List<String> pathToRoot = List.of("project b", "team 2", "department 1", "company 1", "nl");
+        assertThat(hierarchyRepository.findByNamePathToRootAndType("project supply chain", pathToRoot, TreeNode.Type.SUPPLY_CHAIN).isPresent(), is(true));
+        TreeNode updatedTeam2 = hierarchyRepository.getSubTree(team2.getReferenceId(), HierarchyMode.NONE, 0).orElseThrow();
+        assertThat(updatedTeam2.isHasChildren(), is(true));
+        assertThat(updatedTeam2.getIdsOfDescendantLabels(), contains(project.getLabelId()));
+    }
+
     void createDataSet() {
         Label root = createLabel("nl", null);
         Label company1 = createLabel("company 1", root.getLabelId());
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.hierarchy;
+
+import com.rabobank.argos.domain.supplychain.SupplyChain;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.hierarchy.HierarchyWriter.COLLECTION;
+import static java.util.stream.Collectors.toMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HierarchyWriterTest {
+
+    @Mock
+    private MongoTemplate template;
+
+    @Captor
+    private ArgumentCaptor<Collection<Document>> documentsCaptor;
+
+    @Captor
+    private ArgumentCaptor<Update> updateCaptor;
+
+    private HierarchyWriter hierarchyWriter;
+
+    @BeforeEach
+    void setUp() {
+        hierarchyWriter = new HierarchyWriter(template);
+    }
+
+    @Test
+    void rebuild() {
+        when(template.find(any(Query.class), eq(Document.class), eq("labels"))).thenReturn(List.of(
+                node("labelId", "root", null, "rootId"),
+                node("labelId", "child", "rootId", "childId")));
+        when(template.find(any(Query.class), eq(Document.class), eq("supplyChains"))).thenReturn(List.of(
+                node("supplyChainId", "supplyChain", "childId", "supplyChainId")));
+        when(template.find(any(Query.class), eq(Document.class), eq("serviceAccounts"))).thenReturn(List.of());
+
+        hierarchyWriter.rebuild();
+
+        verify(template).remove(any(Query.class), eq(COLLECTION));
+        verify(template).insert(documentsCaptor.capture(), eq(COLLECTION));
+        Map<String, Document> documents = documentsCaptor.getValue().stream()
+                .collect(toMap(document -> document.getString("referenceId"), Function.identity()));
+        assertThat(documents.get("rootId").getList("pathToRoot", String.class), is(empty()));
+        assertThat(documents.get("rootId").getList("idsOfDescendantLabels", String.class), is(List.of("childId")));
+        assertThat(documents.get("rootId").getBoolean("hasChildren"), is(true));
+        assertThat(documents.get("childId").getList("idPathToRoot", String.class), is(List.of("rootId")));
+        assertThat(documents.get("supplyChainId").getList("pathToRoot", String.class), is(List.of("child", "root")));
+        assertThat(documents.get("supplyChainId").getList("idPathToRoot", String.class), is(List.of("childId", "rootId")));
+        assertThat(documents.get("supplyChainId").getString("type"), is("SUPPLY_CHAIN"));
+        assertThat(documents.get("supplyChainId").getBoolean("hasChildren"), is(false));
+    }
+
+    @Test
+    void saveNewSupplyChain() {
+        Document parent = new Document("referenceId", "parentId").append("name", "parent")
+                .append("pathToRoot", new ArrayList<>(List.of("root")))
+                .append("idPathToRoot", new ArrayList<>(List.of("rootId")));
+        when(template.findOne(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(null, parent);
+
+        hierarchyWriter.save(SupplyChain.builder().supplyChainId("supplyChainId").name("supplyChain").parentLabelId("parentId").build());
+
+        verify(template).upsert(any(Query.class), updateCaptor.capture(), eq(COLLECTION));
+        Document set = (Document) updateCaptor.getValue().getUpdateObject().get("$set");
+        assertThat(set.getList("pathToRoot", String.class), is(List.of("parent", "root")));
+        assertThat(set.getList("idPathToRoot", String.class), is(List.of("parentId", "rootId")));
+        assertThat(set.getString("type"), is("SUPPLY_CHAIN"));
+        verify(template).updateFirst(any(Query.class), any(Update.class), eq(COLLECTION));
+    }
+
+    private static Document node(String idField, String name, String parentLabelId, String id) {
+        return new Document(idField, id).append("name", name).append("parentLabelId", parentLabelId);
+    }
+}
@@ -18,6 +18,7 @@ package com.rabobank.argos.service.adapter.out.mongodb.hierarchy;
 import com.mongodb.client.result.UpdateResult;
 import com.rabobank.argos.domain.ArgosError;
 import com.rabobank.argos.domain.hierarchy.Label;
+import com.rabobank.argos.service.domain.hierarchy.HierarchyPathCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -53,6 +54,12 @@ class LabelRepositoryImplTest {
 
     @Mock
     private MongoTemplate template;
+
+    @Mock
+    private HierarchyWriter hierarchyWriter;
+
+    @Mock
+    private HierarchyPathCache hierarchyPathCache;
     private LabelRepositoryImpl repository;
 
     @Mock
@@ -75,13 +82,14 @@ class LabelRepositoryImplTest {
 
     @BeforeEach
     void setUp() {
-        repository = new LabelRepositoryImpl(template);
+        repository = new LabelRepositoryImpl(template, hierarchyWriter, hierarchyPathCache);
     }
 
     @Test
     void save() {
         repository.save(label);
         verify(template).save(label, COLLECTION);
+        verify(hierarchyWriter).save(label);
     }
 
     @Test
@@ -124,6 +132,8 @@ class LabelRepositoryImplTest {
         Optional<Label> update = repository.update(LABEL_ID, label);
         assertThat(update, is(Optional.of(label)));
         verify(label).setLabelId(LABEL_ID);
+        verify(hierarchyWriter).save(label);
+        verify(hierarchyPathCache).invalidateIdPathsToRoot();
         verify(template).updateFirst(queryArgumentCaptor.capture(), updateArgumentCaptor.capture(), eq(Label.class), eq(COLLECTION));
         assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"labelId\" : \"labelId\"}, Fields: {}, Sort: {}"));
         verify(converter).write(eq(label), any());
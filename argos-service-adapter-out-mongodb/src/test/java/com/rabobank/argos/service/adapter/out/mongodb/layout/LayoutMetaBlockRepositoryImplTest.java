@@ -17,6 +17,7 @@ package com.rabobank.argos.service.adapter.out.mongodb.layout;
 
 import com.mongodb.client.result.UpdateResult;
 import com.rabobank.argos.domain.layout.LayoutMetaBlock;
+import com.rabobank.argos.service.domain.verification.VerificationResultCache;
 import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -51,6 +52,9 @@ class LayoutMetaBlockRepositoryImplTest {
     @Mock
     private LayoutMetaBlock layoutMetaBlock;
 
+    @Mock
+    private VerificationResultCache verificationResultCache;
+
     private LayoutMetaBlockRepositoryImpl repository;
 
     @Captor
@@ -67,13 +71,15 @@ class LayoutMetaBlockRepositoryImplTest {
 
     @BeforeEach
     void setUp() {
-        repository = new LayoutMetaBlockRepositoryImpl(template);
+        repository = new LayoutMetaBlockRepositoryImpl(template, verificationResultCache);
     }
 
     @Test
     void save() {
+        when(layoutMetaBlock.getSupplyChainId()).thenReturn(SUPPLY_CHAIN_ID);
         repository.createOrUpdate(layoutMetaBlock);
         verify(template).save(layoutMetaBlock, COLLECTION);
+        verify(verificationResultCache).invalidate(SUPPLY_CHAIN_ID);
     }
 
 
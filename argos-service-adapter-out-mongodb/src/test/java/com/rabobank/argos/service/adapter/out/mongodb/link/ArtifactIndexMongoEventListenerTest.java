@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ArtifactIndexMongoEventListenerTest {
+
+    @Mock
+    private MongoTemplate template;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Captor
+    private ArgumentCaptor<List<Document>> entriesArgumentCaptor;
+
+    private final LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().build();
+
+    @Test
+    void onAfterSave() {
+        when(template.bulkOps(BulkOperations.BulkMode.UNORDERED, "artifactIndex")).thenReturn(bulkOperations);
+        when(bulkOperations.insert(entriesArgumentCaptor.capture())).thenReturn(bulkOperations);
+        Document document = new Document("supplyChainId", "supplyChainId")
+                .append("link", new Document("materials", List.of(new Document("uri", "dir/file").append("hash", "hash"))));
+        new ArtifactIndexMongoEventListener(template).onAfterSave(new AfterSaveEvent<>(linkMetaBlock, document, "linkMetaBlocks"));
+        assertThat(entriesArgumentCaptor.getValue(), hasSize(1));
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void onAfterSaveWithoutArtifacts() {
+        Document document = new Document("supplyChainId", "supplyChainId").append("link", new Document("stepName", "build"));
+        new ArtifactIndexMongoEventListener(template).onAfterSave(new AfterSaveEvent<>(linkMetaBlock, document, "linkMetaBlocks"));
+        verifyNoInteractions(template);
+    }
+}
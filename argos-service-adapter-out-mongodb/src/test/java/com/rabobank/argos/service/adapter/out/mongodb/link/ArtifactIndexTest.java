@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+class ArtifactIndexTest {
+
+    private static final ObjectId LINK_ID = new ObjectId();
+
+    @Test
+    void entries() {
+        assertThat(ArtifactIndex.entries(createLinkMetaBlock()), contains(
+                createEntry("target/a.class", "hash1", "MATERIALS"),
+                createEntry("app.jar", "hash2", "PRODUCTS")));
+    }
+
+    @Test
+    void entriesWithPathTable() {
+        Document linkMetaBlock = createLinkMetaBlock();
+        LinkPathTable.encode(linkMetaBlock);
+        Document encoded = Document.parse(linkMetaBlock.toJson());
+        assertThat(ArtifactIndex.entries(linkMetaBlock), contains(
+                createEntry("target/a.class", "hash1", "MATERIALS"),
+                createEntry("app.jar", "hash2", "PRODUCTS")));
+        assertThat(linkMetaBlock.toJson(), is(encoded.toJson()));
+    }
+
+    @Test
+    void entriesWithoutLink() {
+        assertThat(ArtifactIndex.entries(new Document("_id", LINK_ID)), empty());
+    }
+
+    private static Document createLinkMetaBlock() {
+        return new Document("_id", LINK_ID)
+                .append("supplyChainId", "supplyChainId")
+                .append("link", new Document("runId", "runId")
+                        .append("layoutSegmentName", "segment")
+                        .append("stepName", "build")
+                        .append("materials", List.of(new Document("uri", "target/a.class").append("hash", "hash1")))
+                        .append("products", List.of(new Document("uri", "app.jar").append("hash", "hash2"))));
+    }
+
+    private static Document createEntry(String uri, String hash, String artifactType) {
+        return new Document("supplyChainId", "supplyChainId")
+                .append("segmentName", "segment")
+                .append("stepName", "build")
+                .append("linkId", LINK_ID)
+                .append("runId", "runId")
+                .append("hash", hash)
+                .append("uri", uri)
+                .append("artifactType", artifactType);
+    }
+}
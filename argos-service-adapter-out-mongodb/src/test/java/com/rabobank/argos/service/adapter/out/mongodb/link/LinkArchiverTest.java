@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.WriteModel;
+import com.rabobank.argos.service.domain.verification.VerificationResultCache;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.COLLECTION;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LinkArchiverTest {
+
+    private static final String SUPPLY_CHAIN_ID = "supplyChainId";
+
+    @Mock
+    private MongoTemplate template;
+
+    @Mock
+    private VerificationResultCache verificationResultCache;
+
+    @Mock
+    private MongoCollection<Document> archiveCollection;
+
+    @Captor
+    private ArgumentCaptor<Query> queryArgumentCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<WriteModel<Document>>> writeModelsArgumentCaptor;
+
+    @Test
+    void archiveWithoutRetention() {
+        new LinkArchiver(template, verificationResultCache, "", Map.of(), 1000).archive();
+        verifyNoInteractions(template, verificationResultCache);
+    }
+
+    @Test
+    void archiveWithSupplyChainRetention() {
+        Document expiredLink = new Document("_id", "id1").append(SUPPLY_CHAIN_ID, SUPPLY_CHAIN_ID).append("link", new Document("runId", "runId"));
+        Document siblingLink = new Document("_id", "id2").append(SUPPLY_CHAIN_ID, SUPPLY_CHAIN_ID).append("link", new Document("runId", "runId"));
+        when(template.find(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(List.of(expiredLink), List.of(expiredLink, siblingLink), List.of());
+        when(template.getCollection("linkMetaBlocksArchive")).thenReturn(archiveCollection);
+
+        new LinkArchiver(template, verificationResultCache, "", Map.of(SUPPLY_CHAIN_ID, "P30D"), 1000).archive();
+
+        verify(template, times(3)).find(queryArgumentCaptor.capture(), eq(Document.class), eq(COLLECTION));
+        Query expiredQuery = queryArgumentCaptor.getAllValues().get(0);
+        assertThat(expiredQuery.getQueryObject().get(SUPPLY_CHAIN_ID), is(SUPPLY_CHAIN_ID));
+        assertThat(expiredQuery.getQueryObject().get("createdAt", Document.class).get("$lt", Date.class).before(new Date()), is(true));
+        assertThat(expiredQuery.getLimit(), is(1000));
+        assertThat(queryArgumentCaptor.getAllValues().get(1).getQueryObject().toJson(),
+                is("{\"$or\": [{\"_id\": {\"$in\": [\"id1\"]}}, {\"supplyChainId\": \"supplyChainId\", \"link.runId\": {\"$in\": [\"runId\"]}}]}"));
+
+        verify(archiveCollection).bulkWrite(writeModelsArgumentCaptor.capture(), any(BulkWriteOptions.class));
+        assertThat(writeModelsArgumentCaptor.getValue(), hasSize(2));
+        verify(template).remove(queryArgumentCaptor.capture(), eq(COLLECTION));
+        assertThat(queryArgumentCaptor.getValue().getQueryObject().toJson(), is("{\"_id\": {\"$in\": [\"id1\", \"id2\"]}}"));
+        verify(template).remove(queryArgumentCaptor.capture(), eq("artifactIndex"));
+        assertThat(queryArgumentCaptor.getValue().getQueryObject().toJson(), is("{\"linkId\": {\"$in\": [\"id1\", \"id2\"]}}"));
+        verify(verificationResultCache).invalidate(SUPPLY_CHAIN_ID);
+    }
+
+    @Test
+    void archiveWithDefaultRetention() {
+        when(template.find(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(List.of());
+        new LinkArchiver(template, verificationResultCache, "P365D", Map.of(SUPPLY_CHAIN_ID, "P30D"), 1000).archive();
+        verify(template, times(2)).find(queryArgumentCaptor.capture(), eq(Document.class), eq(COLLECTION));
+        assertThat(queryArgumentCaptor.getAllValues().get(1).getQueryObject().get(SUPPLY_CHAIN_ID, Document.class).toJson(), is("{\"$nin\": [\"supplyChainId\"]}"));
+        verifyNoInteractions(verificationResultCache);
+    }
+}
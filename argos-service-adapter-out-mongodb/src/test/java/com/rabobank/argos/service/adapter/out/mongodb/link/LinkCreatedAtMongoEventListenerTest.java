@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+
+import java.util.Date;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+class LinkCreatedAtMongoEventListenerTest {
+
+    private final LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().build();
+
+    @Test
+    void onBeforeSave() {
+        Document document = new Document("supplyChainId", "supplyChainId");
+        new LinkCreatedAtMongoEventListener().onBeforeSave(new BeforeSaveEvent<>(linkMetaBlock, document, "linkMetaBlocks"));
+        assertThat(document.get("createdAt"), instanceOf(Date.class));
+    }
+
+    @Test
+    void onBeforeSaveWithCreatedAt() {
+        Date createdAt = new Date(0);
+        Document document = new Document("createdAt", createdAt);
+        new LinkCreatedAtMongoEventListener().onBeforeSave(new BeforeSaveEvent<>(linkMetaBlock, document, "linkMetaBlocks"));
+        assertThat(document.get("createdAt"), is(createdAt));
+    }
+}
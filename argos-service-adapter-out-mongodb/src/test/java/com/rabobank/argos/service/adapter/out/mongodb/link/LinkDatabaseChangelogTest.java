@@ -15,14 +15,40 @@
  */
 package com.rabobank.argos.service.adapter.out.mongodb.link;
 
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.rabobank.argos.domain.link.ArtifactHash;
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkDigest;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
 import org.springframework.data.mongodb.core.index.IndexOperations;
 
+import java.util.List;
+
 import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.COLLECTION;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -36,10 +62,169 @@ class LinkDatabaseChangelogTest {
     @Mock
     private IndexOperations indexOperations;
 
+    @Mock
+    private MongoCollection<Document> collection;
+
+    @Mock
+    private MongoCollection<Document> artifactIndexCollection;
+
+    @Mock
+    private MongoCollection<Document> archiveCollection;
+
+    @Mock
+    private FindIterable<Document> findIterable;
+
+    @Mock
+    private MongoConverter converter;
+
+    @Mock
+    private MongoDatabase database;
+
+    @Mock
+    private MongoCursor<Document> cursor;
+
+    @Captor
+    private ArgumentCaptor<Bson> updateArgumentCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<Document>> entriesArgumentCaptor;
+
+    @Captor
+    private ArgumentCaptor<IndexDefinition> indexDefinitionArgumentCaptor;
+
     @Test
     void addIndexes() {
         when(template.indexOps(COLLECTION)).thenReturn(indexOperations);
         new LinkDatabaseChangelog().addIndexes(template);
         verify(template, times(4)).indexOps(COLLECTION);
     }
-}
\ No newline at end of file
+
+    @Test
+    void addSignatureIndex() {
+        when(template.indexOps(COLLECTION)).thenReturn(indexOperations);
+        new LinkDatabaseChangelog().addSignatureIndex(template);
+        verify(template).indexOps(COLLECTION);
+    }
+
+    @Test
+    void addStepArtifactHashIndexes() {
+        when(template.indexOps(COLLECTION)).thenReturn(indexOperations);
+        new LinkDatabaseChangelog().addStepArtifactHashIndexes(template);
+        verify(indexOperations, times(2)).ensureIndex(any(IndexDefinition.class));
+        verify(indexOperations, never()).dropIndex(any());
+    }
+
+    @Test
+    void addArtifactIndex() {
+        Document linkMetaBlock = new Document("_id", "id").append("supplyChainId", "supplyChainId")
+                .append("link", new Document("materials", List.of(new Document("uri", "uri").append("hash", "hash"))));
+        when(template.indexOps("artifactIndex")).thenReturn(indexOperations);
+        when(template.getCollection("artifactIndex")).thenReturn(artifactIndexCollection);
+        when(template.getCollection(COLLECTION)).thenReturn(collection);
+        when(collection.find()).thenReturn(findIterable);
+        when(findIterable.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(linkMetaBlock);
+        new LinkDatabaseChangelog().addArtifactIndex(template);
+        verify(indexOperations).ensureIndex(any(IndexDefinition.class));
+        verify(artifactIndexCollection).insertMany(entriesArgumentCaptor.capture());
+        assertThat(entriesArgumentCaptor.getValue().get(0).get("linkId"), is("id"));
+        verify(cursor).close();
+    }
+
+    @Test
+    void addLinkArchive() {
+        ObjectId id = new ObjectId();
+        when(template.getCollection(COLLECTION)).thenReturn(collection);
+        when(collection.find(any(Bson.class))).thenReturn(findIterable);
+        when(findIterable.projection(any(Bson.class))).thenReturn(findIterable);
+        when(findIterable.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(new Document("_id", id));
+        when(template.indexOps(COLLECTION)).thenReturn(indexOperations);
+        when(template.getDb()).thenReturn(database);
+        when(template.indexOps("linkMetaBlocksArchive")).thenReturn(indexOperations);
+        when(template.indexOps("artifactIndex")).thenReturn(indexOperations);
+        new LinkDatabaseChangelog().addLinkArchive(template);
+        verify(collection).updateOne(any(Bson.class), updateArgumentCaptor.capture());
+        assertThat(((Document) updateArgumentCaptor.getValue()).get("$set", Document.class).get("createdAt"), is(id.getDate()));
+        verify(database).createCollection(eq("linkMetaBlocksArchive"), any(CreateCollectionOptions.class));
+        verify(indexOperations, times(6)).ensureIndex(any(IndexDefinition.class));
+        verify(cursor).close();
+    }
+
+    @Test
+    void recreateOrderedIndexes() {
+        IndexOperations archiveIndexOperations = mock(IndexOperations.class);
+        when(template.indexOps(COLLECTION)).thenReturn(indexOperations);
+        when(template.indexOps("linkMetaBlocksArchive")).thenReturn(archiveIndexOperations);
+        new LinkDatabaseChangelog().recreateOrderedIndexes(template);
+        verify(indexOperations).dropIndex("supplyChainId_link.layoutSegmentName_link.stepName");
+        verify(indexOperations).dropIndex("supplyChainId_signature.signature");
+        verify(indexOperations, times(2)).ensureIndex(indexDefinitionArgumentCaptor.capture());
+        assertThat(indexDefinitionArgumentCaptor.getAllValues().get(0).getIndexKeys().keySet(),
+                contains("supplyChainId", "link.layoutSegmentName", "link.stepName"));
+        assertThat(indexDefinitionArgumentCaptor.getAllValues().get(1).getIndexKeys().keySet(),
+                contains("supplyChainId", "signature.signature"));
+        verify(archiveIndexOperations).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void addRunIdIndex() {
+        IndexOperations archiveIndexOperations = mock(IndexOperations.class);
+        when(template.indexOps(COLLECTION)).thenReturn(indexOperations);
+        when(template.indexOps("linkMetaBlocksArchive")).thenReturn(archiveIndexOperations);
+        new LinkDatabaseChangelog().addRunIdIndex(template);
+        verify(indexOperations).ensureIndex(indexDefinitionArgumentCaptor.capture());
+        assertThat(indexDefinitionArgumentCaptor.getValue().getIndexKeys().keySet(),
+                contains("supplyChainId", "link.layoutSegmentName", "link.runId"));
+        verify(archiveIndexOperations).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void dropArtifactHashIndexes() {
+        when(template.indexOps(COLLECTION)).thenReturn(indexOperations);
+        new LinkDatabaseChangelog().dropArtifactHashIndexes(template);
+        verify(indexOperations).dropIndex("link.materials.hash");
+        verify(indexOperations).dropIndex("link.products.hash");
+    }
+
+    @Test
+    void addLinkDigest() {
+        Link link = Link.builder().runId("runId").stepName("stepName").build();
+        Document linkMetaBlock = new Document("_id", "id").append("link", new Document("runId", "runId").append("stepName", "stepName"));
+        when(template.getCollection(COLLECTION)).thenReturn(collection);
+        when(template.getCollection("linkMetaBlocksArchive")).thenReturn(archiveCollection);
+        when(collection.find(any(Bson.class))).thenReturn(findIterable);
+        when(archiveCollection.find(any(Bson.class))).thenReturn(findIterable);
+        when(findIterable.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false, false);
+        when(cursor.next()).thenReturn(linkMetaBlock);
+        when(template.getConverter()).thenReturn(converter);
+        when(converter.read(LinkMetaBlock.class, linkMetaBlock)).thenReturn(LinkMetaBlock.builder().link(link).build());
+        new LinkDatabaseChangelog().addLinkDigest(template);
+        verify(collection).updateOne(any(Bson.class), updateArgumentCaptor.capture());
+        assertThat(((Document) updateArgumentCaptor.getValue()).get("$set", Document.class).get("linkDigest"), is(LinkDigest.of(link)));
+        verify(archiveCollection).find(any(Bson.class));
+        verify(cursor, times(2)).close();
+    }
+
+    @Test
+    void migrateArtifactHashesToBinary() {
+        String hash = "cb6bdad36690e8024e7df13e6796ae6603f2cb9cf9f989c9ff939b2ecebdcb91";
+        Document linkMetaBlock = new Document("_id", "id").append("link", new Document("materials", List.of(new Document("uri", "uri").append("hash", hash)))
+                .append("products", List.of(new Document("uri", "uri").append("hash", new Binary(ArtifactHash.toBytes(hash))))));
+        when(template.getCollection(COLLECTION)).thenReturn(collection);
+        when(collection.find(any(Bson.class))).thenReturn(findIterable);
+        when(findIterable.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(linkMetaBlock);
+        new LinkDatabaseChangelog().migrateArtifactHashesToBinary(template);
+        verify(collection).updateOne(any(Bson.class), updateArgumentCaptor.capture());
+        Document set = ((Document) updateArgumentCaptor.getValue()).get("$set", Document.class);
+        assertThat(set.getList("link.materials", Document.class).get(0).get("hash"), is(new Binary(ArtifactHash.toBytes(hash))));
+        assertThat(set.getList("link.materials", Document.class).get(0).get("uri"), is("uri"));
+        assertThat(set.getList("link.products", Document.class).get(0).get("hash"), is(new Binary(ArtifactHash.toBytes(hash))));
+        verify(cursor).close();
+    }
+}
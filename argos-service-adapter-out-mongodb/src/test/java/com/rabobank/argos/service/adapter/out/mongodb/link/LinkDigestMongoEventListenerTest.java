@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkDigest;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class LinkDigestMongoEventListenerTest {
+
+    private final Link link = Link.builder().runId("runId").stepName("stepName").command(List.of("cmd")).build();
+
+    @Test
+    void onBeforeSave() {
+        Document document = new Document("supplyChainId", "supplyChainId");
+        new LinkDigestMongoEventListener().onBeforeSave(new BeforeSaveEvent<>(LinkMetaBlock.builder().link(link).build(), document, "linkMetaBlocks"));
+        assertThat(document.get("linkDigest"), is(LinkDigest.of(link)));
+    }
+
+    @Test
+    void onBeforeSaveWithoutLink() {
+        Document document = new Document("supplyChainId", "supplyChainId");
+        new LinkDigestMongoEventListener().onBeforeSave(new BeforeSaveEvent<>(LinkMetaBlock.builder().build(), document, "linkMetaBlocks"));
+        assertThat(document.containsKey("linkDigest"), is(false));
+    }
+}
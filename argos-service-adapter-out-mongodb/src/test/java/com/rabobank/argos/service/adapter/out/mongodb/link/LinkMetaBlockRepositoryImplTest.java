@@ -17,7 +17,14 @@ package com.rabobank.argos.service.adapter.out.mongodb.link;
 
 import com.rabobank.argos.domain.layout.ArtifactType;
 import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.ArtifactHash;
+import com.rabobank.argos.domain.link.Link;
 import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockHeader;
+import com.rabobank.argos.service.domain.verification.VerificationResultCache;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,23 +35,33 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
 
+import java.util.Collection;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.rabobank.argos.service.adapter.out.mongodb.link.LinkMetaBlockRepositoryImpl.COLLECTION;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -57,6 +74,9 @@ class LinkMetaBlockRepositoryImplTest {
     @Mock
     private MongoTemplate template;
 
+    @Mock
+    private VerificationResultCache verificationResultCache;
+
     @Mock
     private LinkMetaBlock link;
 
@@ -70,7 +90,7 @@ class LinkMetaBlockRepositoryImplTest {
 
     @BeforeEach
     void setUp() {
-        repository = new LinkMetaBlockRepositoryImpl(template);
+        repository = new LinkMetaBlockRepositoryImpl(template, verificationResultCache, false);
     }
 
     @Test
@@ -85,12 +105,30 @@ class LinkMetaBlockRepositoryImplTest {
 
     @Test
     void findBySupplyChainAndSha() {
+        ObjectId linkId = new ObjectId();
+        when(template.findDistinct(any(Query.class), eq("linkId"), eq("artifactIndex"), eq(ObjectId.class))).thenReturn(List.of(linkId));
         when(template.find(any(), eq(LinkMetaBlock.class), eq(COLLECTION))).thenReturn(singletonList(linkMetaBlock));
         List<LinkMetaBlock> blocks = repository.findBySupplyChainAndSha(SUPPLY_CHAIN_ID, SHA);
         assertThat(blocks, hasSize(1));
         assertThat(blocks.get(0), sameInstance(linkMetaBlock));
+        verify(template).findDistinct(queryArgumentCaptor.capture(), eq("linkId"), eq("artifactIndex"), eq(ObjectId.class));
+        assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"hash\" : \"sha\"}, Fields: {}, Sort: {}"));
         verify(template).find(queryArgumentCaptor.capture(), eq(LinkMetaBlock.class), eq(COLLECTION));
-        assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"$and\" : [{ \"$or\" : [{ \"link.materials.hash\" : \"sha\"}, { \"link.products.hash\" : \"sha\"}]}]}, Fields: {}, Sort: {}"));
+        assertThat(queryArgumentCaptor.getValue().getQueryObject(), is(new Document("_id", new Document("$in", List.of(linkId)))));
+    }
+
+    @Test
+    void findBySupplyChainAndShaShouldQueryBinaryHash() {
+        String hash = "cb6bdad36690e8024e7df13e6796ae6603f2cb9cf9f989c9ff939b2ecebdcb91";
+        repository.findBySupplyChainAndSha(SUPPLY_CHAIN_ID, hash);
+        verify(template).findDistinct(queryArgumentCaptor.capture(), eq("linkId"), eq("artifactIndex"), eq(ObjectId.class));
+        assertThat(queryArgumentCaptor.getValue().getQueryObject().get("hash"), is(new Binary(ArtifactHash.toBytes(hash))));
+    }
+
+    @Test
+    void findBySupplyChainAndShaWithoutIndexedLinks() {
+        assertThat(repository.findBySupplyChainAndSha(SUPPLY_CHAIN_ID, SHA), empty());
+        verify(template, never()).find(any(), eq(LinkMetaBlock.class), eq(COLLECTION));
     }
 
     @Test
@@ -100,7 +138,7 @@ class LinkMetaBlockRepositoryImplTest {
         assertThat(blocks, hasSize(1));
         assertThat(blocks.get(0), sameInstance(linkMetaBlock));
         verify(template).find(queryArgumentCaptor.capture(), eq(LinkMetaBlock.class), eq(COLLECTION));
-        assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"$and\" : [{ \"link.layoutSegmentName\" : \"layoutSegmentName\"}, { \"link.stepName\" : \"stepName\"}, { \"link.products.hash\" : \"sha\"}]}, Fields: {}, Sort: {}"));
+        assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"link.layoutSegmentName\" : \"layoutSegmentName\", \"link.stepName\" : \"stepName\", \"link.products.hash\" : { \"$all\" : [\"sha\"]}}, Fields: {}, Sort: {}"));
     }
 
     @Test
@@ -110,7 +148,7 @@ class LinkMetaBlockRepositoryImplTest {
         assertThat(blocks, hasSize(1));
         assertThat(blocks.get(0), sameInstance(linkMetaBlock));
         verify(template).find(queryArgumentCaptor.capture(), eq(LinkMetaBlock.class), eq(COLLECTION));
-        assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"$and\" : [{ \"link.layoutSegmentName\" : \"layoutSegmentName\"}, { \"link.stepName\" : \"stepName\"}, { \"link.materials.hash\" : \"sha\"}]}, Fields: {}, Sort: {}"));
+        assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"link.layoutSegmentName\" : \"layoutSegmentName\", \"link.stepName\" : \"stepName\", \"link.materials.hash\" : { \"$all\" : [\"sha\"]}}, Fields: {}, Sort: {}"));
     }
 
     @Test
@@ -125,7 +163,93 @@ class LinkMetaBlockRepositoryImplTest {
         assertThat(blocks, hasSize(1));
         assertThat(blocks.get(0), sameInstance(linkMetaBlock));
         verify(template).find(queryArgumentCaptor.capture(), eq(LinkMetaBlock.class), eq(COLLECTION));
-        assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"$and\" : [{ \"link.layoutSegmentName\" : \"layoutSegmentName\"}, { \"link.stepName\" : \"stepName\"}, { \"link.materials.hash\" : \"sha\", \"link.materials.uri\" : \"file1\"}]}, Fields: {}, Sort: {}"));
+        assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"link.layoutSegmentName\" : \"layoutSegmentName\", \"link.stepName\" : \"stepName\", \"link.materials\" : { \"$all\" : [{ \"$elemMatch\" : { \"hash\" : \"sha\", \"uri\" : \"file1\"}}]}}, Fields: {}, Sort: {}"));
+    }
+
+    @Test
+    void findHeadersBySupplyChainAndSegmentNameAndStepArtifacts() {
+        EnumMap<ArtifactType, Set<Artifact>> artifactMap = new EnumMap<>(ArtifactType.class);
+        artifactMap.put(ArtifactType.PRODUCTS, Set.of(new Artifact("file1", SHA)));
+        when(template.find(any(Query.class), eq(Document.class), eq(COLLECTION)))
+                .thenReturn(singletonList(createHeaderDocument("signature")), singletonList(createHeaderDocument("siblingSignature")));
+        List<LinkMetaBlockHeader> headers = repository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(SUPPLY_CHAIN_ID, "layoutSegmentName", Map.of("stepName", artifactMap), false);
+        assertThat(headers.get(0), is(LinkMetaBlockHeader.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .keyId("keyId")
+                .signature("signature")
+                .runId("runId")
+                .segmentName("layoutSegmentName")
+                .stepName("stepName")
+                .linkDigest("linkDigest")
+                .build()));
+        assertThat(headers.stream().map(LinkMetaBlockHeader::getSignature).collect(toList()), contains("signature", "siblingSignature"));
+        verify(template, times(2)).find(queryArgumentCaptor.capture(), eq(Document.class), eq(COLLECTION));
+        Query stepLinksQuery = queryArgumentCaptor.getAllValues().get(0);
+        assertThat(stepLinksQuery.getQueryObject().toJson(), is("{\"supplyChainId\": \"supplyChainId\", \"link.layoutSegmentName\": \"layoutSegmentName\", \"link.stepName\": \"stepName\", \"link.products\": {\"$all\": [{\"$elemMatch\": {\"hash\": \"sha\", \"uri\": \"file1\"}}]}}"));
+        assertThat(stepLinksQuery.getFieldsObject().keySet(), containsInAnyOrder("supplyChainId", "signature.keyId", "signature.signature", "link.runId", "link.layoutSegmentName", "link.stepName", "linkDigest"));
+        Query runIdSiblingsQuery = queryArgumentCaptor.getAllValues().get(1);
+        assertThat(runIdSiblingsQuery.getQueryObject().toJson(), is("{\"supplyChainId\": \"supplyChainId\", \"link.layoutSegmentName\": \"layoutSegmentName\", \"link.runId\": {\"$in\": [\"runId\"]}, \"link.stepName\": {\"$nin\": [\"stepName\"]}}"));
+        assertThat(runIdSiblingsQuery.getFieldsObject(), is(stepLinksQuery.getFieldsObject()));
+    }
+
+    @Test
+    void findHeadersBySupplyChainAndSegmentNameAndStepArtifactsWithoutStepLinks() {
+        EnumMap<ArtifactType, Set<Artifact>> artifactMap = new EnumMap<>(ArtifactType.class);
+        artifactMap.put(ArtifactType.PRODUCTS, Set.of(new Artifact("file1", SHA)));
+        when(template.find(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(List.of());
+        assertThat(repository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(SUPPLY_CHAIN_ID, "layoutSegmentName", Map.of("stepName", artifactMap), false), empty());
+        verify(template).find(any(Query.class), eq(Document.class), eq(COLLECTION));
+    }
+
+    @Test
+    void findHeadersBySupplyChainAndSegmentNameAndStepArtifactsIncludingArchived() {
+        EnumMap<ArtifactType, Set<Artifact>> artifactMap = new EnumMap<>(ArtifactType.class);
+        artifactMap.put(ArtifactType.PRODUCTS, Set.of(new Artifact("file1", SHA)));
+        when(template.find(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(singletonList(createHeaderDocument("signature")), List.of());
+        when(template.find(any(Query.class), eq(Document.class), eq("linkMetaBlocksArchive"))).thenReturn(singletonList(createHeaderDocument("archivedSignature")), List.of());
+        List<LinkMetaBlockHeader> headers = repository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(SUPPLY_CHAIN_ID, "layoutSegmentName", Map.of("stepName", artifactMap), true);
+        assertThat(headers.stream().map(LinkMetaBlockHeader::getSignature).collect(toList()), contains("signature", "archivedSignature"));
+        verify(template, times(2)).find(any(Query.class), eq(Document.class), eq("linkMetaBlocksArchive"));
+    }
+
+    @Test
+    void findBySupplyChainAndSegmentNameAndStepArtifactsOfMultipleSteps() {
+        EnumMap<ArtifactType, Set<Artifact>> productsMap = new EnumMap<>(ArtifactType.class);
+        productsMap.put(ArtifactType.PRODUCTS, Set.of(new Artifact("file1", SHA)));
+        EnumMap<ArtifactType, Set<Artifact>> materialsMap = new EnumMap<>(ArtifactType.class);
+        materialsMap.put(ArtifactType.MATERIALS, Set.of(new Artifact("file2", SHA)));
+        Map<String, EnumMap<ArtifactType, Set<Artifact>>> stepArtifacts = new LinkedHashMap<>();
+        stepArtifacts.put("step1", productsMap);
+        stepArtifacts.put("step2", materialsMap);
+        assertThat(new LinkMetaBlockQueries(false).stepLinksCriteria(SUPPLY_CHAIN_ID, "layoutSegmentName", stepArtifacts).getCriteriaObject().toJson(),
+                is("{\"supplyChainId\": \"supplyChainId\", \"link.layoutSegmentName\": \"layoutSegmentName\", \"$or\": [" +
+                        "{\"link.stepName\": \"step1\", \"link.products\": {\"$all\": [{\"$elemMatch\": {\"hash\": \"sha\", \"uri\": \"file1\"}}]}}, " +
+                        "{\"link.stepName\": \"step2\", \"link.materials\": {\"$all\": [{\"$elemMatch\": {\"hash\": \"sha\", \"uri\": \"file2\"}}]}}]}"));
+    }
+
+    @Test
+    void findHeadersBySupplyChainAndSegmentNameAndStepArtifactsWithPathTable() {
+        repository = new LinkMetaBlockRepositoryImpl(template, verificationResultCache, true);
+        Artifact artifact = new Artifact("file1", SHA);
+        LinkMetaBlock stepLink = createLinkMetaBlock("stepName", "runId", List.of(artifact));
+        LinkMetaBlock otherUriStepLink = createLinkMetaBlock("stepName", "otherRunId", List.of(new Artifact("file2", SHA)));
+        LinkMetaBlock siblingLink = createLinkMetaBlock("otherStep", "runId", List.of());
+        LinkMetaBlock otherSiblingLink = createLinkMetaBlock("otherStep", "otherRunId", List.of());
+        EnumMap<ArtifactType, Set<Artifact>> artifactMap = new EnumMap<>(ArtifactType.class);
+        artifactMap.put(ArtifactType.PRODUCTS, Set.of(artifact));
+        when(template.find(any(Query.class), eq(LinkMetaBlock.class), eq(COLLECTION)))
+                .thenReturn(List.of(stepLink, otherUriStepLink), List.of(siblingLink, otherSiblingLink));
+        List<LinkMetaBlockHeader> headers = repository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(SUPPLY_CHAIN_ID, "layoutSegmentName", Map.of("stepName", artifactMap), false);
+        assertThat(headers, contains(LinkMetaBlockHeader.of(stepLink), LinkMetaBlockHeader.of(siblingLink)));
+        verify(template, times(2)).find(queryArgumentCaptor.capture(), eq(LinkMetaBlock.class), eq(COLLECTION));
+        assertThat(queryArgumentCaptor.getAllValues().get(0).getQueryObject().toJson(), is("{\"supplyChainId\": \"supplyChainId\", \"link.layoutSegmentName\": \"layoutSegmentName\", \"link.stepName\": \"stepName\", \"link.products.hash\": {\"$all\": [\"sha\"]}}"));
+        assertThat(queryArgumentCaptor.getAllValues().get(1).getQueryObject().get("link.runId", Document.class).get("$in", Collection.class), containsInAnyOrder("runId", "otherRunId"));
+    }
+
+    @Test
+    void findHeadersBySupplyChainAndSegmentNameAndStepArtifactsWithoutSteps() {
+        assertThat(repository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(SUPPLY_CHAIN_ID, "layoutSegmentName", Map.of(), false), hasSize(0));
+        verifyNoInteractions(template);
     }
 
     @Test
@@ -138,10 +262,80 @@ class LinkMetaBlockRepositoryImplTest {
         assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"link.runId\" : \"runId\", \"link.layoutSegmentName\" : \"layoutSegmentName\", \"link.stepName\" : { \"$nin\" : [\"resolvedStep\"]}}, Fields: {}, Sort: {}"));
     }
 
+    @Test
+    void findBySupplyChainAndSignatures() {
+        when(template.find(any(), eq(LinkMetaBlock.class), eq(COLLECTION))).thenReturn(singletonList(linkMetaBlock));
+        List<LinkMetaBlock> blocks = repository.findBySupplyChainAndSignatures(SUPPLY_CHAIN_ID, List.of("signature"));
+        assertThat(blocks, hasSize(1));
+        assertThat(blocks.get(0), sameInstance(linkMetaBlock));
+        verify(template).find(queryArgumentCaptor.capture(), eq(LinkMetaBlock.class), eq(COLLECTION));
+        assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"signature.signature\" : { \"$in\" : [\"signature\"]}}, Fields: {}, Sort: {}"));
+    }
+
+    @Test
+    void findBySupplyChainAndSignaturesIncludingArchived() {
+        when(template.find(any(), eq(LinkMetaBlock.class), eq(COLLECTION))).thenReturn(singletonList(linkMetaBlock));
+        when(template.find(any(), eq(LinkMetaBlock.class), eq("linkMetaBlocksArchive"))).thenReturn(singletonList(link));
+        List<LinkMetaBlock> blocks = repository.findBySupplyChainAndSignatures(SUPPLY_CHAIN_ID, List.of("signature"), true);
+        assertThat(blocks, contains(linkMetaBlock, link));
+        verify(template).find(queryArgumentCaptor.capture(), eq(LinkMetaBlock.class), eq("linkMetaBlocksArchive"));
+        assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"signature.signature\" : { \"$in\" : [\"signature\"]}}, Fields: {}, Sort: {}"));
+    }
+
+    @Test
+    void findBySupplyChainAndSignaturesWithoutSignatures() {
+        assertThat(repository.findBySupplyChainAndSignatures(SUPPLY_CHAIN_ID, List.of()), hasSize(0));
+        verifyNoInteractions(template);
+    }
+
+    @Test
+    void findLastLinkIdBySupplyChainAndSteps() {
+        ObjectId id = new ObjectId();
+        when(template.findOne(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(new Document("_id", id));
+        assertThat(repository.findLastLinkIdBySupplyChainAndSteps(SUPPLY_CHAIN_ID, Map.of("layoutSegmentName", Set.of("stepName"))), is(Optional.of(id.toHexString())));
+        verify(template).findOne(queryArgumentCaptor.capture(), eq(Document.class), eq(COLLECTION));
+        assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"$or\" : [{ \"link.layoutSegmentName\" : \"layoutSegmentName\", \"link.stepName\" : { \"$in\" : [\"stepName\"]}}]}, Fields: { \"_id\" : 1}, Sort: { \"_id\" : -1}"));
+        assertThat(queryArgumentCaptor.getValue().getLimit(), is(1));
+    }
+
+    @Test
+    void findLastLinkIdBySupplyChainAndStepsWithoutLinks() {
+        assertThat(repository.findLastLinkIdBySupplyChainAndSteps(SUPPLY_CHAIN_ID, Map.of("layoutSegmentName", Set.of("stepName"))), is(Optional.empty()));
+    }
+
+    @Test
+    void findLastLinkIdBySupplyChainAndStepsWithoutSteps() {
+        assertThat(repository.findLastLinkIdBySupplyChainAndSteps(SUPPLY_CHAIN_ID, Map.of()), is(Optional.empty()));
+        verifyNoInteractions(template);
+    }
 
     @Test
     void save() {
+        when(link.getSupplyChainId()).thenReturn("supplyChainId");
         repository.save(link);
         verify(template).save(link, COLLECTION);
+        verify(verificationResultCache).invalidate("supplyChainId");
+    }
+
+    @Test
+    void saveAll() {
+        when(link.getSupplyChainId()).thenReturn("supplyChainId");
+        when(linkMetaBlock.getSupplyChainId()).thenReturn("supplyChainId");
+        repository.saveAll(List.of(link, linkMetaBlock));
+        verify(template).insert(List.of(link, linkMetaBlock), COLLECTION);
+        verify(verificationResultCache).invalidate("supplyChainId");
+    }
+
+    private static Document createHeaderDocument(String signature) {
+        return new Document("supplyChainId", SUPPLY_CHAIN_ID)
+                .append("signature", new Document("keyId", "keyId").append("signature", signature))
+                .append("link", new Document("runId", "runId").append("layoutSegmentName", "layoutSegmentName").append("stepName", "stepName"))
+                .append("linkDigest", "linkDigest");
+    }
+
+    private static LinkMetaBlock createLinkMetaBlock(String stepName, String runId, List<Artifact> products) {
+        return LinkMetaBlock.builder()
+                .link(Link.builder().stepName(stepName).runId(runId).products(products).build())
+                .build();
     }
 }
@@ -23,7 +23,11 @@ import com.rabobank.argos.domain.layout.ArtifactType;
 import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.Link;
 import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.adapter.out.mongodb.MongoConfig;
+import com.rabobank.argos.service.domain.link.LinkDigest;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockHeader;
 import com.rabobank.argos.service.domain.link.LinkMetaBlockRepository;
+import com.rabobank.argos.service.domain.verification.VerificationResultCache;
 import de.flapdoodle.embed.mongo.Command;
 import de.flapdoodle.embed.mongo.MongodExecutable;
 import de.flapdoodle.embed.mongo.MongodStarter;
@@ -34,24 +38,38 @@ import de.flapdoodle.embed.mongo.config.RuntimeConfigBuilder;
 import de.flapdoodle.embed.mongo.distribution.Version;
 import de.flapdoodle.embed.process.config.IRuntimeConfig;
 import de.flapdoodle.embed.process.runtime.Network;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
+import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.io.IOException;
+import java.util.Date;
 import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 import static de.flapdoodle.embed.process.config.io.ProcessOutput.getDefaultInstanceSilent;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toSet;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class LinkMetablockRepositoryIT {
@@ -66,6 +84,7 @@ public class LinkMetablockRepositoryIT {
     private static final String SEGMENT_NAME = "segmentName";
     private MongodExecutable mongodExecutable;
     private LinkMetaBlockRepository linkMetaBlockRepository;
+    private MongoTemplate mongoTemplate;
 
     @BeforeAll
     void setup() throws IOException, MongobeeException {
@@ -79,8 +98,17 @@ public class LinkMetablockRepositoryIT {
         mongodExecutable = starter.prepare(mongodConfig);
         mongodExecutable.start();
         String connectionString = "mongodb://localhost:" + port;
-        MongoTemplate mongoTemplate = new MongoTemplate(MongoClients.create(connectionString), "test");
-        linkMetaBlockRepository = new LinkMetaBlockRepositoryImpl(mongoTemplate);
+        mongoTemplate = new MongoTemplate(MongoClients.create(connectionString), "test");
+        MappingMongoConverter converter = (MappingMongoConverter) mongoTemplate.getConverter();
+        converter.setCustomConversions(new MongoConfig().customConversions());
+        converter.afterPropertiesSet();
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.registerBean(ArtifactIndexMongoEventListener.class, () -> new ArtifactIndexMongoEventListener(mongoTemplate));
+        applicationContext.registerBean(LinkCreatedAtMongoEventListener.class, LinkCreatedAtMongoEventListener::new);
+        applicationContext.registerBean(LinkDigestMongoEventListener.class, LinkDigestMongoEventListener::new);
+        applicationContext.refresh();
+        mongoTemplate.setApplicationContext(applicationContext);
+        linkMetaBlockRepository = new LinkMetaBlockRepositoryImpl(mongoTemplate, mock(VerificationResultCache.class), false);
         Mongobee runner = new Mongobee(connectionString);
         runner.setChangeLogsScanPackage("com.rabobank.argos.service.adapter.out.mongodb.link");
         runner.setMongoTemplate(mongoTemplate);
@@ -94,6 +122,19 @@ public class LinkMetablockRepositoryIT {
         mongodExecutable.stop();
     }
 
+    @Test
+    void findBySupplyChainAndShaShouldRetrieve() {
+        List<LinkMetaBlock> links = linkMetaBlockRepository.findBySupplyChainAndSha(SUPPLYCHAIN, HASH_2);
+        assertThat(links, hasSize(1));
+        assertThat(links.get(0).getLink().getStepName(), is(STEP_NAME));
+    }
+
+    @Test
+    void findBySupplyChainAndShaShouldNotRetrieve() {
+        List<LinkMetaBlock> links = linkMetaBlockRepository.findBySupplyChainAndSha(SUPPLYCHAIN, "74a88c1cb96211a8f648af3509a1207b2d4a15c0202cfaa10abad8cc26300c64");
+        assertThat(links, hasSize(0));
+    }
+
     @Test
     void findByRunIdShouldRetreive() {
         List<LinkMetaBlock> links = linkMetaBlockRepository.findByRunId(SUPPLYCHAIN, RUN_ID);
@@ -172,6 +213,76 @@ public class LinkMetablockRepositoryIT {
         assertThat(blocks, hasSize(0));
     }
 
+    @Test
+    void findHeadersBySupplyChainAndSegmentNameAndStepArtifactsShouldRetrieveRunIdSiblings() {
+        String supplyChain = "otherSupplychain";
+        linkMetaBlockRepository.save(LinkMetaBlock.builder().supplyChainId(supplyChain)
+                .signature(Signature.builder().keyId("keyId").signature("stepSignature").build()).link(createLink()).build());
+        linkMetaBlockRepository.save(LinkMetaBlock.builder().supplyChainId(supplyChain).signature(createSignature())
+                .link(Link.builder().runId(RUN_ID).layoutSegmentName(SEGMENT_NAME).stepName("otherStep").materials(createProducts()).build()).build());
+        linkMetaBlockRepository.save(LinkMetaBlock.builder().supplyChainId(supplyChain).signature(createSignature())
+                .link(Link.builder().runId("otherRunId").layoutSegmentName(SEGMENT_NAME).stepName("otherStep").build()).build());
+        EnumMap<ArtifactType, Set<Artifact>> artifactMap = new EnumMap<>(ArtifactType.class);
+        artifactMap.put(ArtifactType.PRODUCTS, new HashSet<>(createProducts()));
+        List<LinkMetaBlockHeader> headers = linkMetaBlockRepository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(supplyChain, SEGMENT_NAME, Map.of(STEP_NAME, artifactMap), false);
+        assertThat(headers, hasSize(2));
+        LinkMetaBlockHeader stepHeader = headers.stream().filter(header -> STEP_NAME.equals(header.getStepName())).findFirst().orElseThrow();
+        assertThat(stepHeader.getKeyId(), is("keyId"));
+        assertThat(stepHeader.getRunId(), is(RUN_ID));
+        assertThat(stepHeader.getSegmentName(), is(SEGMENT_NAME));
+        assertThat(stepHeader.getLinkDigest(), is(LinkDigest.of(createLink())));
+        List<LinkMetaBlock> blocks = linkMetaBlockRepository.findBySupplyChainAndSignatures(supplyChain, List.of(stepHeader.getSignature()), false);
+        assertThat(blocks, hasSize(1));
+        assertThat(LinkDigest.of(blocks.get(0).getLink()), is(stepHeader.getLinkDigest()));
+    }
+
+    @Test
+    void findHeadersBySupplyChainAndSegmentNameAndStepArtifactsShouldNotRetrieve() {
+        EnumMap<ArtifactType, Set<Artifact>> artifactMap = new EnumMap<>(ArtifactType.class);
+        artifactMap.put(ArtifactType.PRODUCTS, Set.of(new Artifact("file1", "hash1")));
+        List<LinkMetaBlockHeader> headers = linkMetaBlockRepository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(SUPPLYCHAIN, SEGMENT_NAME, Map.of(STEP_NAME, artifactMap), false);
+        assertThat(headers, hasSize(0));
+    }
+
+    @Test
+    void findHeadersBySupplyChainAndSegmentNameAndStepArtifactsShouldOnlyRetrieveArchivedWhenIncluded() {
+        String supplyChain = "archivedSupplychain";
+        linkMetaBlockRepository.save(LinkMetaBlock.builder().supplyChainId(supplyChain).signature(createSignature()).link(createLink()).build());
+        linkMetaBlockRepository.save(LinkMetaBlock.builder().supplyChainId(supplyChain).signature(createSignature())
+                .link(Link.builder().runId(RUN_ID).layoutSegmentName(SEGMENT_NAME).stepName("otherStep").build()).build());
+        mongoTemplate.updateFirst(new Query(where("supplyChainId").is(supplyChain).and("link.stepName").is(STEP_NAME)),
+                Update.update("createdAt", new Date(0)), LinkMetaBlockRepositoryImpl.COLLECTION);
+        new LinkArchiver(mongoTemplate, mock(VerificationResultCache.class), "", Map.of(supplyChain, "P1D"), 1000).archive();
+
+        EnumMap<ArtifactType, Set<Artifact>> artifactMap = new EnumMap<>(ArtifactType.class);
+        artifactMap.put(ArtifactType.PRODUCTS, new HashSet<>(createProducts()));
+        assertThat(linkMetaBlockRepository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(supplyChain, SEGMENT_NAME, Map.of(STEP_NAME, artifactMap), false), hasSize(0));
+        assertThat(linkMetaBlockRepository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(supplyChain, SEGMENT_NAME, Map.of(STEP_NAME, artifactMap), true), hasSize(2));
+        assertThat(linkMetaBlockRepository.findBySupplyChainAndSignatures(supplyChain, List.of(createSignature().getSignature()), false), hasSize(0));
+        assertThat(linkMetaBlockRepository.findBySupplyChainAndSignatures(supplyChain, List.of(createSignature().getSignature()), true), hasSize(2));
+        assertThat(linkMetaBlockRepository.findBySupplyChainAndSha(supplyChain, HASH_1), hasSize(0));
+    }
+
+    @Test
+    void stepArtifactsQueriesShouldUseIndex() {
+        Set<Artifact> artifacts = IntStream.range(0, 500)
+                .mapToObj(i -> new Artifact("file" + i, String.format("%064x", i)))
+                .collect(toSet());
+        EnumMap<ArtifactType, Set<Artifact>> artifactMap = new EnumMap<>(ArtifactType.class);
+        artifactMap.put(ArtifactType.MATERIALS, artifacts);
+        artifactMap.put(ArtifactType.PRODUCTS, artifacts);
+        LinkMetaBlockQueries queries = new LinkMetaBlockQueries(false);
+        assertThat(winningPlan(queries.stepArtifactsQuery(SUPPLYCHAIN, SEGMENT_NAME, STEP_NAME, artifactMap)), not(containsString("COLLSCAN")));
+        assertThat(winningPlan(queries.stepLinksQuery(SUPPLYCHAIN, SEGMENT_NAME, Map.of(STEP_NAME, artifactMap), LinkMetaBlockQueries.headerProjection())), not(containsString("COLLSCAN")));
+        assertThat(winningPlan(LinkMetaBlockQueries.runIdSiblingsQuery(SUPPLYCHAIN, SEGMENT_NAME, Set.of(STEP_NAME), Set.of(RUN_ID), LinkMetaBlockQueries.headerProjection())),
+                not(containsString("COLLSCAN")));
+    }
+
+    private String winningPlan(Query query) {
+        Document explain = mongoTemplate.getDb().runCommand(new Document("explain",
+                new Document("find", LinkMetaBlockRepositoryImpl.COLLECTION).append("filter", mongoTemplate.getConverter().convertToMongoType(query.getQueryObject()))));
+        return explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+    }
 
     private void loadData() {
         LinkMetaBlock linkmetaBlock = LinkMetaBlock
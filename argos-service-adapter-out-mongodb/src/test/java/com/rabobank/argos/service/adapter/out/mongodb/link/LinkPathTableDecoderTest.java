@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LinkPathTableDecoderTest {
+
+    @Mock
+    private MongoTemplate template;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    @Mock
+    private MongoCollection<Document> archiveCollection;
+
+    @Mock
+    private FindIterable<Document> findIterable;
+
+    @Mock
+    private FindIterable<Document> archiveFindIterable;
+
+    @Mock
+    private MongoCursor<Document> cursor;
+
+    @Mock
+    private MongoCursor<Document> archiveCursor;
+
+    @Captor
+    private ArgumentCaptor<Document> documentArgumentCaptor;
+
+    @Test
+    void decodeWithoutPathTable() {
+        Document linkMetaBlock = createDocument();
+        LinkPathTable.encode(linkMetaBlock);
+        when(template.getCollection("linkMetaBlocks")).thenReturn(collection);
+        when(template.getCollection("linkMetaBlocksArchive")).thenReturn(archiveCollection);
+        when(collection.find(any(Bson.class))).thenReturn(findIterable);
+        when(archiveCollection.find(any(Bson.class))).thenReturn(archiveFindIterable);
+        when(findIterable.iterator()).thenReturn(cursor);
+        when(archiveFindIterable.iterator()).thenReturn(archiveCursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(linkMetaBlock);
+        when(archiveCursor.hasNext()).thenReturn(false);
+        new LinkPathTableDecoder(template, false).decode();
+        verify(collection).replaceOne(eq(new Document("_id", "id")), documentArgumentCaptor.capture());
+        assertThat(documentArgumentCaptor.getValue(), is(createDocument()));
+        verify(archiveCollection, never()).replaceOne(any(Bson.class), any(Document.class));
+        verify(cursor).close();
+        verify(archiveCursor).close();
+    }
+
+    @Test
+    void decodeWithPathTable() {
+        new LinkPathTableDecoder(template, true).decode();
+        verifyNoInteractions(template);
+    }
+
+    private static Document createDocument() {
+        return new Document("_id", "id")
+                .append("link", new Document("materials", List.of(new Document("uri", "dir/file").append("hash", "hash"))));
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterLoadEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class LinkPathTableMongoEventListenerTest {
+
+    private final LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().build();
+
+    @Test
+    void onBeforeSaveWithPathTable() {
+        Document document = createDocument();
+        new LinkPathTableMongoEventListener(true).onBeforeSave(new BeforeSaveEvent<>(linkMetaBlock, document, "linkMetaBlocks"));
+        assertThat(document.get("link", Document.class).containsKey("dirs"), is(true));
+    }
+
+    @Test
+    void onBeforeSaveWithoutPathTable() {
+        Document document = createDocument();
+        new LinkPathTableMongoEventListener(false).onBeforeSave(new BeforeSaveEvent<>(linkMetaBlock, document, "linkMetaBlocks"));
+        assertThat(document, is(createDocument()));
+    }
+
+    @Test
+    void onAfterLoad() {
+        Document document = createDocument();
+        LinkPathTable.encode(document);
+        new LinkPathTableMongoEventListener(false).onAfterLoad(new AfterLoadEvent<>(document, LinkMetaBlock.class, "linkMetaBlocks"));
+        assertThat(document, is(createDocument()));
+    }
+
+    private static Document createDocument() {
+        return new Document("link", new Document("materials", List.of(new Document("uri", "dir/file").append("hash", "hash"))));
+    }
+}
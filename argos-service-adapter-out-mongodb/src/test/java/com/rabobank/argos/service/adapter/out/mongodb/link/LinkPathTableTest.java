@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+class LinkPathTableTest {
+
+    @Test
+    void encodeAndDecode() {
+        Document linkMetaBlock = createLinkMetaBlock();
+        LinkPathTable.encode(linkMetaBlock);
+        Document link = linkMetaBlock.get("link", Document.class);
+        assertThat(link.getList("dirs", String.class), contains("target/classes/a/", "target/classes/b/", "", "/"));
+        assertThat(link.getList("materials", Document.class).get(1), is(new Document("p", 1).append("n", "y.class").append("hash", "hash2")));
+        assertThat(link.getList("products", Document.class).get(1), is(new Document("p", 2).append("n", "app.jar").append("hash", "hash4")));
+        assertThat(link.getList("products", Document.class).get(2), is(new Document("p", 3).append("n", "app.jar").append("hash", "hash5")));
+
+        LinkPathTable.decode(linkMetaBlock);
+        assertThat(linkMetaBlock, is(createLinkMetaBlock()));
+    }
+
+    @Test
+    void decodeLegacyPaths() {
+        Document linkMetaBlock = new Document("link", new Document("paths", List.of("target/classes/a", ""))
+                .append("materials", List.of(
+                        new Document("p", 0).append("n", "x.class").append("hash", "hash1"),
+                        new Document("p", 1).append("n", "app.jar").append("hash", "hash2"))));
+        LinkPathTable.decode(linkMetaBlock);
+        assertThat(linkMetaBlock, is(new Document("link", new Document("materials", List.of(
+                new Document("uri", "target/classes/a/x.class").append("hash", "hash1"),
+                new Document("uri", "app.jar").append("hash", "hash2"))))));
+    }
+
+    @Test
+    void decodeWithoutPathTable() {
+        Document linkMetaBlock = createLinkMetaBlock();
+        LinkPathTable.decode(linkMetaBlock);
+        assertThat(linkMetaBlock, is(createLinkMetaBlock()));
+    }
+
+    @Test
+    void encodeWithoutArtifacts() {
+        Document linkMetaBlock = new Document("link", new Document("stepName", "build"));
+        LinkPathTable.encode(linkMetaBlock);
+        LinkPathTable.decode(linkMetaBlock);
+        assertThat(linkMetaBlock, is(new Document("link", new Document("stepName", "build"))));
+    }
+
+    private static Document createLinkMetaBlock() {
+        return new Document("supplyChainId", "supplyChainId")
+                .append("link", new Document("stepName", "build")
+                        .append("materials", List.of(
+                                new Document("uri", "target/classes/a/x.class").append("hash", "hash1"),
+                                new Document("uri", "target/classes/b/y.class").append("hash", "hash2")))
+                        .append("products", List.of(
+                                new Document("uri", "target/classes/a/z.class").append("hash", "hash3"),
+                                new Document("uri", "app.jar").append("hash", "hash4"),
+                                new Document("uri", "/app.jar").append("hash", "hash5"))));
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.link.converter;
+
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.ArtifactHash;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+class DocumentToArtifactReadConverterTest {
+
+    private static final String HASH = "cb6bdad36690e8024e7df13e6796ae6603f2cb9cf9f989c9ff939b2ecebdcb91";
+
+    private final DocumentToArtifactReadConverter converter = new DocumentToArtifactReadConverter();
+
+    @Test
+    void convertBinaryHash() {
+        Document document = new Document("uri", "uri").append("hash", new Binary(ArtifactHash.toBytes(HASH)));
+        assertThat(converter.convert(document), is(new Artifact("uri", HASH)));
+    }
+
+    @Test
+    void convertHexHash() {
+        Document document = new Document("uri", "uri").append("hash", HASH);
+        assertThat(converter.convert(document), is(new Artifact("uri", HASH)));
+    }
+}
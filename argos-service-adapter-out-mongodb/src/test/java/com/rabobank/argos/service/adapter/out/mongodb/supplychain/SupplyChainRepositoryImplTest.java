@@ -18,6 +18,8 @@ package com.rabobank.argos.service.adapter.out.mongodb.supplychain;
 import com.mongodb.client.result.UpdateResult;
 import com.rabobank.argos.domain.ArgosError;
 import com.rabobank.argos.domain.supplychain.SupplyChain;
+import com.rabobank.argos.service.adapter.out.mongodb.hierarchy.HierarchyWriter;
+import com.rabobank.argos.service.domain.hierarchy.HierarchyPathCache;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,6 +57,12 @@ class SupplyChainRepositoryImplTest {
     @Mock
     private MongoTemplate template;
 
+    @Mock
+    private HierarchyWriter hierarchyWriter;
+
+    @Mock
+    private HierarchyPathCache hierarchyPathCache;
+
     @Captor
     private ArgumentCaptor<Query> queryArgumentCaptor;
 
@@ -77,7 +85,7 @@ class SupplyChainRepositoryImplTest {
 
     @BeforeEach
     void setUp() {
-        repository = new SupplyChainRepositoryImpl(template);
+        repository = new SupplyChainRepositoryImpl(template, hierarchyWriter, hierarchyPathCache);
     }
 
     @Test
@@ -100,6 +108,7 @@ class SupplyChainRepositoryImplTest {
     void save() {
         repository.save(supplyChain);
         verify(template).save(supplyChain, COLLECTION);
+        verify(hierarchyWriter).save(supplyChain);
     }
 
     @Test
@@ -121,6 +130,8 @@ class SupplyChainRepositoryImplTest {
         Optional<SupplyChain> update = repository.update(SUPPLY_CHAIN_ID, supplyChain);
         assertThat(update, Matchers.is(Optional.of(supplyChain)));
         verify(supplyChain).setSupplyChainId(SUPPLY_CHAIN_ID);
+        verify(hierarchyWriter).save(supplyChain);
+        verify(hierarchyPathCache).invalidateSupplyChain(SUPPLY_CHAIN_ID);
         verify(template).updateFirst(queryArgumentCaptor.capture(), updateArgumentCaptor.capture(), eq(SupplyChain.class), eq(COLLECTION));
         assertThat(queryArgumentCaptor.getValue().toString(), Matchers.is("Query: { \"supplyChainId\" : \"supplyChainId\"}, Fields: {}, Sort: {}"));
         verify(converter).write(eq(supplyChain), any());
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.verification;
+
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.verification.VerificationRunRepositoryImpl.COLLECTION;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VerificationRunCleanerTest {
+
+    @Mock
+    private MongoTemplate template;
+
+    @Captor
+    private ArgumentCaptor<Query> queryArgumentCaptor;
+
+    @Test
+    void removeExpiredRuns() {
+        when(template.remove(any(Query.class), eq(COLLECTION))).thenReturn(DeleteResult.acknowledged(1));
+        long before = System.currentTimeMillis();
+        new VerificationRunCleaner(template, Duration.ofDays(30)).removeExpiredRuns();
+        verify(template).remove(queryArgumentCaptor.capture(), eq(COLLECTION));
+        Date expiredBefore = (Date) queryArgumentCaptor.getValue().getQueryObject().get("createdAt", Document.class).get("$lt");
+        assertThat(expiredBefore.getTime(), greaterThanOrEqualTo(before - Duration.ofDays(30).toMillis()));
+        assertThat(expiredBefore.getTime(), lessThanOrEqualTo(System.currentTimeMillis() - Duration.ofDays(30).toMillis()));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.verification;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.verification.VerificationRunRepositoryImpl.COLLECTION;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VerificationRunDatabaseChangelogTest {
+
+    @Mock
+    private MongoTemplate template;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    @Captor
+    private ArgumentCaptor<IndexDefinition> indexDefinitionArgumentCaptor;
+
+    @Test
+    void addIndex() {
+        when(template.indexOps(COLLECTION)).thenReturn(indexOperations);
+        new VerificationRunDatabaseChangelog().addIndex(template);
+        verify(indexOperations).ensureIndex(any());
+    }
+
+    @Test
+    void addCreatedAtIndex() {
+        when(template.indexOps(COLLECTION)).thenReturn(indexOperations);
+        new VerificationRunDatabaseChangelog().addCreatedAtIndex(template);
+        verify(indexOperations).ensureIndex(indexDefinitionArgumentCaptor.capture());
+        assertThat(indexDefinitionArgumentCaptor.getValue().getIndexKeys(), is(new Document("createdAt", 1)));
+    }
+}
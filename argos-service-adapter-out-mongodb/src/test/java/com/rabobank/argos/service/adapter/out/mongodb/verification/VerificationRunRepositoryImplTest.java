@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.adapter.out.mongodb.verification;
+
+import com.rabobank.argos.service.domain.verification.VerificationRun;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Optional;
+
+import static com.rabobank.argos.service.adapter.out.mongodb.verification.VerificationRunRepositoryImpl.COLLECTION;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VerificationRunRepositoryImplTest {
+
+    @Mock
+    private MongoTemplate template;
+
+    @Mock
+    private VerificationRun verificationRun;
+
+    @Captor
+    private ArgumentCaptor<Query> queryArgumentCaptor;
+
+    private VerificationRunRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new VerificationRunRepositoryImpl(template);
+    }
+
+    @Test
+    void save() {
+        repository.save(verificationRun);
+        verify(template).insert(verificationRun, COLLECTION);
+    }
+
+    @Test
+    void findLastValidRun() {
+        when(template.findOne(any(), eq(VerificationRun.class), eq(COLLECTION))).thenReturn(verificationRun);
+        assertThat(repository.findLastValidRun("supplyChainId", "layoutDigest", "productsDigest"), is(Optional.of(verificationRun)));
+        verify(template).findOne(queryArgumentCaptor.capture(), eq(VerificationRun.class), eq(COLLECTION));
+        assertThat(queryArgumentCaptor.getValue().toString(), is("Query: { \"supplyChainId\" : \"supplyChainId\", \"layoutDigest\" : \"layoutDigest\", " +
+                "\"productsDigest\" : \"productsDigest\", \"runIsValid\" : true}, Fields: {}, Sort: { \"createdAt\" : -1}"));
+    }
+
+    @Test
+    void findLastValidRunNotFound() {
+        assertThat(repository.findLastValidRun("supplyChainId", "layoutDigest", "productsDigest"), is(Optional.empty()));
+    }
+}
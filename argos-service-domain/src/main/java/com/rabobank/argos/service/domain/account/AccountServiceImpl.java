@@ -48,12 +48,15 @@ public class AccountServiceImpl implements AccountService {
     private final PersonalAccountRepository personalAccountRepository;
     private final RoleRepository roleRepository;
     private final AccountSecurityContext accountSecurityContext;
+    private final KeyPairCache keyPairCache;
+    private final ServiceAccountCredentialsCache serviceAccountCredentialsCache;
 
     @Override
     public Optional<PersonalAccount> activateNewKey(String accountId, KeyPair newKeyPair) {
         return personalAccountRepository.findByAccountId(accountId).map(account -> {
-            activateNewKey(account, newKeyPair);
+            Optional<KeyPair> deactivatedKeyPair = activateNewKey(account, newKeyPair);
             personalAccountRepository.update(account);
+            deactivatedKeyPair.ifPresent(this::invalidateKeyPair);
             return account;
         });
     }
@@ -61,8 +64,9 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public Optional<ServiceAccount> activateNewKey(String accountId, ServiceAccountKeyPair newKeyPair) {
         return serviceAccountRepository.findById(accountId).map(account -> {
-            activateNewKey(account, newKeyPair);
+            Optional<KeyPair> deactivatedKeyPair = activateNewKey(account, newKeyPair);
             serviceAccountRepository.update(account);
+            deactivatedKeyPair.ifPresent(this::invalidateKeyPair);
             return account;
         });
     }
@@ -75,6 +79,10 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public Optional<KeyPair> findKeyPairByKeyId(String keyId) {
+        return keyPairCache.get(keyId, this::findActiveKeyPairByKeyId);
+    }
+
+    private Optional<KeyPair> findActiveKeyPairByKeyId(String keyId) {
         return serviceAccountRepository
                 .findByActiveKeyId(keyId).map(serviceAccount -> (Account) serviceAccount)
                 .or(() -> personalAccountRepository.findByActiveKeyId(keyId)).map(Account::getActiveKeyPair);
@@ -209,18 +217,29 @@ public class AccountServiceImpl implements AccountService {
                 .orElseThrow(() -> new ArgosError(ADMINISTRATOR_ROLE_NAME + " role not found"));
     }
 
-    private void activateNewKey(Account account, KeyPair newKeyPair) {
-        deactivateKeyPair(account);
+    private Optional<KeyPair> activateNewKey(Account account, KeyPair newKeyPair) {
+        Optional<KeyPair> deactivatedKeyPair = deactivateKeyPair(account);
         account.setActiveKeyPair(newKeyPair);
+        return deactivatedKeyPair;
     }
 
-    private void deactivateKeyPair(Account account) {
-        Optional.ofNullable(account.getActiveKeyPair()).ifPresent(keyPair -> {
+    private Optional<KeyPair> deactivateKeyPair(Account account) {
+        Optional<KeyPair> activeKeyPair = Optional.ofNullable(account.getActiveKeyPair());
+        activeKeyPair.ifPresent(keyPair -> {
             List<KeyPair> inactiveKeyPairs = new ArrayList<>(Optional.ofNullable(account.getInactiveKeyPairs()).orElse(Collections.emptyList()));
             inactiveKeyPairs.add(keyPair);
             account.setActiveKeyPair(null);
             account.setInactiveKeyPairs(inactiveKeyPairs);
         });
+        return activeKeyPair;
+    }
+
+    /*
+     * only after the deactivation is stored, otherwise a concurrent lookup could cache the key pair as active again
+     */
+    private void invalidateKeyPair(KeyPair keyPair) {
+        keyPairCache.invalidate(keyPair.getKeyId());
+        serviceAccountCredentialsCache.invalidate(keyPair.getKeyId());
     }
 
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.account;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rabobank.argos.domain.key.KeyPair;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Keeps the active key pairs, with their decoded public keys, by key id so the account
+ * collections are not read for every signature validation.
+ *
+ * Only found key pairs are cached, an entry is evicted when its key is deactivated.
+ */
+@Component
+public class KeyPairCache {
+
+    private final Cache<String, KeyPair> keyPairs;
+
+    public KeyPairCache(@Value("${account.key-pair-cache.maximum-size:10000}") long maximumSize,
+                        @Value("#{T(java.time.Duration).parse('${account.key-pair-cache.expire-after-write:PT10M}')}") Duration expireAfterWrite) {
+        keyPairs = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public Optional<KeyPair> get(String keyId, Function<String, Optional<KeyPair>> keyPairLoader) {
+        KeyPair keyPair = keyPairs.getIfPresent(keyId);
+        if (keyPair != null) {
+            return Optional.of(keyPair);
+        }
+        Optional<KeyPair> loadedKeyPair = keyPairLoader.apply(keyId);
+        loadedKeyPair.ifPresent(pair -> keyPairs.put(keyId, pair));
+        return loadedKeyPair;
+    }
+
+    public void invalidate(String keyId) {
+        keyPairs.invalidate(keyId);
+    }
+}
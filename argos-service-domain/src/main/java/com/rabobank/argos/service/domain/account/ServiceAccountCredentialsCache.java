@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.account;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.commons.codec.digest.DigestUtils.sha512Hex;
+
+/**
+ * Remembers service account credentials that were successfully checked with the (expensive)
+ * password encoder so repeated requests with the same key id and passphrase can skip it.
+ *
+ * Only a sha-512 of the presented passphrase is kept. An entry only matches as long as the
+ * stored hashed passphrase of the key is unchanged, and is removed when the key is deactivated.
+ */
+@Component
+public class ServiceAccountCredentialsCache {
+
+    private final Cache<CredentialsKey, String> verifiedCredentials;
+
+    private final AtomicLong avoidedPasswordChecks = new AtomicLong();
+
+    public ServiceAccountCredentialsCache(@Value("${account.credentials-cache.maximum-size:1000}") long maximumSize,
+                                          @Value("#{T(java.time.Duration).parse('${account.credentials-cache.expire-after-write:PT5M}')}") Duration expireAfterWrite) {
+        verifiedCredentials = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public boolean matches(String keyId, String password, String encryptedHashedKeyPassphrase, PasswordEncoder passwordEncoder) {
+        CredentialsKey key = new CredentialsKey(keyId, sha512Hex(password));
+        if (encryptedHashedKeyPassphrase.equals(verifiedCredentials.getIfPresent(key))) {
+            avoidedPasswordChecks.incrementAndGet();
+            return true;
+        }
+        if (passwordEncoder.matches(password, encryptedHashedKeyPassphrase)) {
+            verifiedCredentials.put(key, encryptedHashedKeyPassphrase);
+            return true;
+        }
+        return false;
+    }
+
+    public void invalidate(String keyId) {
+        verifiedCredentials.asMap().keySet().removeIf(key -> key.getKeyId().equals(keyId));
+    }
+
+    public long getAvoidedPasswordChecks() {
+        return avoidedPasswordChecks.get();
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class CredentialsKey {
+        private final String keyId;
+        private final String passwordDigest;
+    }
+}
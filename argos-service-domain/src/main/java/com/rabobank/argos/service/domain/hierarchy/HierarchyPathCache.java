@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.hierarchy;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Keeps the id path to root of labels and the parent label id of supply chains for the
+ * local permission checks so the hierarchy is not queried on every secured call.
+ *
+ * Only found values are cached. Entries are evicted on label and supply chain updates, the
+ * short expiry bounds the staleness of updates done by other service instances.
+ */
+@Component
+public class HierarchyPathCache {
+
+    private final Cache<String, List<String>> idPathsToRoot;
+
+    private final Cache<String, String> parentLabelIdsOfSupplyChains;
+
+    public HierarchyPathCache(@Value("${hierarchy.path-cache.maximum-size:10000}") long maximumSize,
+                              @Value("#{T(java.time.Duration).parse('${hierarchy.path-cache.expire-after-write:PT30S}')}") Duration expireAfterWrite) {
+        idPathsToRoot = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        parentLabelIdsOfSupplyChains = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public Optional<List<String>> getIdPathToRoot(String labelId, Function<String, Optional<List<String>>> idPathToRootLoader) {
+        return get(idPathsToRoot, labelId, idPathToRootLoader);
+    }
+
+    public Optional<String> getParentLabelIdOfSupplyChain(String supplyChainId, Function<String, Optional<String>> parentLabelIdLoader) {
+        return get(parentLabelIdsOfSupplyChains, supplyChainId, parentLabelIdLoader);
+    }
+
+    /**
+     * A label update can move a whole sub tree so all id paths are evicted.
+     */
+    public void invalidateIdPathsToRoot() {
+        idPathsToRoot.invalidateAll();
+    }
+
+    public void invalidateSupplyChain(String supplyChainId) {
+        parentLabelIdsOfSupplyChains.invalidate(supplyChainId);
+    }
+
+    private static <T> Optional<T> get(Cache<String, T> cache, String key, Function<String, Optional<T>> loader) {
+        T value = cache.getIfPresent(key);
+        if (value != null) {
+            return Optional.of(value);
+        }
+        Optional<T> loadedValue = loader.apply(key);
+        loadedValue.ifPresent(found -> cache.put(key, found));
+        return loadedValue;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.link;
+
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.signing.JsonSigningSerializer;
+import lombok.AllArgsConstructor;
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+
+import static lombok.AccessLevel.PRIVATE;
+import static org.apache.commons.codec.digest.DigestUtils.getSha256Digest;
+
+/**
+ * The sha256 digest of the canonical json of a link, this is the content that is signed
+ * so links with the same digest are the same link.
+ */
+@AllArgsConstructor(access = PRIVATE)
+public class LinkDigest {
+
+    public static String of(Link link) {
+        MessageDigest digest = getSha256Digest();
+        new JsonSigningSerializer().serialize(link, new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+        return Hex.encodeHexString(digest.digest());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.link;
+
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The fields of a link meta block which are needed to build the candidate link sets of a
+ * verification, without the command and the artifacts of the link.
+ */
+@Builder
+@Getter
+@EqualsAndHashCode
+@ToString
+public class LinkMetaBlockHeader {
+    private String supplyChainId;
+    private String runId;
+    private String segmentName;
+    private String stepName;
+    private String keyId;
+    private String signature;
+    private String linkDigest;
+
+    public static LinkMetaBlockHeader of(LinkMetaBlock linkMetaBlock) {
+        LinkMetaBlockHeaderBuilder builder = LinkMetaBlockHeader.builder()
+                .supplyChainId(linkMetaBlock.getSupplyChainId())
+                .runId(linkMetaBlock.getLink().getRunId())
+                .segmentName(linkMetaBlock.getLink().getLayoutSegmentName())
+                .stepName(linkMetaBlock.getLink().getStepName())
+                .linkDigest(LinkDigest.of(linkMetaBlock.getLink()));
+        if (linkMetaBlock.getSignature() != null) {
+            builder.keyId(linkMetaBlock.getSignature().getKeyId())
+                    .signature(linkMetaBlock.getSignature().getSignature());
+        }
+        return builder.build();
+    }
+}
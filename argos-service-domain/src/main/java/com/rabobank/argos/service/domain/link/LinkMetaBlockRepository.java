@@ -22,6 +22,8 @@ import com.rabobank.argos.domain.link.LinkMetaBlock;
 
 import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 public interface LinkMetaBlockRepository {
@@ -29,13 +31,44 @@ public interface LinkMetaBlockRepository {
     List<LinkMetaBlock> findBySupplyChainAndSha(String supplyChainId, String hash);
     void save(LinkMetaBlock link);
 
+    void saveAll(List<LinkMetaBlock> links);
+
     List<LinkMetaBlock> findBySupplyChainAndSegmentNameAndStepNameAndProductHashes(String supplyChainId, String segmentName, String stepName, List<String> hashes);
 
     List<LinkMetaBlock> findBySupplyChainAndSegmentNameAndStepNameAndMaterialHash(String supplyChainId, String segmentName, String stepName, List<String> hashes);
 
     List<LinkMetaBlock> findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(String supplyChainId, String segmentName, String stepName, EnumMap<ArtifactType, Set<Artifact>> artifactTypeHashes);
 
+    /**
+     * Finds in one round trip the headers of the links of a segment which match the artifacts of the given steps
+     * together with the links of the other steps in that segment which share a run id with one of them.
+     * The links themselves are loaded with {@link #findBySupplyChainAndSignatures(String, List, boolean)}.
+     *
+     * @param stepArtifactTypeArtifacts the artifacts per artifact type that the link of a step should contain, by step name
+     * @param includeArchived also search the links that are moved to the archive after their retention period
+     */
+    List<LinkMetaBlockHeader> findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(String supplyChainId, String segmentName, Map<String, EnumMap<ArtifactType, Set<Artifact>>> stepArtifactTypeArtifacts, boolean includeArchived);
+
     List<LinkMetaBlock> findByRunId(String supplyChainId, String runId);
 
+    /**
+     * @param signatures the signature values of the link meta blocks
+     */
+    List<LinkMetaBlock> findBySupplyChainAndSignatures(String supplyChainId, List<String> signatures);
+
+    /**
+     * @param signatures the signature values of the link meta blocks
+     * @param includeArchived also search the links that are moved to the archive after their retention period
+     */
+    List<LinkMetaBlock> findBySupplyChainAndSignatures(String supplyChainId, List<String> signatures, boolean includeArchived);
+
+    /**
+     * Finds the id of the link that was saved last in the given steps of a supply chain, a link
+     * saved later in these steps has a higher id.
+     *
+     * @param stepNamesBySegmentName the step names by segment name
+     */
+    Optional<String> findLastLinkIdBySupplyChainAndSteps(String supplyChainId, Map<String, Set<String>> stepNamesBySegmentName);
+
     List<LinkMetaBlock> findByRunId(String supplyChainId, String segmentName, String runId, Set<String> resolvedSteps);
 }
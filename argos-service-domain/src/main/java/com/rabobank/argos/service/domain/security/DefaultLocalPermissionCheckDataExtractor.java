@@ -16,12 +16,16 @@
 package com.rabobank.argos.service.domain.security;
 
 import com.rabobank.argos.service.domain.util.reflection.ReflectionHelper;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static com.rabobank.argos.service.domain.security.DefaultLocalPermissionCheckDataExtractor.DEFAULT_LOCAL_PERMISSION_CHECK_DATA_EXTRACTOR_BEAN_NAME;
@@ -34,20 +38,37 @@ public class DefaultLocalPermissionCheckDataExtractor implements LocalPermission
 
     private final ApplicationContext applicationContext;
 
+    /**
+     * the annotated parameters of a method and their extractor beans do not change at runtime
+     * so they are resolved once per method
+     */
+    private final Map<Method, List<LabelIdParameter>> labelIdParameters = new ConcurrentHashMap<>();
+
     @Override
     public LocalPermissionCheckData extractLocalPermissionCheckData(Method method, Object[] argumentValues) {
 
         LocalPermissionCheckData.LocalPermissionCheckDataBuilder builder = LocalPermissionCheckData.builder();
         builder.labelIds(
-                reflectionHelper.getParameterDataByAnnotation(method, LabelIdCheckParam.class, argumentValues)
-                        .map(parameterData -> getValue(parameterData.getValue(), parameterData.getAnnotation()
-                        )).flatMap(Optional::stream).collect(Collectors.toSet()));
+                labelIdParameters.computeIfAbsent(method, this::resolveLabelIdParameters).stream()
+                        .map(labelIdParameter -> labelIdParameter.getLabelIdExtractor()
+                                .extractLabelId(labelIdParameter.getCheckParam(), argumentValues[labelIdParameter.getIndex()]))
+                        .flatMap(Optional::stream).collect(Collectors.toSet()));
         return builder.build();
     }
 
-    private Optional<String> getValue(Object value, LabelIdCheckParam checkParam) {
-        LabelIdExtractor labelIdExtractor = applicationContext.getBean(checkParam.dataExtractor(), LabelIdExtractor.class);
-        return labelIdExtractor.extractLabelId(checkParam, value);
+    private List<LabelIdParameter> resolveLabelIdParameters(Method method) {
+        return reflectionHelper.getParameterIndexesByAnnotation(method, LabelIdCheckParam.class).stream()
+                .map(parameterData -> new LabelIdParameter(parameterData.getValue(), parameterData.getAnnotation(),
+                        applicationContext.getBean(parameterData.getAnnotation().dataExtractor(), LabelIdExtractor.class)))
+                .collect(Collectors.toList());
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class LabelIdParameter {
+        private final int index;
+        private final LabelIdCheckParam checkParam;
+        private final LabelIdExtractor labelIdExtractor;
     }
 
 }
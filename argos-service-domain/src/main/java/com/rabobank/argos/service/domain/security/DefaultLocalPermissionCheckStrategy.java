@@ -18,6 +18,7 @@ package com.rabobank.argos.service.domain.security;
 import com.rabobank.argos.domain.hierarchy.HierarchyMode;
 import com.rabobank.argos.domain.hierarchy.TreeNode;
 import com.rabobank.argos.domain.permission.Permission;
+import com.rabobank.argos.service.domain.hierarchy.HierarchyPathCache;
 import com.rabobank.argos.service.domain.hierarchy.HierarchyRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +27,7 @@ import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.rabobank.argos.domain.permission.Permission.LOCAL_PERMISSION_EDIT;
@@ -44,6 +46,8 @@ public class DefaultLocalPermissionCheckStrategy implements LocalPermissionCheck
 
     private final AccountSecurityContext accountSecurityContext;
 
+    private final HierarchyPathCache hierarchyPathCache;
+
     public static final String DEFAULT_LOCAL_PERMISSION_CHECK_STRATEGY_BEAN_NAME = "defaultLocalPermissionCheckStrategy";
     private final Set<Permission> implicitReadPermissions = EnumSet.of(TREE_EDIT, SERVICE_ACCOUNT_EDIT, LOCAL_PERMISSION_EDIT);
 
@@ -71,11 +75,15 @@ public class DefaultLocalPermissionCheckStrategy implements LocalPermissionCheck
     }
 
     private ArrayList<String> getAllLabelIdsUpTree(String labelId) {
-        return hierarchyRepository.getSubTree(labelId, HierarchyMode.NONE, 0)
-                .map(TreeNode::getIdPathToRoot).map(ArrayList::new)
+        return hierarchyPathCache.getIdPathToRoot(labelId, this::findIdPathToRoot)
+                .map(ArrayList::new)
                 .map(labelIds -> {
                     labelIds.add(labelId);
                     return labelIds;
                 }).orElse(new ArrayList<>(List.of(labelId)));
     }
+
+    private Optional<List<String>> findIdPathToRoot(String labelId) {
+        return hierarchyRepository.getSubTree(labelId, HierarchyMode.NONE, 0).map(TreeNode::getIdPathToRoot);
+    }
 }
@@ -15,6 +15,7 @@
  */
 package com.rabobank.argos.service.domain.security;
 
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
@@ -29,6 +30,8 @@ import org.springframework.stereotype.Component;
 import java.lang.reflect.Method;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Arrays.asList;
 
@@ -42,6 +45,11 @@ public class PermissionCheckAdvisor {
 
     private final ApplicationContext applicationContext;
 
+    /**
+     * the beans referenced by the permission check annotation of a method are looked up once per method
+     */
+    private final Map<Method, LocalPermissionCheckBeans> localPermissionCheckBeans = new ConcurrentHashMap<>();
+
     @Pointcut("@annotation(permissionCheck)")
     public void permissionCheckPointCut(PermissionCheck permissionCheck) {
         //This is an AspectJ pointcut implemented as method
@@ -71,13 +79,23 @@ public class PermissionCheckAdvisor {
     }
 
     private boolean hasLocalPermissions(JoinPoint joinPoint, PermissionCheck permissionCheck) {
-
-        LocalPermissionCheckDataExtractor localPermissionCheckDataExtractor = applicationContext
-                .getBean(permissionCheck.localPermissionDataExtractorBean(), LocalPermissionCheckDataExtractor.class);
-        LocalPermissionCheckStrategy localPermissionCheckStrategy = applicationContext.getBean(permissionCheck.localPermissionCheckStrategyBean(), LocalPermissionCheckStrategy.class);
         Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        LocalPermissionCheckBeans checkBeans = localPermissionCheckBeans.computeIfAbsent(method, m -> resolveLocalPermissionCheckBeans(permissionCheck));
         Object[] argumentValues = joinPoint.getArgs();
-        LocalPermissionCheckData labelCheckData = localPermissionCheckDataExtractor.extractLocalPermissionCheckData(method, argumentValues);
-        return localPermissionCheckStrategy.hasLocalPermission(labelCheckData, new HashSet<>(List.of(permissionCheck.permissions())));
+        LocalPermissionCheckData labelCheckData = checkBeans.getLocalPermissionCheckDataExtractor().extractLocalPermissionCheckData(method, argumentValues);
+        return checkBeans.getLocalPermissionCheckStrategy().hasLocalPermission(labelCheckData, new HashSet<>(List.of(permissionCheck.permissions())));
+    }
+
+    private LocalPermissionCheckBeans resolveLocalPermissionCheckBeans(PermissionCheck permissionCheck) {
+        return new LocalPermissionCheckBeans(
+                applicationContext.getBean(permissionCheck.localPermissionDataExtractorBean(), LocalPermissionCheckDataExtractor.class),
+                applicationContext.getBean(permissionCheck.localPermissionCheckStrategyBean(), LocalPermissionCheckStrategy.class));
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class LocalPermissionCheckBeans {
+        private final LocalPermissionCheckDataExtractor localPermissionCheckDataExtractor;
+        private final LocalPermissionCheckStrategy localPermissionCheckStrategy;
     }
 }
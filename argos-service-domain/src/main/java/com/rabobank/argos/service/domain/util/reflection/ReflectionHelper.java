@@ -22,15 +22,23 @@ import com.codepoetics.protonpack.StreamUtils;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Component
 public class ReflectionHelper {
 
     public <T extends Annotation, S> Stream<ParameterData<T, S>> getParameterDataByAnnotation(Method method, Class<T> annotation, S[] argumentValues) {
+        return getParameterIndexesByAnnotation(method, annotation).stream()
+                .map(p -> new ParameterData<>(p.getAnnotation(), argumentValues[p.getValue()]));
+    }
+
+    public <T extends Annotation> List<ParameterData<T, Integer>> getParameterIndexesByAnnotation(Method method, Class<T> annotation) {
         return StreamUtils
                 .zipWithIndex(Arrays.stream(method.getParameters()))
                 .filter(p -> p.getValue().getAnnotation(annotation) != null)
-                .map(p -> new ParameterData<>(p.getValue().getAnnotation(annotation), argumentValues[(int) p.getIndex()]));
+                .map(p -> new ParameterData<>(p.getValue().getAnnotation(annotation), (int) p.getIndex()))
+                .collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.link.Artifact;
+import lombok.ToString;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Immutable view on a set of artifacts indexed by artifact, uri and hash, with the uri's
+ * sorted for path prefix scans.
+ *
+ * Selections of artifacts are expressed as a {@link BitSet} over the positions in this index.
+ */
+@ToString(of = "artifacts")
+public class ArtifactIndex {
+
+    private static final ArtifactIndex EMPTY = new ArtifactIndex(emptyList());
+
+    private final List<Artifact> artifacts;
+    private final Map<Artifact, Integer> positions;
+    private final Map<String, List<Integer>> positionsByUri;
+    private final Map<String, List<Integer>> positionsByHash;
+    private final int[] positionsSortedByUri;
+
+    private ArtifactIndex(List<Artifact> artifacts) {
+        this.artifacts = artifacts;
+        positions = new HashMap<>(artifacts.size() * 2);
+        positionsByUri = new HashMap<>(artifacts.size() * 2);
+        positionsByHash = new HashMap<>(artifacts.size() * 2);
+        for (int position = 0; position < artifacts.size(); position++) {
+            Artifact artifact = artifacts.get(position);
+            positions.put(artifact, position);
+            positionsByUri.computeIfAbsent(artifact.getUri(), uri -> new ArrayList<>(1)).add(position);
+            positionsByHash.computeIfAbsent(artifact.getHash(), hash -> new ArrayList<>(1)).add(position);
+        }
+        positionsSortedByUri = IntStream.range(0, artifacts.size()).boxed()
+                .sorted(Comparator.comparing(position -> artifacts.get(position).getUri(), Comparator.nullsFirst(Comparator.naturalOrder())))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    public static ArtifactIndex of(@Nullable Collection<Artifact> artifacts) {
+        if (artifacts == null || artifacts.isEmpty()) {
+            return EMPTY;
+        }
+        return new ArtifactIndex(List.copyOf(new LinkedHashSet<>(artifacts)));
+    }
+
+    public int size() {
+        return artifacts.size();
+    }
+
+    public Artifact get(int position) {
+        return artifacts.get(position);
+    }
+
+    public BitSet all() {
+        BitSet all = new BitSet(artifacts.size());
+        all.set(0, artifacts.size());
+        return all;
+    }
+
+    public boolean contains(Artifact artifact) {
+        return positions.containsKey(artifact);
+    }
+
+    /**
+     * @return the position of the artifact or -1 when it is not in this index
+     */
+    public int indexOf(Artifact artifact) {
+        return positions.getOrDefault(artifact, -1);
+    }
+
+    public boolean containsUri(String uri) {
+        return positionsByUri.containsKey(uri);
+    }
+
+    public List<Artifact> getByUri(String uri) {
+        return toArtifacts(positionsByUri.getOrDefault(uri, emptyList()));
+    }
+
+    public boolean containsHash(String hash) {
+        return positionsByHash.containsKey(hash);
+    }
+
+    /**
+     * @return true when one of the selected artifacts has the given hash
+     */
+    public boolean containsHash(String hash, BitSet selection) {
+        return positionsByHash.getOrDefault(hash, emptyList()).stream().anyMatch(selection::get);
+    }
+
+    public BitSet withUriPrefix(String prefix) {
+        BitSet selection = new BitSet(artifacts.size());
+        for (int i = firstSortedPositionNotBefore(prefix); i < positionsSortedByUri.length; i++) {
+            String uri = artifacts.get(positionsSortedByUri[i]).getUri();
+            if (!uri.startsWith(prefix)) {
+                break;
+            }
+            selection.set(positionsSortedByUri[i]);
+        }
+        return selection;
+    }
+
+    /**
+     * Selects the artifacts in the given selection with a uri that starts with the prefix and of which
+     * the uri relative to that prefix matches the pattern.
+     */
+    public BitSet filter(BitSet selection, String pattern, @Nullable String prefix) {
+        BitSet filtered = (BitSet) selection.clone();
+        if (StringUtils.hasLength(prefix)) {
+            filtered.and(withUriPrefix(prefix));
+        }
+        for (int position = filtered.nextSetBit(0); position >= 0; position = filtered.nextSetBit(position + 1)) {
+            if (!ArtifactMatcher.matches(getUri(artifacts.get(position), prefix), pattern)) {
+                filtered.clear(position);
+            }
+        }
+        return filtered;
+    }
+
+    public Set<Artifact> toSet(BitSet selection) {
+        Set<Artifact> selected = new HashSet<>(selection.cardinality() * 2);
+        selection.stream().mapToObj(artifacts::get).forEach(selected::add);
+        return selected;
+    }
+
+    public BitSet toBitSet(Collection<Artifact> selected) {
+        BitSet selection = new BitSet(artifacts.size());
+        selected.stream().mapToInt(this::indexOf).filter(position -> position >= 0).forEach(selection::set);
+        return selection;
+    }
+
+    static String getUri(Artifact artifact, @Nullable String prefix) {
+        if (StringUtils.hasLength(prefix) && artifact.getUri().startsWith(prefix)) {
+            return Paths.get(prefix).relativize(Paths.get(artifact.getUri())).toString();
+        } else {
+            return artifact.getUri();
+        }
+    }
+
+    private int firstSortedPositionNotBefore(String prefix) {
+        int low = 0;
+        int high = positionsSortedByUri.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            String uri = artifacts.get(positionsSortedByUri[middle]).getUri();
+            if (uri == null || uri.compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private List<Artifact> toArtifacts(List<Integer> selection) {
+        List<Artifact> selected = new ArrayList<>(selection.size());
+        selection.forEach(position -> selected.add(artifacts.get(position)));
+        return selected;
+    }
+}
@@ -15,17 +15,93 @@
  */
 package com.rabobank.argos.service.domain.verification;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.AllArgsConstructor;
 
 import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
+import java.util.function.Predicate;
 
 import static lombok.AccessLevel.PRIVATE;
 
+/**
+ * Matches artifact uri's against glob patterns.
+ * 
+ * Compiled patterns are cached, literal patterns and patterns with only a single
+ * leading or trailing * or ** are matched without a regular expression.
+ */
 @AllArgsConstructor(access = PRIVATE)
 public class ArtifactMatcher {
 
+    private static final int MAX_CACHED_PATTERNS = 10_000;
+    private static final String GLOB_SPECIAL_CHARS = "*?[]{}\\";
+    private static final String DOUBLE_STAR = "**";
+    private static final String STAR = "*";
+
+    private static final Cache<String, Predicate<String>> MATCHERS = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_PATTERNS)
+            .build();
+
     public static boolean matches(String uri, String pattern) {
-        return FileSystems.getDefault().getPathMatcher("glob:" + pattern).matches(Paths.get(uri));
+        return MATCHERS.get(pattern, ArtifactMatcher::compile).test(uri);
+    }
+
+    /**
+     * Compiles the pattern ahead of the first match.
+     */
+    public static void precompile(String pattern) {
+        MATCHERS.get(pattern, ArtifactMatcher::compile);
+    }
+
+    static Predicate<String> compile(String pattern) {
+        if (isLiteral(pattern)) {
+            return uri -> normalize(uri).equals(pattern);
+        }
+        if (pattern.startsWith(DOUBLE_STAR) && isLiteral(pattern.substring(2))) {
+            String suffix = pattern.substring(2);
+            return uri -> normalize(uri).endsWith(suffix);
+        }
+        if (pattern.endsWith(DOUBLE_STAR) && isLiteral(pattern.substring(0, pattern.length() - 2))) {
+            String prefix = pattern.substring(0, pattern.length() - 2);
+            return uri -> normalize(uri).startsWith(prefix);
+        }
+        if (pattern.startsWith(STAR) && isLiteral(pattern.substring(1))) {
+            String suffix = pattern.substring(1);
+            return uri -> {
+                String path = normalize(uri);
+                return path.endsWith(suffix) && path.lastIndexOf('/', path.length() - suffix.length() - 1) < 0;
+            };
+        }
+        if (pattern.endsWith(STAR) && isLiteral(pattern.substring(0, pattern.length() - 1))) {
+            String prefix = pattern.substring(0, pattern.length() - 1);
+            return uri -> {
+                String path = normalize(uri);
+                return path.startsWith(prefix) && path.indexOf('/', prefix.length()) < 0;
+            };
+        }
+        PathMatcher pathMatcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        return uri -> pathMatcher.matches(Paths.get(uri));
+    }
+
+    private static boolean isLiteral(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (GLOB_SPECIAL_CHARS.indexOf(pattern.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * The glob matcher matches on the path, only when the uri would be changed
+     * by parsing it as a path (double or trailing slashes) the path is created.
+     */
+    private static String normalize(String uri) {
+        if (uri.contains("//") || (uri.length() > 1 && uri.endsWith("/"))) {
+            return Paths.get(uri).toString();
+        }
+        return uri;
     }
 }
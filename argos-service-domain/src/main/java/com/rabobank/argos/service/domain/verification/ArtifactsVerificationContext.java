@@ -25,57 +25,65 @@ import lombok.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.util.StringUtils;
 
-import java.nio.file.Paths;
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-@Builder
-@Getter
+/**
+ * The artifacts of a link under verification, the consumed artifacts are tracked as a
+ * bitset over the artifact index.
+ */
 public class ArtifactsVerificationContext {
 
+    @Getter
     private final Map<String, Map<String, Link>> linksMap;
-    
-    @NonNull
+
+    @Getter
     private final Link link;
-    
-    @NonNull
-    private Set<Artifact> notConsumedArtifacts;
-    
-    @Builder.Default
-    private Set<Artifact> consumedArtifacts = new HashSet<>();
-    
-    @NonNull
+
+    @Getter
+    private final ArtifactIndex artifacts;
+
+    private final BitSet notConsumed;
+
+    @Getter
     private final String segmentName;
 
+    private final Function<Link, LinkArtifacts> linkArtifacts;
+
+    @Builder
+    public ArtifactsVerificationContext(@NonNull String segmentName, @NonNull ArtifactIndex artifacts, @NonNull Link link,
+                                        @Nullable Map<String, Map<String, Link>> linksMap,
+                                        @Nullable Function<Link, LinkArtifacts> linkArtifacts) {
+        this.linksMap = linksMap;
+        this.link = link;
+        this.artifacts = artifacts;
+        this.notConsumed = artifacts.all();
+        this.segmentName = segmentName;
+        this.linkArtifacts = linkArtifacts != null ? linkArtifacts : LinkArtifacts::of;
+    }
+
     public Set<Artifact> getFilteredArtifacts(String pattern) {
         return getFilteredArtifacts(pattern, null);
     }
 
     public Set<Artifact> getFilteredArtifacts(String pattern, String prefix) {
-        return filterArtifacts(notConsumedArtifacts, pattern, prefix);
+        return artifacts.toSet(artifacts.filter(notConsumed, pattern, prefix));
     }
 
     public static Set<Artifact> filterArtifacts(Set<Artifact> artifacts, String pattern, @Nullable String prefix) {
         return artifacts.stream()
         		.filter(artifact -> hasPrefix(artifact, prefix))
-        		.filter(artifact -> ArtifactMatcher.matches(getUri(artifact, prefix), pattern)).collect(Collectors.toSet());
+        		.filter(artifact -> ArtifactMatcher.matches(ArtifactIndex.getUri(artifact, prefix), pattern)).collect(Collectors.toSet());
     }
     
     private static boolean hasPrefix(Artifact artifact, @Nullable String prefix) {
     	return (StringUtils.hasLength(prefix) && artifact.getUri().startsWith(prefix)) || !StringUtils.hasLength(prefix);
     }
 
-    private static String getUri(Artifact artifact, String prefix) {
-        if (StringUtils.hasLength(prefix) && artifact.getUri().startsWith(prefix)) {
-            return Paths.get(prefix).relativize(Paths.get(artifact.getUri())).toString();
-        } else {
-            return artifact.getUri();
-        }
-    }
-    
     public Optional<Link> getLinkBySegmentNameAndStepName(String segmentName, String stepName) {
         if (linksMap == null || linksMap.get(segmentName) == null || linksMap.get(segmentName).get(stepName) == null) {
             return Optional.empty();
@@ -83,16 +91,33 @@ public class ArtifactsVerificationContext {
         return Optional.of(linksMap.get(segmentName).get(stepName));
     }
 
-    public Set<Artifact> getMaterials() {
-        return new HashSet<>(link.getMaterials());
+    public LinkArtifacts getLinkArtifacts(Link link) {
+        return linkArtifacts.apply(link);
+    }
+
+    public ArtifactIndex getMaterials() {
+        return getLinkArtifacts(link).getMaterials();
     }
     
-    public Set<Artifact> getProducts() {
-        return new HashSet<>(link.getProducts());
+    public ArtifactIndex getProducts() {
+        return getLinkArtifacts(link).getProducts();
+    }
+
+    public boolean hasNotConsumedArtifacts() {
+        return !notConsumed.isEmpty();
+    }
+
+    public Set<Artifact> getNotConsumedArtifacts() {
+        return artifacts.toSet(notConsumed);
+    }
+
+    public Set<Artifact> getConsumedArtifacts() {
+        BitSet consumed = artifacts.all();
+        consumed.andNot(notConsumed);
+        return artifacts.toSet(consumed);
     }
     
-    public void consume(Set<Artifact> artifacts) {
-        notConsumedArtifacts.removeAll(artifacts);
-        consumedArtifacts.addAll(artifacts);
+    public void consume(Set<Artifact> artifactsToConsume) {
+        notConsumed.andNot(artifacts.toBitSet(artifactsToConsume));
     }
 }
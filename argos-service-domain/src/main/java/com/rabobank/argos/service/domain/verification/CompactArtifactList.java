@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.ArtifactHash;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Deduplicated list of artifacts with sha256 hashes for large product lists.
+ *
+ * Each uri is stored once and the hashes are stored as 32 bytes in one array instead of 64
+ * character hex strings, the {@link Artifact} instances are created on access.
+ */
+public class CompactArtifactList extends AbstractList<Artifact> implements RandomAccess {
+
+    private static final int HASH_LENGTH = ArtifactHash.LENGTH;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+    private static final String HEX_DIGITS = "0123456789abcdef";
+
+    private final Map<String, Integer> firstPositionByUri = new HashMap<>();
+    private String[] uris = new String[INITIAL_CAPACITY];
+    private int[] nextPositionWithSameUri = new int[INITIAL_CAPACITY];
+    private byte[] hashes = new byte[INITIAL_CAPACITY * HASH_LENGTH];
+    private int size;
+
+    /**
+     * @param hash lowercase hex encoded sha256 hash
+     * @return false when the artifact was already in the list
+     * @throws IllegalArgumentException when the hash is not a lowercase hex encoded sha256 hash
+     */
+    public boolean add(String uri, String hash) {
+        return add(uri, ArtifactHash.toBytes(hash));
+    }
+
+    /**
+     * @param hash sha256 hash of 32 bytes
+     * @return false when the artifact was already in the list
+     * @throws IllegalArgumentException when the hash is not 32 bytes
+     */
+    public boolean add(String uri, byte[] hash) {
+        if (uri == null || hash == null || hash.length != HASH_LENGTH) {
+            throw new IllegalArgumentException("artifact should have an uri and a sha256 hash");
+        }
+        Integer firstPosition = firstPositionByUri.get(uri);
+        int lastPosition = NONE;
+        if (firstPosition != null) {
+            for (int position = firstPosition; position != NONE; position = nextPositionWithSameUri[position]) {
+                if (hashEquals(position, hash)) {
+                    return false;
+                }
+                lastPosition = position;
+            }
+        }
+        ensureCapacity(size + 1);
+        if (firstPosition == null) {
+            uris[size] = uri;
+            firstPositionByUri.put(uri, size);
+        } else {
+            uris[size] = uris[firstPosition];
+            nextPositionWithSameUri[lastPosition] = size;
+        }
+        nextPositionWithSameUri[size] = NONE;
+        System.arraycopy(hash, 0, hashes, size * HASH_LENGTH, HASH_LENGTH);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean add(Artifact artifact) {
+        return add(artifact.getUri(), artifact.getHash());
+    }
+
+    @Override
+    public Artifact get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + size);
+        }
+        return new Artifact(uris[index], ArtifactHash.toHex(hashes, index * HASH_LENGTH));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return positionOf(object) != NONE;
+    }
+
+    /**
+     * A set view on the artifacts in this list that supports removal without changing the list,
+     * artifacts added to the list afterwards are not part of the set.
+     */
+    public Set<Artifact> asSet() {
+        return new ArtifactSet();
+    }
+
+    /**
+     * Updates the digest with uri:hash and a newline for each artifact ordered on these strings,
+     * which gives the digest of the sorted artifact strings without creating them.
+     */
+    public void updateDigest(MessageDigest messageDigest) {
+        int[] positions = new int[size];
+        for (int position = 0; position < size; position++) {
+            positions[position] = position;
+        }
+        sort(positions, new int[size], 0, size);
+        byte[] hashEntry = new byte[HASH_LENGTH * 2 + 2];
+        hashEntry[0] = ':';
+        hashEntry[hashEntry.length - 1] = '\n';
+        String previousUri = null;
+        byte[] uriBytes = null;
+        for (int position : positions) {
+            if (uris[position] != previousUri) {
+                previousUri = uris[position];
+                uriBytes = previousUri.getBytes(StandardCharsets.UTF_8);
+            }
+            for (int i = 0; i < HASH_LENGTH * 2; i++) {
+                hashEntry[i + 1] = (byte) hexDigit(position, i);
+            }
+            messageDigest.update(uriBytes);
+            messageDigest.update(hashEntry);
+        }
+    }
+
+    private int positionOf(Object object) {
+        if (!(object instanceof Artifact)) {
+            return NONE;
+        }
+        Artifact artifact = (Artifact) object;
+        Integer firstPosition = firstPositionByUri.get(artifact.getUri());
+        if (firstPosition == null) {
+            return NONE;
+        }
+        byte[] hash;
+        try {
+            hash = ArtifactHash.toBytes(artifact.getHash());
+        } catch (IllegalArgumentException e) {
+            return NONE;
+        }
+        for (int position = firstPosition; position != NONE; position = nextPositionWithSameUri[position]) {
+            if (hashEquals(position, hash)) {
+                return position;
+            }
+        }
+        return NONE;
+    }
+
+    private void sort(int[] positions, int[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sort(positions, buffer, from, middle);
+        sort(positions, buffer, middle, to);
+        System.arraycopy(positions, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && compareEntries(buffer[left], buffer[right]) <= 0)) {
+                positions[i] = buffer[left++];
+            } else {
+                positions[i] = buffer[right++];
+            }
+        }
+    }
+
+    /*
+     * compares uri:hash of both positions the way String.compareTo would
+     */
+    private int compareEntries(int left, int right) {
+        int leftLength = entryLength(left);
+        int rightLength = entryLength(right);
+        // positions with the same uri share its instance
+        int from = uris[left] == uris[right] ? uris[left].length() + 1 : 0;
+        for (int i = from; i < Math.min(leftLength, rightLength); i++) {
+            int difference = entryChar(left, i) - entryChar(right, i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return leftLength - rightLength;
+    }
+
+    private int entryLength(int position) {
+        return uris[position].length() + 1 + HASH_LENGTH * 2;
+    }
+
+    private char entryChar(int position, int index) {
+        String uri = uris[position];
+        if (index < uri.length()) {
+            return uri.charAt(index);
+        } else if (index == uri.length()) {
+            return ':';
+        }
+        return hexDigit(position, index - uri.length() - 1);
+    }
+
+    private char hexDigit(int position, int index) {
+        int value = hashes[position * HASH_LENGTH + index / 2] & 0xff;
+        return HEX_DIGITS.charAt(index % 2 == 0 ? value >>> 4 : value & 0x0f);
+    }
+
+    private boolean hashEquals(int position, byte[] hash) {
+        int offset = position * HASH_LENGTH;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            if (hashes[offset + i] != hash[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > uris.length) {
+            int newCapacity = Math.max(capacity, uris.length * 2);
+            uris = Arrays.copyOf(uris, newCapacity);
+            nextPositionWithSameUri = Arrays.copyOf(nextPositionWithSameUri, newCapacity);
+            hashes = Arrays.copyOf(hashes, newCapacity * HASH_LENGTH);
+        }
+    }
+
+    private class ArtifactSet extends AbstractSet<Artifact> {
+
+        private final int end = size;
+        private final BitSet removed = new BitSet(end);
+        private int remaining = end;
+
+        @Override
+        public int size() {
+            return remaining;
+        }
+
+        @Override
+        public boolean contains(Object object) {
+            int position = positionOf(object);
+            return position != NONE && position < end && !removed.get(position);
+        }
+
+        @Override
+        public boolean remove(Object object) {
+            int position = positionOf(object);
+            if (position == NONE || position >= end || removed.get(position)) {
+                return false;
+            }
+            removePosition(position);
+            return true;
+        }
+
+        @Override
+        public Iterator<Artifact> iterator() {
+            return new Iterator<>() {
+
+                private int next = removed.nextClearBit(0);
+                private int last = NONE;
+
+                @Override
+                public boolean hasNext() {
+                    return next < end;
+                }
+
+                @Override
+                public Artifact next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    next = removed.nextClearBit(next + 1);
+                    return get(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (last == NONE) {
+                        throw new IllegalStateException();
+                    }
+                    removePosition(last);
+                    last = NONE;
+                }
+            };
+        }
+
+        private void removePosition(int position) {
+            removed.set(position);
+            remaining--;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.layout.ArtifactType;
+import com.rabobank.argos.domain.layout.Layout;
+import com.rabobank.argos.domain.layout.LayoutSegment;
+import com.rabobank.argos.domain.layout.Step;
+import com.rabobank.argos.domain.layout.rule.MatchRule;
+import com.rabobank.argos.domain.layout.rule.Rule;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Everything of a layout the verification needs that only depends on the layout itself:
+ * the segment graph and its topological order, the steps by segment and step name and
+ * the expected rules per step and artifact type.
+ * 
+ * The patterns of all rules are compiled when the layout is compiled.
+ */
+@Getter
+public class CompiledLayout {
+
+    private final Layout layout;
+
+    private final Map<LayoutSegment, Set<LayoutSegment>> segmentGraph;
+
+    private final List<LayoutSegment> topologicalSortedSegments;
+
+    private final Map<String, Map<String, Step>> stepBySegmentNameAndStepName;
+
+    private final List<MatchRule> expectedEndProducts;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Map<String, Map<ArtifactType, List<Rule>>>> rulesBySegmentNameAndStepName;
+
+    private CompiledLayout(Layout layout) {
+        this.layout = layout;
+        Map<LayoutSegment, Set<LayoutSegment>> graph = VerificationContextsProviderContext.createDirectedSegmentGraph(layout);
+        Map<LayoutSegment, Set<LayoutSegment>> graphCopy = new HashMap<>();
+        graph.forEach((segment, sources) -> graphCopy.put(segment, unmodifiableSet(sources)));
+        segmentGraph = unmodifiableMap(graphCopy);
+        topologicalSortedSegments = unmodifiableList(new ArrayList<>(VerificationContextsProviderContext.topologicalSort(copy(graph))));
+
+        Map<String, Map<String, Step>> steps = new HashMap<>();
+        Map<String, Map<String, Map<ArtifactType, List<Rule>>>> rules = new HashMap<>();
+        layout.getLayoutSegments().forEach(segment -> {
+            Map<String, Step> segmentSteps = new HashMap<>();
+            Map<String, Map<ArtifactType, List<Rule>>> segmentRules = new HashMap<>();
+            segment.getSteps().forEach(step -> {
+                segmentSteps.put(step.getName(), step);
+                Map<ArtifactType, List<Rule>> stepRules = new EnumMap<>(ArtifactType.class);
+                stepRules.put(ArtifactType.MATERIALS, nullToEmpty(step.getExpectedMaterials()));
+                stepRules.put(ArtifactType.PRODUCTS, nullToEmpty(step.getExpectedProducts()));
+                segmentRules.put(step.getName(), unmodifiableMap(stepRules));
+            });
+            steps.put(segment.getName(), unmodifiableMap(segmentSteps));
+            rules.put(segment.getName(), unmodifiableMap(segmentRules));
+        });
+        stepBySegmentNameAndStepName = unmodifiableMap(steps);
+        rulesBySegmentNameAndStepName = unmodifiableMap(rules);
+        expectedEndProducts = nullToEmpty(layout.getExpectedEndProducts());
+
+        Stream.concat(expectedEndProducts.stream(), rules.values().stream()
+                .flatMap(segmentRules -> segmentRules.values().stream())
+                .flatMap(stepRules -> stepRules.values().stream())
+                .flatMap(List::stream))
+                .map(Rule::getPattern)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(ArtifactMatcher::precompile);
+    }
+
+    /**
+     * @throws com.rabobank.argos.domain.ArgosError when the segment graph of the layout has a cycle
+     * or more than one start segment
+     */
+    public static CompiledLayout of(Layout layout) {
+        return new CompiledLayout(layout);
+    }
+
+    /**
+     * @return the expected rules of the step for the artifact type, empty when the step is unknown
+     */
+    public List<Rule> getExpectedRules(String segmentName, String stepName, ArtifactType type) {
+        return rulesBySegmentNameAndStepName
+                .getOrDefault(segmentName, emptyMap())
+                .getOrDefault(stepName, emptyMap())
+                .getOrDefault(type, emptyList());
+    }
+
+    private static Map<LayoutSegment, Set<LayoutSegment>> copy(Map<LayoutSegment, Set<LayoutSegment>> graph) {
+        Map<LayoutSegment, Set<LayoutSegment>> copy = new HashMap<>();
+        graph.forEach((segment, sources) -> copy.put(segment, new HashSet<>(sources)));
+        return copy;
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list != null ? unmodifiableList(list) : emptyList();
+    }
+}
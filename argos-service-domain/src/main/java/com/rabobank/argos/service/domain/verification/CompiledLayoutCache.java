@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rabobank.argos.domain.ArgosError;
+import com.rabobank.argos.domain.layout.LayoutMetaBlock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Caches compiled layouts by layout digest.
+ * 
+ * The digest is made over the layout signatures, a layout without signatures is compiled
+ * on every call.
+ */
+@Component
+@Slf4j
+public class CompiledLayoutCache {
+
+    private final Cache<String, CompiledLayout> compiledLayouts;
+
+    public CompiledLayoutCache(@Value("${verification.compiled-layout-cache.maximum-size:1000}") long maximumSize,
+                               @Value("#{T(java.time.Duration).parse('${verification.compiled-layout-cache.expire-after-access:PT24H}')}") Duration expireAfterAccess) {
+        compiledLayouts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    /**
+     * @throws ArgosError when the layout can not be compiled
+     */
+    public CompiledLayout getCompiledLayout(LayoutMetaBlock layoutMetaBlock) {
+        if (layoutMetaBlock.getSignatures() == null || layoutMetaBlock.getSignatures().isEmpty()) {
+            return CompiledLayout.of(layoutMetaBlock.getLayout());
+        }
+        return compiledLayouts.get(VerificationResultCache.layoutDigest(layoutMetaBlock),
+                digest -> CompiledLayout.of(layoutMetaBlock.getLayout()));
+    }
+
+    /**
+     * Compiles a stored layout ahead of its first verification, a layout that can not be
+     * compiled will fail at verification.
+     */
+    public void compile(LayoutMetaBlock layoutMetaBlock) {
+        try {
+            getCompiledLayout(layoutMetaBlock);
+        } catch (ArgosError e) {
+            log.warn("layout of supply chain {} can not be compiled: {}", layoutMetaBlock.getSupplyChainId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.layout.ArtifactType;
+import com.rabobank.argos.domain.link.Link;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The indexed materials and products of a link.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class LinkArtifacts {
+
+    private final ArtifactIndex materials;
+
+    private final ArtifactIndex products;
+
+    public static LinkArtifacts of(Link link) {
+        return new LinkArtifacts(ArtifactIndex.of(link.getMaterials()), ArtifactIndex.of(link.getProducts()));
+    }
+
+    public ArtifactIndex get(ArtifactType type) {
+        return type == ArtifactType.PRODUCTS ? products : materials;
+    }
+}
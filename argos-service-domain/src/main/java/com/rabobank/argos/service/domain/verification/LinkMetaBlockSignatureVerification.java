@@ -17,7 +17,6 @@ package com.rabobank.argos.service.domain.verification;
 
 import com.rabobank.argos.domain.layout.LayoutMetaBlock;
 import com.rabobank.argos.domain.link.LinkMetaBlock;
-import com.rabobank.argos.domain.signing.SignatureValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -34,7 +33,7 @@ import static java.util.stream.Collectors.toList;
 @Slf4j
 public class LinkMetaBlockSignatureVerification implements Verification {
 
-    private final SignatureValidator signatureValidator;
+    private final LinkSignatureValidationCache linkSignatureValidationCache;
 
     @Override
     public Priority getPriority() {
@@ -50,8 +49,8 @@ public class LinkMetaBlockSignatureVerification implements Verification {
 
     private boolean okay(LayoutMetaBlock layoutMetaBlock, LinkMetaBlock linkMetaBlock) {
         return getPublicKey(layoutMetaBlock, linkMetaBlock.getSignature().getKeyId())
-                .map(keyPair -> signatureValidator.isValid(linkMetaBlock.getLink(),
-                        linkMetaBlock.getSignature().getSignature(), keyPair))
+                .map(publicKey -> linkSignatureValidationCache.isValid(linkMetaBlock.getLink(),
+                        linkMetaBlock.getSignature(), publicKey))
                 .orElse(false);
     }
 
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rabobank.argos.domain.Signature;
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.signing.SignatureValidator;
+import com.rabobank.argos.service.domain.link.LinkDigest;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.PublicKey;
+
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+
+/**
+ * Remembers the outcome of link signature validations so a link which is part of
+ * several verification contexts or verification requests is only validated once.
+ *
+ * The digest of a link is computed once per loaded link instance, the links of a run are
+ * loaded once and shared by its verification contexts. The digest stored with a link is
+ * not used, the validation key has to be computed from the link that is verified.
+ */
+@Component
+public class LinkSignatureValidationCache {
+
+    private final SignatureValidator signatureValidator;
+
+    private final Cache<ValidationKey, Boolean> validations;
+
+    private final Cache<Link, String> linkDigests;
+
+    public LinkSignatureValidationCache(SignatureValidator signatureValidator,
+                                        @Value("${verification.signature-cache.maximum-size:100000}") long maximumSize) {
+        this.signatureValidator = signatureValidator;
+        this.validations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        this.linkDigests = Caffeine.newBuilder()
+                .weakKeys()
+                .build();
+    }
+
+    public boolean isValid(Link link, Signature signature, PublicKey publicKey) {
+        ValidationKey key = new ValidationKey(
+                linkDigests.get(link, LinkDigest::of),
+                signature.getSignature(),
+                signature.getKeyId(),
+                sha256Hex(publicKey.getEncoded()));
+        return validations.get(key, validationKey -> signatureValidator.isValid(link, signature.getSignature(), publicKey));
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class ValidationKey {
+        private final String linkDigest;
+        private final String signature;
+        private final String keyId;
+        private final String publicKeyDigest;
+    }
+}
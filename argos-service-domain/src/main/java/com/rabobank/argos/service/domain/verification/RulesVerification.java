@@ -19,7 +19,6 @@ import com.rabobank.argos.domain.layout.ArtifactType;
 import com.rabobank.argos.domain.layout.Step;
 import com.rabobank.argos.domain.layout.rule.Rule;
 import com.rabobank.argos.domain.layout.rule.RuleType;
-import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.Link;
 import com.rabobank.argos.service.domain.verification.rules.RuleVerification;
 import com.rabobank.argos.service.domain.verification.rules.RuleVerificationContext;
@@ -31,11 +30,9 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.util.EnumMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.function.Predicate;
 
 import static com.rabobank.argos.service.domain.verification.Verification.Priority.RULES;
@@ -67,6 +64,7 @@ public class RulesVerification implements Verification {
         
         return linksBySegmentAndStep.keySet().stream()
                 .map(segmentName -> verifyForSegment(
+                        verificationContext,
                         linksMap, 
                         segmentName,
                         linksBySegmentAndStep.get(segmentName)))
@@ -76,33 +74,39 @@ public class RulesVerification implements Verification {
                 .orElse(VerificationRunResult.builder().runIsValid(true).build());
     }
 
-    private boolean verifyForSegment(Map<String, Map<String, Link>> linksMap, String segmentName, Map<Step, Link> stepMap) {
-        return stepMap.keySet().stream().map(step -> verifyStep(linksMap, segmentName, step, stepMap.get(step))).noneMatch(result -> !result);
+    private boolean verifyForSegment(VerificationContext verificationContext, Map<String, Map<String, Link>> linksMap, 
+            String segmentName, Map<Step, Link> stepMap) {
+        return stepMap.keySet().stream()
+                .map(step -> verifyStep(verificationContext, linksMap, segmentName, step, stepMap.get(step)))
+                .noneMatch(result -> !result);
     }
 
-    private boolean verifyStep(Map<String, Map<String, Link>> linksMap, String segmentName, Step step, Link link) {
+    private boolean verifyStep(VerificationContext verificationContext, Map<String, Map<String, Link>> linksMap, 
+            String segmentName, Step step, Link link) {
         if (link == null) {
             log.warn("no links for step [{}]", step.getName());
             return false;
         }
-        return verifyLink(linksMap, segmentName, step, link);
+        return verifyLink(verificationContext, linksMap, segmentName, step, link);
     }
 
-    private boolean verifyLink(Map<String, Map<String, Link>> linksMap, String segmentName, Step step, Link link) {
-        return  verifyArtifactsByType(linksMap, segmentName, step, new HashSet<>(link.getMaterials()), link, ArtifactType.MATERIALS)
-                && verifyArtifactsByType(linksMap, segmentName, step, new HashSet<>(link.getProducts()), link, ArtifactType.PRODUCTS);
+    private boolean verifyLink(VerificationContext verificationContext, Map<String, Map<String, Link>> linksMap, 
+            String segmentName, Step step, Link link) {
+        return  verifyArtifactsByType(verificationContext, linksMap, segmentName, step, link, ArtifactType.MATERIALS)
+                && verifyArtifactsByType(verificationContext, linksMap, segmentName, step, link, ArtifactType.PRODUCTS);
     }
 
-    private boolean verifyArtifactsByType(Map<String, Map<String, Link>> linksMap, String segmentName, Step step,
-            Set<Artifact> artifacts, Link link, ArtifactType type) {
+    private boolean verifyArtifactsByType(VerificationContext verificationContext, Map<String, Map<String, Link>> linksMap, 
+            String segmentName, Step step, Link link, ArtifactType type) {
         ArtifactsVerificationContext artifactsContext = ArtifactsVerificationContext.builder()
                 .segmentName(segmentName)
                 .link(link)
-                .notConsumedArtifacts(artifacts)
+                .artifacts(verificationContext.getLinkArtifacts(link).get(type))
+                .linkArtifacts(verificationContext::getLinkArtifacts)
                 .linksMap(linksMap)
                 .build();
 
-        return getExpectedArtifactRulesByType(step, type).stream()
+        return verificationContext.getCompiledLayout().getExpectedRules(segmentName, step.getName(), type).stream()
                 .map(rule -> verifyRule(rule, ruleVerifier -> {
                     log.info("verify expected [{}] [{}] for step [{}]", type, rule.getRuleType(), step.getName());
                     RuleVerificationContext<Rule> context = RuleVerificationContext.builder()
@@ -125,24 +129,8 @@ public class RulesVerification implements Verification {
                 });
     }
     
-    private List<Rule> getExpectedArtifactRulesByType(Step step, ArtifactType type){
-        if(type == ArtifactType.PRODUCTS) {
-            if (step.getExpectedProducts() != null) {
-                return step.getExpectedProducts();
-            } else {
-                return List.of();
-            }
-        }else {
-            if (step.getExpectedMaterials() != null) {
-                return step.getExpectedMaterials();
-            } else {
-                return List.of();
-            }
-        }
-    }
-    
     private boolean validateNotConsumedArtifacts(ArtifactsVerificationContext artifactsContext) {
-        if (!artifactsContext.getNotConsumedArtifacts().isEmpty()) {
+        if (artifactsContext.hasNotConsumedArtifacts()) {
             artifactsContext.getNotConsumedArtifacts().stream().forEach(artifact -> 
                 log.info("Not consumed artifact [{}]", artifact));
             return false;
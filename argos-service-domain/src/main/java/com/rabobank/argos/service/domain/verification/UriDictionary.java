@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary of the artifact uri's of the links loaded for one verification run, so equal
+ * uri's of sibling links share one instance and compare by reference.
+ *
+ * Not thread safe, the links of a run are loaded by one thread.
+ */
+public class UriDictionary {
+
+    private final Map<String, String> uris = new HashMap<>();
+
+    public String intern(String uri) {
+        if (uri == null) {
+            return null;
+        }
+        String internedUri = uris.putIfAbsent(uri, uri);
+        return internedUri != null ? internedUri : uri;
+    }
+
+    public void intern(Artifact artifact) {
+        artifact.setUri(intern(artifact.getUri()));
+    }
+
+    public void internArtifacts(Collection<Artifact> artifacts) {
+        if (artifacts != null) {
+            artifacts.forEach(this::intern);
+        }
+    }
+
+    public void internLinkMetaBlocks(Collection<LinkMetaBlock> linkMetaBlocks) {
+        linkMetaBlocks.stream()
+                .filter(linkMetaBlock -> linkMetaBlock.getLink() != null)
+                .forEach(linkMetaBlock -> {
+                    internArtifacts(linkMetaBlock.getLink().getMaterials());
+                    internArtifacts(linkMetaBlock.getLink().getProducts());
+                });
+    }
+
+    public int size() {
+        return uris.size();
+    }
+}
@@ -27,13 +27,26 @@ import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toSet;
 
+/**
+ * The link meta blocks of one candidate run of a layout.
+ * 
+ * The steps are looked up in the compiled layout, the layout is compiled when no compiled
+ * layout is given. The link meta blocks are indexed by segment and step name, removing
+ * link meta blocks only updates the steps they belong to. The link per step views are
+ * derived on first use and kept up to date after that.
+ */
 @ToString
 public class VerificationContext {
     private static final String COULD_NOT_BE_FOUND = " could not be found";
@@ -43,64 +56,53 @@ public class VerificationContext {
     private final List<LinkMetaBlock> originalLinkMetaBlocks;
     @Getter
     private final LayoutMetaBlock layoutMetaBlock;
-    private Map<String, Map<String, Step>> stepBySegmentNameAndStepName;
-    private Map<String, Map<String, List<LinkMetaBlock>>> linkMetaBlocksBySegmentNameAndStepName;
+    @Getter
+    private final CompiledLayout compiledLayout;
+    private final Map<String, Map<String, Step>> stepBySegmentNameAndStepName;
+    private final Map<String, Map<String, List<LinkMetaBlock>>> linkMetaBlocksBySegmentNameAndStepName;
     private Map<String, Map<Step, Link>> linksBySegmentNameAndStep;
     private Map<String, Map<String, Link>> linksBySegmentNameAndStepName;
+    private final Map<Link, LinkArtifacts> linkArtifacts = new IdentityHashMap<>();
 
     @Builder
     public VerificationContext(@NonNull List<LinkMetaBlock> linkMetaBlocks, 
-            @NonNull LayoutMetaBlock layoutMetaBlock) {
+            @NonNull LayoutMetaBlock layoutMetaBlock, CompiledLayout compiledLayout) {
         this.linkMetaBlocks = new ArrayList<>(linkMetaBlocks);
         this.originalLinkMetaBlocks = new ArrayList<>(linkMetaBlocks);
         this.layoutMetaBlock = layoutMetaBlock;
+        this.compiledLayout = compiledLayout != null ? compiledLayout : CompiledLayout.of(layoutMetaBlock.getLayout());
+        this.stepBySegmentNameAndStepName = this.compiledLayout.getStepBySegmentNameAndStepName();
         
         linkMetaBlocksBySegmentNameAndStepName = this.linkMetaBlocks.stream()
                 .collect(groupingBy(linkMetaBlock -> linkMetaBlock.getLink().getLayoutSegmentName(),
                         groupingBy(linkMetaBlock -> linkMetaBlock.getLink().getStepName())));
 
-        createMaps();
+        stepBySegmentNameAndStepName.forEach((segmentName, steps) -> {
+            Map<String, List<LinkMetaBlock>> segmentBlocks = linkMetaBlocksBySegmentNameAndStepName
+                    .computeIfAbsent(segmentName, name -> new HashMap<>());
+            steps.keySet().forEach(stepName -> segmentBlocks.putIfAbsent(stepName, new ArrayList<>()));
+        });
     }
-    
-    private void createMaps() {
-        stepBySegmentNameAndStepName = new HashMap<>();
+
+    private void createLinkMaps() {
         linksBySegmentNameAndStep = new HashMap<>();
         linksBySegmentNameAndStepName = new HashMap<>();
-        layoutMetaBlock
-                .getLayout()
-                .getLayoutSegments()
-                .forEach(segment -> {
-                    stepBySegmentNameAndStepName.put(segment.getName(), new HashMap<>());
-                    linksBySegmentNameAndStep.put(segment.getName(), new HashMap<>());
-                    linksBySegmentNameAndStepName.put(segment.getName(), new HashMap<>());
-                    linkMetaBlocksBySegmentNameAndStepName.putIfAbsent(segment.getName(), new HashMap<>());
-                    segment.getSteps().forEach(step -> {
-                        stepBySegmentNameAndStepName
-                            .get(segment.getName())
-                            .put(step.getName(), step);
-                        linkMetaBlocksBySegmentNameAndStepName
-                            .get(segment.getName())
-                            .putIfAbsent(step.getName(), new ArrayList<>());
-                        linksBySegmentNameAndStep
-                            .get(segment.getName())
-                            .putIfAbsent(step, null);
-                        linksBySegmentNameAndStepName
-                            .get(segment.getName())
-                            .putIfAbsent(step.getName(), null);
-                        List<LinkMetaBlock> metaBlocks = linkMetaBlocksBySegmentNameAndStepName
-                                .getOrDefault(segment.getName(), emptyMap())
-                                .getOrDefault(step.getName(), emptyList());
-                        if (!metaBlocks.isEmpty() && metaBlocks.get(0).getLink() != null) {
-                            linksBySegmentNameAndStep
-                                .get(segment.getName())
-                                .put(step, metaBlocks.get(0).getLink());
-                            linksBySegmentNameAndStepName
-                                .get(segment.getName())
-                                .put(step.getName(), metaBlocks.get(0).getLink());
-                        }
-                    });
-                });
-        
+        stepBySegmentNameAndStepName.forEach((segmentName, steps) -> {
+            linksBySegmentNameAndStep.put(segmentName, new HashMap<>());
+            linksBySegmentNameAndStepName.put(segmentName, new HashMap<>());
+            steps.keySet().forEach(stepName -> updateLinks(segmentName, stepName));
+        });
+    }
+
+    /*
+     * the first link meta block of a step determines the link of that step
+     */
+    private void updateLinks(String segmentName, String stepName) {
+        Step step = stepBySegmentNameAndStepName.get(segmentName).get(stepName);
+        List<LinkMetaBlock> metaBlocks = linkMetaBlocksBySegmentNameAndStepName.get(segmentName).get(stepName);
+        Link link = !metaBlocks.isEmpty() ? metaBlocks.get(0).getLink() : null;
+        linksBySegmentNameAndStep.get(segmentName).put(step, link);
+        linksBySegmentNameAndStepName.get(segmentName).put(stepName, link);
     }
 
     public List<LayoutSegment> layoutSegments() {
@@ -110,10 +112,24 @@ public class VerificationContext {
     }
 
     public void removeLinkMetaBlocks(List<LinkMetaBlock> linkMetaBlocksToRemove) {
-        linkMetaBlocks.removeAll(linkMetaBlocksToRemove);
-        linkMetaBlocksBySegmentNameAndStepName.forEach((segmentName, stepNames) -> stepNames
-                .forEach((stepName, blocks) -> blocks.removeAll(linkMetaBlocksToRemove)));
-        createMaps();
+        if (linkMetaBlocksToRemove.isEmpty()) {
+            return;
+        }
+        Set<LinkMetaBlock> toRemove = new HashSet<>(linkMetaBlocksToRemove);
+        linkMetaBlocks.removeIf(toRemove::contains);
+        toRemove.stream()
+                .map(LinkMetaBlock::getLink)
+                .collect(groupingBy(Link::getLayoutSegmentName, mapping(Link::getStepName, toSet())))
+                .forEach((segmentName, stepNames) -> stepNames.forEach(stepName -> {
+                    List<LinkMetaBlock> blocks = linkMetaBlocksBySegmentNameAndStepName
+                            .getOrDefault(segmentName, emptyMap())
+                            .get(stepName);
+                    if (blocks != null && blocks.removeIf(toRemove::contains)
+                            && linksBySegmentNameAndStep != null
+                            && stepBySegmentNameAndStepName.getOrDefault(segmentName, emptyMap()).containsKey(stepName)) {
+                        updateLinks(segmentName, stepName);
+                    }
+                }));
     }
 
     public List<String> getStepNamesBySegmentName(String segmentName) {
@@ -143,11 +159,24 @@ public class VerificationContext {
     }
     
     public Map<String, Map<Step, Link>> getLinksBySegmentNameAndStep() {
+        if (linksBySegmentNameAndStep == null) {
+            createLinkMaps();
+        }
         return linksBySegmentNameAndStep;
     }
     
     public Map<String, Map<String, Link>> getLinksBySegmentNameAndStepName() {
+        if (linksBySegmentNameAndStepName == null) {
+            createLinkMaps();
+        }
         return linksBySegmentNameAndStepName;
     }
+
+    /**
+     * @return the indexed materials and products of the link, the index is built once per link
+     */
+    public LinkArtifacts getLinkArtifacts(Link link) {
+        return linkArtifacts.computeIfAbsent(link, LinkArtifacts::of);
+    }
     
 }
@@ -23,6 +23,7 @@ import com.rabobank.argos.domain.layout.rule.MatchRule;
 import com.rabobank.argos.domain.layout.rule.RuleType;
 import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockHeader;
 import com.rabobank.argos.service.domain.link.LinkMetaBlockRepository;
 import com.rabobank.argos.service.domain.verification.rules.RuleVerification;
 
@@ -30,17 +31,27 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.PostConstruct;
 
+import static java.util.stream.Collectors.toList;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -50,6 +61,8 @@ public class VerificationContextsProvider {
 
     private final List<RuleVerification> ruleVerificationList;
 
+    private final CompiledLayoutCache compiledLayoutCache;
+
     private Map<RuleType, RuleVerification> rulesVerificationMap = new EnumMap<>(RuleType.class);
 
     @PostConstruct
@@ -58,41 +71,116 @@ public class VerificationContextsProvider {
     }
 
     /**
-     * Create a list of Verification contexts starting with the end products.
+     * Create a lazy stream of Verification contexts starting with the end products.
+     * 
+     * The candidate link sets are generated depth first, segment by segment in
+     * topological order, so only the links of the current branch are kept in memory
+     * and the consumer can stop as soon as a valid context is found.
+     * 
+     * The candidates are built from the link headers, a candidate is loaded with its
+     * artifacts only when the iteration reaches it.
      * 
      * @param layoutMetaBlock
      * @param productsToVerify List of expected product artifacts
-     * @return List of VerificationContexts
+     * @param includeArchived also search the archived links
+     * @return Stream of VerificationContexts
      */
-    public List<VerificationContext> createPossibleVerificationContexts(LayoutMetaBlock layoutMetaBlock, List<Artifact> productsToVerify) {
+    public Stream<VerificationContext> createPossibleVerificationContexts(LayoutMetaBlock layoutMetaBlock, List<Artifact> productsToVerify, boolean includeArchived) {
         
         // create context
         VerificationContextsProviderContext context = VerificationContextsProviderContext.builder()
                 .supplyChainId(layoutMetaBlock.getSupplyChainId())
                 .layout(layoutMetaBlock.getLayout())
-                .productsToVerify(new HashSet<>(productsToVerify))
+                .productsToVerify(toSet(productsToVerify))
+                .includeArchived(includeArchived)
                 .rulesVerificationMap(rulesVerificationMap)
                 .build();
+        // the artifacts of a compact list are created on iteration, interning them would only fill the dictionary
+        if (!(productsToVerify instanceof CompactArtifactList)) {
+            context.getUriDictionary().internArtifacts(context.getProductsToVerify());
+        }
+        Map<String, Map<MatchRule, Set<Artifact>>> firstStepMap;
         try {
+            context.setCompiledLayout(compiledLayoutCache.getCompiledLayout(layoutMetaBlock));
             context.init();
-            processMatchRules(context);
+            firstStepMap = context.getFirstMatchRulesAndArtifacts();
         } catch(ArgosError exc) {
             log.error(exc.getMessage());
-            return List.of();
+            return Stream.empty();
+        }
+        
+        // check if all productsToVerify are consumed
+        if (!context.getProductsToVerify().isEmpty()) {
+            log.info("Not all products to verify are consumed {} left.", context.getProductsToVerify().size());
+            return Stream.empty();
         }
 
-        log.info("processMatchRules resulted in: {} possible verificationContexts", context.getLinkMetaBlockSets().size());
+        List<LayoutSegment> segments = new ArrayList<>(context.getTopologicalSortedSegments());
+        if (segments.isEmpty()) {
+            return Stream.empty();
+        }
         
-        return context
-                .getLinkMetaBlockSets()
-                .stream()
+        Iterator<List<LinkMetaBlock>> linkMetaBlockSets = new LinkMetaBlockSetIterator(context, segments,
+                processSegment(context, segments.get(0), firstStepMap));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(linkMetaBlockSets, Spliterator.ORDERED), false)
                 .map(linkSet -> VerificationContext
                         .builder()
                         .layoutMetaBlock(layoutMetaBlock)
-                        .linkMetaBlocks(new ArrayList<>(linkSet)).build())
-                .collect(Collectors.toList());
+                        .compiledLayout(context.getCompiledLayout())
+                        .linkMetaBlocks(linkSet).build());
     }
-    
+
+    /*
+     * streamed products stay compact while they are consumed by the expected end products
+     */
+    private static Set<Artifact> toSet(List<Artifact> productsToVerify) {
+        if (productsToVerify instanceof CompactArtifactList) {
+            return ((CompactArtifactList) productsToVerify).asSet();
+        }
+        return new HashSet<>(productsToVerify);
+    }
+
+    private Iterator<List<LinkMetaBlockHeader>> processSegment(VerificationContextsProviderContext context, LayoutSegment segment, Map<String, Map<MatchRule, Set<Artifact>>> destStepMap) {
+        // get the headers of the links of dest steps in segment and the links of the other steps with the same runIds
+        Map<String, EnumMap<ArtifactType, Set<Artifact>>> stepArtifactTypeArtifacts = new HashMap<>();
+        destStepMap.forEach((stepName, ruleArtifacts) -> stepArtifactTypeArtifacts.put(stepName, getArtifactTypeArtifacts(ruleArtifacts)));
+        Set<LinkMetaBlockHeader> linkMetaBlockHeaders = new HashSet<>(linkMetaBlockRepository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(
+                context.getSupplyChainId(), segment.getName(), stepArtifactTypeArtifacts, context.isIncludeArchived()));
+        log.info("[{}] LinkMetaBlocks found for: supply chain id: [{}] segment: [{}] step names: [{}]", linkMetaBlockHeaders.size(), context.getSupplyChainId(), segment.getName(), stepArtifactTypeArtifacts.keySet());
+
+        return VerificationContextsProviderContext.permutateOnStepsInSegment(segment, linkMetaBlockHeaders).iterator();
+    }
+
+    /*
+     * Loads the complete links of a candidate, links which are already loaded for
+     * an other candidate are reused. Links which can not be found anymore are left out.
+     */
+    private List<LinkMetaBlock> loadLinkMetaBlocks(VerificationContextsProviderContext context, List<LinkMetaBlockHeader> linkMetaBlockHeaders) {
+        Map<String, LinkMetaBlock> linkMetaBlocksBySignature = context.getLinkMetaBlocksBySignature();
+        List<String> signatures = linkMetaBlockHeaders.stream()
+                .map(LinkMetaBlockHeader::getSignature)
+                .filter(signature -> !linkMetaBlocksBySignature.containsKey(signature))
+                .collect(toList());
+        if (!signatures.isEmpty()) {
+            List<LinkMetaBlock> linkMetaBlocks = linkMetaBlockRepository.findBySupplyChainAndSignatures(
+                    context.getSupplyChainId(), signatures, context.isIncludeArchived());
+            context.getUriDictionary().internLinkMetaBlocks(linkMetaBlocks);
+            linkMetaBlocks.forEach(linkMetaBlock -> linkMetaBlocksBySignature.put(linkMetaBlock.getSignature().getSignature(), linkMetaBlock));
+        }
+        return linkMetaBlockHeaders.stream()
+                .map(linkMetaBlockHeader -> linkMetaBlocksBySignature.get(linkMetaBlockHeader.getSignature()))
+                .filter(Objects::nonNull)
+                .collect(toList());
+    }
+
+    private EnumMap<ArtifactType, Set<Artifact>> getArtifactTypeArtifacts(Map<MatchRule, Set<Artifact>> ruleArtifacts) {
+        EnumMap<ArtifactType, Set<Artifact>> artifactTypeArtifacts = new EnumMap<>(ArtifactType.class);
+        ruleArtifacts.forEach((rule, artifacts) -> artifactTypeArtifacts
+                .computeIfAbsent(rule.getDestinationType(), artifactType -> new HashSet<>())
+                .addAll(artifacts));
+        return artifactTypeArtifacts;
+    }
+
     /*
      * Resolve all segments by processing all Match Rules pointing to that destination segments.
      * 
@@ -102,107 +190,69 @@ public class VerificationContextsProvider {
      * The linkMetaBlocks of the first segment are discovered with the MatchRule's
      * in the expected end products of the Layout.
      *  
-     * For the second phase the matchrules pointing to a segment are used to discover 
-     * the linkMetaBlock for every next segment in the ordered list.
+     * For every next segment in the ordered list the matchrules in the links of the 
+     * current branch pointing to that segment are used to discover its linkMetaBlocks.
      * 
-     * @param context Context to store the input and hold the result.
+     * The branches are walked depth first so only the candidates of the current branch
+     * are kept, a segment without candidates ends its branch.
      */
-    private void processMatchRules(VerificationContextsProviderContext context) {
-        LayoutSegment segment = null;       
-        // get next destination segment to process
-        Optional<LayoutSegment> optionalSegment = context.getNextSegment();
-        if (optionalSegment.isPresent()) {
-            segment = optionalSegment.get();
-            // first segment based on products to verify 
-            // and the first item in the ordered list
-            if (context.getResolvedSegments().isEmpty()) {
-                // initialization
-                Map<String, Map<MatchRule, Set<Artifact>>> stepMap = context.getFirstMatchRulesAndArtifacts();
-                // check if all productsToVerify are consumed
-                if (context.getProductsToVerify().isEmpty()) {
-                    processSegment(context, segment, stepMap);
-                } else {
-                    log.info("Not all products to verify are consumed {} left.", context.getProductsToVerify().size());
-                }
-            } else {
-                for (Set<LinkMetaBlock> linkMetaBlockSet: context.getLinkMetaBlockSets()) {
-                    Map<String, Map<MatchRule, Set<Artifact>>> destStepMap = context.getMatchRulesAndArtifacts(segment, linkMetaBlockSet);
-                    processSegment(context, segment, destStepMap);
-                }
-            }
-            // check if all productsToVerify are consumed
-            if (context.getProductsToVerify().isEmpty()) {
-                context.getResolvedSegments().add(segment);
-                processMatchRules(context);
-            } else {
-                log.info("Not all products to verify are consumed {} left.", context.getProductsToVerify().size());
-            }
-        }
-    }
-    
-    private void processSegment(VerificationContextsProviderContext context, LayoutSegment segment, Map<String, Map<MatchRule, Set<Artifact>>> destStepMap) {
-        Set<String> resolvedSteps = new HashSet<>();
-        // get links of dest steps in segment
-        Set<LinkMetaBlock> linkMetaBlocks = new HashSet<>(new HashSet<>());
-        destStepMap.keySet().forEach(stepName -> {
-            Set<LinkMetaBlock> foundBlocks = queryByArtifacts(context.getSupplyChainId(), segment.getName(), stepName, destStepMap);
-            log.info("[{}] LinkMetaBlocks found for: supply chain id: [{}] segment: [{}] step name: [{}]", foundBlocks.size(), context.getSupplyChainId(), segment.getName(), stepName);
-            linkMetaBlocks.addAll(queryByArtifacts(context.getSupplyChainId(), segment.getName(), stepName, destStepMap));
-            resolvedSteps.add(stepName);
-        });
-        
-        linkMetaBlocks.addAll(findMetaBlocksWithRunIds(linkMetaBlocks, context, segment, resolvedSteps));
-        if (context.getLinkMetaBlockSets().isEmpty()) {
-            context.getLinkMetaBlockSets().add(new HashSet<>());
+    private class LinkMetaBlockSetIterator implements Iterator<List<LinkMetaBlock>> {
+        private final VerificationContextsProviderContext context;
+        private final List<LayoutSegment> segments;
+        private final Deque<Iterator<List<LinkMetaBlockHeader>>> candidates = new ArrayDeque<>();
+        private final Deque<List<LinkMetaBlock>> branches = new ArrayDeque<>();
+        private List<LinkMetaBlock> nextLinkMetaBlockSet;
+
+        LinkMetaBlockSetIterator(VerificationContextsProviderContext context, List<LayoutSegment> segments, Iterator<List<LinkMetaBlockHeader>> firstSegmentCandidates) {
+            this.context = context;
+            this.segments = segments;
+            candidates.push(firstSegmentCandidates);
+            branches.push(List.of());
         }
-        
-        context.setLinkMetaBlockSets(VerificationContextsProviderContext.permutateAndAddLinkMetaBlocks(linkMetaBlocks, context.getLinkMetaBlockSets()));
-    }
-    
-    private Set<LinkMetaBlock> findMetaBlocksWithRunIds(Set<LinkMetaBlock> linkMetaBlocks, VerificationContextsProviderContext context, LayoutSegment segment, Set<String> resolvedSteps) {
-        Set<LinkMetaBlock> foundRunIdBlocks = new HashSet<>();
-        Set<String> runIds = findRunIds(linkMetaBlocks);
-        
-        log.info("Found runIds: {}", runIds);
-        
-        runIds.forEach(runId -> {
-               Set<LinkMetaBlock> foundBlocks = queryByRunId(context.getSupplyChainId(), runId,
-                       segment.getName(),
-                       resolvedSteps);
-               log.info("[{}] LinkMetaBlocks found for: supply chain id: [{}] segment: [{}] runId: [{}] and already resolved steps", foundBlocks.size(), context.getSupplyChainId(), segment.getName(), runId);
-               foundRunIdBlocks.addAll(foundBlocks);
-               
+
+        @Override
+        public boolean hasNext() {
+            if (nextLinkMetaBlockSet == null) {
+                nextLinkMetaBlockSet = findNext();
             }
-        );
-        return foundRunIdBlocks;
-    }
-    
-    /*
-     *     query(segment, step)
-        return query in database links with segment and step and all match rules with rule.rule.type and step.rule.artifacts
-     * 
-     */    
-    private Set<LinkMetaBlock> queryByArtifacts(String supplyChainId, String destinationSegmentName,
-            String destStepName, Map<String, Map<MatchRule, Set<Artifact>>> destStepMap) {
-        EnumMap<ArtifactType, Set<Artifact>> artifactTypeHashes = new EnumMap<>(ArtifactType.class);
-        destStepMap.get(destStepName).keySet().forEach(rule -> {
-            Set<Artifact> artifacts = destStepMap.get(destStepName).get(rule);
-            artifactTypeHashes.putIfAbsent(rule.getDestinationType(), new HashSet<>());
-            artifactTypeHashes.get(rule.getDestinationType()).addAll(artifacts);
-        });
-        return new HashSet<>(
-                linkMetaBlockRepository.findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(
-                        supplyChainId, destinationSegmentName, destStepName, artifactTypeHashes));
-    }
+            return nextLinkMetaBlockSet != null;
+        }
 
-    private Set<String> findRunIds(Set<LinkMetaBlock> linkSets) {
-        return linkSets
-                .stream()
-                .map(linkSet -> linkSet.getLink().getRunId())
-                .collect(Collectors.toSet());
-    }
+        @Override
+        public List<LinkMetaBlock> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<LinkMetaBlock> linkMetaBlockSet = nextLinkMetaBlockSet;
+            nextLinkMetaBlockSet = null;
+            return linkMetaBlockSet;
+        }
 
-    private Set<LinkMetaBlock> queryByRunId(String supplyChainId, String runId, String destinationSegmentName, Set<String> resolvedSteps) {
-        return new HashSet<>(linkMetaBlockRepository.findByRunId(supplyChainId, destinationSegmentName, runId, resolvedSteps));
+        private List<LinkMetaBlock> findNext() {
+            while (!candidates.isEmpty()) {
+                Iterator<List<LinkMetaBlockHeader>> segmentCandidates = candidates.peek();
+                if (!segmentCandidates.hasNext()) {
+                    candidates.pop();
+                    branches.pop();
+                    continue;
+                }
+                List<LinkMetaBlockHeader> candidate = segmentCandidates.next();
+                List<LinkMetaBlock> candidateLinkMetaBlocks = loadLinkMetaBlocks(context, candidate);
+                if (candidateLinkMetaBlocks.size() != candidate.size()) {
+                    log.info("[{}] links of a candidate are not found anymore in supply chain id: [{}]", candidate.size() - candidateLinkMetaBlocks.size(), context.getSupplyChainId());
+                    continue;
+                }
+                List<LinkMetaBlock> linkMetaBlocks = VerificationContextsProviderContext.combine(branches.peek(), candidateLinkMetaBlocks);
+                int segmentIndex = candidates.size();
+                if (segmentIndex == segments.size()) {
+                    return linkMetaBlocks;
+                }
+                LayoutSegment segment = segments.get(segmentIndex);
+                Map<String, Map<MatchRule, Set<Artifact>>> destStepMap = context.getMatchRulesAndArtifacts(segment, linkMetaBlocks);
+                candidates.push(processSegment(context, segment, destStepMap));
+                branches.push(linkMetaBlocks);
+            }
+            return null;
+        }
     }
 }
@@ -18,17 +18,24 @@ package com.rabobank.argos.service.domain.verification;
 import static java.util.stream.Collectors.groupingBy;
 
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.rabobank.argos.domain.ArgosError;
 import com.rabobank.argos.domain.layout.ArtifactType;
@@ -41,6 +48,7 @@ import com.rabobank.argos.domain.layout.rule.RuleType;
 import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.Link;
 import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockHeader;
 import com.rabobank.argos.service.domain.verification.rules.RuleVerification;
 import com.rabobank.argos.service.domain.verification.rules.RuleVerificationContext;
 
@@ -60,39 +68,37 @@ public class VerificationContextsProviderContext {
     
     private Layout layout;
     
+    private CompiledLayout compiledLayout;
+    
     private Set<Artifact> productsToVerify;
 
-    private Set<LayoutSegment> resolvedSegments;
-    private Set<Set<LinkMetaBlock>> linkMetaBlockSets;
+    private boolean includeArchived;
     
     private Queue<LayoutSegment> topologicalSortedSegments;
     
     private Map<LayoutSegment, Set<LayoutSegment>> segmentGraph;
     
-    
+    @Builder.Default
+    private UriDictionary uriDictionary = new UriDictionary();
+
     /*
-     * 
+     * the links which are loaded for the visited candidates, by signature
      */
-    public void init() {
-        linkMetaBlockSets = new HashSet<>();
-        resolvedSegments = new HashSet<>();
-        if (layout != null) {
-            segmentGraph = createDirectedSegmentGraph(layout);
-            topologicalSortedSegments = topologicalSort(createDirectedSegmentGraph(layout));
-            
-        }
-    }
+    @Builder.Default
+    private Map<String, LinkMetaBlock> linkMetaBlocksBySignature = new HashMap<>();
+    
     
     /*
-     * gets next LayoutSegment to process
-     * 
-     * @return first element in the queue
+     * the layout is compiled when no compiled layout is given
      */
-    public Optional<LayoutSegment> getNextSegment() {
-        if (topologicalSortedSegments.isEmpty()) {
-            return Optional.empty();
-        } else {
-            return Optional.of(topologicalSortedSegments.remove());
+    public void init() {
+        if (compiledLayout == null && layout != null) {
+            compiledLayout = CompiledLayout.of(layout);
+        }
+        if (compiledLayout != null) {
+            layout = compiledLayout.getLayout();
+            segmentGraph = compiledLayout.getSegmentGraph();
+            topologicalSortedSegments = new LinkedList<>(compiledLayout.getTopologicalSortedSegments());
         }
     }
     
@@ -166,7 +172,8 @@ public class VerificationContextsProviderContext {
      */
     public Map<String, Map<MatchRule, Set<Artifact>>> getFirstMatchRulesAndArtifacts() {
         Map<String, Map<MatchRule, Set<Artifact>>> destStepMap = new HashMap<>();
-        layout.getExpectedEndProducts().forEach(rule -> {
+        List<MatchRule> expectedEndProducts = compiledLayout != null ? compiledLayout.getExpectedEndProducts() : layout.getExpectedEndProducts();
+        expectedEndProducts.forEach(rule -> {
             destStepMap.putIfAbsent(rule.getDestinationStepName(), new HashMap<>());
             destStepMap.get(rule.getDestinationStepName()).putIfAbsent(rule, new HashSet<>());
             destStepMap.get(rule.getDestinationStepName())
@@ -196,7 +203,7 @@ public class VerificationContextsProviderContext {
         return destArtifacts;        
     }
     
-    public Map<String, Map<MatchRule, Set<Artifact>>> getMatchRulesAndArtifacts(LayoutSegment destinationSegment, Set<LinkMetaBlock> linkMetaBlockSet) {
+    public Map<String, Map<MatchRule, Set<Artifact>>> getMatchRulesAndArtifacts(LayoutSegment destinationSegment, Collection<LinkMetaBlock> linkMetaBlockSet) {
         Map<String, Map<String, Set<Link>>> blockMap = linkMetaBlockSet.stream().map(LinkMetaBlock::getLink)
                 .collect(groupingBy(Link::getLayoutSegmentName,
                         groupingBy(Link::getStepName, toSet())));
@@ -231,15 +238,17 @@ public class VerificationContextsProviderContext {
         ArtifactsVerificationContext artifactsContext = ArtifactsVerificationContext.builder()
                 .segmentName(link.getLayoutSegmentName())
                 .link(link)
-                .notConsumedArtifacts(new HashSet<>(srcArtifacts)).build();
+                .artifacts(ArtifactIndex.of(srcArtifacts)).build();
         rules.forEach(rule -> {
             // match rule which points to destination segment
             if (RuleType.MATCH.equals(rule.getRuleType()) && destSegment.getName().equals(((MatchRule) rule).getDestinationSegmentName())) {
                 MatchRule matchRule = (MatchRule) rule;
+                Set<Artifact> matchedArtifacts = artifactsContext.getFilteredArtifacts(matchRule.getPattern(), matchRule.getSourcePathPrefix());
                 destStepMap.putIfAbsent(matchRule.getDestinationStepName(), new HashMap<>());
                 destStepMap.get(matchRule.getDestinationStepName())
                     .put(matchRule, 
-                            getDestinationArtifacts(artifactsContext.getNotConsumedArtifacts(), matchRule));
+                            getDestinationArtifacts(new HashSet<>(matchedArtifacts), matchRule));
+                artifactsContext.consume(matchedArtifacts);
                     // consume artifacts
                 getRuleVerification(matchRule.getRuleType())
                         .verify(RuleVerificationContext.builder()
@@ -258,36 +267,91 @@ public class VerificationContextsProviderContext {
         return rulesVerificationMap.get(type);
     }
     
-    public static Set<Set<LinkMetaBlock>> permutateAndAddLinkMetaBlocks(Set<LinkMetaBlock> linkMetaBlocks, Set<Set<LinkMetaBlock>> linkMetaBlockSets) {
-        Set<Set<LinkMetaBlock>> segmentLinkSets = permutateOnStepsInSegment(linkMetaBlocks);
-        Set<Set<LinkMetaBlock>> tempSets = new HashSet<>();
-        for (Set<LinkMetaBlock> linkSet: linkMetaBlockSets) {
-            for (Set<LinkMetaBlock> segmentSet: segmentLinkSets) {
-                Set<LinkMetaBlock> newSet = new HashSet<>(linkSet);
-                newSet.addAll(segmentSet);
-                tempSets.add(newSet);
+    /*
+     * Lazily generates every combination of one link per step for a segment,
+     * links with an equal link digest signed by several functionaries are
+     * kept together. Links stored without a link digest are not grouped.
+     * 
+     * A segment in which a step has no link at all can never result in a valid
+     * verification context, in that case no combinations are generated so the
+     * whole branch is pruned.
+     * 
+     * @param segment the segment the links belong to
+     * @param linkMetaBlockHeaders the headers of the discovered links of the segment
+     * @return Stream of link header combinations for the segment
+     */
+    public static Stream<List<LinkMetaBlockHeader>> permutateOnStepsInSegment(LayoutSegment segment, Set<LinkMetaBlockHeader> linkMetaBlockHeaders) {
+        Map<String, Map<Object, Set<LinkMetaBlockHeader>>> stepSets = linkMetaBlockHeaders.stream()
+                .collect(groupingBy(LinkMetaBlockHeader::getStepName,
+                        groupingBy(VerificationContextsProviderContext::linkGroup, toSet())));
+        for (Step step : segment.getSteps()) {
+            if (!stepSets.containsKey(step.getName())) {
+                log.info("no links found for step [{}] in segment [{}]", step.getName(), segment.getName());
+                return Stream.empty();
             }
         }
-        return tempSets;
+        List<List<Set<LinkMetaBlockHeader>>> candidatesPerStep = stepSets.values().stream()
+                .map(linkSets -> (List<Set<LinkMetaBlockHeader>>) new ArrayList<>(linkSets.values()))
+                .collect(toList());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new StepPermutations(candidatesPerStep), Spliterator.ORDERED), false);
     }
-    
-    public static Set<Set<LinkMetaBlock>> permutateOnStepsInSegment(Set<LinkMetaBlock> linkMetaBlocks) {
-        Set<Set<LinkMetaBlock>> tempSets = new HashSet<>();
-        tempSets.add(new HashSet<>());
-        Map<String, Map<Link, Set<LinkMetaBlock>>> stepSets = linkMetaBlocks.stream()
-                .collect(groupingBy(linkMetaBlock -> linkMetaBlock.getLink().getStepName(),
-                        groupingBy(LinkMetaBlock::getLink, toSet())));
-        for (Entry<String, Map<Link, Set<LinkMetaBlock>>> stepEntry : stepSets.entrySet()) {
-            Set<Set<LinkMetaBlock>> newTempSets = new HashSet<>();
-            for (Entry<Link, Set<LinkMetaBlock>> linkEntry : stepEntry.getValue().entrySet()) {
-                for (Set<LinkMetaBlock> set : tempSets) {
-                    Set<LinkMetaBlock> newSet = new HashSet<>(set);
-                    newSet.addAll(linkEntry.getValue());
-                    newTempSets.add(newSet);
+
+    private static Object linkGroup(LinkMetaBlockHeader linkMetaBlockHeader) {
+        if (linkMetaBlockHeader.getLinkDigest() != null) {
+            return linkMetaBlockHeader.getLinkDigest();
+        }
+        return linkMetaBlockHeader.getSignature() != null ? linkMetaBlockHeader.getSignature() : linkMetaBlockHeader;
+    }
+
+    public static List<LinkMetaBlock> combine(List<LinkMetaBlock> linkMetaBlocks, Collection<LinkMetaBlock> toAdd) {
+        List<LinkMetaBlock> combined = new ArrayList<>(linkMetaBlocks.size() + toAdd.size());
+        combined.addAll(linkMetaBlocks);
+        combined.addAll(toAdd);
+        return combined;
+    }
+
+    /*
+     * Iterates the cartesian product of the link candidates per step like an odometer,
+     * only the current combination is materialized.
+     */
+    private static class StepPermutations implements Iterator<List<LinkMetaBlockHeader>> {
+        private final List<List<Set<LinkMetaBlockHeader>>> candidatesPerStep;
+        private final int[] indices;
+        private boolean hasNext = true;
+
+        StepPermutations(List<List<Set<LinkMetaBlockHeader>>> candidatesPerStep) {
+            this.candidatesPerStep = candidatesPerStep;
+            this.indices = new int[candidatesPerStep.size()];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public List<LinkMetaBlockHeader> next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            List<LinkMetaBlockHeader> permutation = new ArrayList<>();
+            for (int step = 0; step < indices.length; step++) {
+                permutation.addAll(candidatesPerStep.get(step).get(indices[step]));
+            }
+            advance();
+            return permutation;
+        }
+
+        private void advance() {
+            for (int step = indices.length - 1; step >= 0; step--) {
+                indices[step]++;
+                if (indices[step] < candidatesPerStep.get(step).size()) {
+                    return;
                 }
+                indices[step] = 0;
             }
-            tempSets = newTempSets;
+            hasNext = false;
         }
-        return tempSets;
     }
-}
\ No newline at end of file
+}
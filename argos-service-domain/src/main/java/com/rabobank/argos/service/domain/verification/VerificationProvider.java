@@ -17,17 +17,46 @@ package com.rabobank.argos.service.domain.verification;
 
 import com.rabobank.argos.domain.layout.LayoutMetaBlock;
 import com.rabobank.argos.domain.link.Artifact;
-import lombok.RequiredArgsConstructor;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
 
+/**
+ * Verifies a run against the possible verification contexts of a layout.
+ * 
+ * With a parallelism of 1 the contexts are verified one after the other on the calling
+ * thread. With a higher parallelism at most that number of contexts per request are
+ * verified concurrently while the calling thread generates the next contexts, the
+ * outstanding verifications are cancelled as soon as a context is valid. The shared pool
+ * has parallelism threads for each of the concurrent runs, a run waits for its turn when
+ * that many runs are verified already so its contexts are never queued behind those of
+ * other runs.
+ * 
+ * The timeout is checked before each verification of a context, a run for which no valid
+ * context is found before the timeout is invalid and marked as timed out.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class VerificationProvider {
 
@@ -35,34 +64,166 @@ public class VerificationProvider {
 
     private final VerificationContextsProvider verificationContextsProvider;
 
+    private final int parallelism;
+
+    private final Duration timeout;
+
+    private final int concurrentRuns;
+
+    private final ExecutorService executor;
+
+    private final Semaphore runPermits;
+
+    public VerificationProvider(List<Verification> verifications, VerificationContextsProvider verificationContextsProvider,
+                                @Value("${verification.parallelism:1}") int parallelism,
+                                @Value("${verification.concurrent-runs:4}") int concurrentRuns,
+                                @Value("#{T(java.time.Duration).parse('${verification.timeout:PT1M}')}") Duration timeout) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("verification.parallelism should be at least 1 but is " + parallelism);
+        }
+        if (concurrentRuns < 1) {
+            throw new IllegalArgumentException("verification.concurrent-runs should be at least 1 but is " + concurrentRuns);
+        }
+        this.verifications = verifications;
+        this.verificationContextsProvider = verificationContextsProvider;
+        this.parallelism = parallelism;
+        this.concurrentRuns = concurrentRuns;
+        this.timeout = timeout;
+        this.executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism * concurrentRuns, new VerificationThreadFactory()) : null;
+        this.runPermits = new Semaphore(concurrentRuns, true);
+    }
+
     @PostConstruct
     public void init() {
         verifications.sort(Comparator.comparing(Verification::getPriority));
         log.info("active verifications:");
         verifications.forEach(verification -> log.info("{} : {}", verification.getPriority(), verification.getClass().getSimpleName()));
+        log.info("verification parallelism: {} concurrent runs: {} timeout: {}", parallelism, concurrentRuns, timeout);
     }
 
-    public VerificationRunResult verifyRun(LayoutMetaBlock layoutMetaBlock, List<Artifact> productsToVerify) {
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
 
-        List<VerificationContext> possibleVerificationContexts = verificationContextsProvider
-                .createPossibleVerificationContexts(layoutMetaBlock, productsToVerify);
+    public VerificationRunResult verifyRun(LayoutMetaBlock layoutMetaBlock, List<Artifact> productsToVerify, boolean includeArchived) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Stream<VerificationContext> contexts = verificationContextsProvider
+                .createPossibleVerificationContexts(layoutMetaBlock, productsToVerify, includeArchived);
+        if (executor == null) {
+            return verifySequential(contexts.iterator(), deadline);
+        } else {
+            return verifyParallel(contexts.iterator(), deadline);
+        }
+    }
 
-        List<VerificationRunResult> verificationRunResults = possibleVerificationContexts
-                .stream()
-                .map(context -> verifications
-                        .stream()
-                        .map(verification -> verification.verify(context))
-                        .filter(result -> !result.isRunIsValid())
-                        .findFirst().orElse(VerificationRunResult.okay())
-                ).collect(Collectors.toList());
-
-        return verificationRunResults
-                .stream()
-                .map(verificationRunResult -> {                    
-                    log.info("context validity: {}", verificationRunResult.isRunIsValid());
+    private VerificationRunResult verifySequential(Iterator<VerificationContext> contexts, long deadline) {
+        while (contexts.hasNext()) {
+            if (isExpired(deadline)) {
+                return timedOut();
+            }
+            VerificationRunResult verificationRunResult = verifyContext(contexts.next(), () -> isExpired(deadline));
+            if (verificationRunResult.isRunIsValid() || verificationRunResult.isTimedOut()) {
+                return verificationRunResult;
+            }
+        }
+        return VerificationRunResult.valid(false);
+    }
+
+    private VerificationRunResult verifyParallel(Iterator<VerificationContext> contexts, long deadline) {
+        try {
+            if (!runPermits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return timedOut();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return VerificationRunResult.valid(false);
+        }
+        try {
+            return verifyParallelWithPermit(contexts, deadline);
+        } finally {
+            runPermits.release();
+        }
+    }
+
+    private VerificationRunResult verifyParallelWithPermit(Iterator<VerificationContext> contexts, long deadline) {
+        CompletionService<VerificationRunResult> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<VerificationRunResult>> running = new ArrayList<>(parallelism);
+        try {
+            while (contexts.hasNext() || !running.isEmpty()) {
+                while (running.size() < parallelism && contexts.hasNext() && !isExpired(deadline)) {
+                    VerificationContext context = contexts.next();
+                    running.add(completionService.submit(() -> verifyContext(context, () -> isExpired(deadline))));
+                }
+                Future<VerificationRunResult> done = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    return timedOut();
+                }
+                running.remove(done);
+                VerificationRunResult verificationRunResult = done.get();
+                if (verificationRunResult.isRunIsValid() || verificationRunResult.isTimedOut()) {
                     return verificationRunResult;
-                })
-                .filter(VerificationRunResult::isRunIsValid)
-                .findFirst().orElse(VerificationRunResult.valid(false));
+                }
+            }
+            return VerificationRunResult.valid(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return VerificationRunResult.valid(false);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new VerificationError(e.getCause().getMessage());
+        } finally {
+            running.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static boolean isExpired(long deadline) {
+        return System.nanoTime() - deadline >= 0;
+    }
+
+    private VerificationRunResult timedOut() {
+        log.warn("verification timed out after {}", timeout);
+        return VerificationRunResult.timedOut();
+    }
+
+    /**
+     * Verifies one set of link meta blocks, the products to verify are not checked.
+     */
+    public VerificationRunResult verifyLinkMetaBlocks(LayoutMetaBlock layoutMetaBlock, CompiledLayout compiledLayout, List<LinkMetaBlock> linkMetaBlocks) {
+        return verifyContext(VerificationContext.builder()
+                .layoutMetaBlock(layoutMetaBlock)
+                .compiledLayout(compiledLayout)
+                .linkMetaBlocks(linkMetaBlocks)
+                .build(), () -> false);
+    }
+
+    /*
+     * a long running context stops at the next verification when the run is expired
+     */
+    private VerificationRunResult verifyContext(VerificationContext context, BooleanSupplier expired) {
+        VerificationRunResult verificationRunResult = verifications
+                .stream()
+                .map(verification -> expired.getAsBoolean() ? timedOut() : verification.verify(context))
+                .filter(result -> !result.isRunIsValid())
+                .findFirst()
+                .orElseGet(() -> VerificationRunResult.builder().runIsValid(true).linkMetaBlocks(context.getLinkMetaBlocks()).build());
+        log.info("context validity: {}", verificationRunResult.isRunIsValid());
+        return verificationRunResult;
+    }
+
+    private static class VerificationThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "verification-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rabobank.argos.domain.ArgosError;
+import com.rabobank.argos.domain.layout.LayoutMetaBlock;
+import com.rabobank.argos.domain.link.Artifact;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Caches verification results by supply chain, layout version and expected products.
+ * 
+ * The results of a supply chain are invalidated when a link is added to it or when
+ * its layout is replaced.
+ * 
+ * A result is only cached when the generation of its supply chain did not change during
+ * the verification. The generations are evicted like the results, a replaced generation
+ * is a new instance so an eviction during a verification also prevents caching. The
+ * generation is checked again after the put, the result is removed when an invalidate
+ * ran in between.
+ * 
+ * Only the validity of a result is cached, not the link meta blocks of its context.
+ */
+@Component
+@Slf4j
+public class VerificationResultCache {
+
+    private final Cache<CacheKey, VerificationRunResult> results;
+
+    private final Cache<String, AtomicLong> generations;
+
+    public VerificationResultCache(@Value("${verification.result-cache.maximum-size:10000}") long maximumSize,
+                                   @Value("#{T(java.time.Duration).parse('${verification.result-cache.expire-after-write:PT1H}')}") Duration expireAfterWrite) {
+        results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        generations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterWrite)
+                .build();
+    }
+
+    public VerificationRunResult getOrVerify(LayoutMetaBlock layoutMetaBlock, Collection<Artifact> expectedProducts, Supplier<VerificationRunResult> verifier) {
+        String supplyChainId = layoutMetaBlock.getSupplyChainId();
+        CacheKey key = new CacheKey(supplyChainId, layoutDigest(layoutMetaBlock), productsDigest(expectedProducts));
+        VerificationRunResult cachedResult = results.getIfPresent(key);
+        if (cachedResult != null) {
+            log.debug("verification result cache hit for supply chain: {} hits: {} misses: {}", supplyChainId, getHitCount(), getMissCount());
+            return cachedResult;
+        }
+        log.debug("verification result cache miss for supply chain: {} hits: {} misses: {}", supplyChainId, getHitCount(), getMissCount());
+        AtomicLong generation = getGeneration(supplyChainId);
+        long startGeneration = generation.get();
+        VerificationRunResult verificationRunResult = verifier.get();
+        // a link or layout saved during the verification could have changed the result
+        // and a timed out run could be valid when verified again
+        if (isGeneration(supplyChainId, generation, startGeneration) && !verificationRunResult.isTimedOut()) {
+            results.put(key, VerificationRunResult.valid(verificationRunResult.isRunIsValid()));
+            // an invalidate between the check and the put could have missed the result
+            if (!isGeneration(supplyChainId, generation, startGeneration)) {
+                results.invalidate(key);
+            }
+        }
+        return verificationRunResult;
+    }
+
+    private boolean isGeneration(String supplyChainId, AtomicLong generation, long expectedGeneration) {
+        return generation == getGeneration(supplyChainId) && expectedGeneration == generation.get();
+    }
+
+    public void invalidate(String supplyChainId) {
+        getGeneration(supplyChainId).incrementAndGet();
+        results.asMap().keySet().removeIf(key -> key.getSupplyChainId().equals(supplyChainId));
+    }
+
+    public long getHitCount() {
+        return results.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return results.stats().missCount();
+    }
+
+    private AtomicLong getGeneration(String supplyChainId) {
+        return generations.get(supplyChainId, id -> new AtomicLong());
+    }
+
+    /*
+     * the layout signatures are made over the canonical layout so they identify its version
+     */
+    static String layoutDigest(LayoutMetaBlock layoutMetaBlock) {
+        return digest(layoutMetaBlock.getSignatures().stream()
+                .map(signature -> signature.getKeyId() + ":" + signature.getSignature())
+                .sorted()
+                .collect(toList()));
+    }
+
+    static String productsDigest(Collection<Artifact> expectedProducts) {
+        if (expectedProducts instanceof CompactArtifactList) {
+            MessageDigest messageDigest = sha256();
+            ((CompactArtifactList) expectedProducts).updateDigest(messageDigest);
+            return Base64.getEncoder().encodeToString(messageDigest.digest());
+        }
+        return digest(expectedProducts.stream()
+                .map(artifact -> artifact.getUri() + ":" + artifact.getHash())
+                .sorted()
+                .collect(toList()));
+    }
+
+    private static String digest(Collection<String> values) {
+        MessageDigest messageDigest = sha256();
+        values.forEach(value -> {
+            messageDigest.update(value.getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) '\n');
+        });
+        return Base64.getEncoder().encodeToString(messageDigest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new ArgosError(e.getMessage(), e);
+        }
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class CacheKey {
+        private final String supplyChainId;
+        private final String layoutDigest;
+        private final String productsDigest;
+    }
+}
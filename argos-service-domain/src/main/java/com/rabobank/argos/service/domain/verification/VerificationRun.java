@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The record of one verification run.
+ * 
+ * The link meta blocks of the valid context are identified by their signatures, the last
+ * step link id is the id of the link saved last in the layout steps of the supply chain when
+ * the run started, it is only looked up in reverify mode, and the timings are in milliseconds
+ * by phase.
+ * The products are only recorded as their digest.
+ */
+@Builder
+@Getter
+@Setter
+@ToString
+public class VerificationRun {
+    private String supplyChainId;
+    private String layoutDigest;
+    private String productsDigest;
+    private List<String> linkSignatures;
+    private String lastStepLinkId;
+    private boolean runIsValid;
+    private boolean reverified;
+    private Date createdAt;
+    private Map<String, Long> timings;
+}
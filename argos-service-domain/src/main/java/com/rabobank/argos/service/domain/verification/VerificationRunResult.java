@@ -15,14 +15,30 @@
  */
 package com.rabobank.argos.service.domain.verification;
 
+import com.rabobank.argos.domain.link.LinkMetaBlock;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+
 @Getter
 @Builder
 public class VerificationRunResult {
     private boolean runIsValid;
 
+    /**
+     * the run is invalid because no valid context was found before the verification timeout
+     */
+    private boolean timedOut;
+
+    /**
+     * the link meta blocks of the valid verification context
+     */
+    @Builder.Default
+    private List<LinkMetaBlock> linkMetaBlocks = emptyList();
+
     public static VerificationRunResult valid(boolean runIsValid) {
         return VerificationRunResult.builder().runIsValid(runIsValid).build();
     }
@@ -30,4 +46,8 @@ public class VerificationRunResult {
     public static VerificationRunResult okay() {
         return valid(true);
     }
+
+    public static VerificationRunResult timedOut() {
+        return VerificationRunResult.builder().runIsValid(false).timedOut(true).build();
+    }
 }
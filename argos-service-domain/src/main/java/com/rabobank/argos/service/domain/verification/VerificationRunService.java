@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.ArgosError;
+import com.rabobank.argos.domain.layout.Layout;
+import com.rabobank.argos.domain.layout.LayoutMetaBlock;
+import com.rabobank.argos.domain.layout.LayoutSegment;
+import com.rabobank.argos.domain.layout.Step;
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Verifies runs and records every run.
+ *
+ * In reverify mode the link meta blocks of the last valid run with the same layout and
+ * products are verified again when no links were added to the steps of the layout since
+ * that run, the discovery of the possible verification contexts is then skipped. A link
+ * added since that run is detected by the id of the link saved last in these steps, a
+ * count could stay the same when links are archived and added in between. When that
+ * verification fails the run is verified as usual.
+ *
+ * Only the active links are searched unless the archived links are explicitly included.
+ *
+ * Results that are served from the {@link VerificationResultCache} are not verified again
+ * and are not recorded as a run.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VerificationRunService {
+
+    static final String PHASE_FIND_LAST_LINK = "findLastLink";
+    static final String PHASE_REVERIFY = "reverify";
+    static final String PHASE_VERIFY = "verify";
+    static final String PHASE_TOTAL = "total";
+
+    private final VerificationProvider verificationProvider;
+
+    private final VerificationRunRepository verificationRunRepository;
+
+    private final LinkMetaBlockRepository linkMetaBlockRepository;
+
+    private final CompiledLayoutCache compiledLayoutCache;
+
+    public VerificationRunResult verifyRun(LayoutMetaBlock layoutMetaBlock, List<Artifact> productsToVerify, boolean reverify, boolean includeArchived) {
+        long start = System.nanoTime();
+        Map<String, Long> timings = new LinkedHashMap<>();
+        VerificationRun verificationRun = VerificationRun.builder()
+                .supplyChainId(layoutMetaBlock.getSupplyChainId())
+                .layoutDigest(VerificationResultCache.layoutDigest(layoutMetaBlock))
+                .productsDigest(VerificationResultCache.productsDigest(productsToVerify))
+                .createdAt(new Date())
+                .timings(timings)
+                .build();
+        if (reverify) {
+            verificationRun.setLastStepLinkId(timed(timings, PHASE_FIND_LAST_LINK, () -> linkMetaBlockRepository
+                    .findLastLinkIdBySupplyChainAndSteps(verificationRun.getSupplyChainId(), getStepNamesBySegmentName(layoutMetaBlock.getLayout()))
+                    .orElse(null)));
+        }
+
+        Optional<VerificationRunResult> reverifiedResult = reverify
+                ? timed(timings, PHASE_REVERIFY, () -> reverify(layoutMetaBlock, verificationRun))
+                : Optional.empty();
+        verificationRun.setReverified(reverifiedResult.isPresent());
+        VerificationRunResult verificationRunResult = reverifiedResult
+                .orElseGet(() -> timed(timings, PHASE_VERIFY, () -> verificationProvider.verifyRun(layoutMetaBlock, productsToVerify, includeArchived)));
+
+        verificationRun.setRunIsValid(verificationRunResult.isRunIsValid());
+        verificationRun.setLinkSignatures(verificationRunResult.getLinkMetaBlocks().stream()
+                .map(linkMetaBlock -> linkMetaBlock.getSignature().getSignature())
+                .collect(toList()));
+        timings.put(PHASE_TOTAL, millisSince(start));
+        verificationRunRepository.save(verificationRun);
+        log.info("verification run for supply chain {} valid: {} timed out: {} reverified: {} timings: {}", verificationRun.getSupplyChainId(),
+                verificationRun.isRunIsValid(), verificationRunResult.isTimedOut(), verificationRun.isReverified(), timings);
+        return verificationRunResult;
+    }
+
+    private Optional<VerificationRunResult> reverify(LayoutMetaBlock layoutMetaBlock, VerificationRun verificationRun) {
+        return verificationRunRepository
+                .findLastValidRun(verificationRun.getSupplyChainId(), verificationRun.getLayoutDigest(), verificationRun.getProductsDigest())
+                .filter(previousRun -> verificationRun.getLastStepLinkId() != null
+                        && verificationRun.getLastStepLinkId().equals(previousRun.getLastStepLinkId()))
+                .flatMap(previousRun -> findLinkMetaBlocks(previousRun))
+                .flatMap(linkMetaBlocks -> verifyLinkMetaBlocks(layoutMetaBlock, linkMetaBlocks))
+                .filter(VerificationRunResult::isRunIsValid);
+    }
+
+    private Optional<List<LinkMetaBlock>> findLinkMetaBlocks(VerificationRun previousRun) {
+        List<LinkMetaBlock> linkMetaBlocks = linkMetaBlockRepository
+                .findBySupplyChainAndSignatures(previousRun.getSupplyChainId(), previousRun.getLinkSignatures());
+        if (linkMetaBlocks.isEmpty() || linkMetaBlocks.size() != previousRun.getLinkSignatures().size()) {
+            return Optional.empty();
+        }
+        return Optional.of(linkMetaBlocks);
+    }
+
+    private Optional<VerificationRunResult> verifyLinkMetaBlocks(LayoutMetaBlock layoutMetaBlock, List<LinkMetaBlock> linkMetaBlocks) {
+        try {
+            CompiledLayout compiledLayout = compiledLayoutCache.getCompiledLayout(layoutMetaBlock);
+            return Optional.of(verificationProvider.verifyLinkMetaBlocks(layoutMetaBlock, compiledLayout, linkMetaBlocks));
+        } catch (ArgosError e) {
+            log.error(e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Map<String, Set<String>> getStepNamesBySegmentName(Layout layout) {
+        return layout.getLayoutSegments().stream()
+                .collect(toMap(LayoutSegment::getName, segment -> segment.getSteps().stream().map(Step::getName).collect(toSet())));
+    }
+
+    private static <T> T timed(Map<String, Long> timings, String phase, Supplier<T> supplier) {
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            timings.put(phase, millisSince(start));
+        }
+    }
+
+    private static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
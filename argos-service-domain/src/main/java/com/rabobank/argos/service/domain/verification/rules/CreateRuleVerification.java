@@ -18,13 +18,13 @@ package com.rabobank.argos.service.domain.verification.rules;
 import com.rabobank.argos.domain.layout.rule.Rule;
 import com.rabobank.argos.domain.layout.rule.RuleType;
 import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.service.domain.verification.ArtifactIndex;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.stereotype.Component;
 
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Component
 @Slf4j
@@ -38,11 +38,11 @@ public class CreateRuleVerification implements RuleVerification {
     public boolean verify(RuleVerificationContext<? extends Rule> context) {
         Set<Artifact> filteredArtifacts = context.getFilteredArtifacts();
         
-        Set<String> uris = context.getProducts().stream().map(Artifact::getUri).collect(Collectors.toSet());
+        ArtifactIndex products = context.getProducts();
+        ArtifactIndex materials = context.getMaterials();
         
-        uris.removeAll(context.getMaterials().stream().map(Artifact::getUri).collect(Collectors.toSet()));
-        
-        if (filteredArtifacts.stream().map(Artifact::getUri).allMatch(uris::contains)) {
+        if (filteredArtifacts.stream().map(Artifact::getUri)
+                .allMatch(uri -> products.containsUri(uri) && !materials.containsUri(uri))) {
             context.consume(filteredArtifacts);
             logInfo(log, filteredArtifacts);
             return true;
@@ -18,12 +18,12 @@ package com.rabobank.argos.service.domain.verification.rules;
 import com.rabobank.argos.domain.layout.rule.Rule;
 import com.rabobank.argos.domain.layout.rule.RuleType;
 import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.service.domain.verification.ArtifactIndex;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.stereotype.Component;
 
-import java.util.HashSet;
 import java.util.Set;
 
 @Component
@@ -39,9 +39,9 @@ public class DeleteRuleVerification implements RuleVerification {
         // deleteRule filteredMaterials must not be in filteredProducts
         // example pattern **/*.java not in filteredProducts but exists in filteredMaterials
         Set<Artifact> filteredArtifacts = context.getFilteredArtifacts();
-        Set<Artifact> complement = new HashSet<>(context.getMaterials());
-        complement.removeAll(context.getProducts());
-        if (filteredArtifacts.stream().allMatch(complement::contains)) {
+        ArtifactIndex materials = context.getMaterials();
+        ArtifactIndex products = context.getProducts();
+        if (filteredArtifacts.stream().allMatch(artifact -> materials.contains(artifact) && !products.contains(artifact))) {
             context.consume(filteredArtifacts);
             logInfo(log, filteredArtifacts);
             return true;
@@ -20,18 +20,14 @@ import com.rabobank.argos.domain.layout.rule.Rule;
 import com.rabobank.argos.domain.layout.rule.RuleType;
 import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.Link;
-import com.rabobank.argos.service.domain.verification.ArtifactsVerificationContext;
+import com.rabobank.argos.service.domain.verification.ArtifactIndex;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.Set;
-import java.util.stream.Collectors;
-
-import static com.rabobank.argos.domain.layout.ArtifactType.PRODUCTS;
-
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Component
@@ -51,15 +47,9 @@ public class MatchRuleVerification implements RuleVerification {
         Optional<Link> optionalLink = context.getLinkBySegmentNameAndStepName(destinationSegmentName, rule.getDestinationStepName());
         
         if (optionalLink.isPresent()) {
-            Link link = optionalLink.get();
-            Set<Artifact> filteredDestinationArtifacts = null;
-            if (rule.getDestinationType() == PRODUCTS) {
-                filteredDestinationArtifacts = new HashSet<>(link.getProducts());                
-            } else {
-                filteredDestinationArtifacts = new HashSet<>(link.getMaterials());
-            }
-            filteredDestinationArtifacts = ArtifactsVerificationContext.filterArtifacts(filteredDestinationArtifacts, rule.getPattern(), rule.getDestinationPathPrefix());
-            if (verifyArtifacts(filteredArtifacts, filteredDestinationArtifacts)) {
+            ArtifactIndex destinationArtifacts = context.getLinkArtifacts(optionalLink.get()).get(rule.getDestinationType());
+            BitSet filteredDestinationArtifacts = destinationArtifacts.filter(destinationArtifacts.all(), rule.getPattern(), rule.getDestinationPathPrefix());
+            if (verifyArtifacts(filteredArtifacts, destinationArtifacts, filteredDestinationArtifacts)) {
                 context.consume(filteredArtifacts);
                 logInfo(log, filteredArtifacts);
                 return true;
@@ -73,14 +63,11 @@ public class MatchRuleVerification implements RuleVerification {
         }
     }
 
-    private boolean verifyArtifacts(Set<Artifact> filteredSourceArtifacts, Set<Artifact> filteredDestinationArtifacts) {
+    private boolean verifyArtifacts(Set<Artifact> filteredSourceArtifacts, ArtifactIndex destinationArtifacts, BitSet filteredDestinationArtifacts) {
         return filteredSourceArtifacts
                 .stream()
                 .map(Artifact::getHash)
-                .allMatch(filteredDestinationArtifacts
-                        .stream()
-                        .map(Artifact::getHash)
-                        .collect(Collectors.toSet())::contains);
+                .allMatch(hash -> destinationArtifacts.containsHash(hash, filteredDestinationArtifacts));
     }    
 
 }
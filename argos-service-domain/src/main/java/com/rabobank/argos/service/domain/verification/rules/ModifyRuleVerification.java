@@ -18,17 +18,15 @@ package com.rabobank.argos.service.domain.verification.rules;
 import com.rabobank.argos.domain.layout.rule.Rule;
 import com.rabobank.argos.domain.layout.rule.RuleType;
 import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.service.domain.verification.ArtifactIndex;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import static java.util.stream.Collectors.groupingBy;
 
 @Component
 @Slf4j
@@ -42,15 +40,18 @@ public class ModifyRuleVerification implements RuleVerification {
     public boolean verify(RuleVerificationContext<? extends Rule> context) {
         Set<Artifact> filteredArtifacts = context.getFilteredArtifacts();
         
-        Set<String> uris = context.getFilteredArtifacts().stream().map(Artifact::getUri).collect(Collectors.toSet());
-
-        Map<String, Set<Artifact>> uriMap = Stream.concat(
-                context.getMaterials().stream().filter(artifact -> uris.contains(artifact.getUri())), 
-                context.getProducts().stream().filter(artifact -> uris.contains(artifact.getUri())))
-                .collect(groupingBy(Artifact::getUri, Collectors.toSet()));
+        Set<String> uris = filteredArtifacts.stream().map(Artifact::getUri).collect(Collectors.toSet());
+        
+        ArtifactIndex materials = context.getMaterials();
+        ArtifactIndex products = context.getProducts();
 
-        return uriMap.values().stream()
-                .filter(artifacts -> artifacts.size() != 2)
+        return uris.stream()
+                .map(uri -> {
+                    Set<Artifact> artifacts = new HashSet<>(materials.getByUri(uri));
+                    artifacts.addAll(products.getByUri(uri));
+                    return artifacts;
+                })
+                .filter(artifacts -> !artifacts.isEmpty() && artifacts.size() != 2)
                 .map(artifacts -> {
                     logErrors(log, filteredArtifacts);
                     return false;
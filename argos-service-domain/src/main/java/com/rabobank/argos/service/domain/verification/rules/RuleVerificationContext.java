@@ -21,7 +21,9 @@ import java.util.Set;
 import com.rabobank.argos.domain.layout.rule.Rule;
 import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.service.domain.verification.ArtifactIndex;
 import com.rabobank.argos.service.domain.verification.ArtifactsVerificationContext;
+import com.rabobank.argos.service.domain.verification.LinkArtifacts;
 
 import lombok.Builder;
 import lombok.Getter;
@@ -59,11 +61,15 @@ public class RuleVerificationContext<R extends Rule> {
         return artifactsContext.getLinkBySegmentNameAndStepName(segmentName, stepName);
     }
     
-    public Set<Artifact> getMaterials() {
+    public LinkArtifacts getLinkArtifacts(Link link) {
+        return artifactsContext.getLinkArtifacts(link);
+    }
+    
+    public ArtifactIndex getMaterials() {
         return artifactsContext.getMaterials();
     }
     
-    public Set<Artifact> getProducts() {
+    public ArtifactIndex getProducts() {
         return artifactsContext.getProducts();
     }
 
@@ -32,9 +32,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -48,6 +50,8 @@ import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -121,9 +125,15 @@ class AccountServiceImplTest {
     @Mock
     private Account adminAccount;
 
+    private KeyPairCache keyPairCache;
+
+    @Mock
+    private ServiceAccountCredentialsCache serviceAccountCredentialsCache;
+
     @BeforeEach
     void setUp() {
-        accountService = new AccountServiceImpl(serviceAccountRepository, personalAccountRepository, roleRepository, accountSecurityContext);
+        keyPairCache = new KeyPairCache(100, Duration.ofMinutes(10));
+        accountService = new AccountServiceImpl(serviceAccountRepository, personalAccountRepository, roleRepository, accountSecurityContext, keyPairCache, serviceAccountCredentialsCache);
     }
 
     @Test
@@ -160,7 +170,9 @@ class AccountServiceImplTest {
         accountService.activateNewKey(ACCOUNT_ID, newKeyPair);
         assertThat(account.getInactiveKeyPairs(), contains(inactiveKeyPair, activeKeyPair));
         assertThat(account.getActiveKeyPair(), sameInstance(newKeyPair));
-        verify(personalAccountRepository).update(account);
+        InOrder inOrder = inOrder(personalAccountRepository, serviceAccountCredentialsCache);
+        inOrder.verify(personalAccountRepository).update(account);
+        inOrder.verify(serviceAccountCredentialsCache).invalidate(activeKeyPair.getKeyId());
     }
 
     @Test
@@ -239,6 +251,22 @@ class AccountServiceImplTest {
         assertThat(accountService.findKeyPairByKeyId(KEY_ID), is(Optional.of(activeKeyPair)));
     }
 
+    @Test
+    void findKeyPairByKeyIdIsCachedUntilKeyIsDeactivated() {
+        KeyPair keyPair = new KeyPair(KEY_ID, null, null);
+        PersonalAccount account = PersonalAccount.builder().name(ACCOUNT_NAME).activeKeyPair(keyPair).build();
+        when(personalAccountRepository.findByActiveKeyId(KEY_ID)).thenReturn(Optional.of(account));
+        when(personalAccountRepository.findByAccountId(ACCOUNT_ID)).thenReturn(Optional.of(account));
+
+        assertThat(accountService.findKeyPairByKeyId(KEY_ID), is(Optional.of(keyPair)));
+        assertThat(accountService.findKeyPairByKeyId(KEY_ID), is(Optional.of(keyPair)));
+        verify(personalAccountRepository, times(1)).findByActiveKeyId(KEY_ID);
+
+        accountService.activateNewKey(ACCOUNT_ID, newKeyPair);
+        when(personalAccountRepository.findByActiveKeyId(KEY_ID)).thenReturn(Optional.empty());
+        assertThat(accountService.findKeyPairByKeyId(KEY_ID), is(Optional.empty()));
+    }
+
     @Test
     void personalAccountFindKeyPairByKeyId() {
         when(account.getActiveKeyPair()).thenReturn(activeKeyPair);
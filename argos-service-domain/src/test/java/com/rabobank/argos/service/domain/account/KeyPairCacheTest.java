@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.account;
+
+import com.rabobank.argos.domain.key.KeyPair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@ExtendWith(MockitoExtension.class)
+class KeyPairCacheTest {
+
+    private static final String KEY_ID = "keyId";
+
+    @Mock
+    private KeyPair keyPair;
+
+    private KeyPairCache cache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new KeyPairCache(100, Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getLoadsOnce() {
+        assertThat(cache.get(KEY_ID, this::load), is(Optional.of(keyPair)));
+        assertThat(cache.get(KEY_ID, this::load), is(Optional.of(keyPair)));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    void getNotFoundIsNotCached() {
+        assertThat(cache.get(KEY_ID, this::loadNothing), is(Optional.empty()));
+        assertThat(cache.get(KEY_ID, this::load), is(Optional.of(keyPair)));
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    void invalidate() {
+        cache.get(KEY_ID, this::load);
+        cache.invalidate(KEY_ID);
+        cache.get(KEY_ID, this::load);
+        assertThat(loads.get(), is(2));
+    }
+
+    private Optional<KeyPair> load(String keyId) {
+        loads.incrementAndGet();
+        return Optional.of(keyPair);
+    }
+
+    private Optional<KeyPair> loadNothing(String keyId) {
+        loads.incrementAndGet();
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.account;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceAccountCredentialsCacheTest {
+
+    private static final String KEY_ID = "keyId";
+    private static final String PASSWORD = "password";
+    private static final String HASHED_PASSWORD = "hashedPassword";
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private ServiceAccountCredentialsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ServiceAccountCredentialsCache(100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void matchesChecksPasswordOnce() {
+        when(passwordEncoder.matches(PASSWORD, HASHED_PASSWORD)).thenReturn(true);
+        assertThat(cache.matches(KEY_ID, PASSWORD, HASHED_PASSWORD, passwordEncoder), is(true));
+        assertThat(cache.matches(KEY_ID, PASSWORD, HASHED_PASSWORD, passwordEncoder), is(true));
+        verify(passwordEncoder, times(1)).matches(PASSWORD, HASHED_PASSWORD);
+        assertThat(cache.getAvoidedPasswordChecks(), is(1L));
+    }
+
+    @Test
+    void invalidPasswordIsNotCached() {
+        when(passwordEncoder.matches("wrong", HASHED_PASSWORD)).thenReturn(false);
+        assertThat(cache.matches(KEY_ID, "wrong", HASHED_PASSWORD, passwordEncoder), is(false));
+        assertThat(cache.matches(KEY_ID, "wrong", HASHED_PASSWORD, passwordEncoder), is(false));
+        verify(passwordEncoder, times(2)).matches("wrong", HASHED_PASSWORD);
+        assertThat(cache.getAvoidedPasswordChecks(), is(0L));
+    }
+
+    @Test
+    void changedHashedPasswordIsCheckedAgain() {
+        when(passwordEncoder.matches(PASSWORD, HASHED_PASSWORD)).thenReturn(true);
+        when(passwordEncoder.matches(PASSWORD, "otherHashedPassword")).thenReturn(false);
+        cache.matches(KEY_ID, PASSWORD, HASHED_PASSWORD, passwordEncoder);
+        assertThat(cache.matches(KEY_ID, PASSWORD, "otherHashedPassword", passwordEncoder), is(false));
+    }
+
+    @Test
+    void invalidate() {
+        when(passwordEncoder.matches(PASSWORD, HASHED_PASSWORD)).thenReturn(true);
+        cache.matches(KEY_ID, PASSWORD, HASHED_PASSWORD, passwordEncoder);
+        cache.invalidate(KEY_ID);
+        cache.matches(KEY_ID, PASSWORD, HASHED_PASSWORD, passwordEncoder);
+        verify(passwordEncoder, times(2)).matches(PASSWORD, HASHED_PASSWORD);
+    }
+}
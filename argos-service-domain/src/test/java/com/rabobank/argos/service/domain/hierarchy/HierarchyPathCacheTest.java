@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.hierarchy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+class HierarchyPathCacheTest {
+
+    private static final String LABEL_ID = "labelId";
+    private static final String PARENT_LABEL_ID = "parentLabelId";
+    private static final String SUPPLY_CHAIN_ID = "supplyChainId";
+
+    private HierarchyPathCache cache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new HierarchyPathCache(100, Duration.ofSeconds(30));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getIdPathToRootLoadsOnce() {
+        assertThat(cache.getIdPathToRoot(LABEL_ID, this::loadIdPathToRoot), is(Optional.of(List.of(PARENT_LABEL_ID))));
+        assertThat(cache.getIdPathToRoot(LABEL_ID, this::loadIdPathToRoot), is(Optional.of(List.of(PARENT_LABEL_ID))));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    void getIdPathToRootNotFoundIsNotCached() {
+        assertThat(cache.getIdPathToRoot(LABEL_ID, this::loadNothing), is(Optional.empty()));
+        cache.getIdPathToRoot(LABEL_ID, this::loadIdPathToRoot);
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    void invalidateIdPathsToRoot() {
+        cache.getIdPathToRoot(LABEL_ID, this::loadIdPathToRoot);
+        cache.invalidateIdPathsToRoot();
+        cache.getIdPathToRoot(LABEL_ID, this::loadIdPathToRoot);
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    void getParentLabelIdOfSupplyChainLoadsOnce() {
+        assertThat(cache.getParentLabelIdOfSupplyChain(SUPPLY_CHAIN_ID, this::loadParentLabelId), is(Optional.of(PARENT_LABEL_ID)));
+        assertThat(cache.getParentLabelIdOfSupplyChain(SUPPLY_CHAIN_ID, this::loadParentLabelId), is(Optional.of(PARENT_LABEL_ID)));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    void invalidateSupplyChain() {
+        cache.getParentLabelIdOfSupplyChain(SUPPLY_CHAIN_ID, this::loadParentLabelId);
+        cache.invalidateSupplyChain(SUPPLY_CHAIN_ID);
+        cache.getParentLabelIdOfSupplyChain(SUPPLY_CHAIN_ID, this::loadParentLabelId);
+        assertThat(loads.get(), is(2));
+    }
+
+    private Optional<List<String>> loadIdPathToRoot(String labelId) {
+        loads.incrementAndGet();
+        return Optional.of(List.of(PARENT_LABEL_ID));
+    }
+
+    private Optional<List<String>> loadNothing(String labelId) {
+        loads.incrementAndGet();
+        return Optional.empty();
+    }
+
+    private Optional<String> loadParentLabelId(String supplyChainId) {
+        loads.incrementAndGet();
+        return Optional.of(PARENT_LABEL_ID);
+    }
+}
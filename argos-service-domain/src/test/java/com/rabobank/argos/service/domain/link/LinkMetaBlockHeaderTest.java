@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.link;
+
+import com.rabobank.argos.domain.Signature;
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+class LinkMetaBlockHeaderTest {
+
+    private final Artifact artifact1 = new Artifact("file1", "hash1");
+    private final Artifact artifact2 = new Artifact("file2", "hash2");
+
+    @Test
+    void of() {
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder()
+                .supplyChainId("supplyChainId")
+                .signature(Signature.builder().keyId("keyId").signature("signature").build())
+                .link(link(List.of(artifact1, artifact2)))
+                .build();
+        LinkMetaBlockHeader header = LinkMetaBlockHeader.of(linkMetaBlock);
+        assertThat(header.getSupplyChainId(), is("supplyChainId"));
+        assertThat(header.getKeyId(), is("keyId"));
+        assertThat(header.getSignature(), is("signature"));
+        assertThat(header.getRunId(), is("runId"));
+        assertThat(header.getSegmentName(), is("segmentName"));
+        assertThat(header.getStepName(), is("stepName"));
+        assertThat(header.getLinkDigest(), is(LinkDigest.of(linkMetaBlock.getLink())));
+    }
+
+    @Test
+    void ofWithoutSignature() {
+        LinkMetaBlockHeader header = LinkMetaBlockHeader.of(LinkMetaBlock.builder().link(link(List.of(artifact1))).build());
+        assertThat(header.getKeyId(), nullValue());
+        assertThat(header.getSignature(), nullValue());
+    }
+
+    @Test
+    void linkDigestIsTheSameForTheSameSignedContent() {
+        assertThat(LinkDigest.of(link(List.of(artifact1, artifact2))), is(LinkDigest.of(link(List.of(artifact2, artifact1)))));
+        assertThat(LinkDigest.of(link(List.of(artifact1, artifact2))), not(LinkDigest.of(link(List.of(artifact1)))));
+    }
+
+    private static Link link(List<Artifact> materials) {
+        return Link.builder()
+                .runId("runId")
+                .layoutSegmentName("segmentName")
+                .stepName("stepName")
+                .command(List.of("cmd"))
+                .materials(materials)
+                .build();
+    }
+}
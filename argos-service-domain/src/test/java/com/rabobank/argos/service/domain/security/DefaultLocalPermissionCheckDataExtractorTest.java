@@ -25,11 +25,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationContext;
 
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,9 +49,6 @@ class DefaultLocalPermissionCheckDataExtractorTest {
     @Mock
     private ApplicationContext applicationContext;
 
-    @Mock
-    private ParameterData<LabelIdCheckParam, Object> parameterData;
-
     @Mock
     private LabelIdCheckParam labelIdCheckParam;
 
@@ -66,13 +65,24 @@ class DefaultLocalPermissionCheckDataExtractorTest {
 
     @Test
     void extractLocalPermissionCheckData() {
-        when(reflectionHelper.getParameterDataByAnnotation(method, LabelIdCheckParam.class, ARGUMENT_VALUES)).thenReturn(Stream.of(parameterData));
-        when(parameterData.getAnnotation()).thenReturn(labelIdCheckParam);
-        when(parameterData.getValue()).thenReturn(PARENT_LABEL_ID);
+        when(reflectionHelper.getParameterIndexesByAnnotation(method, LabelIdCheckParam.class)).thenReturn(List.of(new ParameterData<>(labelIdCheckParam, 1)));
+        when(labelIdCheckParam.dataExtractor()).thenReturn(EXTRACTOR);
+        when(applicationContext.getBean(EXTRACTOR, LabelIdExtractor.class)).thenReturn(labelIdExtractor);
+        when(labelIdExtractor.extractLabelId(labelIdCheckParam, PARENT_LABEL_ID)).thenReturn(Optional.of(LABEL_ID));
+        LocalPermissionCheckData checkData = extractor.extractLocalPermissionCheckData(method, ARGUMENT_VALUES);
+        assertThat(checkData.getLabelIds(), contains(LABEL_ID));
+    }
+
+    @Test
+    void extractLocalPermissionCheckDataResolvesMethodOnce() {
+        when(reflectionHelper.getParameterIndexesByAnnotation(method, LabelIdCheckParam.class)).thenReturn(List.of(new ParameterData<>(labelIdCheckParam, 1)));
         when(labelIdCheckParam.dataExtractor()).thenReturn(EXTRACTOR);
         when(applicationContext.getBean(EXTRACTOR, LabelIdExtractor.class)).thenReturn(labelIdExtractor);
         when(labelIdExtractor.extractLabelId(labelIdCheckParam, PARENT_LABEL_ID)).thenReturn(Optional.of(LABEL_ID));
+        extractor.extractLocalPermissionCheckData(method, ARGUMENT_VALUES);
         LocalPermissionCheckData checkData = extractor.extractLocalPermissionCheckData(method, ARGUMENT_VALUES);
         assertThat(checkData.getLabelIds(), contains(LABEL_ID));
+        verify(reflectionHelper, times(1)).getParameterIndexesByAnnotation(method, LabelIdCheckParam.class);
+        verify(applicationContext, times(1)).getBean(EXTRACTOR, LabelIdExtractor.class);
     }
 }
\ No newline at end of file
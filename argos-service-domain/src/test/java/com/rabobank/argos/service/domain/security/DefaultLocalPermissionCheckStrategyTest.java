@@ -18,6 +18,7 @@ package com.rabobank.argos.service.domain.security;
 import com.rabobank.argos.domain.hierarchy.HierarchyMode;
 import com.rabobank.argos.domain.hierarchy.TreeNode;
 import com.rabobank.argos.domain.permission.Permission;
+import com.rabobank.argos.service.domain.hierarchy.HierarchyPathCache;
 import com.rabobank.argos.service.domain.hierarchy.HierarchyRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,6 +26,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -35,6 +37,8 @@ import static java.util.Collections.emptySet;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -59,7 +63,7 @@ class DefaultLocalPermissionCheckStrategyTest {
 
     @BeforeEach
     void setUp() {
-        strategy = new DefaultLocalPermissionCheckStrategy(hierarchyRepository, accountSecurityContext);
+        strategy = new DefaultLocalPermissionCheckStrategy(hierarchyRepository, accountSecurityContext, new HierarchyPathCache(100, Duration.ofSeconds(30)));
     }
 
     @Test
@@ -130,4 +134,15 @@ class DefaultLocalPermissionCheckStrategyTest {
         when(accountSecurityContext.allLocalPermissions(any())).thenReturn(emptySet());
         assertThat(strategy.hasLocalPermission(localPermissionCheckData, new HashSet<>(List.of(Permission.READ))), is(false));
     }
-}
\ No newline at end of file
+
+    @Test
+    void hasLocalPermissionIdPathToRootIsCached() {
+        when(localPermissionCheckData.getLabelIds()).thenReturn(new HashSet<>(List.of(LABEL_ID)));
+        when(hierarchyRepository.getSubTree(LABEL_ID, HierarchyMode.NONE, 0)).thenReturn(Optional.of(treeNode));
+        when(treeNode.getIdPathToRoot()).thenReturn(List.of(PARENT_LABEL_ID));
+        when(accountSecurityContext.allLocalPermissions(List.of(PARENT_LABEL_ID, LABEL_ID))).thenReturn(Set.of(Permission.READ));
+        assertThat(strategy.hasLocalPermission(localPermissionCheckData, new HashSet<>(List.of(Permission.READ))), is(true));
+        assertThat(strategy.hasLocalPermission(localPermissionCheckData, new HashSet<>(List.of(Permission.READ))), is(true));
+        verify(hierarchyRepository, times(1)).getSubTree(LABEL_ID, HierarchyMode.NONE, 0);
+    }
+}
@@ -35,6 +35,8 @@ import java.util.Set;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -96,6 +98,7 @@ class PermissionCheckAdvisorTest {
     @Test
     void checkPermissionsHasWrongGlobalPermission() {
         mockPermissionCheck();
+        when(signature.getMethod()).thenReturn(method);
         when(permissionCheck.permissions()).thenReturn(new Permission[]{Permission.LOCAL_PERMISSION_EDIT});
         AccessDeniedException accessDeniedException = assertThrows(AccessDeniedException.class, () -> advisor.checkPermissions(joinPoint, permissionCheck));
         MatcherAssert.assertThat(accessDeniedException.getMessage(), is("Access denied"));
@@ -104,6 +107,7 @@ class PermissionCheckAdvisorTest {
     @Test
     void checkPermissionsHasNoGlobalPermission() {
         mockPermissionCheck();
+        when(signature.getMethod()).thenReturn(method);
         when(permissionCheck.permissions()).thenReturn(new Permission[]{Permission.LOCAL_PERMISSION_EDIT});
         when(accountSecurityContext.getGlobalPermission()).thenReturn(Collections.emptySet());
         AccessDeniedException accessDeniedException = assertThrows(AccessDeniedException.class, () -> advisor.checkPermissions(joinPoint, permissionCheck));
@@ -113,6 +117,7 @@ class PermissionCheckAdvisorTest {
     @Test
     void checkPermissionsSaHasNoGlobalPermission() {
         mockPermissionCheck();
+        when(signature.getMethod()).thenReturn(method);
         when(permissionCheck.permissions()).thenReturn(new Permission[]{Permission.LOCAL_PERMISSION_EDIT});
         when(accountSecurityContext.getGlobalPermission()).thenReturn(Collections.emptySet());
         AccessDeniedException accessDeniedException = assertThrows(AccessDeniedException.class, () -> advisor.checkPermissions(joinPoint, permissionCheck));
@@ -132,6 +137,22 @@ class PermissionCheckAdvisorTest {
         advisor.checkPermissions(joinPoint, permissionCheck);
     }
 
+    @Test
+    void checkPermissionsResolvesBeansOncePerMethod() {
+        mockPermissionCheck();
+        when(signature.getMethod()).thenReturn(method);
+        when(permissionCheck.permissions()).thenReturn(new Permission[]{Permission.LOCAL_PERMISSION_EDIT});
+        when(accountSecurityContext.getGlobalPermission()).thenReturn(Collections.emptySet());
+        Object[] args = new Object[]{};
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(localPermissionCheckDataExtractor.extractLocalPermissionCheckData(method, args)).thenReturn(checkData);
+        when(localPermissionCheckStrategy.hasLocalPermission(checkData, new HashSet<>(List.of(Permission.LOCAL_PERMISSION_EDIT)))).thenReturn(true);
+        advisor.checkPermissions(joinPoint, permissionCheck);
+        advisor.checkPermissions(joinPoint, permissionCheck);
+        verify(applicationContext, times(1)).getBean(EXTRACTOR_BEAN, LocalPermissionCheckDataExtractor.class);
+        verify(applicationContext, times(1)).getBean(CHECK_BEAN, LocalPermissionCheckStrategy.class);
+    }
+
     private void mockPermissionCheck() {
         when(permissionCheck.localPermissionCheckStrategyBean()).thenReturn(CHECK_BEAN);
         when(permissionCheck.localPermissionDataExtractorBean()).thenReturn(EXTRACTOR_BEAN);
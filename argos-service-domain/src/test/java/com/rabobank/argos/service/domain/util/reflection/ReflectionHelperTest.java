@@ -18,11 +18,13 @@ package com.rabobank.argos.service.domain.util.reflection;
 import com.rabobank.argos.service.domain.security.LabelIdCheckParam;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 
 class ReflectionHelperTest {
@@ -42,6 +44,14 @@ class ReflectionHelperTest {
         assertThat(new ReflectionHelper().getParameterDataByAnnotation(TestClass.class.getMethod("testWithoutAnnotation", String.class, String.class), LabelIdCheckParam.class, new Object[]{"arg1", LABEL_ID}).collect(Collectors.toList()), empty());
     }
 
+    @Test
+    void getParameterIndexesByAnnotation() throws NoSuchMethodException {
+        List<ParameterData<LabelIdCheckParam, Integer>> data = new ReflectionHelper().getParameterIndexesByAnnotation(TestClass.class.getMethod("test", String.class, String.class), LabelIdCheckParam.class);
+        assertThat(data, hasSize(1));
+        assertThat(data.get(0).getValue(), is(1));
+        assertThat(data.get(0).getAnnotation().propertyPath(), is(""));
+    }
+
     private class TestClass {
         public void test(String arg1, @LabelIdCheckParam String labelId) {
 
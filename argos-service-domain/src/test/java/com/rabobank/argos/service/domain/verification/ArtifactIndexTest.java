@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.link.Artifact;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+class ArtifactIndexTest {
+
+    private Artifact artifact1 = new Artifact("someDir/some.jar", "hash1");
+    private Artifact artifact2 = new Artifact("someDir/some.html", "hash2");
+    private Artifact artifact3 = new Artifact("someDir2/some.jar", "hash1");
+    private Artifact artifact4 = new Artifact("root.html", "hash3");
+    private Artifact artifact5 = new Artifact("root.html", "hash4");
+
+    private ArtifactIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = ArtifactIndex.of(List.of(artifact1, artifact2, artifact3, artifact4, artifact5, artifact1));
+    }
+
+    @Test
+    void ofRemovesDuplicates() {
+        assertThat(index.size(), is(5));
+        assertThat(index.toSet(index.all()), is(Set.of(artifact1, artifact2, artifact3, artifact4, artifact5)));
+    }
+
+    @Test
+    void ofEmpty() {
+        assertThat(ArtifactIndex.of(null).size(), is(0));
+        assertThat(ArtifactIndex.of(List.of()).all().isEmpty(), is(true));
+    }
+
+    @Test
+    void lookups() {
+        assertThat(index.contains(artifact2), is(true));
+        assertThat(index.contains(new Artifact("someDir/some.html", "other")), is(false));
+        assertThat(index.get(index.indexOf(artifact3)), is(artifact3));
+        assertThat(index.indexOf(new Artifact("unknown", "hash1")), is(-1));
+        assertThat(index.containsUri("root.html"), is(true));
+        assertThat(index.containsUri("unknown"), is(false));
+        assertThat(Set.copyOf(index.getByUri("root.html")), is(Set.of(artifact4, artifact5)));
+        assertThat(index.getByUri("unknown"), empty());
+        assertThat(index.containsHash("hash3"), is(true));
+        assertThat(index.containsHash("other"), is(false));
+    }
+
+    @Test
+    void containsHashInSelection() {
+        BitSet selection = index.toBitSet(Set.of(artifact3));
+        assertThat(index.containsHash("hash1", selection), is(true));
+        assertThat(index.containsHash("hash2", selection), is(false));
+    }
+
+    @Test
+    void withUriPrefix() {
+        assertThat(index.toSet(index.withUriPrefix("someDir/")), is(Set.of(artifact1, artifact2)));
+        assertThat(index.toSet(index.withUriPrefix("someDir")), is(Set.of(artifact1, artifact2, artifact3)));
+        assertThat(index.withUriPrefix("other").isEmpty(), is(true));
+    }
+
+    @Test
+    void filter() {
+        assertThat(index.toSet(index.filter(index.all(), "*.jar", "someDir/")), is(Set.of(artifact1)));
+        assertThat(index.toSet(index.filter(index.all(), "**", null)), is(Set.of(artifact1, artifact2, artifact3, artifact4, artifact5)));
+        assertThat(index.toSet(index.filter(index.all(), "**/*.jar", null)), is(Set.of(artifact1, artifact3)));
+
+        BitSet selection = index.toBitSet(Set.of(artifact2, artifact3));
+        assertThat(index.toSet(index.filter(selection, "**/*.jar", null)), is(Set.of(artifact3)));
+        assertThat(selection.cardinality(), is(2));
+    }
+}
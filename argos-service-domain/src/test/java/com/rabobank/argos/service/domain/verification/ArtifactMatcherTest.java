@@ -20,6 +20,10 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.FileSystems;
+import java.nio.file.Paths;
+import java.util.List;
+
 import com.rabobank.argos.service.domain.verification.ArtifactMatcher;
 
 class ArtifactMatcherTest {
@@ -40,4 +44,34 @@ class ArtifactMatcherTest {
         assertTrue(ArtifactMatcher.matches("foo/bar", "foo/*"));
     }
 
+    @Test
+    void matchesLiteral() {
+        assertTrue(ArtifactMatcher.matches("foo/bar.jar", "foo/bar.jar"));
+        assertTrue(ArtifactMatcher.matches("foo//bar.jar/", "foo/bar.jar"));
+        assertFalse(ArtifactMatcher.matches("foo/bar.jar", "foo/bar"));
+    }
+
+    @Test
+    void matchesPrefixAndSuffix() {
+        assertTrue(ArtifactMatcher.matches("foo/bar.jar", "**.jar"));
+        assertTrue(ArtifactMatcher.matches("foo/bar.jar", "foo/**"));
+        assertTrue(ArtifactMatcher.matches("bar.jar", "*.jar"));
+        assertFalse(ArtifactMatcher.matches("foo/bar.jar", "*.jar"));
+        assertFalse(ArtifactMatcher.matches("foo/bar/baz", "foo/*"));
+    }
+
+    @Test
+    void fastPathsMatchGlobMatcher() {
+        List<String> patterns = List.of("*", "**", "*.jar", "**.jar", "foo/*", "foo/**", "*/bar.jar", "foo/bar.jar",
+                "", "**/*.jar", "foo/?ar.jar", "{foo,baz}/*", "foo/[a-c]ar.jar");
+        List<String> uris = List.of("", "foo", "foo/", "bar.jar", "foo/bar.jar", "foo//bar.jar", "foo/bar/baz.jar",
+                "/foo/bar.jar", "baz/bar.jar", "foo/car.jar", ".jar", "foo/bar.jar/");
+        for (String pattern : patterns) {
+            for (String uri : uris) {
+                boolean expected = FileSystems.getDefault().getPathMatcher("glob:" + pattern).matches(Paths.get(uri));
+                assertEquals(expected, ArtifactMatcher.matches(uri, pattern), "uri: " + uri + " pattern: " + pattern);
+            }
+        }
+    }
+
 }
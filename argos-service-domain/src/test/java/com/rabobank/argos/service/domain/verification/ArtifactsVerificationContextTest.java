@@ -94,38 +94,38 @@ class ArtifactsVerificationContextTest {
         
         verificationContext1 = ArtifactsVerificationContext.builder()
                 .segmentName(segmentName)
-                .notConsumedArtifacts(Set.of(artifact1, artifact2))
+                .artifacts(ArtifactIndex.of(Set.of(artifact1, artifact2)))
                 .link(link)
                 .linksMap(linksMap)
                 .build();
         verificationContext2 = ArtifactsVerificationContext.builder()
                 .segmentName(segmentName)
-                .notConsumedArtifacts(Set.of(artifact1, artifact2))
+                .artifacts(ArtifactIndex.of(Set.of(artifact1, artifact2)))
                 .link(link)
                 .linksMap(linksMap)
                 .build();
         verificationContext3 = ArtifactsVerificationContext.builder()
                 .segmentName(segmentName)
-                .notConsumedArtifacts(Set.of(artifact1, artifact2))
+                .artifacts(ArtifactIndex.of(Set.of(artifact1, artifact2)))
                 .link(link)
                 .linksMap(linksMap)
                 .build();
         verificationContext4 = ArtifactsVerificationContext.builder()
                 .segmentName(segmentName)
-                .notConsumedArtifacts(Set.of(artifact1, artifact2, artifact3, artifact4))
+                .artifacts(ArtifactIndex.of(Set.of(artifact1, artifact2, artifact3, artifact4)))
                 .link(link)
                 .linksMap(linksMap)
                 //.rule(ruleWithPrefix)
                 .build();
         verificationContext5 = ArtifactsVerificationContext.builder()
                 .segmentName(segmentName)
-                .notConsumedArtifacts(Set.of(artifact1, artifact2, artifact3, artifact4))
+                .artifacts(ArtifactIndex.of(Set.of(artifact1, artifact2, artifact3, artifact4)))
                 .link(link)
                 .linksMap(linksMap)
                 .build();
         verificationContext6 = ArtifactsVerificationContext.builder()
                 .segmentName(segmentName)
-                .notConsumedArtifacts(Set.of(artifact1, artifact2, artifact3, artifact4, artifact5))
+                .artifacts(ArtifactIndex.of(Set.of(artifact1, artifact2, artifact3, artifact4, artifact5)))
                 .link(link)
                 .linksMap(linksMap)
                 .build();
@@ -165,12 +165,31 @@ class ArtifactsVerificationContextTest {
         assertThat(verificationContext1.getLinkBySegmentNameAndStepName("foo", step.getName()), is(Optional.empty()));
     }
     
+    @Test
+    void consume() {
+        verificationContext5.consume(Set.of(artifact1, artifact3, artifact5));
+        assertThat(verificationContext5.getNotConsumedArtifacts(), is(Set.of(artifact2, artifact4)));
+        assertThat(verificationContext5.getConsumedArtifacts(), is(Set.of(artifact1, artifact3)));
+        assertThat(verificationContext5.hasNotConsumedArtifacts(), is(true));
+        assertThat(verificationContext5.getFilteredArtifacts(patternAllMatch), is(Set.of(artifact2, artifact4)));
+        
+        verificationContext5.consume(Set.of(artifact2, artifact4));
+        assertThat(verificationContext5.hasNotConsumedArtifacts(), is(false));
+    }
+    
+    @Test
+    void getMaterialsAndProducts() {
+        assertThat(verificationContext1.getMaterials().all().cardinality(), is(2));
+        assertThat(verificationContext1.getMaterials().contains(artifact2), is(true));
+        assertThat(verificationContext1.getProducts().contains(artifact4), is(true));
+    }
+    
     @Test
     void nonNull() {
         Throwable exception = assertThrows(java.lang.NullPointerException.class, () -> {
             ArtifactsVerificationContext.builder()
             .segmentName(null)
-            .notConsumedArtifacts(Set.of(artifact1, artifact2))
+            .artifacts(ArtifactIndex.of(Set.of(artifact1, artifact2)))
             .linksMap(linksMap)
             .build();
           });
@@ -179,10 +198,10 @@ class ArtifactsVerificationContextTest {
         exception = assertThrows(java.lang.NullPointerException.class, () -> {
             ArtifactsVerificationContext.builder()
             .segmentName(segmentName)
-            .notConsumedArtifacts(null)
+            .artifacts(null)
             .linksMap(linksMap)
             .build();
           });
-        assertEquals("notConsumedArtifacts is marked non-null but is null", exception.getMessage());
+        assertEquals("artifacts is marked non-null but is null", exception.getMessage());
     }
 }
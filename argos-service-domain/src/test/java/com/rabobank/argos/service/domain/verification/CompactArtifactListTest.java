@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.link.Artifact;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompactArtifactListTest {
+
+    private static final String HASH = "cb6bdad36690e8024e7df13e6796ae6603f2cb9cf9f989c9ff939b2ecebdcb91";
+    private static final String OTHER_HASH = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    @Test
+    void addShouldDeduplicate() {
+        CompactArtifactList artifacts = new CompactArtifactList();
+        assertThat(artifacts.add("a", HASH), is(true));
+        assertThat(artifacts.add("a", OTHER_HASH), is(true));
+        assertThat(artifacts.add("a", HASH), is(false));
+        assertThat(artifacts.add(new Artifact("a", OTHER_HASH)), is(false));
+        assertThat(artifacts.add(new Artifact("b", HASH)), is(true));
+        assertThat(artifacts, contains(new Artifact("a", HASH), new Artifact("a", OTHER_HASH), new Artifact("b", HASH)));
+    }
+
+    @Test
+    void addShouldStoreUriOnce() {
+        CompactArtifactList artifacts = new CompactArtifactList();
+        artifacts.add("a", HASH);
+        artifacts.add(new String("a"), OTHER_HASH);
+        assertThat(artifacts.get(1).getUri(), sameInstance(artifacts.get(0).getUri()));
+    }
+
+    @Test
+    void addShouldGrow() {
+        CompactArtifactList artifacts = new CompactArtifactList();
+        for (int i = 0; i < 100; i++) {
+            artifacts.add("uri" + i, HASH);
+        }
+        assertThat(artifacts.size(), is(100));
+        assertThat(artifacts.get(99), is(new Artifact("uri99", HASH)));
+        assertThat(artifacts.equals(List.copyOf(artifacts)), is(true));
+    }
+
+    @Test
+    void addWithInvalidHash() {
+        CompactArtifactList artifacts = new CompactArtifactList();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> artifacts.add("a", "ab"));
+        assertThat(exception.getMessage(), is("hash should be a lowercase hex encoded sha256 hash but is ab"));
+        assertThrows(IllegalArgumentException.class, () -> artifacts.add("a", HASH.replace('c', 'g')));
+        assertThrows(IllegalArgumentException.class, () -> artifacts.add("a", new byte[31]));
+    }
+
+    @Test
+    void containsShouldUseIndex() {
+        CompactArtifactList artifacts = new CompactArtifactList();
+        artifacts.add("a", HASH);
+        assertThat(artifacts.contains(new Artifact("a", HASH)), is(true));
+        assertThat(artifacts.contains(new Artifact("a", OTHER_HASH)), is(false));
+        assertThat(artifacts.contains(new Artifact("b", HASH)), is(false));
+        assertThat(artifacts.contains(new Artifact("a", "ab")), is(false));
+        assertThat(artifacts.contains("a"), is(false));
+    }
+
+    @Test
+    void asSetShouldRemoveWithoutChangingList() {
+        CompactArtifactList artifacts = new CompactArtifactList();
+        artifacts.add("a", HASH);
+        artifacts.add("a", OTHER_HASH);
+        artifacts.add("b", HASH);
+        Set<Artifact> notConsumed = artifacts.asSet();
+        artifacts.add("c", HASH);
+        assertThat(notConsumed, containsInAnyOrder(new Artifact("a", HASH), new Artifact("a", OTHER_HASH), new Artifact("b", HASH)));
+        assertThat(notConsumed.remove(new Artifact("a", OTHER_HASH)), is(true));
+        assertThat(notConsumed.remove(new Artifact("a", OTHER_HASH)), is(false));
+        assertThat(notConsumed.remove(new Artifact("c", HASH)), is(false));
+        assertThat(notConsumed.contains(new Artifact("a", OTHER_HASH)), is(false));
+        assertThat(notConsumed.removeAll(Set.of(new Artifact("a", HASH))), is(true));
+        assertThat(notConsumed, contains(new Artifact("b", HASH)));
+        assertThat(notConsumed.size(), is(1));
+        notConsumed.removeIf(artifact -> true);
+        assertThat(notConsumed.isEmpty(), is(true));
+        assertThat(artifacts.size(), is(4));
+    }
+
+    @Test
+    void getOutOfBounds() {
+        assertThrows(IndexOutOfBoundsException.class, () -> new CompactArtifactList().get(0));
+    }
+}
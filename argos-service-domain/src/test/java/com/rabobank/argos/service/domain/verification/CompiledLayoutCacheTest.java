@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.Signature;
+import com.rabobank.argos.domain.layout.Layout;
+import com.rabobank.argos.domain.layout.LayoutMetaBlock;
+import com.rabobank.argos.domain.layout.LayoutSegment;
+import com.rabobank.argos.domain.layout.Step;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class CompiledLayoutCacheTest {
+
+    private CompiledLayoutCache cache;
+
+    private Layout layout = Layout.builder()
+            .layoutSegments(List.of(LayoutSegment.builder().name("segment").steps(List.of(Step.builder().name("step").build())).build()))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        cache = new CompiledLayoutCache(100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getCompiledLayoutShouldReturnCachedLayout() {
+        CompiledLayout compiledLayout = cache.getCompiledLayout(createLayoutMetaBlock("signature"));
+        assertThat(compiledLayout.getLayout(), sameInstance(layout));
+        assertThat(cache.getCompiledLayout(createLayoutMetaBlock("signature")), sameInstance(compiledLayout));
+        assertThat(cache.getCompiledLayout(createLayoutMetaBlock("otherSignature")), not(sameInstance(compiledLayout)));
+    }
+
+    @Test
+    void getCompiledLayoutWithoutSignaturesShouldCompile() {
+        LayoutMetaBlock layoutMetaBlock = LayoutMetaBlock.builder().layout(layout).signatures(List.of()).build();
+        CompiledLayout compiledLayout = cache.getCompiledLayout(layoutMetaBlock);
+        assertThat(cache.getCompiledLayout(layoutMetaBlock), not(sameInstance(compiledLayout)));
+    }
+
+    @Test
+    void compileShouldCacheCompiledLayout() {
+        cache.compile(createLayoutMetaBlock("signature"));
+        CompiledLayout compiledLayout = cache.getCompiledLayout(createLayoutMetaBlock("signature"));
+        assertThat(cache.getCompiledLayout(createLayoutMetaBlock("signature")), is(compiledLayout));
+    }
+
+    @Test
+    void compileShouldIgnoreInvalidLayout() {
+        Layout invalidLayout = Layout.builder().layoutSegments(List.of(
+                LayoutSegment.builder().name("segment1").steps(List.of(Step.builder().name("step").build())).build(),
+                LayoutSegment.builder().name("segment2").steps(List.of(Step.builder().name("step").build())).build()))
+                .build();
+        cache.compile(LayoutMetaBlock.builder().layout(invalidLayout)
+                .signatures(List.of(Signature.builder().keyId("keyId").signature("signature").build())).build());
+        assertThat(cache.getCompiledLayout(createLayoutMetaBlock("signature")).getLayout(), sameInstance(layout));
+    }
+
+    private LayoutMetaBlock createLayoutMetaBlock(String signature) {
+        return LayoutMetaBlock.builder()
+                .layout(layout)
+                .signatures(List.of(Signature.builder().keyId("keyId").signature(signature).build()))
+                .build();
+    }
+}
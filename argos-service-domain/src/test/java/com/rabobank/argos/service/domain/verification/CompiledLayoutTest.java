@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.ArgosError;
+import com.rabobank.argos.domain.layout.ArtifactType;
+import com.rabobank.argos.domain.layout.Layout;
+import com.rabobank.argos.domain.layout.LayoutSegment;
+import com.rabobank.argos.domain.layout.Step;
+import com.rabobank.argos.domain.layout.rule.MatchRule;
+import com.rabobank.argos.domain.layout.rule.Rule;
+import com.rabobank.argos.domain.layout.rule.RuleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompiledLayoutTest {
+
+    private MatchRule matchRuleSegment1Segment2 = new MatchRule("file2", null, ArtifactType.MATERIALS, null, "segment2", "step1");
+    private MatchRule matchRuleExpectedEndProduct = new MatchRule("file1", null, ArtifactType.PRODUCTS, null, "segment1", "step1");
+    private Rule allowRule = new Rule(RuleType.ALLOW, "**");
+
+    private Step segment1Step1 = Step.builder().name("step1").expectedMaterials(List.of(matchRuleSegment1Segment2))
+            .expectedProducts(List.of(allowRule)).build();
+    private Step segment2Step1 = Step.builder().name("step1").build();
+
+    private LayoutSegment segment1 = LayoutSegment.builder().name("segment1").steps(List.of(segment1Step1)).build();
+    private LayoutSegment segment2 = LayoutSegment.builder().name("segment2").steps(List.of(segment2Step1)).build();
+
+    @Test
+    void of() {
+        Layout layout = Layout.builder().layoutSegments(List.of(segment2, segment1))
+                .expectedEndProducts(List.of(matchRuleExpectedEndProduct)).build();
+        CompiledLayout compiledLayout = CompiledLayout.of(layout);
+        assertThat(compiledLayout.getLayout(), is(layout));
+        assertThat(compiledLayout.getTopologicalSortedSegments(), contains(segment1, segment2));
+        assertThat(compiledLayout.getSegmentGraph().get(segment2), is(Set.of(segment1)));
+        assertThat(compiledLayout.getSegmentGraph().get(segment1), empty());
+        assertThat(compiledLayout.getStepBySegmentNameAndStepName().get("segment2").get("step1"), is(segment2Step1));
+        assertThat(compiledLayout.getExpectedEndProducts(), contains(matchRuleExpectedEndProduct));
+    }
+
+    @Test
+    void getExpectedRules() {
+        CompiledLayout compiledLayout = CompiledLayout.of(Layout.builder().layoutSegments(List.of(segment1, segment2)).build());
+        assertThat(compiledLayout.getExpectedRules("segment1", "step1", ArtifactType.MATERIALS), contains(matchRuleSegment1Segment2));
+        assertThat(compiledLayout.getExpectedRules("segment1", "step1", ArtifactType.PRODUCTS), contains(allowRule));
+        assertThat(compiledLayout.getExpectedRules("segment2", "step1", ArtifactType.MATERIALS), empty());
+        assertThat(compiledLayout.getExpectedRules("segment2", "unknown", ArtifactType.MATERIALS), empty());
+        assertThat(compiledLayout.getExpectedEndProducts(), empty());
+    }
+
+    @Test
+    void ofWithMoreThanOneStartSegment() {
+        LayoutSegment segment3 = LayoutSegment.builder().name("segment3").steps(List.of(Step.builder().name("step1").build())).build();
+        Layout layout = Layout.builder().layoutSegments(List.of(segment1, segment2, segment3)).build();
+        Throwable exception = assertThrows(ArgosError.class, () -> CompiledLayout.of(layout));
+        assertEquals("layout segment graph has more than 1 start segment.", exception.getMessage());
+    }
+}
@@ -20,7 +20,6 @@ import com.rabobank.argos.domain.layout.Layout;
 import com.rabobank.argos.domain.layout.LayoutMetaBlock;
 import com.rabobank.argos.domain.link.Link;
 import com.rabobank.argos.domain.link.LinkMetaBlock;
-import com.rabobank.argos.domain.signing.SignatureValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -40,9 +39,8 @@ import static org.mockito.Mockito.when;
 class LinkMetaBlockSignatureVerificationTest {
 
     private static final String KEY_ID = "keyId";
-    private static final String SIG = "sigNa";
     @Mock
-    private SignatureValidator signatureValidator;
+    private LinkSignatureValidationCache linkSignatureValidationCache;
 
     @Mock
     private VerificationContext context;
@@ -71,7 +69,7 @@ class LinkMetaBlockSignatureVerificationTest {
 
     @BeforeEach
     void setUp() {
-        verification = new LinkMetaBlockSignatureVerification(signatureValidator);
+        verification = new LinkMetaBlockSignatureVerification(linkSignatureValidationCache);
     }
 
     @Test
@@ -110,12 +108,11 @@ class LinkMetaBlockSignatureVerificationTest {
         when(linkMetaBlock.getLink()).thenReturn(link);
         when(linkMetaBlock.getSignature()).thenReturn(signature);
         when(signature.getKeyId()).thenReturn(KEY_ID);
-        when(signature.getSignature()).thenReturn(SIG);
         when(domainPublicKey.getId()).thenReturn(KEY_ID);
         when(domainPublicKey.getKey()).thenReturn(publicKey);
         layout = Layout.builder().keys(List.of(domainPublicKey)).build();
         when(context.getLayoutMetaBlock()).thenReturn(layoutMetaBlock);
         when(layoutMetaBlock.getLayout()).thenReturn(layout);
-        when(signatureValidator.isValid(link, SIG, publicKey)).thenReturn(valid);
+        when(linkSignatureValidationCache.isValid(link, signature, publicKey)).thenReturn(valid);
     }
 }
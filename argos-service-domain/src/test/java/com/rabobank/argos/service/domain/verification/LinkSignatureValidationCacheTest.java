@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.Signature;
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.signing.SignatureValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LinkSignatureValidationCacheTest {
+
+    private static final String KEY_ID = "keyId";
+    private static final String SIG = "sig";
+
+    @Mock
+    private SignatureValidator signatureValidator;
+
+    @Mock
+    private PublicKey publicKey;
+
+    private LinkSignatureValidationCache cache;
+
+    private final Signature signature = Signature.builder().keyId(KEY_ID).signature(SIG).build();
+
+    @BeforeEach
+    void setUp() {
+        cache = new LinkSignatureValidationCache(signatureValidator, 100);
+        when(publicKey.getEncoded()).thenReturn(new byte[]{1, 2, 3});
+    }
+
+    @Test
+    void isValidShouldValidateEqualLinkOnce() {
+        when(signatureValidator.isValid(any(Link.class), eq(SIG), eq(publicKey))).thenReturn(true);
+        assertThat(cache.isValid(createLink("hash"), signature, publicKey), is(true));
+        assertThat(cache.isValid(createLink("hash"), signature, publicKey), is(true));
+        verify(signatureValidator, times(1)).isValid(any(Link.class), eq(SIG), eq(publicKey));
+    }
+
+    @Test
+    void isValidShouldRememberInvalidSignature() {
+        when(signatureValidator.isValid(any(Link.class), eq(SIG), eq(publicKey))).thenReturn(false);
+        assertThat(cache.isValid(createLink("hash"), signature, publicKey), is(false));
+        assertThat(cache.isValid(createLink("hash"), signature, publicKey), is(false));
+        verify(signatureValidator, times(1)).isValid(any(Link.class), eq(SIG), eq(publicKey));
+    }
+
+    @Test
+    void isValidWithOtherLinkContentShouldValidate() {
+        when(signatureValidator.isValid(any(Link.class), eq(SIG), eq(publicKey))).thenReturn(true, false);
+        assertThat(cache.isValid(createLink("hash"), signature, publicKey), is(true));
+        assertThat(cache.isValid(createLink("otherHash"), signature, publicKey), is(false));
+        verify(signatureValidator, times(2)).isValid(any(Link.class), eq(SIG), eq(publicKey));
+    }
+
+    @Test
+    void isValidWithSameLinkAndOtherPublicKeyShouldValidate() {
+        PublicKey otherPublicKey = mock(PublicKey.class);
+        when(otherPublicKey.getEncoded()).thenReturn(new byte[]{4, 5, 6});
+        Link link = createLink("hash");
+        when(signatureValidator.isValid(link, SIG, publicKey)).thenReturn(true);
+        when(signatureValidator.isValid(link, SIG, otherPublicKey)).thenReturn(false);
+        assertThat(cache.isValid(link, signature, publicKey), is(true));
+        assertThat(cache.isValid(link, signature, otherPublicKey), is(false));
+        assertThat(cache.isValid(link, signature, publicKey), is(true));
+        verify(signatureValidator, times(1)).isValid(link, SIG, publicKey);
+    }
+
+    private static Link createLink(String hash) {
+        return Link.builder()
+                .stepName("step")
+                .layoutSegmentName("segment")
+                .runId("runId")
+                .materials(new ArrayList<>(List.of(Artifact.builder().uri("uri").hash(hash).build())))
+                .products(new ArrayList<>())
+                .build();
+    }
+}
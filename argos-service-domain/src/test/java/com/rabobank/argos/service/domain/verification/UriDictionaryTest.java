@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class UriDictionaryTest {
+
+    private static final String HASH = "cb6bdad36690e8024e7df13e6796ae6603f2cb9cf9f989c9ff939b2ecebdcb91";
+
+    private final UriDictionary uriDictionary = new UriDictionary();
+
+    @Test
+    void intern() {
+        String uri = uriDictionary.intern(new String("dir/file"));
+        assertThat(uriDictionary.intern(new String("dir/file")), sameInstance(uri));
+        assertThat(uriDictionary.intern(null), nullValue());
+        assertThat(uriDictionary.size(), is(1));
+    }
+
+    @Test
+    void internLinkMetaBlocks() {
+        LinkMetaBlock build = createLinkMetaBlock("build");
+        LinkMetaBlock test = createLinkMetaBlock("test");
+        uriDictionary.internLinkMetaBlocks(List.of(build, test, LinkMetaBlock.builder().build()));
+        assertThat(test.getLink().getMaterials().get(0).getUri(), sameInstance(build.getLink().getMaterials().get(0).getUri()));
+        assertThat(test.getLink().getProducts().get(0).getUri(), sameInstance(build.getLink().getMaterials().get(0).getUri()));
+        assertThat(uriDictionary.size(), is(1));
+    }
+
+    private static LinkMetaBlock createLinkMetaBlock(String stepName) {
+        return LinkMetaBlock.builder()
+                .link(Link.builder()
+                        .stepName(stepName)
+                        .materials(new ArrayList<>(List.of(new Artifact(new String("dir/file"), HASH))))
+                        .products(new ArrayList<>(List.of(new Artifact(new String("dir/file"), HASH))))
+                        .build())
+                .build();
+    }
+}
@@ -38,6 +38,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -94,6 +95,29 @@ class VerificationContextTest {
         assertThat(verificationContext.getLinkMetaBlocksBySegmentNameAndStepName(SEGMENT_NAME, STEP_NAME), empty());
     }
 
+    @Test
+    void removeLinkMetaBlocksUpdatesLinks() {
+        LinkMetaBlock otherBlock = LinkMetaBlock.builder().link(Link.builder()
+                .layoutSegmentName(SEGMENT_NAME)
+                .stepName(STEP_NAME)
+                .command(List.of("other")).build()).build();
+        verificationContext = VerificationContext
+                .builder()
+                .layoutMetaBlock(layoutMetaBlock)
+                .linkMetaBlocks(List.of(linkMetaBlocks.get(0), otherBlock))
+                .build();
+        assertThat(verificationContext.getLinksBySegmentNameAndStepName().get(SEGMENT_NAME).get(STEP_NAME), is(linkMetaBlocks.get(0).getLink()));
+        
+        verificationContext.removeLinkMetaBlocks(linkMetaBlocks);
+        assertThat(verificationContext.getLinksBySegmentNameAndStepName().get(SEGMENT_NAME).get(STEP_NAME), is(otherBlock.getLink()));
+        assertThat(verificationContext.getLinksBySegmentNameAndStep().get(SEGMENT_NAME).get(STEP), is(otherBlock.getLink()));
+        
+        verificationContext.removeLinkMetaBlocks(List.of(otherBlock));
+        assertThat(verificationContext.getLinkMetaBlocks(), empty());
+        assertThat(verificationContext.getLinksBySegmentNameAndStepName().get(SEGMENT_NAME).get(STEP_NAME), nullValue());
+        assertThat(verificationContext.getLinksBySegmentNameAndStep().get(SEGMENT_NAME).containsKey(STEP), is(true));
+    }
+    
     @Test
     void getStepBySegmentNameAndStepName() {
         Step step = verificationContext.getStepBySegmentNameAndStepName(SEGMENT_NAME, STEP_NAME);
@@ -125,6 +149,14 @@ class VerificationContextTest {
         assertThat(segmentMap.get(SEGMENT_NAME).get(STEP_NAME), is(linkMetaBlocks.get(0).getLink()));
     }
     
+    @Test
+    void getLinkArtifacts() {
+        Link link = linkMetaBlocks.get(0).getLink();
+        LinkArtifacts linkArtifacts = verificationContext.getLinkArtifacts(link);
+        assertThat(verificationContext.getLinkArtifacts(link), sameInstance(linkArtifacts));
+        assertThat(linkArtifacts.getMaterials().size(), is(0));
+    }
+    
     @Test
     void nonNull() {
         Throwable exception = assertThrows(java.lang.NullPointerException.class, () -> {
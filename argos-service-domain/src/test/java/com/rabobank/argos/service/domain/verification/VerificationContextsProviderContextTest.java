@@ -19,6 +19,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -33,8 +34,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 import com.rabobank.argos.domain.ArgosError;
+import com.rabobank.argos.domain.Signature;
 import com.rabobank.argos.domain.layout.ArtifactType;
 import com.rabobank.argos.domain.layout.Layout;
 import com.rabobank.argos.domain.layout.LayoutSegment;
@@ -45,6 +50,7 @@ import com.rabobank.argos.domain.layout.rule.RuleType;
 import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.Link;
 import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockHeader;
 import com.rabobank.argos.service.domain.verification.rules.AllowRuleVerification;
 import com.rabobank.argos.service.domain.verification.rules.MatchRuleVerification;
 import com.rabobank.argos.service.domain.verification.rules.RuleVerification;
@@ -141,9 +147,6 @@ class VerificationContextsProviderContextTest {
     void initTest() {
         VerificationContextsProviderContext context = VerificationContextsProviderContext.builder().layout(layout1).build();
         context.init();
-        assertThat(context.getLinkMetaBlockSets(), is(new HashSet<>()));
-        assertThat(context.getResolvedSegments(), is(Set.of()));
-        assertThat(context.getResolvedSegments(), is(Set.of()));
 
         assertThat(context.getSegmentGraph(), is(graph));
         
@@ -156,16 +159,6 @@ class VerificationContextsProviderContextTest {
         
     }
     
-    @Test
-    void getNextSegmentTest() {
-        VerificationContextsProviderContext context = VerificationContextsProviderContext.builder().layout(layout1).build();
-        context.init();
-        assertThat(context.getNextSegment(), is(Optional.of(segment1)));
-        assertThat(context.getNextSegment(), is(Optional.of(segment2)));
-        assertThat(context.getNextSegment(), is(Optional.of(segment3)));
-        assertThat(context.getNextSegment(), is(Optional.empty()));
-    }
-    
     @Test
     void getFirstMatchRulesAndArtifactsTest() {
         Artifact artifact1 = new Artifact("file1", "hash1");
@@ -274,56 +267,6 @@ class VerificationContextsProviderContextTest {
         assertThat(actualStepMap, is(expectedStepMap));
     }
     
-    @Test
-    void permutateAndAddLinkMetaBlocksTest() {
-        Artifact artifact111 = new Artifact("file111", "hash111");
-        Artifact artifact112 = new Artifact("file112", "hash112");
-        Artifact artifact121 = new Artifact("file121", "hash121");
-        Artifact artifact122 = new Artifact("file122", "hash122");
-        Artifact artifact211 = new Artifact("file211", "hash211");
-        Artifact artifact212 = new Artifact("file212", "hash212");
-
-        Link link111 = Link.builder().layoutSegmentName("segment1").stepName("step11").materials(List.of(artifact111)).build();
-        Link link112 = Link.builder().layoutSegmentName("segment1").stepName("step11").materials(List.of(artifact112)).build();
-        Link link121 = Link.builder().layoutSegmentName("segment1").stepName("step12").materials(List.of(artifact121)).build();
-        Link link122 = Link.builder().layoutSegmentName("segment1").stepName("step12").materials(List.of(artifact122)).build();
-        LinkMetaBlock block111 = LinkMetaBlock.builder().link(link111).build();
-        LinkMetaBlock block112 = LinkMetaBlock.builder().link(link112).build();
-        LinkMetaBlock block121 = LinkMetaBlock.builder().link(link121).build();
-        LinkMetaBlock block122 = LinkMetaBlock.builder().link(link122).build();
-        Set<Set<LinkMetaBlock>> beginSets = new HashSet<>();
-        beginSets.add(Set.of(block111, block121));
-        beginSets.add(Set.of(block111, block122));
-        beginSets.add(Set.of(block112, block121));
-        beginSets.add(Set.of(block112, block122));
-        
-        Set<Set<LinkMetaBlock>> startSets = new HashSet<>();
-        startSets.add(new HashSet<>());
-
-        Set<Set<LinkMetaBlock>> actualSets = VerificationContextsProviderContext.permutateAndAddLinkMetaBlocks(Set.of(block111, block112, block121, block122), startSets);
-        
-        assertThat(actualSets, is(beginSets));
-
-        Link link211 = Link.builder().layoutSegmentName("segment2").stepName("step21").materials(List.of(artifact211)).build();
-        Link link212 = Link.builder().layoutSegmentName("segment2").stepName("step21").materials(List.of(artifact212)).build();
-        LinkMetaBlock block211 = LinkMetaBlock.builder().link(link211).build();
-        LinkMetaBlock block212 = LinkMetaBlock.builder().link(link212).build();
-        
-        Set<Set<LinkMetaBlock>> expectedSets = new HashSet<>();
-        expectedSets.add(Set.of(block111, block121, block211));
-        expectedSets.add(Set.of(block112, block121, block211));
-        expectedSets.add(Set.of(block111, block122, block211));
-        expectedSets.add(Set.of(block112, block122, block211));
-        expectedSets.add(Set.of(block111, block121, block212));
-        expectedSets.add(Set.of(block112, block121, block212));
-        expectedSets.add(Set.of(block111, block122, block212));
-        expectedSets.add(Set.of(block112, block122, block212));
-
-        actualSets = VerificationContextsProviderContext.permutateAndAddLinkMetaBlocks(Set.of(block211, block212), beginSets);
-        
-        assertThat(actualSets, is(expectedSets));
-    }
-    
     @Test
     void permutateOnStepsInSegmentTest() {
         Artifact artifact111 = new Artifact("file111", "hash111");
@@ -335,14 +278,20 @@ class VerificationContextsProviderContextTest {
         Link link112 = Link.builder().layoutSegmentName("segment1").stepName("step11").materials(List.of(artifact112)).build();
         Link link121 = Link.builder().layoutSegmentName("segment1").stepName("step12").materials(List.of(artifact121)).build();
         Link link122 = Link.builder().layoutSegmentName("segment1").stepName("step12").materials(List.of(artifact122)).build();
-        LinkMetaBlock block111 = LinkMetaBlock.builder().link(link111).build();
-        LinkMetaBlock block112 = LinkMetaBlock.builder().link(link112).build();
-        LinkMetaBlock block121 = LinkMetaBlock.builder().link(link121).build();
-        LinkMetaBlock block122 = LinkMetaBlock.builder().link(link122).build();
-        Set<Set<LinkMetaBlock>> expectedSets = new HashSet<>();
+        LinkMetaBlockHeader block111 = LinkMetaBlockHeader.of(LinkMetaBlock.builder().link(link111).build());
+        LinkMetaBlockHeader block112 = LinkMetaBlockHeader.of(LinkMetaBlock.builder().link(link112).build());
+        LinkMetaBlockHeader block121 = LinkMetaBlockHeader.of(LinkMetaBlock.builder().link(link121).build());
+        LinkMetaBlockHeader block122 = LinkMetaBlockHeader.of(LinkMetaBlock.builder().link(link122).build());
+        LayoutSegment segmentWithOneStep = LayoutSegment.builder().name("segment1")
+                .steps(List.of(Step.builder().name("step11").build())).build();
+        LayoutSegment segmentWithTwoSteps = LayoutSegment.builder().name("segment1")
+                .steps(List.of(Step.builder().name("step11").build(), Step.builder().name("step12").build())).build();
+
+        Set<Set<LinkMetaBlockHeader>> expectedSets = new HashSet<>();
         expectedSets.add(Set.of(block111));
         expectedSets.add(Set.of(block112));
-        Set<Set<LinkMetaBlock>> actualSets = VerificationContextsProviderContext.permutateOnStepsInSegment(Set.of(block111, block112));
+        Set<Set<LinkMetaBlockHeader>> actualSets = VerificationContextsProviderContext.permutateOnStepsInSegment(segmentWithOneStep, Set.of(block111, block112))
+                .map(HashSet::new).collect(toSet());
         
         assertThat(actualSets, is(expectedSets));
         
@@ -351,9 +300,70 @@ class VerificationContextsProviderContextTest {
         expectedSets.add(Set.of(block112, block121));
         expectedSets.add(Set.of(block111, block122));
         expectedSets.add(Set.of(block112, block122));
-        actualSets = VerificationContextsProviderContext.permutateOnStepsInSegment(Set.of(block111, block112, block121, block122));
+        actualSets = VerificationContextsProviderContext.permutateOnStepsInSegment(segmentWithTwoSteps, Set.of(block111, block112, block121, block122))
+                .map(HashSet::new).collect(toSet());
         
         assertThat(actualSets, is(expectedSets));
     }
 
+    @Test
+    void permutateOnStepsInSegmentWithLinkSignedTwiceTest() {
+        Link link111 = Link.builder().layoutSegmentName("segment1").stepName("step11").materials(List.of(new Artifact("file111", "hash111"))).build();
+        LinkMetaBlockHeader block111 = LinkMetaBlockHeader.of(LinkMetaBlock.builder()
+                .signature(Signature.builder().keyId("keyId1").signature("signature1").build()).link(link111).build());
+        LinkMetaBlockHeader block111OtherSignature = LinkMetaBlockHeader.of(LinkMetaBlock.builder()
+                .signature(Signature.builder().keyId("keyId2").signature("signature2").build()).link(link111).build());
+        LayoutSegment segment = LayoutSegment.builder().name("segment1")
+                .steps(List.of(Step.builder().name("step11").build())).build();
+
+        List<List<LinkMetaBlockHeader>> actualSets = VerificationContextsProviderContext.permutateOnStepsInSegment(segment, Set.of(block111, block111OtherSignature))
+                .collect(toList());
+
+        assertThat(actualSets, hasSize(1));
+        assertThat(new HashSet<>(actualSets.get(0)), is(Set.of(block111, block111OtherSignature)));
+    }
+
+    @Test
+    void permutateOnStepsInSegmentWithoutLinkDigestTest() {
+        LinkMetaBlockHeader block111 = LinkMetaBlockHeader.builder().segmentName("segment1").stepName("step11").signature("signature1").build();
+        LinkMetaBlockHeader block112 = LinkMetaBlockHeader.builder().segmentName("segment1").stepName("step11").signature("signature2").build();
+        LayoutSegment segment = LayoutSegment.builder().name("segment1")
+                .steps(List.of(Step.builder().name("step11").build())).build();
+
+        Set<Set<LinkMetaBlockHeader>> actualSets = VerificationContextsProviderContext.permutateOnStepsInSegment(segment, Set.of(block111, block112))
+                .map(HashSet::new).collect(toSet());
+
+        assertThat(actualSets, is(Set.of(Set.of(block111), Set.of(block112))));
+    }
+
+    @Test
+    void permutateOnStepsInSegmentWithMissingStepIsPrunedTest() {
+        Link link111 = Link.builder().layoutSegmentName("segment1").stepName("step11").materials(List.of(new Artifact("file111", "hash111"))).build();
+        LinkMetaBlockHeader block111 = LinkMetaBlockHeader.of(LinkMetaBlock.builder().link(link111).build());
+        LayoutSegment segmentWithTwoSteps = LayoutSegment.builder().name("segment1")
+                .steps(List.of(Step.builder().name("step11").build(), Step.builder().name("step12").build())).build();
+
+        assertThat(VerificationContextsProviderContext.permutateOnStepsInSegment(segmentWithTwoSteps, Set.of(block111)).count(), is(0L));
+    }
+
+    @Test
+    void permutateOnStepsInSegmentIsLazyTest() {
+        Set<LinkMetaBlockHeader> blocks = new HashSet<>();
+        List<Step> steps = new ArrayList<>();
+        for (int step = 0; step < 20; step++) {
+            steps.add(Step.builder().name("step" + step).build());
+            for (int run = 0; run < 4; run++) {
+                blocks.add(LinkMetaBlockHeader.builder().segmentName("segment1").stepName("step" + step)
+                        .runId("run" + run).linkDigest("digest" + step + "_" + run).build());
+            }
+        }
+        LayoutSegment segment = LayoutSegment.builder().name("segment1").steps(steps).build();
+
+        // 4^20 combinations, only the first one should be generated
+        Optional<List<LinkMetaBlockHeader>> first = VerificationContextsProviderContext.permutateOnStepsInSegment(segment, blocks).findFirst();
+
+        assertThat(first.isPresent(), is(true));
+        assertThat(first.get(), hasSize(20));
+    }
+
 }
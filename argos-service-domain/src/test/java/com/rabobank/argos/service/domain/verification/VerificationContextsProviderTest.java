@@ -15,6 +15,7 @@
  */
 package com.rabobank.argos.service.domain.verification;
 
+import com.rabobank.argos.domain.Signature;
 import com.rabobank.argos.domain.layout.ArtifactType;
 import com.rabobank.argos.domain.layout.Layout;
 import com.rabobank.argos.domain.layout.LayoutMetaBlock;
@@ -25,6 +26,7 @@ import com.rabobank.argos.domain.layout.rule.Rule;
 import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.Link;
 import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockHeader;
 import com.rabobank.argos.service.domain.link.LinkMetaBlockRepository;
 import com.rabobank.argos.service.domain.verification.rules.AllowRuleVerification;
 import com.rabobank.argos.service.domain.verification.rules.CreateRuleVerification;
@@ -37,18 +39,32 @@ import com.rabobank.argos.service.domain.verification.rules.RequireRuleVerificat
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -106,6 +122,11 @@ class VerificationContextsProviderTest {
 
     private VerificationContextsProvider verificationContextsProvider;
 
+    private final Map<String, LinkMetaBlock> linkMetaBlocksBySignature = new HashMap<>();
+
+    @Captor
+    private ArgumentCaptor<List<String>> signaturesCaptor;
+
     private LinkMetaBlock linkMetaBlockFromInput2;
 
     private LinkMetaBlock linkMetaBlockFromMatchRuleSegment2_1;
@@ -122,6 +143,7 @@ class VerificationContextsProviderTest {
         linkMetaBlockFromInput = LinkMetaBlock
                 .builder()
                 .supplyChainId(SUPPLY_CHAIN_ID)
+                .signature(Signature.builder().keyId("keyId").signature("linkMetaBlockFromInput").build())
                 .link(Link.builder()
                         .layoutSegmentName(SEGMENT_NAME_1)
                         .stepName(STEP_NAME_1)
@@ -134,6 +156,7 @@ class VerificationContextsProviderTest {
         linkMetaBlockFromInput2 = LinkMetaBlock
                 .builder()
                 .supplyChainId(SUPPLY_CHAIN_ID)
+                .signature(Signature.builder().keyId("keyId").signature("linkMetaBlockFromInput2").build())
                 .link(Link.builder()
                         .layoutSegmentName(SEGMENT_NAME_1)
                         .stepName(STEP_NAME_1)
@@ -147,6 +170,7 @@ class VerificationContextsProviderTest {
         linkMetaBlockFromMatchRuleSegment2_1 = LinkMetaBlock
                 .builder()
                 .supplyChainId(SUPPLY_CHAIN_ID)
+                .signature(Signature.builder().keyId("keyId").signature("linkMetaBlockFromMatchRuleSegment2_1").build())
                 .link(Link.builder()
                         .layoutSegmentName(SEGMENT_NAME_2)
                         .stepName(STEP_NAME_2)
@@ -159,6 +183,7 @@ class VerificationContextsProviderTest {
         linkMetaBlockFromMatchRuleSegment3 = LinkMetaBlock
                 .builder()
                 .supplyChainId(SUPPLY_CHAIN_ID)
+                .signature(Signature.builder().keyId("keyId").signature("linkMetaBlockFromMatchRuleSegment3").build())
                 .link(Link.builder()
                         .layoutSegmentName(SEGMENT_NAME_3)
                         .stepName(STEP_NAME_3)
@@ -171,6 +196,7 @@ class VerificationContextsProviderTest {
         linkMetaBlockFromRunId1_1 = LinkMetaBlock
                 .builder()
                 .supplyChainId(SUPPLY_CHAIN_ID)
+                .signature(Signature.builder().keyId("keyId").signature("linkMetaBlockFromRunId1_1").build())
                 .link(Link.builder()
                         .layoutSegmentName(SEGMENT_NAME_1)
                         .stepName(STEP_NAME_2)
@@ -183,6 +209,7 @@ class VerificationContextsProviderTest {
         linkMetaBlockFromRunId1_2 = LinkMetaBlock
                 .builder()
                 .supplyChainId(SUPPLY_CHAIN_ID)
+                .signature(Signature.builder().keyId("keyId").signature("linkMetaBlockFromRunId1_2").build())
                 .link(Link.builder()
                         .layoutSegmentName(SEGMENT_NAME_1)
                         .stepName(STEP_NAME_2)
@@ -200,8 +227,22 @@ class VerificationContextsProviderTest {
                 new DisallowRuleVerification(),
                 new MatchRuleVerification(),
                 new ModifyRuleVerification(),
-                new RequireRuleVerification()));
+                new RequireRuleVerification()),
+                new CompiledLayoutCache(100, Duration.ofHours(1)));
         verificationContextsProvider.init();
+
+        lenient().when(linkMetaBlockRepository.findBySupplyChainAndSignatures(eq(SUPPLY_CHAIN_ID), any(), eq(false)))
+                .thenAnswer(invocation -> invocation.<List<String>>getArgument(1).stream()
+                        .map(linkMetaBlocksBySignature::get)
+                        .filter(Objects::nonNull)
+                        .collect(toList()));
+    }
+
+    private List<LinkMetaBlockHeader> headers(LinkMetaBlock... linkMetaBlocks) {
+        for (LinkMetaBlock linkMetaBlock : linkMetaBlocks) {
+            linkMetaBlocksBySignature.put(linkMetaBlock.getSignature().getSignature(), linkMetaBlock);
+        }
+        return Stream.of(linkMetaBlocks).map(LinkMetaBlockHeader::of).collect(toList());
     }
 
     private void createArtifacts() {
@@ -246,14 +287,38 @@ class VerificationContextsProviderTest {
     @Test
     void createPossibleVerificationContextsWithMultipleStepsAndMultipleEqualLinkSets() {
         setupMocksForMultipleSteps();
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts);
+        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts, false).collect(toList());
         assertThat(verificationContexts, hasSize(2));
+
+        verify(linkMetaBlockRepository).findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(any(), any(), any(), eq(false));
+        verify(linkMetaBlockRepository, times(2)).findBySupplyChainAndSignatures(eq(SUPPLY_CHAIN_ID), any(), eq(false));
+        verifyNoMoreInteractions(linkMetaBlockRepository);
+    }
+
+    @Test
+    void createPossibleVerificationContextsShouldOnlyLoadTheLinksOfTheVisitedCandidates() {
+        setupMocksForSingleStep();
+        Optional<VerificationContext> verificationContext = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts, false).findFirst();
+        assertThat(verificationContext.isPresent(), is(true));
+        assertThat(verificationContext.get().getLinkMetaBlocks(), hasSize(1));
+
+        verify(linkMetaBlockRepository).findBySupplyChainAndSignatures(eq(SUPPLY_CHAIN_ID), signaturesCaptor.capture(), eq(false));
+        assertThat(signaturesCaptor.getValue(), is(List.of(verificationContext.get().getLinkMetaBlocks().get(0).getSignature().getSignature())));
+    }
+
+    @Test
+    void createPossibleVerificationContextsShouldSkipCandidatesWithLinksThatAreNotFound() {
+        setupMocksForSingleStep();
+        linkMetaBlocksBySignature.remove(linkMetaBlockFromInput2.getSignature().getSignature());
+        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts, false).collect(toList());
+        assertThat(verificationContexts, hasSize(1));
+        assertThat(verificationContexts.get(0).getLinkMetaBlocks(), is(List.of(linkMetaBlockFromInput)));
     }
 
     @Test
     void createPossibleVerificationContextsSingleStepAndMultipleEqualLinkSets() {
         setupMocksForSingleStep();
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts);
+        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts, false).collect(toList());
         assertThat(verificationContexts, hasSize(2));
     }
 
@@ -266,7 +331,7 @@ class VerificationContextsProviderTest {
         when(layoutSegment1.getName()).thenReturn(SEGMENT_NAME_1);
         when(layoutSegment1.getSteps()).thenReturn(singletonList(step1));
         Artifact wrongArtifact = Artifact.builder().uri("/wrong.exe").hash("hash").build();
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, singletonList(wrongArtifact));
+        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, singletonList(wrongArtifact), false).collect(toList());
         assertThat(verificationContexts, hasSize(0));
     }
 
@@ -274,14 +339,14 @@ class VerificationContextsProviderTest {
     void createPossibleVerificationContextsWithMatchinMaterialArtifacts() {
         setupMocksForMultipleSteps();
         createMatchRuleMaterials();
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts);
+        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts, false).collect(toList());
         assertThat(verificationContexts, hasSize(2));
     }
 
     @Test
     void createPossibleVerificationContextsWithMultipleSegmentsShouldReturnOneVerificationContext() {
         setupMocksForMultipleSegments();
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts);
+        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts, false).collect(toList());
         assertThat(verificationContexts, hasSize(1));
         VerificationContext verificationContext = verificationContexts.iterator().next();
         assertThat(verificationContext.getLinkMetaBlocks(), hasSize(3));
@@ -320,20 +385,17 @@ class VerificationContextsProviderTest {
         Layout layout = Layout.builder().expectedEndProducts(matchRule).layoutSegments(List.of(layoutSegment1, layoutSegment2, layoutSegment3)).build();        
         LayoutMetaBlock layoutMetaBlock = LayoutMetaBlock.builder().supplyChainId(SUPPLY_CHAIN_ID).layout(layout).build();
 
-        when(linkMetaBlockRepository.findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_1), eq(STEP_NAME_1), any()))
-                .thenReturn(List.of(linkMetaBlockFromInput));
+        when(linkMetaBlockRepository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_1), any(), eq(false)))
+                .thenReturn(headers(linkMetaBlockFromInput));
 
         when(linkMetaBlockRepository
-                .findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_2), eq(STEP_NAME_2), any()))
-                .thenReturn(List.of(linkMetaBlockFromMatchRuleSegment2_1));
+                .findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_2), any(), eq(false)))
+                .thenReturn(headers(linkMetaBlockFromMatchRuleSegment2_1));
 
         when(linkMetaBlockRepository
-                .findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_3), eq(STEP_NAME_3), any()))
-                .thenReturn(List.of(linkMetaBlockFromMatchRuleSegment3));
-
-        when(linkMetaBlockRepository.findByRunId(any(), any(), any(), any()))
-                .thenReturn(emptyList());
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts);
+                .findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_3), any(), eq(false)))
+                .thenReturn(headers(linkMetaBlockFromMatchRuleSegment3));
+        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts, false).collect(toList());
         assertThat(verificationContexts, hasSize(1));
         VerificationContext verificationContext = verificationContexts.iterator().next();
         assertThat(verificationContext.getLinkMetaBlocks(), hasSize(3));
@@ -342,10 +404,47 @@ class VerificationContextsProviderTest {
         assertThat(verificationContext.getLinkMetaBlocks().contains(linkMetaBlockFromMatchRuleSegment3), is(true));
     }
 
+    @Test
+    void createPossibleVerificationContextsWithUnresolvableSegmentShouldPruneBranch() {
+        MatchRule matchRule4StepOne2StepTwo = MatchRule.builder()
+                .destinationStepName(STEP_NAME_2).pattern("**/*.jar")
+                .destinationType(ArtifactType.PRODUCTS)
+                .destinationSegmentName(SEGMENT_NAME_2)
+                .build();
+
+        MatchRule matchRule4StepTwo2StepThree = MatchRule.builder()
+                .destinationStepName(STEP_NAME_3).pattern("**/*.jar")
+                .destinationType(ArtifactType.PRODUCTS)
+                .destinationSegmentName(SEGMENT_NAME_3)
+                .build();
+
+        Step step1 = Step.builder().name(STEP_NAME_1).expectedProducts(List.of(matchRule4StepOne2StepTwo)).build();
+        Step step2 = Step.builder().name(STEP_NAME_2).expectedProducts(List.of(matchRule4StepTwo2StepThree)).build();
+        Step step3 = Step.builder().name(STEP_NAME_3).build();
+
+        LayoutSegment layoutSegment1 = LayoutSegment.builder().name(SEGMENT_NAME_1).steps(List.of(step1)).build();
+        LayoutSegment layoutSegment2 = LayoutSegment.builder().name(SEGMENT_NAME_2).steps(List.of(step2)).build();
+        LayoutSegment layoutSegment3 = LayoutSegment.builder().name(SEGMENT_NAME_3).steps(List.of(step3)).build();
+
+        Layout layout = Layout.builder().expectedEndProducts(matchRule).layoutSegments(List.of(layoutSegment1, layoutSegment2, layoutSegment3)).build();
+        LayoutMetaBlock layoutMetaBlock = LayoutMetaBlock.builder().supplyChainId(SUPPLY_CHAIN_ID).layout(layout).build();
+
+        when(linkMetaBlockRepository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_1), any(), eq(false)))
+                .thenReturn(headers(linkMetaBlockFromInput));
+
+        when(linkMetaBlockRepository
+                .findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_2), any(), eq(false)))
+                .thenReturn(emptyList());
+        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts, false).collect(toList());
+        assertThat(verificationContexts, hasSize(0));
+        verify(linkMetaBlockRepository, never())
+                .findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_3), any(), eq(false));
+    }
+
     @Test
     void createPossibleVerificationContextsWithMultipleSegmentsWithHopShouldReturnFourVerificationContexts() {
         setupMocksForMultipleSegmentsWithHopMultipleSets();
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts);
+        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, artifacts, false).collect(toList());
         assertThat(verificationContexts, hasSize(2));
     }
 
@@ -358,8 +457,8 @@ class VerificationContextsProviderTest {
         when(step1.getName()).thenReturn(STEP_NAME_1);
         when(layout.getExpectedEndProducts()).thenReturn(matchRule);
         when(linkMetaBlockRepository
-                .findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(any(), any(), any(), any()))
-                .thenReturn(List.of(linkMetaBlockFromInput, linkMetaBlockFromInput2));
+                .findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(any(), any(), any(), eq(false)))
+                .thenReturn(headers(linkMetaBlockFromInput, linkMetaBlockFromInput2));
     }
 
     void setupMocksForMultipleSteps() {
@@ -371,11 +470,8 @@ class VerificationContextsProviderTest {
         when(step1.getName()).thenReturn(STEP_NAME_1);
         when(layout.getExpectedEndProducts()).thenReturn(matchRule);
         when(linkMetaBlockRepository
-                .findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(any(), any(), any(), any()))
-                .thenReturn(List.of(linkMetaBlockFromInput));
-
-        when(linkMetaBlockRepository.findByRunId(any(), any(), any(), any()))
-                .thenReturn(List.of(linkMetaBlockFromRunId1_1, linkMetaBlockFromRunId1_2));
+                .findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(any(), any(), any(), eq(false)))
+                .thenReturn(headers(linkMetaBlockFromInput, linkMetaBlockFromRunId1_1, linkMetaBlockFromRunId1_2));
     }
 
     void setupMocksForMultipleSegments() {
@@ -411,19 +507,16 @@ class VerificationContextsProviderTest {
         when(layout.getExpectedEndProducts()).thenReturn(matchRule);
 
         when(linkMetaBlockRepository
-                .findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_1), eq(STEP_NAME_1), any()))
-                .thenReturn(List.of(linkMetaBlockFromInput));
+                .findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_1), any(), eq(false)))
+                .thenReturn(headers(linkMetaBlockFromInput));
 
         when(linkMetaBlockRepository
-                .findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_2), eq(STEP_NAME_2), any()))
-                .thenReturn(List.of(linkMetaBlockFromMatchRuleSegment2_1));
+                .findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_2), any(), eq(false)))
+                .thenReturn(headers(linkMetaBlockFromMatchRuleSegment2_1));
 
         when(linkMetaBlockRepository
-                .findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_3), eq(STEP_NAME_3), any()))
-                .thenReturn(List.of(linkMetaBlockFromMatchRuleSegment3));
-
-        when(linkMetaBlockRepository.findByRunId(any(), any(), any(), any()))
-                .thenReturn(emptyList());
+                .findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_3), any(), eq(false)))
+                .thenReturn(headers(linkMetaBlockFromMatchRuleSegment3));
     }
 
     private void setupMocksForMultipleSegmentsWithHopMultipleSets() {
@@ -431,6 +524,7 @@ class VerificationContextsProviderTest {
         linkMetaBlockFromMatchRuleSegment2_2 = LinkMetaBlock
                 .builder()
                 .supplyChainId(SUPPLY_CHAIN_ID)
+                .signature(Signature.builder().keyId("keyId").signature("linkMetaBlockFromMatchRuleSegment2_2").build())
                 .link(Link.builder()
                         .layoutSegmentName(SEGMENT_NAME_2)
                         .stepName(STEP_NAME_2)
@@ -476,18 +570,15 @@ class VerificationContextsProviderTest {
         when(step3.getName()).thenReturn(STEP_NAME_3);
         when(layout.getExpectedEndProducts()).thenReturn(matchRule);
 
-        when(linkMetaBlockRepository.findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_1), eq(STEP_NAME_1), any()))
-                .thenReturn(List.of(linkMetaBlockFromInput));
+        when(linkMetaBlockRepository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_1), any(), eq(false)))
+                .thenReturn(headers(linkMetaBlockFromInput));
 
-        when(linkMetaBlockRepository.findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_2), eq(STEP_NAME_2), any()))
-                .thenReturn(List.of(linkMetaBlockFromMatchRuleSegment2_1, linkMetaBlockFromMatchRuleSegment2_2));
+        when(linkMetaBlockRepository.findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_2), any(), eq(false)))
+                .thenReturn(headers(linkMetaBlockFromMatchRuleSegment2_1, linkMetaBlockFromMatchRuleSegment2_2));
 
         when(linkMetaBlockRepository
-                .findBySupplyChainAndSegmentNameAndStepNameAndArtifactTypesAndArtifactHashes(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_3), eq(STEP_NAME_3), any()))
-                .thenReturn(List.of(linkMetaBlockFromMatchRuleSegment3));
-
-        when(linkMetaBlockRepository.findByRunId(any(), any(), any(), any()))
-                .thenReturn(emptyList());
+                .findHeadersBySupplyChainAndSegmentNameAndStepArtifacts(eq(SUPPLY_CHAIN_ID), eq(SEGMENT_NAME_3), any(), eq(false)))
+                .thenReturn(headers(linkMetaBlockFromMatchRuleSegment3));
     }
 
 }
\ No newline at end of file
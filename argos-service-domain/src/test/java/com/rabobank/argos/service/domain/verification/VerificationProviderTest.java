@@ -25,13 +25,23 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
 
-import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -72,7 +82,7 @@ class VerificationProviderTest {
     @BeforeEach
     void setup() {
         verifications = new ArrayList<>();
-        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider);
+        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, 1, 4, Duration.ofMinutes(1));
     }
 
     @Test
@@ -82,7 +92,7 @@ class VerificationProviderTest {
         when(highPrio.verify(any(VerificationContext.class))).thenReturn(verificationRunResultHigh);
         when(verificationRunResultLow.isRunIsValid()).thenReturn(true);
         when(verificationRunResultHigh.isRunIsValid()).thenReturn(true);
-        assertThat(verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact)).isRunIsValid(), is(true));
+        assertThat(verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact), false).isRunIsValid(), is(true));
         verify(lowPrio).verify(verificationContextArgumentCaptor.capture());
     }
 
@@ -91,13 +101,133 @@ class VerificationProviderTest {
         setupMocking();
         when(verificationRunResultHigh.isRunIsValid()).thenReturn(false);
         when(highPrio.verify(any(VerificationContext.class))).thenReturn(verificationRunResultHigh);
-        assertThat(verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact)).isRunIsValid(), is(false));
+        assertThat(verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact), false).isRunIsValid(), is(false));
+    }
+
+    @Test
+    void verifyShouldStopAtFirstValidContext() {
+        VerificationContext secondContext = mock(VerificationContext.class);
+        when(lowPrio.getPriority()).thenReturn(Verification.Priority.EXPECTED_COMMAND);
+        when(highPrio.getPriority()).thenReturn(Verification.Priority.LAYOUT_METABLOCK_SIGNATURE);
+        when(verificationContextsProvider.createPossibleVerificationContexts(any(), any(), eq(false))).thenReturn(Stream.of(verificationContext, secondContext));
+        verifications.add(lowPrio);
+        verifications.add(highPrio);
+        verificationProvider.init();
+        when(lowPrio.verify(verificationContext)).thenReturn(verificationRunResultLow);
+        when(highPrio.verify(verificationContext)).thenReturn(verificationRunResultHigh);
+        when(verificationRunResultLow.isRunIsValid()).thenReturn(true);
+        when(verificationRunResultHigh.isRunIsValid()).thenReturn(true);
+        assertThat(verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact), false).isRunIsValid(), is(true));
+        verify(highPrio, never()).verify(secondContext);
+    }
+
+    @Test
+    void verifyShouldTimeOutBeforeNextVerification() {
+        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, 1, 4, Duration.ofMillis(100));
+        setupMocking();
+        when(highPrio.verify(verificationContext)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return verificationRunResultHigh;
+        });
+        when(verificationRunResultHigh.isRunIsValid()).thenReturn(true);
+        VerificationRunResult verificationRunResult = verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact), false);
+        assertThat(verificationRunResult.isRunIsValid(), is(false));
+        assertThat(verificationRunResult.isTimedOut(), is(true));
+        verify(lowPrio, never()).verify(any());
+    }
+
+    @Test
+    void verifyParallelShouldFindValidContext() {
+        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, 2, 4, Duration.ofMinutes(1));
+        VerificationContext secondContext = mock(VerificationContext.class);
+        when(verificationContextsProvider.createPossibleVerificationContexts(any(), any(), eq(false))).thenReturn(Stream.of(verificationContext, secondContext));
+        verifications.add(highPrio);
+        verificationProvider.init();
+        // the invalid context can be cancelled before it is verified
+        lenient().when(highPrio.verify(verificationContext)).thenReturn(verificationRunResultLow);
+        when(highPrio.verify(secondContext)).thenReturn(verificationRunResultHigh);
+        lenient().when(verificationRunResultLow.isRunIsValid()).thenReturn(false);
+        when(verificationRunResultHigh.isRunIsValid()).thenReturn(true);
+        assertThat(verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact), false).isRunIsValid(), is(true));
+        verificationProvider.shutdown();
+    }
+
+    @Test
+    void verifyParallelShouldProduceFalseVerificationRunResult() {
+        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, 2, 4, Duration.ofMinutes(1));
+        when(verificationContextsProvider.createPossibleVerificationContexts(any(), any(), eq(false))).thenReturn(Stream.of(verificationContext));
+        verifications.add(highPrio);
+        verificationProvider.init();
+        when(highPrio.verify(verificationContext)).thenReturn(verificationRunResultHigh);
+        when(verificationRunResultHigh.isRunIsValid()).thenReturn(false);
+        assertThat(verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact), false).isRunIsValid(), is(false));
+        verificationProvider.shutdown();
+    }
+
+    @Test
+    void verifyParallelShouldTimeOut() {
+        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, 2, 4, Duration.ofMillis(100));
+        when(verificationContextsProvider.createPossibleVerificationContexts(any(), any(), eq(false))).thenReturn(Stream.of(verificationContext));
+        verifications.add(highPrio);
+        verificationProvider.init();
+        when(highPrio.verify(verificationContext)).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return verificationRunResultHigh;
+        });
+        VerificationRunResult verificationRunResult = verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact), false);
+        assertThat(verificationRunResult.isRunIsValid(), is(false));
+        assertThat(verificationRunResult.isTimedOut(), is(true));
+        verificationProvider.shutdown();
+    }
+
+    @Test
+    void verifyParallelShouldWaitForOtherRuns() throws Exception {
+        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, 2, 1, Duration.ofMinutes(1));
+        when(verificationContextsProvider.createPossibleVerificationContexts(any(), any(), eq(false)))
+                .thenAnswer(invocation -> Stream.of(verificationContext));
+        verifications.add(highPrio);
+        verificationProvider.init();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(highPrio.verify(verificationContext)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return verificationRunResultHigh;
+        });
+        when(verificationRunResultHigh.isRunIsValid()).thenReturn(true);
+        CompletableFuture<VerificationRunResult> firstRun = CompletableFuture
+                .supplyAsync(() -> verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact), false));
+        started.await();
+        CompletableFuture<VerificationRunResult> secondRun = CompletableFuture
+                .supplyAsync(() -> verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact), false));
+        Thread.sleep(200);
+        assertThat(secondRun.isDone(), is(false));
+        verify(highPrio, times(1)).verify(verificationContext);
+        release.countDown();
+        assertThat(firstRun.get().isRunIsValid(), is(true));
+        assertThat(secondRun.get().isRunIsValid(), is(true));
+        verify(highPrio, times(2)).verify(verificationContext);
+        verificationProvider.shutdown();
+    }
+
+    @Test
+    void invalidParallelism() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new VerificationProvider(verifications, verificationContextsProvider, 0, 4, Duration.ofMinutes(1)));
+        assertEquals("verification.parallelism should be at least 1 but is 0", exception.getMessage());
+    }
+
+    @Test
+    void invalidConcurrentRuns() {
+        Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> new VerificationProvider(verifications, verificationContextsProvider, 2, 0, Duration.ofMinutes(1)));
+        assertEquals("verification.concurrent-runs should be at least 1 but is 0", exception.getMessage());
     }
 
     private void setupMocking() {
         when(lowPrio.getPriority()).thenReturn(Verification.Priority.EXPECTED_COMMAND);
         when(highPrio.getPriority()).thenReturn(Verification.Priority.LAYOUT_METABLOCK_SIGNATURE);
-        when(verificationContextsProvider.createPossibleVerificationContexts(any(), any())).thenReturn(singletonList(verificationContext));
+        when(verificationContextsProvider.createPossibleVerificationContexts(any(), any(), eq(false))).thenReturn(Stream.of(verificationContext));
         verifications.add(lowPrio);
         verifications.add(highPrio);
         verificationProvider.init();
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.Signature;
+import com.rabobank.argos.domain.layout.LayoutMetaBlock;
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+
+class VerificationResultCacheTest {
+
+    private static final String SUPPLY_CHAIN_ID = "supplyChainId";
+
+    private static final String HASH = "cb6bdad36690e8024e7df13e6796ae6603f2cb9cf9f989c9ff939b2ecebdcb91";
+    private static final String OTHER_HASH = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private VerificationResultCache cache;
+
+    private LayoutMetaBlock layoutMetaBlock;
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private final VerificationRunResult result = VerificationRunResult.okay();
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerificationResultCache(100, Duration.ofMinutes(1));
+        layoutMetaBlock = createLayoutMetaBlock("signature");
+    }
+
+    @Test
+    void getOrVerifyShouldReturnCachedResult() {
+        assertThat(cache.getOrVerify(layoutMetaBlock, List.of(artifact("a"), artifact("b")), this::verify), sameInstance(result));
+        assertThat(cache.getOrVerify(layoutMetaBlock, List.of(artifact("b"), artifact("a")), this::verify).isRunIsValid(), is(true));
+        assertThat(verifications.get(), is(1));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    void cachedResultShouldNotKeepLinkMetaBlocks() {
+        VerificationRunResult resultWithLinks = VerificationRunResult.builder()
+                .runIsValid(true)
+                .linkMetaBlocks(List.of(LinkMetaBlock.builder().supplyChainId(SUPPLY_CHAIN_ID).build()))
+                .build();
+        assertThat(cache.getOrVerify(layoutMetaBlock, List.of(artifact("a")), () -> resultWithLinks), sameInstance(resultWithLinks));
+        VerificationRunResult cachedResult = cache.getOrVerify(layoutMetaBlock, List.of(artifact("a")), this::verify);
+        assertThat(cachedResult.isRunIsValid(), is(true));
+        assertThat(cachedResult.getLinkMetaBlocks(), is(empty()));
+        assertThat(verifications.get(), is(0));
+    }
+
+    @Test
+    void productsDigestOfCompactArtifactListShouldEqualDigestOfArtifacts() {
+        List<Artifact> artifacts = List.of(
+                new Artifact("a/b", HASH), new Artifact("a", OTHER_HASH), new Artifact("a", HASH),
+                new Artifact("a:0", HASH), new Artifact("a:f", HASH), new Artifact("\u00e9", HASH), new Artifact("b", HASH));
+        CompactArtifactList compactArtifactList = new CompactArtifactList();
+        artifacts.forEach(compactArtifactList::add);
+        assertThat(VerificationResultCache.productsDigest(compactArtifactList), is(VerificationResultCache.productsDigest(artifacts)));
+    }
+
+    @Test
+    void getOrVerifyWithOtherProductsShouldVerify() {
+        cache.getOrVerify(layoutMetaBlock, List.of(artifact("a")), this::verify);
+        cache.getOrVerify(layoutMetaBlock, List.of(artifact("b")), this::verify);
+        assertThat(verifications.get(), is(2));
+        assertThat(cache.getMissCount(), is(2L));
+    }
+
+    @Test
+    void getOrVerifyWithOtherLayoutShouldVerify() {
+        cache.getOrVerify(layoutMetaBlock, List.of(artifact("a")), this::verify);
+        cache.getOrVerify(createLayoutMetaBlock("otherSignature"), List.of(artifact("a")), this::verify);
+        assertThat(verifications.get(), is(2));
+    }
+
+    @Test
+    void invalidateShouldRemoveResultsOfSupplyChain() {
+        cache.getOrVerify(layoutMetaBlock, List.of(artifact("a")), this::verify);
+        cache.invalidate(SUPPLY_CHAIN_ID);
+        cache.getOrVerify(layoutMetaBlock, List.of(artifact("a")), this::verify);
+        assertThat(verifications.get(), is(2));
+    }
+
+    @Test
+    void invalidateDuringVerificationShouldNotCacheResult() {
+        cache.getOrVerify(layoutMetaBlock, List.of(artifact("a")), () -> {
+            cache.invalidate(SUPPLY_CHAIN_ID);
+            return verify();
+        });
+        cache.getOrVerify(layoutMetaBlock, List.of(artifact("a")), this::verify);
+        assertThat(verifications.get(), is(2));
+    }
+
+    @Test
+    void timedOutResultShouldNotBeCached() {
+        cache.getOrVerify(layoutMetaBlock, List.of(artifact("a")), () -> {
+            verify();
+            return VerificationRunResult.timedOut();
+        });
+        cache.getOrVerify(layoutMetaBlock, List.of(artifact("a")), this::verify);
+        assertThat(verifications.get(), is(2));
+    }
+
+    private VerificationRunResult verify() {
+        verifications.incrementAndGet();
+        return result;
+    }
+
+    private static LayoutMetaBlock createLayoutMetaBlock(String signature) {
+        return LayoutMetaBlock.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .signatures(List.of(Signature.builder().keyId("keyId").signature(signature).build()))
+                .build();
+    }
+
+    private static Artifact artifact(String uri) {
+        return Artifact.builder().uri(uri).hash("hash").build();
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.domain.verification;
+
+import com.rabobank.argos.domain.ArgosError;
+import com.rabobank.argos.domain.Signature;
+import com.rabobank.argos.domain.layout.Layout;
+import com.rabobank.argos.domain.layout.LayoutMetaBlock;
+import com.rabobank.argos.domain.layout.LayoutSegment;
+import com.rabobank.argos.domain.layout.Step;
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.LinkMetaBlock;
+import com.rabobank.argos.service.domain.link.LinkMetaBlockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VerificationRunServiceTest {
+
+    private static final String SUPPLY_CHAIN_ID = "supplyChainId";
+    private static final String SIGNATURE = "signature";
+    private static final String LINK_ID = "linkId";
+
+    @Mock
+    private VerificationProvider verificationProvider;
+
+    @Mock
+    private VerificationRunRepository verificationRunRepository;
+
+    @Mock
+    private LinkMetaBlockRepository linkMetaBlockRepository;
+
+    @Mock
+    private CompiledLayoutCache compiledLayoutCache;
+
+    @Mock
+    private CompiledLayout compiledLayout;
+
+    @Captor
+    private ArgumentCaptor<VerificationRun> verificationRunArgumentCaptor;
+
+    private VerificationRunService verificationRunService;
+
+    private LayoutMetaBlock layoutMetaBlock;
+
+    private LinkMetaBlock linkMetaBlock;
+
+    private final List<Artifact> productsToVerify = List.of(Artifact.builder().uri("uri").hash("hash").build());
+
+    @BeforeEach
+    void setUp() {
+        verificationRunService = new VerificationRunService(verificationProvider, verificationRunRepository, linkMetaBlockRepository, compiledLayoutCache);
+        layoutMetaBlock = LayoutMetaBlock.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .signatures(List.of(Signature.builder().keyId("keyId").signature("layoutSignature").build()))
+                .layout(Layout.builder()
+                        .layoutSegments(List.of(LayoutSegment.builder().name("segment")
+                                .steps(List.of(Step.builder().name("step").build())).build()))
+                        .build())
+                .build();
+        linkMetaBlock = LinkMetaBlock.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .signature(Signature.builder().keyId("keyId").signature(SIGNATURE).build())
+                .build();
+    }
+
+    @Test
+    void verifyRunShouldVerifyAndSaveRun() {
+        VerificationRunResult result = validResult();
+        when(verificationProvider.verifyRun(layoutMetaBlock, productsToVerify, false)).thenReturn(result);
+        assertThat(verificationRunService.verifyRun(layoutMetaBlock, productsToVerify, false, false), sameInstance(result));
+        verify(verificationRunRepository, never()).findLastValidRun(any(), any(), any());
+        verify(linkMetaBlockRepository, never()).findLastLinkIdBySupplyChainAndSteps(any(), any());
+
+        VerificationRun verificationRun = getSavedRun();
+        assertThat(verificationRun.getSupplyChainId(), is(SUPPLY_CHAIN_ID));
+        assertThat(verificationRun.getLayoutDigest(), is(VerificationResultCache.layoutDigest(layoutMetaBlock)));
+        assertThat(verificationRun.getProductsDigest(), is(VerificationResultCache.productsDigest(productsToVerify)));
+        assertThat(verificationRun.getLinkSignatures(), contains(SIGNATURE));
+        assertThat(verificationRun.getLastStepLinkId(), nullValue());
+        assertThat(verificationRun.isRunIsValid(), is(true));
+        assertThat(verificationRun.isReverified(), is(false));
+        assertThat(verificationRun.getTimings(), hasKey(VerificationRunService.PHASE_VERIFY));
+        assertThat(verificationRun.getTimings(), hasKey(VerificationRunService.PHASE_TOTAL));
+    }
+
+    @Test
+    void verifyRunWithIncludeArchivedShouldVerifyArchivedLinks() {
+        VerificationRunResult result = validResult();
+        when(verificationProvider.verifyRun(layoutMetaBlock, productsToVerify, true)).thenReturn(result);
+        assertThat(verificationRunService.verifyRun(layoutMetaBlock, productsToVerify, false, true), sameInstance(result));
+    }
+
+    @Test
+    void verifyRunWithReverifyShouldVerifyLinksOfLastValidRun() {
+        VerificationRunResult result = validResult();
+        mockLastStepLinkId();
+        when(verificationRunRepository.findLastValidRun(SUPPLY_CHAIN_ID, VerificationResultCache.layoutDigest(layoutMetaBlock),
+                VerificationResultCache.productsDigest(productsToVerify))).thenReturn(Optional.of(previousRun(LINK_ID)));
+        when(linkMetaBlockRepository.findBySupplyChainAndSignatures(SUPPLY_CHAIN_ID, List.of(SIGNATURE))).thenReturn(List.of(linkMetaBlock));
+        when(compiledLayoutCache.getCompiledLayout(layoutMetaBlock)).thenReturn(compiledLayout);
+        when(verificationProvider.verifyLinkMetaBlocks(layoutMetaBlock, compiledLayout, List.of(linkMetaBlock))).thenReturn(result);
+        assertThat(verificationRunService.verifyRun(layoutMetaBlock, productsToVerify, true, false), sameInstance(result));
+        verify(verificationProvider, never()).verifyRun(any(), any(), anyBoolean());
+
+        VerificationRun verificationRun = getSavedRun();
+        assertThat(verificationRun.isReverified(), is(true));
+        assertThat(verificationRun.getLastStepLinkId(), is(LINK_ID));
+        assertThat(verificationRun.getTimings(), hasKey(VerificationRunService.PHASE_REVERIFY));
+    }
+
+    @Test
+    void verifyRunWithReverifyAndNewLinksShouldVerify() {
+        VerificationRunResult result = validResult();
+        mockLastStepLinkId();
+        when(verificationRunRepository.findLastValidRun(any(), any(), any())).thenReturn(Optional.of(previousRun("otherLinkId")));
+        when(verificationProvider.verifyRun(layoutMetaBlock, productsToVerify, false)).thenReturn(result);
+        assertThat(verificationRunService.verifyRun(layoutMetaBlock, productsToVerify, true, false), sameInstance(result));
+        verify(linkMetaBlockRepository, never()).findBySupplyChainAndSignatures(any(), any());
+        assertThat(getSavedRun().isReverified(), is(false));
+    }
+
+    @Test
+    void verifyRunWithReverifyWithoutStepLinksShouldVerify() {
+        VerificationRunResult result = validResult();
+        when(linkMetaBlockRepository.findLastLinkIdBySupplyChainAndSteps(SUPPLY_CHAIN_ID, Map.of("segment", Set.of("step")))).thenReturn(Optional.empty());
+        when(verificationRunRepository.findLastValidRun(any(), any(), any())).thenReturn(Optional.of(previousRun(null)));
+        when(verificationProvider.verifyRun(layoutMetaBlock, productsToVerify, false)).thenReturn(result);
+        assertThat(verificationRunService.verifyRun(layoutMetaBlock, productsToVerify, true, false), sameInstance(result));
+        verify(linkMetaBlockRepository, never()).findBySupplyChainAndSignatures(any(), any());
+    }
+
+    @Test
+    void verifyRunWithReverifyAndRemovedLinksShouldVerify() {
+        VerificationRunResult result = validResult();
+        mockLastStepLinkId();
+        when(verificationRunRepository.findLastValidRun(any(), any(), any())).thenReturn(Optional.of(previousRun(LINK_ID)));
+        when(linkMetaBlockRepository.findBySupplyChainAndSignatures(SUPPLY_CHAIN_ID, List.of(SIGNATURE))).thenReturn(List.of());
+        when(verificationProvider.verifyRun(layoutMetaBlock, productsToVerify, false)).thenReturn(result);
+        assertThat(verificationRunService.verifyRun(layoutMetaBlock, productsToVerify, true, false), sameInstance(result));
+        verify(verificationProvider, never()).verifyLinkMetaBlocks(any(), any(), any());
+    }
+
+    @Test
+    void verifyRunWithReverifyAndInvalidLinksShouldVerify() {
+        VerificationRunResult result = validResult();
+        mockLastStepLinkId();
+        when(verificationRunRepository.findLastValidRun(any(), any(), any())).thenReturn(Optional.of(previousRun(LINK_ID)));
+        when(linkMetaBlockRepository.findBySupplyChainAndSignatures(SUPPLY_CHAIN_ID, List.of(SIGNATURE))).thenReturn(List.of(linkMetaBlock));
+        when(compiledLayoutCache.getCompiledLayout(layoutMetaBlock)).thenReturn(compiledLayout);
+        when(verificationProvider.verifyLinkMetaBlocks(layoutMetaBlock, compiledLayout, List.of(linkMetaBlock))).thenReturn(VerificationRunResult.valid(false));
+        when(verificationProvider.verifyRun(layoutMetaBlock, productsToVerify, false)).thenReturn(result);
+        assertThat(verificationRunService.verifyRun(layoutMetaBlock, productsToVerify, true, false), sameInstance(result));
+        assertThat(getSavedRun().isReverified(), is(false));
+    }
+
+    @Test
+    void verifyRunWithReverifyAndInvalidLayoutShouldVerify() {
+        VerificationRunResult result = VerificationRunResult.valid(false);
+        mockLastStepLinkId();
+        when(verificationRunRepository.findLastValidRun(any(), any(), any())).thenReturn(Optional.of(previousRun(LINK_ID)));
+        when(linkMetaBlockRepository.findBySupplyChainAndSignatures(SUPPLY_CHAIN_ID, List.of(SIGNATURE))).thenReturn(List.of(linkMetaBlock));
+        when(compiledLayoutCache.getCompiledLayout(layoutMetaBlock)).thenThrow(new ArgosError("invalid layout"));
+        when(verificationProvider.verifyRun(layoutMetaBlock, productsToVerify, false)).thenReturn(result);
+        assertThat(verificationRunService.verifyRun(layoutMetaBlock, productsToVerify, true, false), sameInstance(result));
+        VerificationRun verificationRun = getSavedRun();
+        assertThat(verificationRun.isRunIsValid(), is(false));
+        assertThat(verificationRun.getLinkSignatures(), is(List.of()));
+    }
+
+    private void mockLastStepLinkId() {
+        when(linkMetaBlockRepository.findLastLinkIdBySupplyChainAndSteps(SUPPLY_CHAIN_ID, Map.of("segment", Set.of("step")))).thenReturn(Optional.of(LINK_ID));
+    }
+
+    private VerificationRunResult validResult() {
+        return VerificationRunResult.builder().runIsValid(true).linkMetaBlocks(List.of(linkMetaBlock)).build();
+    }
+
+    private static VerificationRun previousRun(String lastStepLinkId) {
+        return VerificationRun.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .linkSignatures(List.of(SIGNATURE))
+                .lastStepLinkId(lastStepLinkId)
+                .runIsValid(true)
+                .build();
+    }
+
+    private VerificationRun getSavedRun() {
+        verify(verificationRunRepository).save(verificationRunArgumentCaptor.capture());
+        return verificationRunArgumentCaptor.getValue();
+    }
+}
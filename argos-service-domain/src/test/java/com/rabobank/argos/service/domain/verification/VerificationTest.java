@@ -19,6 +19,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.EnumMap;
@@ -125,7 +126,7 @@ class VerificationTest {
                 new ExpectedCommandVerification(),
                 new LayoutAuthorizedKeyIdVerification(),
                 new LayoutMetaBlockSignatureVerification(new SignatureValidator()),
-                new LinkMetaBlockSignatureVerification(new SignatureValidator()),
+                new LinkMetaBlockSignatureVerification(new LinkSignatureValidationCache(new SignatureValidator(), 100)),
                 new RequiredNumberOfLinksVerification(),
                 rulesVerification,
                 new StepAuthorizedKeyIdVerification()
@@ -137,10 +138,11 @@ class VerificationTest {
                 new DisallowRuleVerification(),
                 new MatchRuleVerification(),
                 new ModifyRuleVerification(),
-                new RequireRuleVerification()));
+                new RequireRuleVerification()),
+                new CompiledLayoutCache(100, Duration.ofHours(1)));
         verificationContextsProvider.init();
         verifications.sort(Comparator.comparing(Verification::getPriority));
-        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider);
+        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, 1, 1, Duration.ofMinutes(1));
         verificationProvider.init();
     
         segment1Step1LinkBuilder = Link.builder()
@@ -202,7 +204,7 @@ class VerificationTest {
 
         when(linkMetaBlockRepository.findByRunId(SUPPLYCHAIN_ID, SEGMENT1, "runId1", Set.of("step1"))).thenReturn(List.of());
         
-        VerificationRunResult result = verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact1));
+        VerificationRunResult result = verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact1), false);
         assertTrue(result.isRunIsValid());        
     }
     
@@ -272,7 +274,7 @@ class VerificationTest {
 
         when(linkMetaBlockRepository.findByRunId(SUPPLYCHAIN_ID, SEGMENT1, "runId1", Set.of("step1"))).thenReturn(List.of());
         
-        VerificationRunResult result = verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact5));
+        VerificationRunResult result = verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact5), false);
         assertTrue(result.isRunIsValid());        
     }
     
@@ -369,7 +371,7 @@ class VerificationTest {
         when(linkMetaBlockRepository.findByRunId(SUPPLYCHAIN_ID, SEGMENT1, "runId1", Set.of("step1"))).thenReturn(List.of());
         when(linkMetaBlockRepository.findByRunId(SUPPLYCHAIN_ID, SEGMENT2, "runId2", Set.of("step1"))).thenReturn(List.of());
         
-        VerificationRunResult result = verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact1));
+        VerificationRunResult result = verificationProvider.verifyRun(layoutMetaBlock, List.of(artifact1), false);
         assertTrue(result.isRunIsValid());        
     }
 
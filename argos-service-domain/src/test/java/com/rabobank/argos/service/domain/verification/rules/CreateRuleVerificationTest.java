@@ -18,6 +18,7 @@ package com.rabobank.argos.service.domain.verification.rules;
 import com.rabobank.argos.domain.layout.rule.Rule;
 import com.rabobank.argos.domain.layout.rule.RuleType;
 import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.service.domain.verification.ArtifactIndex;
 import com.rabobank.argos.service.domain.verification.ArtifactsVerificationContext;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -63,8 +64,8 @@ class CreateRuleVerificationTest {
     @Test
     void verifyExpectedArtifacts() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of());
-        when(context.getProducts()).thenReturn(Set.of(artifact));
+        when(context.getMaterials()).thenReturn(ArtifactIndex.of(Set.of()));
+        when(context.getProducts()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
         assertThat(verification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of(artifact));
     }
@@ -72,8 +73,8 @@ class CreateRuleVerificationTest {
     @Test
     void verifyExpectedProductsArtifactInMaterials() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of());
-        when(context.getProducts()).thenReturn(Set.of());
+        when(context.getMaterials()).thenReturn(ArtifactIndex.of(Set.of()));
+        when(context.getProducts()).thenReturn(ArtifactIndex.of(Set.of()));
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
     }
@@ -88,8 +89,8 @@ class CreateRuleVerificationTest {
     @Test
     void verifyExpectedMaterialsIsNotValid() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of(artifact));
+        when(context.getMaterials()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
+        when(context.getProducts()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(Set.of(artifact));
     }
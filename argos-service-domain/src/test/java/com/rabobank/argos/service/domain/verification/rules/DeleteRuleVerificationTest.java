@@ -18,6 +18,7 @@ package com.rabobank.argos.service.domain.verification.rules;
 import com.rabobank.argos.domain.layout.rule.Rule;
 import com.rabobank.argos.domain.layout.rule.RuleType;
 import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.service.domain.verification.ArtifactIndex;
 import com.rabobank.argos.service.domain.verification.ArtifactsVerificationContext;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -62,8 +63,8 @@ class DeleteRuleVerificationTest {
     @Test
     void verifyArtifacts() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of());
+        when(context.getMaterials()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
+        when(context.getProducts()).thenReturn(ArtifactIndex.of(Set.of()));
         assertThat(deleteRuleVerification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of(artifact));
     }
@@ -79,8 +80,8 @@ class DeleteRuleVerificationTest {
     @Test
     void verifyWithNonDeletedArtifactsShouldProduceInvalid() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of(artifact));
+        when(context.getMaterials()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
+        when(context.getProducts()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
         assertThat(deleteRuleVerification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
     }
@@ -89,8 +90,8 @@ class DeleteRuleVerificationTest {
     @Test
     void verifyOnProductsShouldProduceInvalid() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of());
-        when(context.getMaterials()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of());
+        when(context.getMaterials()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
+        when(context.getProducts()).thenReturn(ArtifactIndex.of(Set.of()));
         assertThat(deleteRuleVerification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of());
     }
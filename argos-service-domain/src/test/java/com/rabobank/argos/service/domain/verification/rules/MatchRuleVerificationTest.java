@@ -21,6 +21,7 @@ import com.rabobank.argos.domain.layout.rule.RuleType;
 import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.Link;
 import com.rabobank.argos.service.domain.verification.ArtifactsVerificationContext;
+import com.rabobank.argos.service.domain.verification.LinkArtifacts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -99,6 +100,8 @@ class MatchRuleVerificationTest {
         when(context.getSegmentName()).thenReturn(SRC_SEGMENT_NAME);
         
         when(context.getLinkBySegmentNameAndStepName(SRC_SEGMENT_NAME, DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
+        
+        when(context.getLinkArtifacts(destinationLink)).thenAnswer(invocation -> LinkArtifacts.of(destinationLink));
         when(destinationLink.getMaterials()).thenReturn(List.of(artifactWithoutPrfx));
         assertThat(verification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of(artifactWithoutPrfx));
@@ -112,6 +115,8 @@ class MatchRuleVerificationTest {
         when(context.getSegmentName()).thenReturn(SRC_SEGMENT_NAME);
         
         when(context.getLinkBySegmentNameAndStepName(SRC_SEGMENT_NAME, DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
+        
+        when(context.getLinkArtifacts(destinationLink)).thenAnswer(invocation -> LinkArtifacts.of(destinationLink));
         when(destinationLink.getMaterials()).thenReturn(List.of(artifactWithoutPrfx));
 
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(sourceArtifactWithPrfx));
@@ -135,6 +140,8 @@ class MatchRuleVerificationTest {
         when(context.getSegmentName()).thenReturn(SRC_SEGMENT_NAME);
         
         when(context.getLinkBySegmentNameAndStepName(SRC_SEGMENT_NAME, DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
+        
+        when(context.getLinkArtifacts(destinationLink)).thenAnswer(invocation -> LinkArtifacts.of(destinationLink));
         when(destinationLink.getProducts()).thenReturn(List.of(artifactWithoutPrfx));
         assertThat(verification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of(artifactWithoutPrfx));
@@ -147,6 +154,7 @@ class MatchRuleVerificationTest {
         when(context.getRule()).thenReturn(matchRule);
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(artifactWithoutPrfx));
         when(context.getLinkBySegmentNameAndStepName(DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
+        when(context.getLinkArtifacts(destinationLink)).thenAnswer(invocation -> LinkArtifacts.of(destinationLink));
         when(destinationLink.getMaterials()).thenReturn(List.of(artifactWithoutPrfx));
         
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(artifactWithoutPrfx));
@@ -160,6 +168,7 @@ class MatchRuleVerificationTest {
         MatchRule matchRule = new MatchRule(URI, null, ArtifactType.MATERIALS, null, DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME);
         when(context.getRule()).thenReturn(matchRule);
         when(context.getLinkBySegmentNameAndStepName(DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
+        when(context.getLinkArtifacts(destinationLink)).thenAnswer(invocation -> LinkArtifacts.of(destinationLink));
         when(destinationLink.getMaterials()).thenReturn(List.of(artifactWithoutPrfx));
         
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of());
@@ -173,6 +182,7 @@ class MatchRuleVerificationTest {
         MatchRule matchRule = new MatchRule(URI, SRC_PATH_PREFIX, ArtifactType.MATERIALS, null, DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME);
         when(context.getRule()).thenReturn(matchRule);
         when(context.getLinkBySegmentNameAndStepName(DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
+        when(context.getLinkArtifacts(destinationLink)).thenAnswer(invocation -> LinkArtifacts.of(destinationLink));
         when(destinationLink.getMaterials()).thenReturn(List.of(artifactWithoutPrfx));
         
         when(context.getFilteredArtifacts(SRC_PATH_PREFIX)).thenReturn(Set.of(sourceArtifactWithPrfx));
@@ -186,6 +196,7 @@ class MatchRuleVerificationTest {
         MatchRule matchRule = new MatchRule(URI, SRC_PATH_PREFIX, ArtifactType.MATERIALS, null, DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME);
         when(context.getRule()).thenReturn(matchRule);
         when(context.getLinkBySegmentNameAndStepName(DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
+        when(context.getLinkArtifacts(destinationLink)).thenAnswer(invocation -> LinkArtifacts.of(destinationLink));
         
         when(context.getFilteredArtifacts(SRC_PATH_PREFIX)).thenReturn(Set.of(sourceArtifactWithPrfx));
         
@@ -200,6 +211,7 @@ class MatchRuleVerificationTest {
         MatchRule matchRule = new MatchRule(URI, null, ArtifactType.MATERIALS, DESTINATION_PATH_PREFIX, DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME);
         when(context.getRule()).thenReturn(matchRule);
         when(context.getLinkBySegmentNameAndStepName(DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
+        when(context.getLinkArtifacts(destinationLink)).thenAnswer(invocation -> LinkArtifacts.of(destinationLink));
         when(destinationLink.getMaterials()).thenReturn(List.of(destinationArtifactWithPrfx));
         
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(artifactWithoutPrfx));
@@ -213,6 +225,7 @@ class MatchRuleVerificationTest {
         MatchRule matchRule = new MatchRule(URI, null, ArtifactType.MATERIALS, DESTINATION_PATH_PREFIX, DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME);
         when(context.getRule()).thenReturn(matchRule);
         when(context.getLinkBySegmentNameAndStepName(DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
+        when(context.getLinkArtifacts(destinationLink)).thenAnswer(invocation -> LinkArtifacts.of(destinationLink));
         
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(artifactWithoutPrfx));
         
@@ -227,6 +240,7 @@ class MatchRuleVerificationTest {
         MatchRule matchRule = new MatchRule(URI, SRC_PATH_PREFIX, ArtifactType.MATERIALS, DESTINATION_PATH_PREFIX, DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME);
         when(context.getRule()).thenReturn(matchRule);
         when(context.getLinkBySegmentNameAndStepName(DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
+        when(context.getLinkArtifacts(destinationLink)).thenAnswer(invocation -> LinkArtifacts.of(destinationLink));
         when(destinationLink.getMaterials()).thenReturn(List.of(destinationArtifactWithPrfx));
         
         when(context.getFilteredArtifacts(SRC_PATH_PREFIX)).thenReturn(Set.of(sourceArtifactWithPrfx));
@@ -241,6 +255,7 @@ class MatchRuleVerificationTest {
         MatchRule matchRule = new MatchRule(URI, SRC_PATH_PREFIX, ArtifactType.MATERIALS, DESTINATION_PATH_PREFIX, DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME);
         when(context.getRule()).thenReturn(matchRule);
         when(context.getLinkBySegmentNameAndStepName(DESTINATION_SEGMENT_NAME, DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
+        when(context.getLinkArtifacts(destinationLink)).thenAnswer(invocation -> LinkArtifacts.of(destinationLink));
         
         when(context.getFilteredArtifacts(SRC_PATH_PREFIX)).thenReturn(Set.of(sourceArtifactWithPrfx));
         
@@ -259,6 +274,8 @@ class MatchRuleVerificationTest {
         when(context.getSegmentName()).thenReturn(SRC_SEGMENT_NAME);
         
         when(context.getLinkBySegmentNameAndStepName(SRC_SEGMENT_NAME, DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
+        
+        when(context.getLinkArtifacts(destinationLink)).thenAnswer(invocation -> LinkArtifacts.of(destinationLink));
         when(destinationLink.getMaterials()).thenReturn(List.of(destinationOtherHash));
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
@@ -18,6 +18,7 @@ package com.rabobank.argos.service.domain.verification.rules;
 import com.rabobank.argos.domain.layout.rule.Rule;
 import com.rabobank.argos.domain.layout.rule.RuleType;
 import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.service.domain.verification.ArtifactIndex;
 import com.rabobank.argos.service.domain.verification.ArtifactsVerificationContext;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -70,8 +71,8 @@ class ModifyRuleVerificationTest {
     void verifyArtifactsHappyFlow() {
 
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of(artifact2,productArtifact));
-        when(context.getMaterials()).thenReturn(Set.of(artifact3, materialArtifact));
+        when(context.getProducts()).thenReturn(ArtifactIndex.of(Set.of(artifact2,productArtifact)));
+        when(context.getMaterials()).thenReturn(ArtifactIndex.of(Set.of(artifact3, materialArtifact)));
 
         assertThat(verification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of(artifact));
@@ -81,8 +82,8 @@ class ModifyRuleVerificationTest {
     void verifyArtifactsNotModified() {
 
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of(productArtifact));
-        when(context.getMaterials()).thenReturn(Set.of(productArtifact));
+        when(context.getProducts()).thenReturn(ArtifactIndex.of(Set.of(productArtifact)));
+        when(context.getMaterials()).thenReturn(ArtifactIndex.of(Set.of(productArtifact)));
 
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
@@ -98,8 +99,8 @@ class ModifyRuleVerificationTest {
     @Test
     void verifyArtifactsNoMaterialMatch() {
 
-        when(context.getProducts()).thenReturn(Set.of(productArtifact));
-        when(context.getMaterials()).thenReturn(Set.of());
+        when(context.getProducts()).thenReturn(ArtifactIndex.of(Set.of(productArtifact)));
+        when(context.getMaterials()).thenReturn(ArtifactIndex.of(Set.of()));
 
         when(context.getFilteredArtifacts()).thenReturn(Set.of(productArtifact));
 
@@ -18,9 +18,11 @@ package com.rabobank.argos.service;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableAspectJAutoProxy
+@EnableScheduling
 public class ArgosServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(ArgosServiceApplication.class, args);
@@ -19,6 +19,7 @@ import com.rabobank.argos.service.security.oauth2.CustomOAuth2UserService;
 import com.rabobank.argos.service.security.oauth2.HttpCookieOAuth2AuthorizationRequestRepository;
 import com.rabobank.argos.service.security.oauth2.OAuth2AuthenticationFailureHandler;
 import com.rabobank.argos.service.security.oauth2.OAuth2AuthenticationSuccessHandler;
+import com.rabobank.argos.service.domain.account.ServiceAccountCredentialsCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -61,6 +62,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     private final ServiceAccountUserDetailsService serviceAccountUserDetailsService;
 
+    private final ServiceAccountCredentialsCache serviceAccountCredentialsCache;
+
     private TokenAuthenticationFilter tokenAuthenticationFilter() {
         return new TokenAuthenticationFilter(tokenProvider);
     }
@@ -102,7 +105,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.authenticationProvider(new PersonalAccountAuthenticationProvider(personalAccountUserDetailsService, logContextHelper()));
-        http.authenticationProvider(new ServiceAccountAuthenticationProvider(serviceAccountUserDetailsService, passwordEncoder(), logContextHelper()));
+        http.authenticationProvider(new ServiceAccountAuthenticationProvider(serviceAccountUserDetailsService, passwordEncoder(), logContextHelper(), serviceAccountCredentialsCache));
         http
                 .cors()
                 .and()
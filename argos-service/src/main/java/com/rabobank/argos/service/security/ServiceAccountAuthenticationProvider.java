@@ -16,6 +16,7 @@
 package com.rabobank.argos.service.security;
 
 import com.rabobank.argos.domain.account.ServiceAccountKeyPair;
+import com.rabobank.argos.service.domain.account.ServiceAccountCredentialsCache;
 import com.rabobank.argos.service.domain.security.AccountUserDetailsAdapter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +33,7 @@ public class ServiceAccountAuthenticationProvider implements AuthenticationProvi
     private final ServiceAccountUserDetailsService serviceAccountUserDetailsService;
     private final PasswordEncoder passwordEncoder;
     private final LogContextHelper logContextHelper;
+    private final ServiceAccountCredentialsCache serviceAccountCredentialsCache;
 
     @Override
     public Authentication authenticate(Authentication notAuthenticatedServiceAccount) {
@@ -42,7 +44,8 @@ public class ServiceAccountAuthenticationProvider implements AuthenticationProvi
             log.debug("successfully found service account by key id {}", userDetails.getUsername());
             String password = serviceAccountAuthenticationToken.getServiceAccountCredentials().getPassword();
             ServiceAccountKeyPair serviceAccountKeyPair = (ServiceAccountKeyPair) userDetails.getAccount().getActiveKeyPair();
-            if (passwordEncoder.matches(password, serviceAccountKeyPair.getEncryptedHashedKeyPassphrase())) {
+            if (serviceAccountCredentialsCache.matches(serviceAccountKeyPair.getKeyId(), password,
+                    serviceAccountKeyPair.getEncryptedHashedKeyPassphrase(), passwordEncoder)) {
                 log.debug("successfully authenticated service account {}", userDetails.getUsername());
                 logContextHelper.addAccountInfoToLogContext(userDetails);
                 return new ServiceAccountAuthenticationToken(serviceAccountAuthenticationToken.getServiceAccountCredentials(),
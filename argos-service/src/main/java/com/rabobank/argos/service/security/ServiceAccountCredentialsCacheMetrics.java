@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.security;
+
+import com.rabobank.argos.service.domain.account.ServiceAccountCredentialsCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ServiceAccountCredentialsCacheMetrics implements MeterBinder {
+
+    static final String AVOIDED_PASSWORD_CHECKS = "argos.service.account.password.checks.avoided";
+
+    private final ServiceAccountCredentialsCache serviceAccountCredentialsCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(AVOIDED_PASSWORD_CHECKS, serviceAccountCredentialsCache, ServiceAccountCredentialsCache::getAvoidedPasswordChecks)
+                .description("service account authentications that did not need a password encoder check")
+                .register(registry);
+    }
+}
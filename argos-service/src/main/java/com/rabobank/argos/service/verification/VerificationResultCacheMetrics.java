@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.rabobank.argos.service.verification;
+
+import com.rabobank.argos.service.domain.verification.VerificationResultCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class VerificationResultCacheMetrics implements MeterBinder {
+
+    static final String CACHE_HITS = "argos.verification.result.cache.hits";
+    static final String CACHE_MISSES = "argos.verification.result.cache.misses";
+
+    private final VerificationResultCache verificationResultCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(CACHE_HITS, verificationResultCache, VerificationResultCache::getHitCount)
+                .description("verifications answered from the verification result cache")
+                .register(registry);
+        FunctionCounter.builder(CACHE_MISSES, verificationResultCache, VerificationResultCache::getMissCount)
+                .description("verifications that were not in the verification result cache")
+                .register(registry);
+    }
+}
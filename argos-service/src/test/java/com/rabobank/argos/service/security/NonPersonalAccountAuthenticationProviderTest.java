@@ -18,6 +18,7 @@ package com.rabobank.argos.service.security;
 import com.rabobank.argos.domain.ArgosError;
 import com.rabobank.argos.domain.account.ServiceAccount;
 import com.rabobank.argos.domain.account.ServiceAccountKeyPair;
+import com.rabobank.argos.service.domain.account.ServiceAccountCredentialsCache;
 import com.rabobank.argos.service.domain.security.AccountUserDetailsAdapter;
 import com.rabobank.argos.service.security.ServiceAccountAuthenticationToken.ServiceAccountCredentials;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,11 +31,14 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -67,7 +71,8 @@ class ServiceAccountAuthenticationProviderTest {
                 .password(PASSWORD)
                 .build();
         authentication = new ServiceAccountAuthenticationToken(credentials, null);
-        serviceAccountAuthenticationProvider = new ServiceAccountAuthenticationProvider(serviceAccountUserDetailsService, passwordEncoder, logContextHelper);
+        serviceAccountAuthenticationProvider = new ServiceAccountAuthenticationProvider(serviceAccountUserDetailsService, passwordEncoder, logContextHelper,
+                new ServiceAccountCredentialsCache(100, Duration.ofMinutes(5)));
     }
 
     @Test
@@ -81,6 +86,16 @@ class ServiceAccountAuthenticationProviderTest {
 
     }
 
+    @Test
+    void authenticateTwiceShouldCheckPasswordOnce() {
+        when(serviceAccountUserDetailsService.loadUserById(eq(KEYID))).thenReturn(userDetails);
+        when(passwordEncoder.matches(eq(PASSWORD), eq(ENCRYPTEDPASSWORD))).thenReturn(true);
+        serviceAccountAuthenticationProvider.authenticate(authentication);
+        Authentication authenticatedAccount = serviceAccountAuthenticationProvider.authenticate(authentication);
+        assertThat(authenticatedAccount.isAuthenticated(), is(true));
+        verify(passwordEncoder, times(1)).matches(PASSWORD, ENCRYPTEDPASSWORD);
+    }
+
     private void assertLogContextSet() {
         assertThat(MDC.get("accountId"), is(userDetails.getAccount().getAccountId()));
         assertThat(MDC.get("accountName"), is(userDetails.getAccount().getName()));
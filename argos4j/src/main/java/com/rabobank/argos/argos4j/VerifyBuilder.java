@@ -19,5 +19,10 @@ public interface VerifyBuilder {
 
     VerifyBuilder addFileCollector(FileCollector collector);
 
+    /**
+     * stream the collected artifacts to the service as ndjson, for very large product lists
+     */
+    VerifyBuilder streaming(boolean streaming);
+
     VerificationResult verify(char[] keyPassphrase);
 }
@@ -19,6 +19,9 @@ import com.rabobank.argos.argos4j.Argos4jError;
 import com.rabobank.argos.argos4j.rest.api.model.RestServiceAccountKeyPair;
 import com.rabobank.argos.domain.ArgosError;
 import com.rabobank.argos.domain.Signature;
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.signing.JsonSigningSerializer;
+import com.rabobank.argos.domain.signing.SignatureOutputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.binary.Hex;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
@@ -35,6 +38,7 @@ import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.PrivateKey;
 import java.security.Security;
+import java.security.SignatureException;
 
 @Slf4j
 public class Argos4JSigner {
@@ -44,16 +48,24 @@ public class Argos4JSigner {
     }
 
     public Signature sign(RestServiceAccountKeyPair keyPair, char[] keyPassphrase, String jsonRepresentation) {
+        return sign(keyPair, keyPassphrase, privateSignature -> privateSignature.update(jsonRepresentation.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public Signature sign(RestServiceAccountKeyPair keyPair, char[] keyPassphrase, Link link) {
+        return sign(keyPair, keyPassphrase, privateSignature -> new JsonSigningSerializer().serialize(link, new SignatureOutputStream(privateSignature)));
+    }
+
+    private Signature sign(RestServiceAccountKeyPair keyPair, char[] keyPassphrase, SignableWriter signableWriter) {
         return Signature.builder().keyId(keyPair.getKeyId())
-                .signature(createSignature(decryptPrivateKey(keyPair.getEncryptedPrivateKey(), keyPassphrase), jsonRepresentation))
+                .signature(createSignature(decryptPrivateKey(keyPair.getEncryptedPrivateKey(), keyPassphrase), signableWriter))
                 .build();
     }
 
-    private static String createSignature(PrivateKey privateKey, String jsonRepr) {
+    private static String createSignature(PrivateKey privateKey, SignableWriter signableWriter) {
         try {
             java.security.Signature privateSignature = java.security.Signature.getInstance("SHA256withRSA");
             privateSignature.initSign(privateKey);
-            privateSignature.update(jsonRepr.getBytes(StandardCharsets.UTF_8));
+            signableWriter.write(privateSignature);
             return Hex.encodeHexString(privateSignature.sign());
         } catch (GeneralSecurityException e) {
             throw new Argos4jError(e.getMessage(), e);
@@ -71,4 +83,9 @@ public class Argos4JSigner {
             throw new ArgosError(e.getMessage(), e);
         }
     }
+
+    @FunctionalInterface
+    private interface SignableWriter {
+        void write(java.security.Signature privateSignature) throws SignatureException;
+    }
 }
@@ -29,6 +29,7 @@ import com.rabobank.argos.argos4j.rest.api.client.VerificationApi;
 import com.rabobank.argos.argos4j.rest.api.model.RestArtifact;
 import com.rabobank.argos.argos4j.rest.api.model.RestLinkMetaBlock;
 import com.rabobank.argos.argos4j.rest.api.model.RestServiceAccountKeyPair;
+import com.rabobank.argos.argos4j.rest.api.model.RestVerificationResult;
 import com.rabobank.argos.argos4j.rest.api.model.RestVerifyCommand;
 import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.LinkMetaBlock;
@@ -36,22 +37,38 @@ import feign.FeignException;
 import org.bouncycastle.util.encoders.Hex;
 import org.mapstruct.factory.Mappers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.List;
 
 
 public class ArgosServiceClient {
 
+    private static final byte NEW_LINE = '\n';
+    private static final int CHUNK_SIZE = 64 * 1024;
+
     private final Argos4jSettings settings;
+    private final String password;
     private final ApiClient apiClient;
 
     public ArgosServiceClient(Argos4jSettings settings, char[] signingKeyPassphrase) {
         this.settings = settings;
-        apiClient = new ApiClient("basicAuth").setBasePath(settings.getArgosServerBaseUrl());
+        password = calculatePassphrase(settings.getSigningKeyId(), new String(signingKeyPassphrase));
+        apiClient = createApiClient();
+    }
 
-        apiClient.setCredentials(settings.getSigningKeyId(), calculatePassphrase(settings.getSigningKeyId(), new String(signingKeyPassphrase)));
-        apiClient.getObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private ApiClient createApiClient() {
+        ApiClient client = new ApiClient("basicAuth").setBasePath(settings.getArgosServerBaseUrl());
+        client.setCredentials(settings.getSigningKeyId(), password);
+        client.getObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        return client;
     }
 
     public void uploadLinkMetaBlockToService(LinkMetaBlock linkMetaBlock) {
@@ -74,6 +91,57 @@ public class ArgosServiceClient {
         }
     }
 
+    /**
+     * Sends the artifacts as ndjson, one artifact per line, instead of one json document.
+     *
+     * The request body is written to the connection in chunks while the artifacts are
+     * serialized, the feign client can only send a body that is complete in memory.
+     */
+    public VerificationResult verifyStreaming(List<Artifact> artifacts) {
+        String supplyChainId;
+        try {
+            supplyChainId = getSupplyChainId();
+        } catch (FeignException e) {
+            throw convertToArgos4jError(e);
+        }
+        try {
+            URL url = new URL(settings.getArgosServerBaseUrl() + "/supplychain/" + supplyChainId + "/verification/stream");
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            try {
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                connection.setChunkedStreamingMode(CHUNK_SIZE);
+                connection.setRequestProperty("Content-Type", "application/x-ndjson");
+                connection.setRequestProperty("Accept", "application/json");
+                connection.setRequestProperty("Authorization", "Basic " + Base64.getEncoder()
+                        .encodeToString((settings.getSigningKeyId() + ":" + password).getBytes(StandardCharsets.UTF_8)));
+                try (OutputStream outputStream = connection.getOutputStream()) {
+                    writeNdjson(artifacts, outputStream);
+                }
+                int status = connection.getResponseCode();
+                if (status < 200 || status >= 300) {
+                    throw new Argos4jError("[" + status + " " + connection.getResponseMessage() + "] during [POST] to " + url);
+                }
+                try (InputStream inputStream = connection.getInputStream()) {
+                    RestVerificationResult restVerificationResult = apiClient.getObjectMapper().readValue(inputStream, RestVerificationResult.class);
+                    return VerificationResult.builder().runIsValid(restVerificationResult.getRunIsValid()).build();
+                }
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            throw new Argos4jError(e.getMessage(), e);
+        }
+    }
+
+    private void writeNdjson(List<Artifact> artifacts, OutputStream outputStream) throws IOException {
+        RestMapper restMapper = Mappers.getMapper(RestMapper.class);
+        for (Artifact artifact : artifacts) {
+            outputStream.write(apiClient.getObjectMapper().writeValueAsBytes(restMapper.convertToRestArtifact(artifact)));
+            outputStream.write(NEW_LINE);
+        }
+    }
+
     public RestServiceAccountKeyPair getKeyPair() {
         try {
             ServiceAccountApi keyApi = apiClient.buildClient(ServiceAccountApi.class);
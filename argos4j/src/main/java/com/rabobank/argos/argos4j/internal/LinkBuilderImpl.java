@@ -23,7 +23,6 @@ import com.rabobank.argos.domain.Signature;
 import com.rabobank.argos.domain.link.Artifact;
 import com.rabobank.argos.domain.link.Link;
 import com.rabobank.argos.domain.link.LinkMetaBlock;
-import com.rabobank.argos.domain.signing.JsonSigningSerializer;
 import lombok.RequiredArgsConstructor;
 
 import java.util.ArrayList;
@@ -57,7 +56,7 @@ public class LinkBuilderImpl implements LinkBuilder {
                 .layoutSegmentName(linkBuilderSettings.getLayoutSegmentName())
                 .stepName(linkBuilderSettings.getStepName()).build();
         ArgosServiceClient argosServiceClient = new ArgosServiceClient(settings, signingKeyPassphrase);
-        Signature signature = new Argos4JSigner().sign(argosServiceClient.getKeyPair(), signingKeyPassphrase, new JsonSigningSerializer().serialize(link));
+        Signature signature = new Argos4JSigner().sign(argosServiceClient.getKeyPair(), signingKeyPassphrase, link);
 
         argosServiceClient.uploadLinkMetaBlockToService(LinkMetaBlock.builder().link(link).signature(signature).build());
     }
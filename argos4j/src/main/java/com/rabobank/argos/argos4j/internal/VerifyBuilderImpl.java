@@ -34,17 +34,30 @@ public class VerifyBuilderImpl implements VerifyBuilder {
 
     private final ArtifactListBuilder artifactListBuilder;
 
+    private boolean streaming;
+
     @Override
     public VerifyBuilder addFileCollector(FileCollector collector) {
     	artifactListBuilder.addFileCollector(collector);
         return this;
     }
 
+    @Override
+    public VerifyBuilder streaming(boolean streaming) {
+        this.streaming = streaming;
+        return this;
+    }
+
     @Override
     public VerificationResult verify(char[] keyPassphrase) {
         List<Artifact> artifacts = artifactListBuilder.collect();
+        ArgosServiceClient argosServiceClient = new ArgosServiceClient(settings, keyPassphrase);
+        if (streaming) {
+            log.info("verify {} artifacts streaming", artifacts.size());
+            return argosServiceClient.verifyStreaming(artifacts);
+        }
         log.info("verify artifacts {}", artifacts);
-        return new ArgosServiceClient(settings, keyPassphrase).verify(artifacts);
+        return argosServiceClient.verify(artifacts);
     }
 
 }
@@ -32,4 +32,6 @@ public interface RestMapper {
     RestLinkMetaBlock convertToRestLinkMetaBlock(LinkMetaBlock metaBlock);
 
     List<RestArtifact> convertToRestArtifacts(List<Artifact> artifacts);
+
+    RestArtifact convertToRestArtifact(Artifact artifact);
 }
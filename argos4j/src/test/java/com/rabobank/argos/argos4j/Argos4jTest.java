@@ -162,6 +162,23 @@ class Argos4jTest {
         assertThat(requests.get(1).getBodyAsString(), is("{\"expectedProducts\":[{\"uri\":\"text.txt\",\"hash\":\"cb6bdad36690e8024e7df13e6796ae6603f2cb9cf9f989c9ff939b2ecebdcb91\"}]}"));
     }
 
+    @Test
+    void verifyStreaming() {
+        wireMockServer.stubFor(get(urlEqualTo("/api/supplychain?name=supplyChainName&path=rootLabel&path=subLabel"))
+                .willReturn(ok().withBody("{\"name\":\"supplyChainName\",\"id\":\"supplyChainId\",\"parentLabelId\":\"parentLabelId\"}")));
+        wireMockServer.stubFor(post(urlEqualTo("/api/supplychain/supplyChainId/verification/stream"))
+                .willReturn(ok().withHeader("Content-Type", "application/json").withBody("{\"runIsValid\":true}")));
+
+        assertThat(verifyBuilder.addFileCollector(LocalFileCollector.builder().path(sharedTempDir.toPath()).basePath(sharedTempDir.toPath()).build())
+                .streaming(true)
+                .verify("test".toCharArray()).isRunIsValid(), is(true));
+
+        List<LoggedRequest> requests = wireMockServer.findRequestsMatching(RequestPattern.everything()).getRequests();
+        assertThat(requests, hasSize(2));
+        assertThat(requests.get(1).getHeader("Content-Type"), is("application/x-ndjson"));
+        assertThat(requests.get(1).getBodyAsString(), is("{\"uri\":\"text.txt\",\"hash\":\"cb6bdad36690e8024e7df13e6796ae6603f2cb9cf9f989c9ff939b2ecebdcb91\"}\n"));
+    }
+
     @Test
     void verifyNotUnauthorized() {
         wireMockServer.stubFor(get(urlEqualTo("/api/supplychain?name=supplyChainName&path=rootLabel&path=subLabel"))
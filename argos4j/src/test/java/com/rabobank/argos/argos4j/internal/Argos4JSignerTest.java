@@ -19,6 +19,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabobank.argos.argos4j.rest.api.model.RestServiceAccountKeyPair;
 import com.rabobank.argos.domain.Signature;
 import com.rabobank.argos.domain.key.RSAPublicKeyFactory;
+import com.rabobank.argos.domain.link.Artifact;
+import com.rabobank.argos.domain.link.Link;
+import com.rabobank.argos.domain.signing.SignatureValidator;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,6 +34,7 @@ import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.SignatureException;
+import java.util.Arrays;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
@@ -62,4 +66,16 @@ class Argos4JSignerTest {
 
         assertTrue(signatureValidator.verify(Hex.decodeHex(signature.getSignature())));
     }
+
+    @Test
+    void signLink() {
+        Link link = Link.builder().runId("runId").stepName("stepName")
+                .products(Arrays.asList(
+                        Artifact.builder().uri("b.jar").hash("hash1").build(),
+                        Artifact.builder().uri("a.jar").hash("hash2").build()))
+                .build();
+        Signature signature = signer.sign(pair, PASSWORD, link);
+        assertThat(signature.getKeyId(), is(pair.getKeyId()));
+        assertTrue(new SignatureValidator().isValid(link, signature.getSignature(), publicKey));
+    }
 }